@@ -0,0 +1,67 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Bank#findAccount(UUID)} and {@link CentralBank#findBankByName(String)}
+ * while the number of accounts in the bank grows; with hash indexes the cost must stay flat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AccountLookupBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int accounts;
+
+    private CentralBank centralBank;
+    private Bank bank;
+    private UUID[] accountIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        centralBank = BankFixture.centralBank();
+        bank = BankFixture.bank(centralBank, "Benchmark");
+        Clients client = BankFixture.client(centralBank, 1L);
+
+        accountIds = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = bank.createAccount(TypeOfBankAccount.DEBIT, client, BankFixture.PERIOD).getId();
+        }
+    }
+
+    @Benchmark
+    public Optional<BaseAccount> findAccount() {
+        UUID id = accountIds[cursor];
+        cursor = cursor + 1 == accountIds.length ? 0 : cursor + 1;
+        return bank.findAccount(id);
+    }
+
+    @Benchmark
+    public Bank findBankByName() throws Exception {
+        return centralBank.findBankByName("Benchmark");
+    }
+}
@@ -0,0 +1,93 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Service.ServiceAsyncCentralBank;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures batches of {@value #BATCH} transfers between neighbouring accounts of one bank, called one after
+ * another through {@link CentralBank#transferMoney} ({@code sync}) and submitted at once through
+ * {@link ServiceAsyncCentralBank#transferMoney} on four threads and joined ({@code async}). The difference
+ * is the cost of the mailboxes; with few accounts most transfers queue behind each other.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncCentralBankBenchmark {
+    private static final int BATCH = 1_000;
+
+    @Param({"16", "1024"})
+    private int accounts;
+
+    private ExecutorService executor;
+    private CentralBank centralBank;
+    private ServiceAsyncCentralBank asyncCentralBank;
+    private Bank bank;
+    private BaseAccount[] bankAccounts;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        centralBank = BankFixture.centralBank();
+        asyncCentralBank = new ServiceAsyncCentralBank(centralBank, executor);
+        bank = BankFixture.bank(centralBank, "Sberbank");
+        bankAccounts = BankFixture.accounts(bank, BankFixture.client(centralBank, 1L), TypeOfBankAccount.DEBIT, accounts);
+        for (BaseAccount account : bankAccounts) {
+            bank.income(account, 1_000_000_000);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public BankTransaction sync() throws Exception {
+        BankTransaction last = null;
+        for (int i = 0; i < BATCH; i++) {
+            BaseAccount from = bankAccounts[i % accounts];
+            BaseAccount to = bankAccounts[(i + 1) % accounts];
+            last = centralBank.transferMoney(bank.getId(), from.getId(), bank.getId(), to.getId(), 1);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object async() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            BaseAccount from = bankAccounts[i % accounts];
+            BaseAccount to = bankAccounts[(i + 1) % accounts];
+            futures[i] = asyncCentralBank.transferMoney(bank.getId(), from.getId(), bank.getId(), to.getId(), 1);
+        }
+        return CompletableFuture.allOf(futures).get();
+    }
+}
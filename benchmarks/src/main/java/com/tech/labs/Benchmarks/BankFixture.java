@@ -0,0 +1,48 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Models.Percent;
+import com.tech.labs.Service.ServiceCentralBank;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the central bank, banks, clients and accounts the benchmarks run against.
+ */
+final class BankFixture {
+    static final Duration PERIOD = Duration.ofDays(90);
+
+    private BankFixture() {
+    }
+
+    static CentralBank centralBank() {
+        return new ServiceCentralBank(new RewindClock(LocalDateTime.now(), new ArrayList<>()));
+    }
+
+    static Bank bank(CentralBank centralBank, String name) throws Exception {
+        List<DepositPercent> percents = new ArrayList<>();
+        percents.add(new DepositPercent(new Percent(3), 0));
+        return centralBank.createBank(name, 3, percents, 10, 200000, -1, PERIOD);
+    }
+
+    static Clients client(CentralBank centralBank, long passport) {
+        return centralBank.registerClient("Bench", "Client" + passport, "Address", passport);
+    }
+
+    static BaseAccount[] accounts(Bank bank, Clients client, TypeOfBankAccount type, int count) throws Exception {
+        BaseAccount[] accounts = new BaseAccount[count];
+        for (int i = 0; i < count; i++) {
+            accounts[i] = bank.createAccount(type, client, PERIOD);
+        }
+        return accounts;
+    }
+}
@@ -0,0 +1,81 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single-account operations: {@link Bank#income(UUID, long)}, {@link Bank#withdraw(UUID, long)}
+ * and the same operations through {@link CentralBank}, which adds the bank lookup.
+ * Accounts are rebuilt every iteration so ledger growth does not leak between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankOperationsBenchmark {
+    private static final int ACCOUNTS = 1024;
+
+    private CentralBank centralBank;
+    private Bank bank;
+    private UUID[] accountIds;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        centralBank = BankFixture.centralBank();
+        bank = BankFixture.bank(centralBank, "Benchmark");
+        Clients client = BankFixture.client(centralBank, 1L);
+
+        BaseAccount[] accounts = BankFixture.accounts(bank, client, TypeOfBankAccount.DEBIT, ACCOUNTS);
+        accountIds = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = accounts[i].getId();
+            bank.income(accountIds[i], Integer.MAX_VALUE / 2);
+        }
+    }
+
+    private UUID nextAccount() {
+        cursor = (cursor + 1) & (ACCOUNTS - 1);
+        return accountIds[cursor];
+    }
+
+    @Benchmark
+    public BankTransaction income() throws Exception {
+        return bank.income(nextAccount(), 1);
+    }
+
+    @Benchmark
+    public BankTransaction withdraw() throws Exception {
+        return bank.withdraw(nextAccount(), 1);
+    }
+
+    @Benchmark
+    public BankTransaction replenishAccount() throws Exception {
+        return centralBank.replenishAccount(bank.getId(), nextAccount(), 1);
+    }
+
+    @Benchmark
+    public BankTransaction withdrawMoney() throws Exception {
+        return centralBank.withdrawMoney(bank.getId(), nextAccount(), 1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.BankTransaction;
+import com.tech.labs.Transaction.BatchOperation;
+import com.tech.labs.Transaction.BatchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-operation cost of {@link CentralBank#submitBatch(List)} with calling
+ * {@link CentralBank#replenishAccount} once per operation for the same incomes.
+ * {@code invalidPercent} of the operations target an unknown account, as rejected rows do in real batches.
+ * Iterations are short because every committed transaction stays in its account ledger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class BatchSubmissionBenchmark {
+    private static final int BATCH = 1000;
+    private static final int ACCOUNTS = 64;
+
+    @Param({"0", "10"})
+    private int invalidPercent;
+
+    private CentralBank centralBank;
+    private List<BatchOperation> batch;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        centralBank = BankFixture.centralBank();
+        Bank bank = BankFixture.bank(centralBank, "Benchmark");
+        Clients client = BankFixture.client(centralBank, 1L);
+        BaseAccount[] accounts = BankFixture.accounts(bank, client, TypeOfBankAccount.DEBIT, ACCOUNTS);
+
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            UUID accountId = i % 100 < invalidPercent ? UUID.randomUUID() : accounts[i % ACCOUNTS].getId();
+            batch.add(BatchOperation.income(bank.getId(), accountId, 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public BatchResult submitBatch() {
+        return centralBank.submitBatch(batch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void replenishLoop(Blackhole blackhole) throws Exception {
+        for (BatchOperation operation : batch) {
+            try {
+                BankTransaction transaction = centralBank.replenishAccount(operation.getBankId(),
+                        operation.getAccountId(), operation.getAmount());
+                blackhole.consume(transaction);
+            } catch (AccountException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+}
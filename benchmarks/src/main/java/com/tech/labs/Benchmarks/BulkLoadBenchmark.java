@@ -0,0 +1,94 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.BulkLoad.BulkLoader;
+import com.tech.labs.BulkLoad.LoadReport;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Service.ServiceCentralBank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a CSV file of {@code rows} clients with one debit account each into an empty bank.
+ * {@code load} goes through {@link BulkLoader}; {@code oneByOne} reads the same file on one thread and calls
+ * {@link ServiceCentralBank#registerClient} and {@link Bank#createAccount} for every row, as an import without
+ * the loader would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BulkLoadBenchmark {
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private Path source;
+    private Path rejects;
+    private ServiceCentralBank centralBank;
+    private Bank bank;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws Exception {
+        source = Files.createTempFile("clients", ".csv");
+        rejects = Files.createTempFile("rejects", ".tsv");
+        try (BufferedWriter writer = Files.newBufferedWriter(source)) {
+            writer.write(BulkLoader.HEADER);
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                writer.write("Bench,Client" + i + ",Street " + i + "," + (1_000_000 + i) + ",DEBIT,");
+                writer.newLine();
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        centralBank = (ServiceCentralBank) BankFixture.centralBank();
+        bank = BankFixture.bank(centralBank, "Partner");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(rejects);
+    }
+
+    @Benchmark
+    public LoadReport load() throws Exception {
+        return new BulkLoader(centralBank).load(bank, source, rejects);
+    }
+
+    @Benchmark
+    public int oneByOne() throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(source)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                Clients client = centralBank.registerClient(fields[0], fields[1], fields[2], Long.valueOf(fields[3]));
+                bank.createAccount(TypeOfBankAccount.valueOf(fields[4]), client, BankFixture.PERIOD);
+            }
+        }
+        return bank.getAccountCount();
+    }
+}
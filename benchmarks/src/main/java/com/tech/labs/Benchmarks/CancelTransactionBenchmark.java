@@ -0,0 +1,73 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CentralBank#cancelTransaction}, with the bank and account of the transaction given and by its
+ * ID alone. A transaction can be cancelled once, so every iteration commits a fresh batch of incomes and the
+ * measurement cancels exactly that batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = CancelTransactionBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = CancelTransactionBenchmark.BATCH)
+@Fork(1)
+public class CancelTransactionBenchmark {
+    static final int BATCH = 100_000;
+    private static final int ACCOUNTS = 1024;
+
+    private CentralBank centralBank;
+    private Bank bank;
+    private BankTransaction[] transactions;
+    private BaseAccount[] owners;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        centralBank = BankFixture.centralBank();
+        bank = BankFixture.bank(centralBank, "Benchmark");
+        Clients client = BankFixture.client(centralBank, 1L);
+        BaseAccount[] accounts = BankFixture.accounts(bank, client, TypeOfBankAccount.DEBIT, ACCOUNTS);
+
+        transactions = new BankTransaction[BATCH];
+        owners = new BaseAccount[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            owners[i] = accounts[i & (ACCOUNTS - 1)];
+            transactions[i] = bank.income(owners[i].getId(), 10);
+        }
+        cursor = 0;
+    }
+
+    @Benchmark
+    public BankTransaction cancelTransaction() throws Exception {
+        int i = cursor++;
+        centralBank.cancelTransaction(bank.getId(), owners[i].getId(), transactions[i].getId());
+        return transactions[i];
+    }
+
+    @Benchmark
+    public BankTransaction cancelById() throws Exception {
+        int i = cursor++;
+        centralBank.cancelTransaction(transactions[i].getId());
+        return transactions[i];
+    }
+}
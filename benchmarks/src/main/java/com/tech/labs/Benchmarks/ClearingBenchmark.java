@@ -0,0 +1,90 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Clearing.ClearingHouse;
+import com.tech.labs.Clearing.ClearingReport;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Service.ServiceCentralBank;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what clearing adds to a cross-bank transfer among {@value #BANKS} banks, with and without the clearing
+ * mode, and the cost of closing a cycle of {@value #CYCLE} obligations between random pairs of those banks.
+ * A closed cycle never needs more than {@value #BANKS} - 1 settlement payments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClearingBenchmark {
+    private static final int BANKS = 8;
+    private static final int CYCLE = 10_000;
+
+    @Param({"false", "true"})
+    private boolean clearing;
+
+    private ServiceCentralBank centralBank;
+    private Bank[] banks;
+    private BaseAccount[] accounts;
+    private ClearingHouse house;
+    private UUID[] bankIds;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        centralBank = (ServiceCentralBank) BankFixture.centralBank();
+        Clients client = BankFixture.client(centralBank, 1L);
+        banks = new Bank[BANKS];
+        accounts = new BaseAccount[BANKS];
+        bankIds = new UUID[BANKS];
+        for (int i = 0; i < BANKS; i++) {
+            banks[i] = BankFixture.bank(centralBank, "Bank" + i);
+            accounts[i] = BankFixture.accounts(banks[i], client, TypeOfBankAccount.DEBIT, 1)[0];
+            banks[i].income(accounts[i], 1_000_000_000);
+            bankIds[i] = banks[i].getId();
+        }
+        if (clearing) {
+            centralBank.enableClearing();
+        }
+        house = new ClearingHouse();
+    }
+
+    @Benchmark
+    public BankTransaction crossBank() throws Exception {
+        cursor = (cursor + 1) & (BANKS - 1);
+        int to = (cursor + 1) & (BANKS - 1);
+        return centralBank.transferMoney(banks[cursor].getId(), accounts[cursor].getId(),
+                banks[to].getId(), accounts[to].getId(), 1);
+    }
+
+    @Benchmark
+    public ClearingReport closeCycle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < CYCLE; i++) {
+            int payer = random.nextInt(BANKS);
+            int payee = (payer + 1 + random.nextInt(BANKS - 1)) % BANKS;
+            house.record(bankIds[payer], bankIds[payee], 1 + random.nextInt(1000));
+        }
+        return house.closeCycle();
+    }
+}
@@ -0,0 +1,66 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Entities.Client;
+import com.tech.labs.Service.ServiceCentralBank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a type-ahead search for {@value #LIMIT} clients among {@value #CLIENTS} clients with random
+ * six-letter surnames. {@code search} goes through the name index of the directory; {@code scan} filters all
+ * clients by surname and name, the way a search had to be done before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientDirectoryBenchmark {
+    private static final int CLIENTS = 200_000;
+    private static final int LIMIT = 10;
+    private static final String PREFIX = "kor";
+
+    private ServiceCentralBank centralBank;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        centralBank = (ServiceCentralBank) BankFixture.centralBank();
+        Random random = new Random(42);
+        char[] surname = new char[6];
+        for (int i = 0; i < CLIENTS; i++) {
+            surname[0] = (char) ('A' + random.nextInt(26));
+            for (int c = 1; c < surname.length; c++) {
+                surname[c] = (char) ('a' + random.nextInt(26));
+            }
+            centralBank.registerClient("Client" + i, new String(surname), "Street " + i, 1_000_000L + i);
+        }
+    }
+
+    @Benchmark
+    public List<Client> search() {
+        return centralBank.searchClients(PREFIX, LIMIT);
+    }
+
+    @Benchmark
+    public List<Client> scan() {
+        return centralBank.getClients().stream()
+                .filter(c -> (c.getSurname() + ' ' + c.getName()).toLowerCase(Locale.ROOT).startsWith(PREFIX))
+                .limit(LIMIT)
+                .toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.DateTimeProvider.RewindClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RewindClock#advanceTime(ChronoUnit, long)} by one hour with a growing number of pending events
+ * of which exactly one falls due per advance; the cost must follow the due events, not the pending ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockAdvanceBenchmark {
+    @Param({"1000", "1000000"})
+    private int pending;
+
+    private RewindClock clock;
+    private long fired;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.now();
+        clock = new RewindClock(start);
+        Duration period = Duration.ofHours(pending);
+        for (int i = 1; i <= pending; i++) {
+            clock.scheduleAtFixedRate(start.plusHours(i), period, time -> fired++);
+        }
+    }
+
+    @Benchmark
+    public long advanceOneHour() throws Exception {
+        clock.advanceTime(ChronoUnit.HOURS, 1);
+        return fired;
+    }
+}
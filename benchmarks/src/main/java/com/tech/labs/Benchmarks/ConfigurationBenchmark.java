@@ -0,0 +1,51 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
+import com.tech.labs.Entities.Bank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two sides of a versioned bank configuration: an operation reading the current version, which is
+ * one volatile read, and a change of the terms, which copies the configuration into the next version and
+ * journals it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationBenchmark {
+    private Bank bank;
+    private long commission;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        bank = BankFixture.bank(BankFixture.centralBank(), "Sberbank");
+    }
+
+    @Benchmark
+    public long read() {
+        BankConfiguration configuration = bank.getBankConfiguration();
+        return configuration.getCreditAccountConfiguration().getCreditLimit()
+                + (long) configuration.getDebitAccountConfiguration().getDebitPercent().getValue();
+    }
+
+    @Benchmark
+    public long change() throws Exception {
+        bank.changeCreditCommission(++commission % 1000 + 1);
+        return bank.getBankConfiguration().getVersion();
+    }
+}
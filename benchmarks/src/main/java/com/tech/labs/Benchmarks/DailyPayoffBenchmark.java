@@ -0,0 +1,99 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.CreditAccountConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.DebitAccountConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.DepositAccountConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.DebitAccount;
+import com.tech.labs.Accounts.DepositAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Accrual.AccrualEngine;
+import com.tech.labs.Accrual.AccrualReport;
+import com.tech.labs.DateTimeProvider.Clock;
+import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Entities.Client;
+import com.tech.labs.Models.Limit;
+import com.tech.labs.Models.Percent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one day of interest accrual over a whole bank, done account by account with
+ * {@link DebitAccount#accountDailyPayoff()} and {@link DepositAccount#accountDailyPayoff()},
+ * and done by the {@link AccrualEngine} for both account types at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DailyPayoffBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int accounts;
+
+    private DebitAccount[] debitAccounts;
+    private DepositAccount[] depositAccounts;
+    private Bank bank;
+    private AccrualEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Clock clock = new RewindClock(LocalDateTime.now());
+        BankConfiguration configuration = new BankConfiguration(
+                new CreditAccountConfiguration(10, 200000),
+                new DebitAccountConfiguration(new Percent(3)),
+                new DepositAccountConfiguration(List.of(
+                        new DepositPercent(new Percent(3), 0, 50_000),
+                        new DepositPercent(new Percent(4), 50_000, 100_000),
+                        new DepositPercent(new Percent(5), 100_000)), BankFixture.PERIOD),
+                new Limit(-1));
+        Client client = new Client("Bench", "Client", "Address", 1L);
+        bank = new Bank("Benchmark", clock, configuration);
+        engine = new AccrualEngine();
+
+        debitAccounts = new DebitAccount[accounts];
+        depositAccounts = new DepositAccount[accounts];
+        for (int i = 0; i < accounts; i++) {
+            debitAccounts[i] = (DebitAccount) bank.createAccount(TypeOfBankAccount.DEBIT, client, BankFixture.PERIOD);
+            debitAccounts[i].increaseAmount(1 + i % 150_000);
+            depositAccounts[i] = (DepositAccount) bank.createAccount(TypeOfBankAccount.DEPOSIT, client, BankFixture.PERIOD);
+            depositAccounts[i].increaseAmount(1 + i % 150_000);
+        }
+    }
+
+    @Benchmark
+    public AccrualReport engineDailyAccrual() {
+        return engine.accrueDaily(bank);
+    }
+
+    @Benchmark
+    public void debitDailyPayoff() {
+        for (DebitAccount account : debitAccounts) {
+            account.accountDailyPayoff();
+        }
+    }
+
+    @Benchmark
+    public void depositDailyPayoff() throws Exception {
+        for (DepositAccount account : depositAccounts) {
+            account.accountDailyPayoff();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Concurrency.ExecutionMode;
+import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Service.ServiceCentralBank;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link ServiceCentralBank#transferMoney} between random accounts of one bank from
+ * four threads, with balances updated under the account locks ({@code LOCKING}) or by four shard writers
+ * ({@code SHARDED}). With 16 accounts most transfers contend for the same accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    private static final int SHARDS = 4;
+
+    @Param({"LOCKING", "SHARDED"})
+    private ExecutionMode mode;
+
+    @Param({"16", "1024"})
+    private int accounts;
+
+    private ServiceCentralBank centralBank;
+    private Bank bank;
+    private BaseAccount[] bankAccounts;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        centralBank = new ServiceCentralBank(new RewindClock(LocalDateTime.now()), mode, SHARDS);
+        bank = BankFixture.bank(centralBank, "Sberbank");
+        bankAccounts = BankFixture.accounts(bank, BankFixture.client(centralBank, 1L), TypeOfBankAccount.DEBIT, accounts);
+        for (BaseAccount account : bankAccounts) {
+            bank.income(account, 1_000_000_000);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        centralBank.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BankTransaction transfer() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BaseAccount from = bankAccounts[random.nextInt(accounts)];
+        BaseAccount to = bankAccounts[random.nextInt(accounts)];
+        return centralBank.transferMoney(bank.getId(), from.getId(), bank.getId(), to.getId(), 1);
+    }
+}
@@ -0,0 +1,130 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Export.ExportFormat;
+import com.tech.labs.Export.ExportReport;
+import com.tech.labs.Export.LedgerExporter;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Service.ServiceCentralBank;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures exporting {@value #BANKS} banks of {@value #ACCOUNTS} accounts with {@value #TRANSFERS} transfers
+ * each, so about {@code 2 * BANKS * ACCOUNTS * TRANSFERS} transaction rows. {@code csv} and {@code binary} go
+ * through {@link LedgerExporter}; {@code strings} writes the same CSV rows by concatenating strings into a
+ * {@link BufferedWriter}, one bank after another, the way an export would be written without it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportBenchmark {
+    private static final int BANKS = 4;
+    private static final int ACCOUNTS = 1000;
+    private static final int TRANSFERS = 25;
+
+    private Collection<Bank> banks;
+    private Path directory;
+    private LedgerExporter csvExporter;
+    private LedgerExporter binaryExporter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        CentralBank centralBank = BankFixture.centralBank();
+        Clients client = BankFixture.client(centralBank, 1L);
+        for (int b = 0; b < BANKS; b++) {
+            Bank bank = BankFixture.bank(centralBank, "Bank" + b);
+            BaseAccount[] accounts = BankFixture.accounts(bank, client, TypeOfBankAccount.DEBIT, ACCOUNTS);
+            for (BaseAccount account : accounts) {
+                account.setBalance(1_000_000);
+            }
+            for (int i = 0; i < ACCOUNTS; i++) {
+                for (int t = 0; t < TRANSFERS; t++) {
+                    centralBank.transferMoney(bank.getId(), accounts[i].getId(), bank.getId(),
+                            accounts[(i + t + 1) % ACCOUNTS].getId(), 100);
+                }
+            }
+        }
+        banks = ((ServiceCentralBank) centralBank).getBanks();
+        directory = Files.createTempDirectory("export-benchmark");
+        csvExporter = new LedgerExporter(ExportFormat.CSV);
+        binaryExporter = new LedgerExporter(ExportFormat.BINARY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public ExportReport csv() throws IOException {
+        return csvExporter.export(banks, directory);
+    }
+
+    @Benchmark
+    public ExportReport binary() throws IOException {
+        return binaryExporter.export(banks, directory);
+    }
+
+    @Benchmark
+    public long strings() throws IOException {
+        long rows = 0;
+        for (Bank bank : banks) {
+            try (BufferedWriter accounts = Files.newBufferedWriter(directory.resolve(bank.getId() + "-accounts.txt"));
+                 BufferedWriter transactions = Files.newBufferedWriter(
+                         directory.resolve(bank.getId() + "-transactions.txt"))) {
+                accounts.write("bank_id,account_id,client_id,type,balance,transactions\n");
+                transactions.write("account_id,transaction_id,state,type,amount,source_account_id,"
+                        + "target_account_id,commit_time\n");
+                for (BaseAccount account : bank.getAccounts()) {
+                    int count = 0;
+                    Iterator<BankTransaction> history = account.getTransactionHistory().iterator();
+                    while (history.hasNext()) {
+                        BankTransaction transaction = history.next();
+                        List<BaseAccount> parties = transaction.getAccounts();
+                        transactions.write(account.getId() + "," + transaction.getId() + ","
+                                + transaction.getTransactionState() + "," + transaction.getType() + ","
+                                + transaction.getAmount() + "," + parties.get(0).getId() + ","
+                                + parties.get(parties.size() - 1).getId() + "," + transaction.getCommitTime() + "\n");
+                        count++;
+                    }
+                    accounts.write(bank.getId() + "," + account.getId() + "," + account.getClient().getId() + ","
+                            + account.getType() + "," + account.getBalance() + "," + count + "\n");
+                    rows += count;
+                }
+            }
+        }
+        return rows;
+    }
+}
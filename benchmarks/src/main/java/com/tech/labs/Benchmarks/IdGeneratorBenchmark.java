@@ -0,0 +1,54 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Identifiers.IdGenerator;
+import com.tech.labs.Identifiers.RandomIdGenerator;
+import com.tech.labs.Identifiers.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of one shared {@link IdGenerator} from 1 and 8 threads: {@link RandomIdGenerator}, which
+ * is {@link UUID#randomUUID()}, against {@link TimeOrderedIdGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+    @Param({"random", "timeOrdered"})
+    private String generator;
+
+    private IdGenerator ids;
+
+    @Setup
+    public void setUp() {
+        ids = generator.equals("random") ? new RandomIdGenerator() : new TimeOrderedIdGenerator();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UUID threads1() {
+        return ids.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID threads8() {
+        return ids.next();
+    }
+}
@@ -0,0 +1,116 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Journal.MappedJournal;
+import com.tech.labs.Service.ServiceCentralBank;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures {@link Bank#income} with every committed transaction written to a {@link MappedJournal}.
+ * Each writer thread has its own account, so the threads contend only for the journal; with more
+ * writers more records share one flush. {@code unjournaled} is the same income without a journal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+    private static final int ACCOUNTS = 64;
+
+    private Path file;
+    private MappedJournal journal;
+    private Bank bank;
+    private BaseAccount[] accounts;
+    private final AtomicInteger nextWriter = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private BaseAccount account;
+
+        @Setup(Level.Iteration)
+        public void setUp(JournalBenchmark benchmark) {
+            account = benchmark.accounts[benchmark.nextWriter.getAndIncrement() % ACCOUNTS];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Unjournaled {
+        private Bank bank;
+        private BaseAccount account;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws Exception {
+            ServiceCentralBank centralBank = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+            bank = BankFixture.bank(centralBank, "Sberbank");
+            account = BankFixture.accounts(bank, BankFixture.client(centralBank, 1L), TypeOfBankAccount.DEBIT, 1)[0];
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        file = Files.createTempFile("journal", ".bin");
+        Files.delete(file);
+        LocalDateTime now = LocalDateTime.now();
+        journal = MappedJournal.open(file, now);
+        ServiceCentralBank centralBank = new ServiceCentralBank(new RewindClock(now), journal);
+        bank = BankFixture.bank(centralBank, "Sberbank");
+        Clients client = BankFixture.client(centralBank, 1L);
+        accounts = BankFixture.accounts(bank, client, TypeOfBankAccount.DEBIT, ACCOUNTS);
+        nextWriter.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BankTransaction unjournaled(Unjournaled state) throws Exception {
+        return state.bank.income(state.account, 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BankTransaction writers1(Writer writer) throws Exception {
+        return bank.income(writer.account, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BankTransaction writers8(Writer writer) throws Exception {
+        return bank.income(writer.account, 1);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public BankTransaction writers64(Writer writer) throws Exception {
+        return bank.income(writer.account, 1);
+    }
+}
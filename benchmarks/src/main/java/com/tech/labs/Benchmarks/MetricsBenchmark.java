@@ -0,0 +1,61 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Metrics.BankOperation;
+import com.tech.labs.Metrics.CentralBankMetrics;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording one call in {@link CentralBankMetrics}: a completed transaction ({@code recordTransaction})
+ * and a thrown exception ({@code recordException}), both in total and for a bank. Run with {@code -prof gc};
+ * {@code gc.alloc.rate.norm} must be zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private CentralBankMetrics metrics;
+    private Bank bank;
+    private BankTransaction transaction;
+    private final AccountException exception = new AccountException("Not enough money");
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        metrics = new CentralBankMetrics();
+        bank = BankFixture.bank(BankFixture.centralBank(), "Sberbank");
+        BaseAccount account = BankFixture.accounts(bank, BankFixture.client(BankFixture.centralBank(), 1L),
+                TypeOfBankAccount.DEBIT, 1)[0];
+        transaction = bank.income(account, 1000);
+    }
+
+    @Benchmark
+    public CentralBankMetrics recordTransaction() {
+        metrics.record(BankOperation.REPLENISH, bank, System.nanoTime(), transaction);
+        return metrics;
+    }
+
+    @Benchmark
+    public CentralBankMetrics recordException() {
+        metrics.record(BankOperation.WITHDRAW, bank, System.nanoTime(), exception);
+        return metrics;
+    }
+}
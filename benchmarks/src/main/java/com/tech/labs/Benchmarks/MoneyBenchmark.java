@@ -0,0 +1,62 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the balance arithmetic of an account and the cost of {@link Bank#income} / {@link Bank#withdraw}
+ * around it. Run with {@code -prof gc}: {@code gc.alloc.rate.norm} of {@code increaseAndDecrease} is the
+ * allocation of the balance update itself, and of {@code incomeAndWithdraw} the allocation of two committed
+ * transactions. Balances stay far outside the small-integer cache, so boxed amounts would show up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final int AMOUNT = 1_000;
+
+    private Bank bank;
+    private BaseAccount account;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        CentralBank centralBank = BankFixture.centralBank();
+        bank = BankFixture.bank(centralBank, "Sberbank");
+        Clients client = BankFixture.client(centralBank, 1L);
+        account = BankFixture.accounts(bank, client, TypeOfBankAccount.DEBIT, 1)[0];
+        bank.income(account, 1_000_000_000);
+    }
+
+    @Benchmark
+    public BaseAccount increaseAndDecrease() throws Exception {
+        account.increaseAmount(AMOUNT);
+        account.decreaseAmount(AMOUNT);
+        return account;
+    }
+
+    @Benchmark
+    public BankTransaction incomeAndWithdraw() throws Exception {
+        bank.income(account, AMOUNT);
+        return bank.withdraw(account, AMOUNT);
+    }
+}
@@ -0,0 +1,60 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the subscriber fan-out of a configuration change ({@link Bank#changeDebitPercent(int)}).
+ * Every account belongs to its own client; the first {@code subscribers} clients are subscribed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotifyClientsBenchmark {
+    @Param({"1000", "100000"})
+    private int accounts;
+
+    @Param({"10", "1000"})
+    private int subscribers;
+
+    private Bank bank;
+    private int percent;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        CentralBank centralBank = BankFixture.centralBank();
+        bank = BankFixture.bank(centralBank, "Benchmark");
+        for (int i = 0; i < accounts; i++) {
+            Clients client = BankFixture.client(centralBank, i + 1L);
+            bank.createAccount(TypeOfBankAccount.DEBIT, client, BankFixture.PERIOD);
+            if (i < subscribers) {
+                bank.subscribe(client);
+            }
+        }
+    }
+
+    @Benchmark
+    public void changeDebitPercent() throws Exception {
+        percent = (percent + 1) & 15;
+        bank.changeDebitPercent(percent);
+    }
+}
@@ -0,0 +1,97 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Service.ServiceCentralBank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a central bank with one bank of {@code accounts} debit accounts, ten per client,
+ * takes to start. {@code restore} reads a snapshot and looks one account up, {@code rebuild} creates
+ * the clients and accounts again through {@link CentralBank#registerClient} and {@link Bank#createAccount}
+ * as a replay would, and {@code checkpoint} writes the snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final int ACCOUNTS_PER_CLIENT = 10;
+
+    @Param({"100000", "1000000"})
+    private int accounts;
+
+    private ServiceCentralBank centralBank;
+    private Path file;
+    private UUID probe;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        centralBank = (ServiceCentralBank) BankFixture.centralBank();
+        Bank bank = BankFixture.bank(centralBank, "Sberbank");
+        Clients client = null;
+        for (int i = 0; i < accounts; i++) {
+            if (i % ACCOUNTS_PER_CLIENT == 0) {
+                client = BankFixture.client(centralBank, i);
+            }
+            BaseAccount account = bank.createAccount(TypeOfBankAccount.DEBIT, client, BankFixture.PERIOD);
+            bank.income(account, 1000);
+            probe = account.getId();
+        }
+        file = Files.createTempFile("snapshot", ".bin");
+        centralBank.checkpoint(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long restore() throws Exception {
+        ServiceCentralBank restored = ServiceCentralBank.restore(file);
+        return restored.findBankByName("Sberbank").getAccount(probe).getBalance();
+    }
+
+    @Benchmark
+    public Bank rebuild() throws Exception {
+        CentralBank rebuilt = BankFixture.centralBank();
+        Bank bank = BankFixture.bank(rebuilt, "Sberbank");
+        Clients client = null;
+        for (int i = 0; i < accounts; i++) {
+            if (i % ACCOUNTS_PER_CLIENT == 0) {
+                client = BankFixture.client(rebuilt, i);
+            }
+            bank.createAccount(TypeOfBankAccount.DEBIT, client, BankFixture.PERIOD).setBalance(1000);
+        }
+        return bank;
+    }
+
+    @Benchmark
+    public Path checkpoint() throws Exception {
+        centralBank.checkpoint(file);
+        return file;
+    }
+}
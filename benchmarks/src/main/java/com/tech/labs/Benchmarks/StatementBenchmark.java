@@ -0,0 +1,79 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Ledger.StatementPage;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading one page of {@value #PAGE} transactions from the middle of an account history of
+ * {@code history} transactions, one per minute. {@code page} goes through the time index of the ledger and
+ * should not depend on the length of the history; {@code scan} filters the whole history by commit time, the
+ * way a statement had to be built before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+    private static final int PAGE = 50;
+
+    @Param({"1000", "100000"})
+    private int history;
+
+    private Bank bank;
+    private BaseAccount account;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        CentralBank centralBank = BankFixture.centralBank();
+        bank = BankFixture.bank(centralBank, "Sberbank");
+        Clients client = BankFixture.client(centralBank, 1L);
+        account = BankFixture.accounts(bank, client, TypeOfBankAccount.DEBIT, 1)[0];
+        RewindClock clock = centralBank.getRewindClock();
+        LocalDateTime start = clock.currentTime();
+        for (int i = 0; i < history; i++) {
+            clock.setCurrentTime(start.plusMinutes(i));
+            bank.income(account, 100);
+        }
+        from = start.plusMinutes(history / 2);
+        to = from.plusMinutes(PAGE);
+    }
+
+    @Benchmark
+    public StatementPage page() throws Exception {
+        return bank.statement(account.getId(), from, to, 0, PAGE);
+    }
+
+    @Benchmark
+    public List<BankTransaction> scan() {
+        return account.getTransactionHistory()
+                .filter(t -> !t.getCommitTime().isBefore(from) && t.getCommitTime().isBefore(to))
+                .limit(PAGE)
+                .toList();
+    }
+}
@@ -0,0 +1,76 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CentralBank#transferMoney} inside one bank and between two banks.
+ * Money moves back and forth between pairs of accounts, so balances stay bounded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferBenchmark {
+    private static final int ACCOUNTS = 1024;
+
+    private CentralBank centralBank;
+    private Bank sber;
+    private Bank tinkoff;
+    private BaseAccount[] sberAccounts;
+    private BaseAccount[] tinkoffAccounts;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        centralBank = BankFixture.centralBank();
+        sber = BankFixture.bank(centralBank, "Sberbank");
+        tinkoff = BankFixture.bank(centralBank, "Tinkoff");
+        Clients client = BankFixture.client(centralBank, 1L);
+
+        sberAccounts = BankFixture.accounts(sber, client, TypeOfBankAccount.DEBIT, ACCOUNTS);
+        tinkoffAccounts = BankFixture.accounts(tinkoff, client, TypeOfBankAccount.DEBIT, ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            sber.income(sberAccounts[i].getId(), 1_000_000);
+            tinkoff.income(tinkoffAccounts[i].getId(), 1_000_000);
+        }
+    }
+
+    @Benchmark
+    public BankTransaction sameBank() throws Exception {
+        cursor = (cursor + 1) & (ACCOUNTS - 1);
+        BaseAccount from = sberAccounts[cursor];
+        BaseAccount to = sberAccounts[(cursor + 1) & (ACCOUNTS - 1)];
+        return centralBank.transferMoney(sber.getId(), from.getId(), sber.getId(), to.getId(), 1);
+    }
+
+    @Benchmark
+    public BankTransaction crossBank() throws Exception {
+        cursor = (cursor + 1) & (ACCOUNTS - 1);
+        boolean forward = (cursor & 1) == 0;
+        Bank fromBank = forward ? sber : tinkoff;
+        Bank toBank = forward ? tinkoff : sber;
+        BaseAccount from = (forward ? sberAccounts : tinkoffAccounts)[cursor];
+        BaseAccount to = (forward ? tinkoffAccounts : sberAccounts)[cursor];
+        return centralBank.transferMoney(fromBank.getId(), from.getId(), toBank.getId(), to.getId(), 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.tech.labs.Benchmarks;
+
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Velocity.VelocityLimit;
+import com.tech.labs.Velocity.VelocityLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what velocity limits add to a withdrawal or a transfer: reading the clock and counting one operation
+ * against a limit per client and a limit per bank, both high enough never to be reached. The withdrawal itself
+ * is left out, its cost is in {@link BankOperationsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VelocityLimitBenchmark {
+    private static final VelocityLimit LIMIT = new VelocityLimit(Duration.ofHours(1), Long.MAX_VALUE / 2,
+            Integer.MAX_VALUE);
+
+    private Clients client;
+    private VelocityLimiter limiter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        CentralBank centralBank = BankFixture.centralBank();
+        client = BankFixture.client(centralBank, 1L);
+        Bank bank = BankFixture.bank(centralBank, "Sberbank");
+        bank.setVelocityLimits(LIMIT, LIMIT);
+        limiter = bank.getVelocityLimiter();
+    }
+
+    @Benchmark
+    public long acquire() throws Exception {
+        long now = limiter.now();
+        limiter.acquire(client, 1, now);
+        return now;
+    }
+}
@@ -1,10 +0,0 @@
-public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello and welcome!");
-
-        for (int i = 1; i <= 5; i++) {
-            System.out.println("i = " + i);
-            System.out.println("Git");
-        }
-    }
-}
\ No newline at end of file
@@ -1,39 +1,64 @@
 package com.tech.labs.Accounts.AccountConfigurations;
 
+import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Models.Limit;
 import lombok.Getter;
-import lombok.Setter;
 
+import java.util.List;
 
+/**
+ * One version of the terms of a bank. Immutable: every change makes the next version, which the bank publishes
+ * as a whole through a {@link VersionedConfiguration}, so a reader holding a configuration never sees a change
+ * half applied.
+ */
+@Getter
 public class BankConfiguration {
+    /**
+     * The number of the configuration, 1 for the first one of a bank and one more for every change after it.
+     */
+    private final long version;
     private final CreditAccountConfiguration creditAccountConfiguration;
     private final DebitAccountConfiguration debitAccountConfiguration;
     private final DepositAccountConfiguration depositAccountConfiguration;
-
-    @Getter
-    @Setter
-    private Limit limitForDubiousClient;
+    private final Limit limitForDubiousClient;
 
     public BankConfiguration(CreditAccountConfiguration creditAccountConfiguration, DebitAccountConfiguration debitAccountConfiguration, DepositAccountConfiguration depositAccountConfiguration, Limit limit) {
+        this(1, creditAccountConfiguration, debitAccountConfiguration, depositAccountConfiguration, limit);
+    }
+
+    private BankConfiguration(long version, CreditAccountConfiguration creditAccountConfiguration,
+                              DebitAccountConfiguration debitAccountConfiguration,
+                              DepositAccountConfiguration depositAccountConfiguration, Limit limit) {
+        this.version = version;
         this.creditAccountConfiguration = creditAccountConfiguration;
         this.debitAccountConfiguration = debitAccountConfiguration;
         this.depositAccountConfiguration = depositAccountConfiguration;
+        this.limitForDubiousClient = limit;
+    }
+
+    public BankConfiguration withDebitPercent(int percent) throws TransactionException {
+        return new BankConfiguration(version + 1, creditAccountConfiguration,
+                debitAccountConfiguration.withDebitPercent(percent), depositAccountConfiguration, limitForDubiousClient);
     }
 
-    public void setLimitForDubiousClient(Integer limit) throws TransactionException {
-        this.limitForDubiousClient = new Limit(limit);
+    public BankConfiguration withDepositPercents(List<DepositPercent> percents) throws AccountException {
+        return new BankConfiguration(version + 1, creditAccountConfiguration, debitAccountConfiguration,
+                depositAccountConfiguration.withDepositPercents(percents), limitForDubiousClient);
     }
 
-    public CreditAccountConfiguration getCreditAccountConfiguration() {
-        return creditAccountConfiguration;
+    public BankConfiguration withCreditCommission(long commission) throws AccountException {
+        return new BankConfiguration(version + 1, creditAccountConfiguration.withCreditCommission(commission),
+                debitAccountConfiguration, depositAccountConfiguration, limitForDubiousClient);
     }
 
-    public DebitAccountConfiguration getDebitAccountConfiguration() {
-        return debitAccountConfiguration;
+    public BankConfiguration withCreditLimit(long limit) throws AccountException {
+        return new BankConfiguration(version + 1, creditAccountConfiguration.withCreditLimit(limit),
+                debitAccountConfiguration, depositAccountConfiguration, limitForDubiousClient);
     }
 
-    public DepositAccountConfiguration getDepositAccountConfiguration() {
-        return depositAccountConfiguration;
+    public BankConfiguration withLimitForDubiousClient(long limit) throws TransactionException {
+        return new BankConfiguration(version + 1, creditAccountConfiguration, debitAccountConfiguration,
+                depositAccountConfiguration, new Limit(limit));
     }
 }
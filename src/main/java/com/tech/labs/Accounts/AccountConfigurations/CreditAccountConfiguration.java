@@ -2,20 +2,17 @@ package com.tech.labs.Accounts.AccountConfigurations;
 
 import com.tech.labs.Exceptions.AccountException;
 import lombok.Getter;
-import lombok.Setter;
-
-import java.math.BigDecimal;
 
+/**
+ * The terms of the credit accounts of a bank. Immutable: a change makes a new configuration, see
+ * {@link BankConfiguration}.
+ */
+@Getter
 public class CreditAccountConfiguration {
-    @Getter
-    @Setter
-    private Integer creditCommission;
-
-    @Getter
-    @Setter
-    private Integer creditLimit;
+    private final long creditCommission;
+    private final long creditLimit;
 
-    public CreditAccountConfiguration(Integer creditCommission, Integer creditLimit) throws AccountException {
+    public CreditAccountConfiguration(long creditCommission, long creditLimit) throws AccountException {
         if (creditCommission < 0 || creditLimit <= 0) {
             throw new AccountException("Invalid Credit Account Configuration: commission = " + creditCommission + ", limit = " + creditLimit);
         }
@@ -23,17 +20,17 @@ public class CreditAccountConfiguration {
         this.creditLimit = creditLimit;
     }
 
-    public void setCreditCommission(Integer commission) throws AccountException {
+    public CreditAccountConfiguration withCreditCommission(long commission) throws AccountException {
         if (commission < 0) {
             throw new AccountException("CreditCommission < 0");
         }
-        this.creditCommission = commission;
+        return new CreditAccountConfiguration(commission, creditLimit);
     }
 
-    public void setCreditLimit(Integer limit) throws AccountException {
-        if (limit < 0) {
-            throw new AccountException("CreditLimit < 0");
+    public CreditAccountConfiguration withCreditLimit(long limit) throws AccountException {
+        if (limit <= 0) {
+            throw new AccountException("CreditLimit <= 0");
         }
-        this.creditLimit = limit;
+        return new CreditAccountConfiguration(creditCommission, limit);
     }
 }
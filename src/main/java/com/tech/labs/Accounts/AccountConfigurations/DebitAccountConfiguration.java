@@ -3,18 +3,20 @@ package com.tech.labs.Accounts.AccountConfigurations;
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Models.Percent;
 import lombok.Getter;
-import lombok.Setter;
 
+/**
+ * The terms of the debit accounts of a bank. Immutable: a change makes a new configuration, see
+ * {@link BankConfiguration}.
+ */
 public class DebitAccountConfiguration {
     @Getter
-    @Setter
-    private Percent debitPercent;
+    private final Percent debitPercent;
 
     public DebitAccountConfiguration(Percent debitPercent) {
         this.debitPercent = debitPercent;
     }
 
-    public void setDebitPercent(Integer percent) throws TransactionException {
-        this.debitPercent = new Percent(percent);
+    public DebitAccountConfiguration withDebitPercent(int percent) throws TransactionException {
+        return new DebitAccountConfiguration(new Percent(percent));
     }
 }
@@ -6,27 +6,52 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * The terms of the deposit accounts of a bank. Immutable: a change makes a new configuration, see
+ * {@link BankConfiguration}.
+ */
 public class DepositAccountConfiguration {
-    private List<DepositPercent> depositPercents;
-    private Duration time;
+    private final List<DepositPercent> depositPercents;
+    private final DepositTierTable tierTable;
+    private final Duration time;
 
     public DepositAccountConfiguration(@NonNull List<DepositPercent> depositPercents, @NonNull Duration time) throws AccountException {
-        validateDepositPercents(depositPercents);
-        this.depositPercents = depositPercents;
+        this.tierTable = DepositTierTable.compile(Objects.requireNonNull(depositPercents));
+        this.depositPercents = List.copyOf(depositPercents);
         this.time = time;
     }
 
+    /**
+     * Gets the length of the deposit period of the bank's deposit accounts.
+     *
+     * @return the deposit period
+     */
+    public Duration getTime() {
+        return time;
+    }
+
     public List<DepositPercent> getDepositPercents() {
         return depositPercents;
     }
 
-    public void setDepositPercents(List<DepositPercent> percents) throws AccountException {
-        validateDepositPercents(percents);
-        this.depositPercents = percents;
+    /**
+     * Gets the deposit percents compiled for lookup.
+     *
+     * @return the tier table of this configuration
+     */
+    public DepositTierTable getTierTable() {
+        return tierTable;
     }
 
-    private void validateDepositPercents(List<DepositPercent> depositPercents) throws AccountException {
-        if (Objects.requireNonNull(depositPercents).isEmpty())
-            throw new AccountException("No deposit interest");
+    /**
+     * Makes a configuration with other deposit percents. The percents are validated and compiled first, so an
+     * invalid list makes no configuration at all.
+     *
+     * @param percents the new deposit percents
+     * @return the new configuration
+     * @throws AccountException if the list is empty or its tiers overlap or leave a gap
+     */
+    public DepositAccountConfiguration withDepositPercents(List<DepositPercent> percents) throws AccountException {
+        return new DepositAccountConfiguration(percents, time);
     }
 }
@@ -12,10 +12,10 @@ public class DepositPercent {
     private final Percent percent;
 
     @Getter
-    private final Integer leftBorder;
+    private final long leftBorder;
 
     @Getter
-    private final Integer rightBorder;
+    private final long rightBorder;
 
     /**
      * Creates a DepositPercent object with the specified parameters.
@@ -26,7 +26,7 @@ public class DepositPercent {
      * @throws AccountException if leftBorder or rightBorder is less than 0,
      *                          or if leftBorder is greater than or equal to rightBorder.
      */
-    public DepositPercent(@NonNull Percent percent, @NonNull Integer leftBorder, Integer rightBorder) throws AccountException {
+    public DepositPercent(@NonNull Percent percent, long leftBorder, long rightBorder) throws AccountException {
         this.percent = percent;
 
         if (leftBorder < 0 || rightBorder < 0) {
@@ -34,14 +34,21 @@ public class DepositPercent {
         }
 
         this.leftBorder = leftBorder;
-        this.rightBorder = rightBorder.equals(Double.MAX_VALUE) ? (int) Double.MAX_VALUE : rightBorder;
+        this.rightBorder = rightBorder;
 
-        if (leftBorder.compareTo(rightBorder) >= 0) {
+        if (leftBorder >= rightBorder) {
             throw new AccountException("DepositPercent: LeftBorder >= rightBorder");
         }
     }
 
-    public DepositPercent(@NonNull Percent percent, Integer leftBorder) throws AccountException {
-        this(percent, leftBorder, (int) Double.MAX_VALUE);
+    /**
+     * Creates a DepositPercent object for all balances from the left border up.
+     *
+     * @param percent    The percentage value for the deposit.
+     * @param leftBorder The left border of the deposit range.
+     * @throws AccountException if leftBorder is less than 0.
+     */
+    public DepositPercent(@NonNull Percent percent, long leftBorder) throws AccountException {
+        this(percent, leftBorder, Long.MAX_VALUE);
     }
 }
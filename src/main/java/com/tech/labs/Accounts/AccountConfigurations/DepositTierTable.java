@@ -0,0 +1,97 @@
+package com.tech.labs.Accounts.AccountConfigurations;
+
+import com.tech.labs.Exceptions.AccountException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Deposit percents compiled into sorted primitive arrays.
+ *
+ * <p>Tier {@code i} covers balances from {@code borders[i]} inclusive to {@code borders[i + 1]} exclusive
+ * and pays {@code rates[i]}. The table is built once when the percents are published and never changes,
+ * so the daily lookup is an allocation-free binary search that can be shared between threads.
+ * Balances below the first border or at or above the last one fall outside every tier and earn no interest.
+ */
+public final class DepositTierTable {
+    private final long[] borders;
+    private final double[] rates;
+
+    private DepositTierTable(long[] borders, double[] rates) {
+        this.borders = borders;
+        this.rates = rates;
+    }
+
+    /**
+     * Compiles deposit percents into a tier table. The percents may be given in any order.
+     *
+     * @param depositPercents the deposit percents to compile
+     * @return the compiled table
+     * @throws AccountException if the list is empty or two neighbouring tiers overlap or leave a gap
+     */
+    public static DepositTierTable compile(List<DepositPercent> depositPercents) throws AccountException {
+        if (depositPercents.isEmpty()) {
+            throw AccountException.invalidConfiguration("No deposit interest");
+        }
+
+        DepositPercent[] sorted = depositPercents.toArray(new DepositPercent[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(DepositPercent::getLeftBorder));
+
+        long[] borders = new long[sorted.length + 1];
+        double[] rates = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i].getLeftBorder() != sorted[i - 1].getRightBorder()) {
+                throw AccountException.invalidConfiguration("Deposit percents [" + sorted[i - 1].getLeftBorder()
+                        + ", " + sorted[i - 1].getRightBorder() + ") and [" + sorted[i].getLeftBorder() + ", "
+                        + sorted[i].getRightBorder() + ") must meet without a gap or an overlap");
+            }
+            borders[i] = sorted[i].getLeftBorder();
+            rates[i] = sorted[i].getPercent().getValue();
+        }
+        borders[sorted.length] = sorted[sorted.length - 1].getRightBorder();
+        return new DepositTierTable(borders, rates);
+    }
+
+    /**
+     * Finds the tier the balance falls into.
+     *
+     * @param balance the balance of the account
+     * @return the index of the tier, or -1 if the balance is outside every tier
+     */
+    public int findTier(long balance) {
+        if (balance < borders[0] || balance >= borders[borders.length - 1]) {
+            return -1;
+        }
+        int low = 0;
+        int high = rates.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (borders[middle] <= balance) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    public double getRate(int tier) {
+        return rates[tier];
+    }
+
+    /**
+     * Gets the yearly rate for the balance.
+     *
+     * @param balance the balance of the account
+     * @return the rate of the tier the balance falls into, or 0 if it is outside every tier
+     */
+    public double rateFor(long balance) {
+        int tier = findTier(balance);
+        return tier < 0 ? 0 : rates[tier];
+    }
+
+    public int size() {
+        return rates.length;
+    }
+}
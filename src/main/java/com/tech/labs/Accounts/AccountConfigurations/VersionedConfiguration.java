@@ -0,0 +1,42 @@
+package com.tech.labs.Accounts.AccountConfigurations;
+
+import lombok.NonNull;
+
+/**
+ * The current configuration of a bank, shared by the bank and its accounts.
+ *
+ * <p>Readers take the current {@link BankConfiguration} with one volatile read and use it for a whole operation
+ * or a whole batch job, without locking; changes build the next version from the current one and publish it at
+ * once. Changes are serialized, so no version is lost.
+ */
+public final class VersionedConfiguration {
+    private volatile BankConfiguration current;
+
+    public VersionedConfiguration(@NonNull BankConfiguration initial) {
+        this.current = initial;
+    }
+
+    public BankConfiguration get() {
+        return current;
+    }
+
+    /**
+     * Publishes the configuration made by a change of the current one. If the change throws, nothing is
+     * published.
+     *
+     * @param change makes the next configuration from the current one
+     * @param <E>    the exception the change can throw
+     * @return the published configuration
+     * @throws E if the change is invalid
+     */
+    public synchronized <E extends Exception> BankConfiguration update(Change<E> change) throws E {
+        BankConfiguration next = change.apply(current);
+        current = next;
+        return next;
+    }
+
+    @FunctionalInterface
+    public interface Change<E extends Exception> {
+        BankConfiguration apply(BankConfiguration current) throws E;
+    }
+}
@@ -2,19 +2,28 @@ package com.tech.labs.Accounts;
 
 import com.tech.labs.Exceptions.AccountException;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Ledger.StatementPage;
+import com.tech.labs.Ledger.TransactionLedger;
 import com.tech.labs.Transaction.BankTransaction;
 
 public abstract class BaseAccount {
-    private final List<BankTransaction> transactions = new ArrayList<>();
+    private final TransactionLedger transactions = new TransactionLedger();
+
+    /**
+     * Guards the balance and the accrual state of the account. Operations spanning several
+     * accounts take the locks through {@link com.tech.labs.Concurrency.AccountLocks}.
+     */
+    @Getter
+    private final ReentrantLock lock = new ReentrantLock();
 
     @Getter
     private final TypeOfBankAccount type;
@@ -25,39 +34,127 @@ public abstract class BaseAccount {
     @Getter
     private final Clients client;
 
+    /**
+     * The balance in minor units, see {@link com.tech.labs.Models.Money}.
+     */
     @Getter
-    @Setter
-    private Integer balance;
+    private volatile long balance;
 
     public BaseAccount(Clients client, TypeOfBankAccount type) {
-        if (client == null) {
-            throw new IllegalArgumentException("Client cannot be null");
+        this(UUID.randomUUID(), client, type);
+    }
+
+    public BaseAccount(UUID id, Clients client, TypeOfBankAccount type) {
+        if (id == null || client == null) {
+            throw new IllegalArgumentException("Id and client cannot be null");
         }
         this.type = type;
-        this.id = UUID.randomUUID();
+        this.id = id;
         this.client = client;
     }
 
     public BankTransaction getTransaction(UUID transactionId) throws TransactionException {
-        return transactions.stream()
-                .filter(t -> t.getTransactionId().equals(transactionId))
-                .findFirst()
+        return transactions.find(transactionId)
                 .orElseThrow(() -> TransactionException.transactionDoesNotExist(transactionId));
     }
-    public void increaseAmount(Integer sum) throws TransactionException {
+
+    /**
+     * Gets the transactions of the account in the order they were committed.
+     *
+     * @return a stream over the account history, oldest transaction first
+     */
+    public Stream<BankTransaction> getTransactionHistory() {
+        return transactions.stream();
+    }
+
+    /**
+     * Gets the transactions of the account committed in {@code [from, to)} without copying the history.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return a stream over the transactions of the range, oldest first
+     */
+    public Stream<BankTransaction> getStatement(LocalDateTime from, LocalDateTime to) {
+        return transactions.between(from, to);
+    }
+
+    /**
+     * Gets one page of the transactions of the account committed in {@code [from, to)}.
+     *
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, exclusive
+     * @param cursor the next cursor of the previous page, 0 for the first page
+     * @param limit  the largest number of transactions on the page
+     * @return the page
+     */
+    public StatementPage getStatement(LocalDateTime from, LocalDateTime to, int cursor, int limit) {
+        return transactions.page(from, to, cursor, limit);
+    }
+
+    public int getTransactionCount() {
+        return transactions.size();
+    }
+
+    public void setBalance(long balance) {
+        lock.lock();
+        try {
+            this.balance = balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void increaseAmount(long sum) throws TransactionException {
         if (sum <= 0) {
             throw TransactionException.negativeAmount();
         }
-        balance += sum;
+        lock.lock();
+        try {
+            balance += sum;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public void saveChanges(BankTransaction transaction) throws TransactionException {
-        if (transactions.contains(transaction)) {
-            throw TransactionException.transactionAlreadyExists(transaction.getId());
+    /**
+     * Gives back what {@link #decreaseAmount(long)} took out for an operation that failed later on, commission
+     * included. Unlike {@link #increaseAmount(long)} it checks nothing, so compensating a failed operation can not
+     * be rejected.
+     *
+     * @param debited what {@link #decreaseAmount(long)} returned
+     */
+    public void restoreAmount(long debited) {
+        lock.lock();
+        try {
+            balance += debited;
+        } finally {
+            lock.unlock();
         }
-        transactions.add(transaction);
     }
 
-    public void decreaseAmount(Integer sum) throws TransactionException, AccountException {
+    public void saveChanges(BankTransaction transaction) throws TransactionException {
+        transactions.append(transaction);
     }
+
+    /**
+     * Decreases the amount in the account by the specified sum, holding the account lock
+     * while the account-specific checks and the balance update run.
+     *
+     * @param sum the amount to decrease
+     * @return how much the balance went down, which differs from the sum when a credit commission applies
+     * @throws TransactionException if the sum is invalid for this account
+     * @throws AccountException     if the account cannot give out the sum
+     */
+    public long decreaseAmount(long sum) throws TransactionException, AccountException {
+        lock.lock();
+        try {
+            long before = balance;
+            checkAndDecrease(sum);
+            return before - balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected abstract void checkAndDecrease(long sum) throws TransactionException, AccountException;
 }
@@ -1,8 +1,36 @@
 package com.tech.labs.Accounts.Commands;
 
+import com.tech.labs.Accounts.BaseAccount;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Transaction.OperationType;
+
+import java.util.List;
 
 public interface BalanceOperationCommand extends Command {
     void cancel() throws TransactionException, AccountException;
+
+    /**
+     * @return the accounts whose balances the command changes, the account the money leaves first
+     */
+    List<BaseAccount> getAccounts();
+
+    OperationType getType();
+
+    /**
+     * @return the amount the command moves, in minor units
+     */
+    long getAmount();
+
+    /**
+     * @return how much the last execution took out of the account the money leaves, commission included, see
+     *         {@link BaseAccount#decreaseAmount(long)}; the amount for an income, which takes nothing out
+     */
+    long getDebited();
+
+    /**
+     * @return how much the last cancellation took out of the account the money returns from, commission
+     *         included; the amount for a withdrawal, whose cancellation takes nothing out
+     */
+    long getDebitedOnCancel();
 }
@@ -0,0 +1,72 @@
+package com.tech.labs.Accounts.Commands;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Clearing.ClearingHouse;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Transaction.OperationType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A transfer between accounts of two banks that records the obligation between the banks with a
+ * {@link ClearingHouse} once the accounts are updated. Cancelling it records the opposite obligation.
+ */
+public class ClearedTransfer implements BalanceOperationCommand {
+    private final ClearingHouse clearingHouse;
+    private final UUID fromBankId;
+    private final UUID toBankId;
+    private final long sum;
+    private final BalanceOperationCommand transfer;
+
+    public ClearedTransfer(ClearingHouse clearingHouse, UUID fromBankId, UUID toBankId, long sum,
+                           BalanceOperationCommand transfer) {
+        this.clearingHouse = clearingHouse;
+        this.fromBankId = fromBankId;
+        this.toBankId = toBankId;
+        this.sum = sum;
+        this.transfer = transfer;
+    }
+
+    @Override
+    public void execute() throws TransactionException, AccountException {
+        transfer.execute();
+        if (sum > 0) {
+            clearingHouse.record(fromBankId, toBankId, sum);
+        }
+    }
+
+    @Override
+    public void cancel() throws TransactionException, AccountException {
+        transfer.cancel();
+        if (sum > 0) {
+            clearingHouse.record(toBankId, fromBankId, sum);
+        }
+    }
+
+    @Override
+    public List<BaseAccount> getAccounts() {
+        return transfer.getAccounts();
+    }
+
+    @Override
+    public OperationType getType() {
+        return transfer.getType();
+    }
+
+    @Override
+    public long getAmount() {
+        return transfer.getAmount();
+    }
+
+    @Override
+    public long getDebited() {
+        return transfer.getDebited();
+    }
+
+    @Override
+    public long getDebitedOnCancel() {
+        return transfer.getDebitedOnCancel();
+    }
+}
@@ -3,19 +3,24 @@ package com.tech.labs.Accounts.Commands;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Transaction.OperationType;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public class Income implements BalanceOperationCommand {
     private final BaseAccount account;
-    private final Integer sum;
+    private final long sum;
+    private volatile long debited;
+    private volatile long debitedOnCancel;
 
-    public Income(BaseAccount account, Integer sum) throws TransactionException {
+    public Income(BaseAccount account, long sum) throws TransactionException {
         this.account = account;
         if (sum < 0) {
             throw TransactionException.negativeAmount();
         }
         this.sum = sum;
+        this.debited = sum;
     }
 
     @Override
@@ -25,6 +30,31 @@ public class Income implements BalanceOperationCommand {
 
     @Override
     public void cancel() throws TransactionException, AccountException {
-        account.decreaseAmount(sum);
+        debitedOnCancel = account.decreaseAmount(sum);
+    }
+
+    @Override
+    public long getDebited() {
+        return debited;
+    }
+
+    @Override
+    public long getDebitedOnCancel() {
+        return debitedOnCancel;
+    }
+
+    @Override
+    public List<BaseAccount> getAccounts() {
+        return List.of(account);
+    }
+
+    @Override
+    public OperationType getType() {
+        return OperationType.INCOME;
+    }
+
+    @Override
+    public long getAmount() {
+        return sum;
     }
 }
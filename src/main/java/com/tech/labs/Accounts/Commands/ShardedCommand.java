@@ -0,0 +1,60 @@
+package com.tech.labs.Accounts.Commands;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Concurrency.ShardedEngine;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Transaction.OperationType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs a command on the shard writer of the account it belongs to, see {@link ShardedEngine}.
+ */
+public class ShardedCommand implements BalanceOperationCommand {
+    private final ShardedEngine engine;
+    private final UUID accountId;
+    private final BalanceOperationCommand command;
+
+    public ShardedCommand(ShardedEngine engine, UUID accountId, BalanceOperationCommand command) {
+        this.engine = engine;
+        this.accountId = accountId;
+        this.command = command;
+    }
+
+    @Override
+    public void execute() throws TransactionException, AccountException {
+        engine.execute(accountId, command);
+    }
+
+    @Override
+    public void cancel() throws TransactionException, AccountException {
+        engine.execute(accountId, command::cancel);
+    }
+
+    @Override
+    public List<BaseAccount> getAccounts() {
+        return command.getAccounts();
+    }
+
+    @Override
+    public OperationType getType() {
+        return command.getType();
+    }
+
+    @Override
+    public long getAmount() {
+        return command.getAmount();
+    }
+
+    @Override
+    public long getDebited() {
+        return command.getDebited();
+    }
+
+    @Override
+    public long getDebitedOnCancel() {
+        return command.getDebitedOnCancel();
+    }
+}
@@ -0,0 +1,110 @@
+package com.tech.labs.Accounts.Commands;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Concurrency.ShardedEngine;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Transaction.OperationType;
+
+import java.util.List;
+
+/**
+ * A transfer between accounts of two shards of a {@link ShardedEngine}. Unlike {@link Transfer}, it never holds
+ * both accounts at once: the money is first taken from one account on its shard and then put into the other on
+ * its own shard. Between the two steps the money is in neither account. If the second step fails, the first is
+ * compensated by giving back exactly what it took, with {@link BaseAccount#restoreAmount(long)}, which no check
+ * can reject, and the transfer fails. Should even that not run, e.g. because the engine was closed meanwhile,
+ * the transfer fails with a message saying it is not reconciled and how much is missing.
+ */
+public class ShardedTransfer implements BalanceOperationCommand {
+    private final ShardedEngine engine;
+    private final BaseAccount toAccount;
+    private final BaseAccount fromAccount;
+    private final long sum;
+    private volatile long debited;
+    private volatile long debitedOnCancel;
+
+    public ShardedTransfer(ShardedEngine engine, BaseAccount toAccount, BaseAccount fromAccount, long sum)
+            throws TransactionException {
+        if (sum < 0) {
+            throw TransactionException.negativeAmount();
+        }
+        this.engine = engine;
+        this.toAccount = toAccount;
+        this.fromAccount = fromAccount;
+        this.sum = sum;
+    }
+
+    /**
+     * Takes the sum from the "fromAccount" on its shard, then adds it to the "toAccount" on its shard.
+     *
+     * @throws TransactionException if either step fails; a failed second step has been compensated
+     */
+    @Override
+    public void execute() throws TransactionException {
+        debited = move(fromAccount, toAccount, "Couldn't withdraw money from 1 account");
+    }
+
+    /**
+     * Takes the sum back from the "toAccount" on its shard, then returns it to the "fromAccount" on its shard.
+     *
+     * @throws TransactionException if either step fails; a failed second step has been compensated
+     */
+    @Override
+    public void cancel() throws TransactionException {
+        debitedOnCancel = move(toAccount, fromAccount, "Couldn't withdraw money from 2 account");
+    }
+
+    /**
+     * @return how much the first step took out of the source
+     */
+    private long move(BaseAccount source, BaseAccount target, String debitFailure) throws TransactionException {
+        long[] taken = new long[1];
+        try {
+            engine.execute(source.getId(), () -> taken[0] = source.decreaseAmount(sum));
+        } catch (AccountException | TransactionException e) {
+            throw TransactionException.failedTransaction(debitFailure);
+        }
+
+        try {
+            engine.execute(target.getId(), () -> target.increaseAmount(sum));
+        } catch (AccountException | TransactionException | RuntimeException e) {
+            long debited = taken[0];
+            try {
+                engine.execute(source.getId(), () -> source.restoreAmount(debited));
+            } catch (AccountException | TransactionException | RuntimeException refundFailure) {
+                TransactionException failure = TransactionException.notReconciled(source.getId(), debited,
+                        refundFailure.getMessage());
+                failure.addSuppressed(e);
+                throw failure;
+            }
+            throw TransactionException.failedTransaction("Couldn't deposit money, returned to the sender: " + e.getMessage());
+        }
+        return taken[0];
+    }
+
+    @Override
+    public long getDebited() {
+        return debited;
+    }
+
+    @Override
+    public long getDebitedOnCancel() {
+        return debitedOnCancel;
+    }
+
+    @Override
+    public List<BaseAccount> getAccounts() {
+        return List.of(fromAccount, toAccount);
+    }
+
+    @Override
+    public OperationType getType() {
+        return OperationType.TRANSFER;
+    }
+
+    @Override
+    public long getAmount() {
+        return sum;
+    }
+}
@@ -1,16 +1,22 @@
 package com.tech.labs.Accounts.Commands;
 
+import com.tech.labs.Concurrency.AccountLocks;
+import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Transaction.OperationType;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public class Transfer implements BalanceOperationCommand {
     private final BaseAccount toAccount;
     private final BaseAccount fromAccount;
-    private final Integer sum;
+    private final long sum;
+    private volatile long debited;
+    private volatile long debitedOnCancel;
 
-    public Transfer(BaseAccount toAccount, BaseAccount fromAccount, Integer sum) throws TransactionException {
+    public Transfer(BaseAccount toAccount, BaseAccount fromAccount, long sum) throws TransactionException {
         if (sum < 0) {
             throw TransactionException.negativeAmount();
         }
@@ -22,31 +28,66 @@ public class Transfer implements BalanceOperationCommand {
     /**
      * Executes the bank transaction by decreasing the amount from the "fromAccount"
      * and increasing the amount in the "toAccount".
+     * Both account locks are held for the whole transfer, taken in the global lock order,
+     * so no other operation observes the money in neither or in both accounts.
      *
      * @throws TransactionException if an error occurs during the transaction,
      *                              such as insufficient funds in the "fromAccount".
      */
     @Override
     public void execute() throws TransactionException {
+        AccountLocks.lock(fromAccount, toAccount);
         try {
-            fromAccount.decreaseAmount(sum);
-        } catch (Exception e) {
-            fromAccount.increaseAmount(sum);
-            throw TransactionException.failedTransaction("Couldn't withdraw money from 1 account");
-        }
+            try {
+                debited = fromAccount.decreaseAmount(sum);
+            } catch (AccountException | TransactionException e) {
+                throw TransactionException.failedTransaction("Couldn't withdraw money from 1 account");
+            }
 
-        toAccount.increaseAmount(sum);
+            toAccount.increaseAmount(sum);
+        } finally {
+            AccountLocks.unlock(fromAccount, toAccount);
+        }
     }
 
     @Override
     public void cancel() throws TransactionException {
+        AccountLocks.lock(fromAccount, toAccount);
         try {
-            toAccount.decreaseAmount(sum);
-        } catch (Exception e) {
-            toAccount.increaseAmount(sum);
-            throw TransactionException.failedTransaction("Couldn't withdraw money from 2 account");
+            try {
+                debitedOnCancel = toAccount.decreaseAmount(sum);
+            } catch (AccountException | TransactionException e) {
+                throw TransactionException.failedTransaction("Couldn't withdraw money from 2 account");
+            }
+
+            fromAccount.increaseAmount(sum);
+        } finally {
+            AccountLocks.unlock(fromAccount, toAccount);
         }
+    }
+
+    @Override
+    public List<BaseAccount> getAccounts() {
+        return List.of(fromAccount, toAccount);
+    }
 
-        fromAccount.increaseAmount(sum);
+    @Override
+    public OperationType getType() {
+        return OperationType.TRANSFER;
+    }
+
+    @Override
+    public long getAmount() {
+        return sum;
+    }
+
+    @Override
+    public long getDebited() {
+        return debited;
+    }
+
+    @Override
+    public long getDebitedOnCancel() {
+        return debitedOnCancel;
     }
 }
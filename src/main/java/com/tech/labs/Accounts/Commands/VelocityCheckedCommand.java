@@ -0,0 +1,71 @@
+package com.tech.labs.Accounts.Commands;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.OperationType;
+import com.tech.labs.Velocity.VelocityLimiter;
+
+import java.util.List;
+
+/**
+ * An operation that takes money out of an account once it fits into the velocity limits of the bank, see
+ * {@link VelocityLimiter}. An operation that fails after it was counted is taken back out of the limits; a
+ * cancelled one stays counted.
+ */
+public class VelocityCheckedCommand implements BalanceOperationCommand {
+    private final VelocityLimiter limiter;
+    private final Clients client;
+    private final long sum;
+    private final BalanceOperationCommand command;
+
+    public VelocityCheckedCommand(VelocityLimiter limiter, Clients client, long sum, BalanceOperationCommand command) {
+        this.limiter = limiter;
+        this.client = client;
+        this.sum = sum;
+        this.command = command;
+    }
+
+    @Override
+    public void execute() throws TransactionException, AccountException {
+        long now = limiter.now();
+        limiter.acquire(client, sum, now);
+        try {
+            command.execute();
+        } catch (TransactionException | AccountException | RuntimeException e) {
+            limiter.release(client, sum, now);
+            throw e;
+        }
+    }
+
+    @Override
+    public void cancel() throws TransactionException, AccountException {
+        command.cancel();
+    }
+
+    @Override
+    public List<BaseAccount> getAccounts() {
+        return command.getAccounts();
+    }
+
+    @Override
+    public OperationType getType() {
+        return command.getType();
+    }
+
+    @Override
+    public long getAmount() {
+        return command.getAmount();
+    }
+
+    @Override
+    public long getDebited() {
+        return command.getDebited();
+    }
+
+    @Override
+    public long getDebitedOnCancel() {
+        return command.getDebitedOnCancel();
+    }
+}
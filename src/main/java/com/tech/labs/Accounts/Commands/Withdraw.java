@@ -3,28 +3,58 @@ package com.tech.labs.Accounts.Commands;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Transaction.OperationType;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public class Withdraw implements BalanceOperationCommand {
     private final BaseAccount account;
-    private final Integer sum;
+    private final long sum;
+    private volatile long debited;
+    private volatile long debitedOnCancel;
 
-    public Withdraw(BaseAccount account, Integer sum) throws TransactionException {
+    public Withdraw(BaseAccount account, long sum) throws TransactionException {
         if (sum < 0) {
             throw TransactionException.negativeAmount();
         }
         this.account = account;
         this.sum = sum;
+        this.debitedOnCancel = sum;
     }
 
     @Override
     public void execute() throws TransactionException, AccountException {
-        account.decreaseAmount(sum);
+        debited = account.decreaseAmount(sum);
     }
 
     @Override
     public void cancel() throws TransactionException {
         account.increaseAmount(sum);
     }
+
+    @Override
+    public List<BaseAccount> getAccounts() {
+        return List.of(account);
+    }
+
+    @Override
+    public OperationType getType() {
+        return OperationType.WITHDRAW;
+    }
+
+    @Override
+    public long getAmount() {
+        return sum;
+    }
+
+    @Override
+    public long getDebited() {
+        return debited;
+    }
+
+    @Override
+    public long getDebitedOnCancel() {
+        return debitedOnCancel;
+    }
 }
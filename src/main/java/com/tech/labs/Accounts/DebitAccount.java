@@ -1,23 +1,22 @@
 package com.tech.labs.Accounts;
 
-import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
-import com.tech.labs.Accounts.AccountConfigurations.DebitAccountConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.VersionedConfiguration;
 import com.tech.labs.DateTimeProvider.Clock;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Interfaces.Clients;
-import com.tech.labs.Models.Limit;
 import lombok.Getter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
+import java.util.UUID;
 
 public class DebitAccount extends BaseAccount {
-    private final DebitAccountConfiguration configuration;
-    private final Limit limitForDubiousClient;
+    private final VersionedConfiguration configuration;
     private final Clock clock;
+    @Getter
     private double percentageAmount = 0;
+    @Getter
     private int countOfDays;
 
     /**
@@ -25,18 +24,21 @@ public class DebitAccount extends BaseAccount {
      *
      * @param clock             the clock used for date/time calculations
      * @param client            the client associated with this account
-     * @param bankConfiguration the bank configuration containing account settings
-     * @throws IllegalArgumentException if clock or bankConfiguration is null
+     * @param configuration     the configuration of the bank, read anew by every operation
+     * @throws IllegalArgumentException if clock or configuration is null
      */
-    public DebitAccount(Clock clock, Clients client, BankConfiguration bankConfiguration) {
-        super(client, TypeOfBankAccount.DEBIT);
-        if (clock == null || bankConfiguration == null) {
+    public DebitAccount(Clock clock, Clients client, VersionedConfiguration configuration) {
+        this(UUID.randomUUID(), clock, client, configuration);
+    }
+
+    public DebitAccount(UUID id, Clock clock, Clients client, VersionedConfiguration configuration) {
+        super(id, client, TypeOfBankAccount.DEBIT);
+        if (clock == null || configuration == null) {
             throw new IllegalArgumentException("Clock and bank configuration cannot be null");
         }
         this.clock = clock;
-        this.countOfDays = new GregorianCalendar().getActualMaximum(Calendar.DAY_OF_MONTH);
-        this.configuration = bankConfiguration.getDebitAccountConfiguration();
-        this.limitForDubiousClient = bankConfiguration.getLimitForDubiousClient();
+        this.countOfDays = clock.currentTime().toLocalDate().lengthOfMonth();
+        this.configuration = configuration;
         this.setBalance(0);
     }
 
@@ -46,18 +48,48 @@ public class DebitAccount extends BaseAccount {
      * The interest is calculated based on the number of days in the month.
      */
     public void accountDailyPayoff() {
-        int daysInMonth = new GregorianCalendar().getActualMaximum(Calendar.DAY_OF_MONTH);
-        int daysInYear = new GregorianCalendar().getActualMaximum(Calendar.DAY_OF_YEAR);
-        this.percentageAmount += (getBalance() * configuration.getDebitPercent().getValue()) / daysInYear;
-        this.countOfDays--;
+        LocalDate today = clock.currentTime().toLocalDate();
+        int daysInMonth = today.lengthOfMonth();
+        int daysInYear = today.lengthOfYear();
+        double debitPercent = configuration.get().getDebitAccountConfiguration().getDebitPercent().getValue();
+        getLock().lock();
+        try {
+            this.percentageAmount += (getBalance() * debitPercent) / daysInYear;
+            this.countOfDays--;
 
-        if (this.countOfDays != 0) {
-            return;
+            if (this.countOfDays != 0) {
+                return;
+            }
+
+            this.setBalance((long) (getBalance() + percentageAmount));
+            this.percentageAmount = 0;
+            this.countOfDays = daysInMonth;
+        } finally {
+            getLock().unlock();
         }
+    }
 
-        this.setBalance((int) (getBalance() + percentageAmount));
-        this.percentageAmount = 0;
-        this.countOfDays = daysInMonth;
+    /**
+     * Stores the result of a bulk accrual run computed from this account's state.
+     * The accrual fields are only written by payoff runs, so they are set without the lock;
+     * a payout takes the lock and is added to the current balance, so transactions committed
+     * while the run was computing are kept.
+     *
+     * @param percentageAmount the interest accrued and not yet paid out
+     * @param countOfDays      the days left until the next payout
+     * @param payout           the amount paid out to the balance by this run
+     */
+    public void applyAccrual(double percentageAmount, int countOfDays, long payout) {
+        this.percentageAmount = percentageAmount;
+        this.countOfDays = countOfDays;
+        if (payout != 0) {
+            getLock().lock();
+            try {
+                this.setBalance(getBalance() + payout);
+            } finally {
+                getLock().unlock();
+            }
+        }
     }
 
     /**
@@ -67,7 +99,8 @@ public class DebitAccount extends BaseAccount {
      * @throws TransactionException if the sum is negative
      * @throws AccountException     if there's not enough money or sum exceeds the limit for dubious clients
      */
-    public void decreaseAmount(double sum) throws TransactionException, AccountException {
+    @Override
+    protected void checkAndDecrease(long sum) throws TransactionException, AccountException {
         if (sum <= 0) {
             throw new TransactionException("Negative amount");
         }
@@ -76,10 +109,10 @@ public class DebitAccount extends BaseAccount {
             throw new AccountException("Not enough money");
         }
 
-        if (getClient().isDubious() && sum > limitForDubiousClient.getValue()) {
+        if (getClient().isDubious() && sum > configuration.get().getLimitForDubiousClient().getValue()) {
             throw new TransactionException("Sum exceeding the limit for dubious client");
         }
 
-        setBalance((int) (getBalance() - sum));
+        setBalance(getBalance() - sum);
     }
 }
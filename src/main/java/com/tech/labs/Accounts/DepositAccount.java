@@ -1,23 +1,22 @@
 package com.tech.labs.Accounts;
 
-import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
-import com.tech.labs.Accounts.AccountConfigurations.DepositAccountConfiguration;
-import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.AccountConfigurations.VersionedConfiguration;
 import com.tech.labs.DateTimeProvider.Clock;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.TransactionException;
 import com.tech.labs.Interfaces.Clients;
-import com.tech.labs.Models.Limit;
 import lombok.Getter;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 public class DepositAccount extends BaseAccount {
-    private final DepositAccountConfiguration configuration;
-    private final Limit limitForDubiousClient;
+    private final VersionedConfiguration configuration;
+    @Getter
     private final LocalDateTime endOfPeriod;
     private final Clock clock;
+    @Getter
     private double percentageAmount = 0;
 
     /**
@@ -25,49 +24,103 @@ public class DepositAccount extends BaseAccount {
      *
      * @param clock             the clock used for date/time calculations
      * @param client            the client associated with this account
-     * @param bankConfiguration the bank configuration containing account settings
+     * @param configuration     the configuration of the bank, read anew by every operation
      * @param endOfPeriod       the end of the deposit period
-     * @throws IllegalArgumentException if clock or bankConfiguration is null
+     * @throws IllegalArgumentException if clock or configuration is null
      */
-    public DepositAccount(Clock clock, Clients client, BankConfiguration bankConfiguration, Duration endOfPeriod) {
-        super(client, TypeOfBankAccount.DEPOSIT);
-        if (clock == null || bankConfiguration == null) {
+    public DepositAccount(Clock clock, Clients client, VersionedConfiguration configuration, Duration endOfPeriod) {
+        this(UUID.randomUUID(), clock, client, configuration, endOfPeriod);
+    }
+
+    public DepositAccount(UUID id, Clock clock, Clients client, VersionedConfiguration configuration, Duration endOfPeriod) {
+        this(id, clock, client, configuration, clock == null ? null : clock.currentTime().plus(endOfPeriod));
+    }
+
+    /**
+     * Constructs a Deposit Account whose period ends at the given time, e.g. when the account is restored.
+     *
+     * @param id                the ID of the account
+     * @param clock             the clock used for date/time calculations
+     * @param client            the client associated with this account
+     * @param configuration     the configuration of the bank, read anew by every operation
+     * @param endOfPeriod       the time the deposit period ends
+     * @throws IllegalArgumentException if clock or configuration is null
+     */
+    public DepositAccount(UUID id, Clock clock, Clients client, VersionedConfiguration configuration, LocalDateTime endOfPeriod) {
+        super(id, client, TypeOfBankAccount.DEPOSIT);
+        if (clock == null || configuration == null) {
             throw new IllegalArgumentException("Clock and bank configuration cannot be null");
         }
         this.clock = clock;
-        this.configuration = bankConfiguration.getDepositAccountConfiguration();
-        this.limitForDubiousClient = bankConfiguration.getLimitForDubiousClient();
-        this.endOfPeriod = LocalDateTime.now().plus(endOfPeriod);
+        this.configuration = configuration;
+        this.endOfPeriod = endOfPeriod;
         this.setBalance(0);
     }
 
     /**
      * Performs daily interest payoff for the deposit account.
      * The account balance earns interest based on the configured deposit percent.
-     * The interest is calculated based on the balance and the suitable deposit percent for the balance.
+     * The interest is calculated based on the balance and the deposit tier the balance falls into;
+     * a balance outside every tier earns no interest.
      *
-     * @throws AccountException if the current time is after the end of the deposit period or no suitable deposit percent is found
+     * @throws AccountException if the current time is after the end of the deposit period
      */
     public void accountDailyPayoff() throws AccountException {
-        LocalDateTime currentTime = clock.currentTime();
-        if (currentTime.isAfter(endOfPeriod)) {
-            throw AccountException.invalidPeriodOfAccount();
+        getLock().lock();
+        try {
+            LocalDateTime currentTime = clock.currentTime();
+            if (currentTime.isAfter(endOfPeriod)) {
+                throw AccountException.invalidPeriodOfAccount();
+            }
+
+            if (currentTime.equals(endOfPeriod)) {
+                this.setBalance((long) (this.getBalance() + percentageAmount));
+                this.percentageAmount = 0;
+                return;
+            }
+
+            long balance = this.getBalance();
+            double rate = this.configuration.get().getDepositAccountConfiguration().getTierTable().rateFor(balance);
+            int daysInYear = currentTime.toLocalDate().lengthOfYear();
+            this.percentageAmount += (balance * rate) / daysInYear;
+        } finally {
+            getLock().unlock();
         }
+    }
 
-        if (currentTime.equals(endOfPeriod)) {
-            this.setBalance((int) (this.getBalance() + percentageAmount));
+    /**
+     * Pays the accrued interest out to the balance when the deposit period ends.
+     * Scheduled on the bank clock for {@link #getEndOfPeriod()}, so maturity needs no daily check.
+     */
+    public void maturityPayoff() {
+        getLock().lock();
+        try {
+            this.setBalance((long) (this.getBalance() + percentageAmount));
             this.percentageAmount = 0;
-            return;
+        } finally {
+            getLock().unlock();
         }
+    }
 
-        DepositPercent depositPercent = this.configuration.getDepositPercents()
-                .stream()
-                .filter(dp -> dp.getLeftBorder() <= this.getBalance() && dp.getRightBorder() > this.getBalance())
-                .findFirst()
-                .orElseThrow(() -> new AccountException("No suitable deposit percent found"));
-
-        int daysInYear = currentTime.toLocalDate().lengthOfYear();
-        this.percentageAmount += (this.getBalance() * depositPercent.getPercent().getValue() * 100) / daysInYear;
+    /**
+     * Stores the result of a bulk accrual run computed from this account's state.
+     * The accrual fields are only written by payoff runs, so they are set without the lock;
+     * a payout takes the lock and is added to the current balance, so transactions committed
+     * while the run was computing are kept.
+     *
+     * @param percentageAmount the interest accrued and not yet paid out
+     * @param payout           the amount paid out to the balance by this run
+     */
+    public void applyAccrual(double percentageAmount, long payout) {
+        this.percentageAmount = percentageAmount;
+        if (payout != 0) {
+            getLock().lock();
+            try {
+                this.setBalance(getBalance() + payout);
+            } finally {
+                getLock().unlock();
+            }
+        }
     }
 
     /**
@@ -77,7 +130,8 @@ public class DepositAccount extends BaseAccount {
      * @throws TransactionException if the sum is negative or the account has not yet expired
      * @throws AccountException     if there's not enough money or sum exceeds the limit for dubious clients
      */
-    public void decreaseAmount(double sum) throws TransactionException, AccountException {
+    @Override
+    protected void checkAndDecrease(long sum) throws TransactionException, AccountException {
         if (sum <= 0) {
             throw new TransactionException("Negative amount");
         }
@@ -86,7 +140,7 @@ public class DepositAccount extends BaseAccount {
             throw new AccountException("Account has not yet expired");
         }
 
-        if (getClient().isDubious() && sum > limitForDubiousClient.getValue()) {
+        if (getClient().isDubious() && sum > configuration.get().getLimitForDubiousClient().getValue()) {
             throw new TransactionException("Sum exceeding the limit for dubious client");
         }
 
@@ -94,6 +148,6 @@ public class DepositAccount extends BaseAccount {
             throw new AccountException("Not enough money");
         }
 
-        this.setBalance((int) (this.getBalance() - sum));
+        this.setBalance(this.getBalance() - sum);
     }
 }
@@ -0,0 +1,151 @@
+package com.tech.labs.Accrual;
+
+import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.DebitAccount;
+import com.tech.labs.Accounts.DepositAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import lombok.NonNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the daily interest accrual of every debit and deposit account of a bank in one pass.
+ *
+ * <p>Accounts are split by type into primitive columns and processed in slices on a fork/join pool.
+ * The columns of a bank are kept between runs and rebuilt only when the bank got or loaded accounts,
+ * so a nightly run allocates almost nothing.
+ * For every account the result equals calling {@link DebitAccount#accountDailyPayoff()} or
+ * {@link DepositAccount#accountDailyPayoff()} once; expired deposits, which the per-account method
+ * rejects, are left untouched and counted in the report instead.
+ * A run must not overlap with per-account payoffs of the same bank.
+ *
+ * <p>Accounts restored from a snapshot and not looked up yet are accrued without building them: if the loader
+ * of a bank is {@link UnloadedAccounts}, their state is accrued in the loader, and an account built later starts
+ * from it. No account of the bank is built while a run is in progress.
+ */
+public class AccrualEngine {
+    private final ForkJoinPool pool;
+    private final Map<UUID, BankColumns> columns = new ConcurrentHashMap<>();
+
+    public AccrualEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AccrualEngine(@NonNull ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Accrues one day of interest for all debit and deposit accounts of the bank.
+     *
+     * @param bank the bank whose accounts accrue interest
+     * @return the counts of accrued, paid out and skipped accounts
+     */
+    public AccrualReport accrueDaily(Bank bank) {
+        long start = System.nanoTime();
+        AccrualReport report = new AccrualReport();
+        BankConfiguration configuration = bank.getBankConfiguration();
+        report.setConfigurationVersion(configuration.getVersion());
+
+        BankColumns bankColumns = columns.computeIfAbsent(bank.getId(), id -> new BankColumns());
+        synchronized (bankColumns) {
+            bank.withAccountsHeld((accounts, loader) -> accrue(bank, configuration, bankColumns, accounts,
+                    loader instanceof UnloadedAccounts unloaded ? unloaded : null, report));
+        }
+
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private void accrue(Bank bank, BankConfiguration configuration, BankColumns bankColumns,
+                        Collection<BaseAccount> accounts, UnloadedAccounts unloaded, AccrualReport report) {
+        bankColumns.refresh(accounts, unloaded);
+
+        DebitColumns debit = bankColumns.debit;
+        if (debit.size() > 0) {
+            LocalDate today = bank.getClock().currentTime().toLocalDate();
+            debit.prepare(configuration.getDebitAccountConfiguration().getDebitPercent().getValue(),
+                    today.lengthOfMonth(), today.lengthOfYear(), report);
+            pool.invoke(new SliceTask(debit, 0, debit.size()));
+        }
+
+        DepositColumns deposit = bankColumns.deposit;
+        if (deposit.size() > 0) {
+            deposit.prepare(configuration.getDepositAccountConfiguration().getTierTable(),
+                    bank.getClock().currentTime(), report);
+            pool.invoke(new SliceTask(deposit, 0, deposit.size()));
+        }
+    }
+
+    /**
+     * Forgets the columns of a bank, e.g. when the bank is no longer accrued by this engine.
+     *
+     * @param bankId the ID of the bank
+     */
+    public void evict(UUID bankId) {
+        columns.remove(bankId);
+    }
+
+    private static final class BankColumns {
+        private int accountCount = -1;
+        private UnloadedAccounts unloaded;
+        private DebitColumns debit;
+        private DepositColumns deposit;
+
+        /**
+         * Rebuilds the columns if accounts were created or loaded since the last run. Loading an account moves
+         * it from the loader to the accounts in memory, so the count of the latter tells both apart.
+         */
+        private void refresh(Collection<BaseAccount> accounts, UnloadedAccounts unloaded) {
+            int count = accounts.size();
+            if (count == accountCount && unloaded == this.unloaded) {
+                return;
+            }
+            List<DebitAccount> debitAccounts = new ArrayList<>();
+            List<DepositAccount> depositAccounts = new ArrayList<>();
+            for (BaseAccount account : accounts) {
+                switch (account.getType()) {
+                    case DEBIT:
+                        debitAccounts.add((DebitAccount) account);
+                        break;
+                    case DEPOSIT:
+                        depositAccounts.add((DepositAccount) account);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            int[] debitIndices = new int[0];
+            int[] depositIndices = new int[0];
+            if (unloaded != null) {
+                debitIndices = unloadedOfType(unloaded, TypeOfBankAccount.DEBIT);
+                depositIndices = unloadedOfType(unloaded, TypeOfBankAccount.DEPOSIT);
+            }
+            debit = new DebitColumns(debitAccounts.toArray(new DebitAccount[0]), unloaded, debitIndices);
+            deposit = new DepositColumns(depositAccounts.toArray(new DepositAccount[0]), unloaded, depositIndices);
+            accountCount = count;
+            this.unloaded = unloaded;
+        }
+
+        private static int[] unloadedOfType(UnloadedAccounts unloaded, TypeOfBankAccount type) {
+            int[] indices = new int[unloaded.size()];
+            int count = 0;
+            for (int index = 0; index < unloaded.size(); index++) {
+                if (!unloaded.isLoaded(index) && unloaded.typeAt(index) == type) {
+                    indices[count++] = index;
+                }
+            }
+            return Arrays.copyOf(indices, count);
+        }
+    }
+}
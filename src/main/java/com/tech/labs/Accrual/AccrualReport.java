@@ -0,0 +1,77 @@
+package com.tech.labs.Accrual;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts of what one daily accrual run did to the accounts of a bank.
+ */
+public class AccrualReport {
+    private final AtomicInteger debitAccrued = new AtomicInteger();
+    private final AtomicInteger debitPaidOut = new AtomicInteger();
+    private final AtomicInteger depositAccrued = new AtomicInteger();
+    private final AtomicInteger depositPaidOut = new AtomicInteger();
+    private final AtomicInteger depositExpired = new AtomicInteger();
+    private final AtomicInteger depositWithoutPercent = new AtomicInteger();
+
+    @Getter
+    private long elapsedNanos;
+
+    /**
+     * The version of the bank configuration the whole run used.
+     */
+    @Getter
+    private long configurationVersion;
+
+    void addDebit(int accrued, int paidOut) {
+        debitAccrued.addAndGet(accrued);
+        debitPaidOut.addAndGet(paidOut);
+    }
+
+    void addDeposit(int accrued, int paidOut, int expired, int withoutPercent) {
+        depositAccrued.addAndGet(accrued);
+        depositPaidOut.addAndGet(paidOut);
+        depositExpired.addAndGet(expired);
+        depositWithoutPercent.addAndGet(withoutPercent);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    void setConfigurationVersion(long configurationVersion) {
+        this.configurationVersion = configurationVersion;
+    }
+
+    public int getDebitAccrued() {
+        return debitAccrued.get();
+    }
+
+    public int getDebitPaidOut() {
+        return debitPaidOut.get();
+    }
+
+    public int getDepositAccrued() {
+        return depositAccrued.get();
+    }
+
+    public int getDepositPaidOut() {
+        return depositPaidOut.get();
+    }
+
+    /**
+     * Deposit accounts past their end of period; the per-account payoff rejects them with
+     * {@link com.tech.labs.Exceptions.AccountException#invalidPeriodOfAccount()}.
+     */
+    public int getDepositExpired() {
+        return depositExpired.get();
+    }
+
+    /**
+     * Deposit accounts whose balance is not covered by any deposit percent.
+     */
+    public int getDepositWithoutPercent() {
+        return depositWithoutPercent.get();
+    }
+}
@@ -0,0 +1,84 @@
+package com.tech.labs.Accrual;
+
+import com.tech.labs.Accounts.DebitAccount;
+
+/**
+ * Accrual state of the debit accounts of a bank laid out in primitive columns.
+ * Each slice is gathered from the accounts, computed over the columns and scattered back;
+ * only accounts that are paid out are locked. The columns hold the account objects first and then the accounts
+ * that are not loaded yet, whose state is gathered from and scattered to their {@link UnloadedAccounts}.
+ * The columns are kept between runs; only the per-run parameters change.
+ */
+class DebitColumns implements SliceTask.Slice {
+    private final DebitAccount[] accounts;
+    private final UnloadedAccounts unloaded;
+    private final int[] indices;
+    private final long[] balances;
+    private final double[] accrued;
+    private final int[] daysLeft;
+    private final long[] payouts;
+    private double rate;
+    private int daysInMonth;
+    private int daysInYear;
+    private AccrualReport report;
+
+    DebitColumns(DebitAccount[] accounts, UnloadedAccounts unloaded, int[] indices) {
+        this.accounts = accounts;
+        this.unloaded = unloaded;
+        this.indices = indices;
+        int size = accounts.length + indices.length;
+        this.balances = new long[size];
+        this.accrued = new double[size];
+        this.daysLeft = new int[size];
+        this.payouts = new long[size];
+    }
+
+    void prepare(double rate, int daysInMonth, int daysInYear, AccrualReport report) {
+        this.rate = rate;
+        this.daysInMonth = daysInMonth;
+        this.daysInYear = daysInYear;
+        this.report = report;
+    }
+
+    int size() {
+        return balances.length;
+    }
+
+    @Override
+    public void process(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (i < accounts.length) {
+                DebitAccount account = accounts[i];
+                balances[i] = account.getBalance();
+                accrued[i] = account.getPercentageAmount();
+                daysLeft[i] = account.getCountOfDays();
+            } else {
+                int index = indices[i - accounts.length];
+                balances[i] = unloaded.balanceAt(index);
+                accrued[i] = unloaded.percentageAmountAt(index);
+                daysLeft[i] = unloaded.countOfDaysAt(index);
+            }
+        }
+
+        int paidOut = 0;
+        for (int i = from; i < to; i++) {
+            accrued[i] += (balances[i] * rate) / daysInYear;
+            payouts[i] = 0;
+            if (--daysLeft[i] == 0) {
+                payouts[i] = (long) (balances[i] + accrued[i]) - balances[i];
+                accrued[i] = 0;
+                daysLeft[i] = daysInMonth;
+                paidOut++;
+            }
+        }
+
+        for (int i = from; i < to; i++) {
+            if (i < accounts.length) {
+                accounts[i].applyAccrual(accrued[i], daysLeft[i], payouts[i]);
+            } else {
+                unloaded.applyAccrual(indices[i - accounts.length], accrued[i], daysLeft[i], payouts[i]);
+            }
+        }
+        report.addDebit(to - from, paidOut);
+    }
+}
@@ -0,0 +1,120 @@
+package com.tech.labs.Accrual;
+
+import com.tech.labs.Accounts.AccountConfigurations.DepositTierTable;
+import com.tech.labs.Accounts.DepositAccount;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Accrual state of the deposit accounts of a bank laid out in primitive columns.
+ * End of period is kept as nanoseconds since the epoch so the daily check is a long comparison.
+ * Only accounts that are paid out are locked. The columns are kept between runs; only the per-run parameters change.
+ * As in {@link DebitColumns}, the account objects come first and the accounts that are not loaded yet after them.
+ */
+class DepositColumns implements SliceTask.Slice {
+    private static final byte ACCRUE = 0;
+    private static final byte PAY_OUT = 1;
+    private static final byte EXPIRED = 2;
+    private static final byte WITHOUT_PERCENT = 3;
+
+    private final DepositAccount[] accounts;
+    private final UnloadedAccounts unloaded;
+    private final int[] indices;
+    private final long[] balances;
+    private final double[] accrued;
+    private final long[] endOfPeriod;
+    private final long[] payouts;
+    private final byte[] outcomes;
+    private DepositTierTable tiers;
+    private long now;
+    private int daysInYear;
+    private AccrualReport report;
+
+    DepositColumns(DepositAccount[] accounts, UnloadedAccounts unloaded, int[] indices) {
+        this.accounts = accounts;
+        this.unloaded = unloaded;
+        this.indices = indices;
+        int size = accounts.length + indices.length;
+        this.balances = new long[size];
+        this.accrued = new double[size];
+        this.endOfPeriod = new long[size];
+        this.payouts = new long[size];
+        this.outcomes = new byte[size];
+        for (int i = 0; i < accounts.length; i++) {
+            endOfPeriod[i] = epochNanos(accounts[i].getEndOfPeriod());
+        }
+        for (int i = 0; i < indices.length; i++) {
+            endOfPeriod[accounts.length + i] = epochNanos(unloaded.endOfPeriodAt(indices[i]));
+        }
+    }
+
+    void prepare(DepositTierTable tiers, LocalDateTime now, AccrualReport report) {
+        this.tiers = tiers;
+        this.now = epochNanos(now);
+        this.daysInYear = now.toLocalDate().lengthOfYear();
+        this.report = report;
+    }
+
+    int size() {
+        return balances.length;
+    }
+
+    @Override
+    public void process(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (i < accounts.length) {
+                DepositAccount account = accounts[i];
+                balances[i] = account.getBalance();
+                accrued[i] = account.getPercentageAmount();
+            } else {
+                int index = indices[i - accounts.length];
+                balances[i] = unloaded.balanceAt(index);
+                accrued[i] = unloaded.percentageAmountAt(index);
+            }
+        }
+
+        int accruedCount = 0;
+        int paidOut = 0;
+        int expired = 0;
+        int withoutPercent = 0;
+        for (int i = from; i < to; i++) {
+            payouts[i] = 0;
+            if (now > endOfPeriod[i]) {
+                outcomes[i] = EXPIRED;
+                expired++;
+            } else if (now == endOfPeriod[i]) {
+                payouts[i] = (long) (balances[i] + accrued[i]) - balances[i];
+                accrued[i] = 0;
+                outcomes[i] = PAY_OUT;
+                paidOut++;
+            } else {
+                int tier = tiers.findTier(balances[i]);
+                if (tier < 0) {
+                    outcomes[i] = WITHOUT_PERCENT;
+                    withoutPercent++;
+                } else {
+                    accrued[i] += (balances[i] * tiers.getRate(tier)) / daysInYear;
+                    outcomes[i] = ACCRUE;
+                    accruedCount++;
+                }
+            }
+        }
+
+        for (int i = from; i < to; i++) {
+            if (outcomes[i] != ACCRUE && outcomes[i] != PAY_OUT) {
+                continue;
+            }
+            if (i < accounts.length) {
+                accounts[i].applyAccrual(accrued[i], payouts[i]);
+            } else {
+                unloaded.applyAccrual(indices[i - accounts.length], accrued[i], payouts[i]);
+            }
+        }
+        report.addDeposit(accruedCount, paidOut, expired, withoutPercent);
+    }
+
+    private static long epochNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+}
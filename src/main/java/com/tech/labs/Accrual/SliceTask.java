@@ -0,0 +1,35 @@
+package com.tech.labs.Accrual;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits the index range of a column set in halves until slices are small enough
+ * to be processed sequentially by one fork/join worker.
+ */
+class SliceTask extends RecursiveAction {
+    static final int SLICE = 4096;
+
+    interface Slice {
+        void process(int from, int to);
+    }
+
+    private final Slice slice;
+    private final int from;
+    private final int to;
+
+    SliceTask(Slice slice, int from, int to) {
+        this.slice = slice;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SLICE) {
+            slice.process(from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new SliceTask(slice, from, middle), new SliceTask(slice, middle, to));
+    }
+}
@@ -0,0 +1,49 @@
+package com.tech.labs.Accrual;
+
+import com.tech.labs.Accounts.TypeOfBankAccount;
+
+import java.time.LocalDateTime;
+
+/**
+ * Accrual state of accounts that have no account object yet, e.g. the accounts of a restored snapshot.
+ * The accounts are numbered as by their {@link com.tech.labs.Registry.AccountLoader}. Until an account is loaded,
+ * the {@link AccrualEngine} accrues its state here; the account is then built from that state.
+ */
+public interface UnloadedAccounts {
+    int size();
+
+    /**
+     * @param index the number of the account
+     * @return whether the account object has been built; its state is then kept by the object
+     */
+    boolean isLoaded(int index);
+
+    TypeOfBankAccount typeAt(int index);
+
+    long balanceAt(int index);
+
+    double percentageAmountAt(int index);
+
+    int countOfDaysAt(int index);
+
+    LocalDateTime endOfPeriodAt(int index);
+
+    /**
+     * Stores the accrual state of a debit account, like {@link com.tech.labs.Accounts.DebitAccount#applyAccrual}.
+     *
+     * @param index            the number of the account
+     * @param percentageAmount the interest accrued but not paid out
+     * @param countOfDays      the days left until the next payout
+     * @param payout           the amount paid out to the balance
+     */
+    void applyAccrual(int index, double percentageAmount, int countOfDays, long payout);
+
+    /**
+     * Stores the accrual state of a deposit account, like {@link com.tech.labs.Accounts.DepositAccount#applyAccrual}.
+     *
+     * @param index            the number of the account
+     * @param percentageAmount the interest accrued but not paid out
+     * @param payout           the amount paid out to the balance
+     */
+    void applyAccrual(int index, double percentageAmount, long payout);
+}
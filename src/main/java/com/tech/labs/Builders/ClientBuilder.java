@@ -3,13 +3,27 @@ package com.tech.labs.Builders;
 import com.tech.labs.Entities.Client;
 import lombok.NoArgsConstructor;
 
+import java.util.UUID;
+
 @NoArgsConstructor
 public class ClientBuilder {
+    private UUID id;
     private String name;
     private String surname;
     private String address;
     private Long passportNumber;
 
+    /**
+     * Sets the ID of the client; without it the client gets a random ID.
+     *
+     * @param id the ID of the client
+     * @return this builder
+     */
+    public ClientBuilder addId(UUID id) {
+        this.id = id;
+        return this;
+    }
+
     public ClientBuilder addName(String name) {
         this.name = name;
         return this;
@@ -32,6 +46,7 @@ public class ClientBuilder {
 
     public Client build() {
         return new Client(
+                id != null ? id : UUID.randomUUID(),
                 name,
                 surname,
                 address,
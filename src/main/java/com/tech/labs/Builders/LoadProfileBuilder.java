@@ -0,0 +1,118 @@
+package com.tech.labs.Builders;
+
+import com.tech.labs.Concurrency.ExecutionMode;
+import com.tech.labs.LoadTest.LoadProfile;
+import com.tech.labs.Metrics.BankOperation;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Builds a {@link LoadProfile}. Without changes it builds 4 banks of 1000 clients with 3 accounts each, driven at
+ * 1000 operations per second by 8 threads for 10 seconds after 2 seconds of warmup, with a mix of 40% withdrawals,
+ * 30% replenishments, 25% transfers and 5% cancellations over accounts picked with a Zipf exponent of 1.
+ */
+@NoArgsConstructor
+public class LoadProfileBuilder {
+    private int banks = 4;
+    private int clientsPerBank = 1000;
+    private int accountsPerClient = 3;
+    private long initialBalance = 100000;
+    private long maxAmount = 1000;
+    private final Map<BankOperation, Integer> mix = defaultMix();
+    private double zipfExponent = 1;
+    private double rate = 1000;
+    private int threads = 8;
+    private Duration warmup = Duration.ofSeconds(2);
+    private Duration duration = Duration.ofSeconds(10);
+    private long seed = 42;
+    private ExecutionMode executionMode = ExecutionMode.LOCKING;
+
+    public LoadProfileBuilder addBanks(int banks) {
+        this.banks = banks;
+        return this;
+    }
+
+    public LoadProfileBuilder addClientsPerBank(int clientsPerBank) {
+        this.clientsPerBank = clientsPerBank;
+        return this;
+    }
+
+    public LoadProfileBuilder addAccountsPerClient(int accountsPerClient) {
+        this.accountsPerClient = accountsPerClient;
+        return this;
+    }
+
+    public LoadProfileBuilder addInitialBalance(long initialBalance) {
+        this.initialBalance = initialBalance;
+        return this;
+    }
+
+    public LoadProfileBuilder addMaxAmount(long maxAmount) {
+        this.maxAmount = maxAmount;
+        return this;
+    }
+
+    /**
+     * Sets the weight of one operation in the mix; a weight of 0 leaves the operation out.
+     *
+     * @param operation the operation
+     * @param weight    its weight relative to the other operations
+     * @return this builder
+     */
+    public LoadProfileBuilder addWeight(BankOperation operation, int weight) {
+        mix.put(operation, weight);
+        return this;
+    }
+
+    public LoadProfileBuilder addZipfExponent(double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+        return this;
+    }
+
+    public LoadProfileBuilder addRate(double rate) {
+        this.rate = rate;
+        return this;
+    }
+
+    public LoadProfileBuilder addThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public LoadProfileBuilder addWarmup(Duration warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public LoadProfileBuilder addDuration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    public LoadProfileBuilder addSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public LoadProfileBuilder addExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    public LoadProfile build() {
+        return new LoadProfile(banks, clientsPerBank, accountsPerClient, initialBalance, maxAmount, mix,
+                zipfExponent, rate, threads, warmup, duration, seed, executionMode);
+    }
+
+    private static Map<BankOperation, Integer> defaultMix() {
+        Map<BankOperation, Integer> mix = new EnumMap<>(BankOperation.class);
+        mix.put(BankOperation.WITHDRAW, 40);
+        mix.put(BankOperation.REPLENISH, 30);
+        mix.put(BankOperation.TRANSFER, 25);
+        mix.put(BankOperation.CANCEL, 5);
+        return mix;
+    }
+}
@@ -0,0 +1,305 @@
+package com.tech.labs.BulkLoad;
+
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Builders.ClientBuilder;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Entities.Client;
+import com.tech.labs.Exceptions.BankException;
+import com.tech.labs.Exceptions.ClientException;
+import com.tech.labs.Service.ServiceCentralBank;
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads the clients and accounts of a partner bank from a CSV file, one account per row:
+ *
+ * <pre>
+ * name,surname,address,passport,type,periodDays
+ * Artyom,Batmanov,KushelevskaiaDoroga,12345,DEBIT,
+ * </pre>
+ *
+ * <p>The header row is optional and fields are not quoted. An empty address or passport makes a dubious client;
+ * an empty period takes the deposit period of the bank. Rows with the passport of a registered client open
+ * another account of that client.
+ *
+ * <p>The file is counted first, so the client and account indices are sized once up front. Then the reading
+ * thread cuts it into chunks of {@value #CHUNK} rows, and a pool of workers parses the rows, builds the clients
+ * with {@link ClientBuilder} and registers them and their accounts, a few chunks ahead of the reader at most.
+ * Clients and accounts get their IDs from the central bank's {@link com.tech.labs.Identifiers.IdGenerator}.
+ * A row that fails validation, e.g. an address or passport {@link Client#setAddress} or
+ * {@link Client#setPassportNumber} rejects or a period that is not a positive number of days, goes to the rejects
+ * file as {@code line<TAB>reason<TAB>row} and the load goes on. A row is validated in full before its client is
+ * registered, so a rejected row registers nothing.
+ *
+ * <p>The indices are resized without locking, so nothing else may register clients or open accounts in the
+ * bank while a load is running.
+ */
+public class BulkLoader {
+    public static final String HEADER = "name,surname,address,passport,type,periodDays";
+    private static final int CHUNK = 4096;
+    private static final int FIELDS = 6;
+
+    private final ServiceCentralBank centralBank;
+    private final int parallelism;
+
+    public BulkLoader(@NonNull ServiceCentralBank centralBank) {
+        this(centralBank, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BulkLoader(@NonNull ServiceCentralBank centralBank, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.centralBank = centralBank;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Loads a file into a bank.
+     *
+     * @param bank    the bank to open the accounts in
+     * @param source  the CSV file to load
+     * @param rejects the file to write the rejected rows to; it is replaced
+     * @return the number of rows, clients, accounts and rejected rows
+     * @throws IOException if a file cannot be read or written
+     */
+    public LoadReport load(@NonNull Bank bank, @NonNull Path source, @NonNull Path rejects) throws IOException {
+        int lines = countLines(source);
+        centralBank.reserveClients(lines);
+        bank.reserveAccounts(lines);
+
+        Duration defaultPeriod = bank.getBankConfiguration().getDepositAccountConfiguration().getTime();
+        Counters counters = new Counters();
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "bulk-loader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> chunks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(source);
+             BufferedWriter rejected = Files.newBufferedWriter(rejects)) {
+            String line = reader.readLine();
+            int lineNumber = 1;
+            if (HEADER.equals(line)) {
+                line = reader.readLine();
+                lineNumber++;
+            }
+            while (line != null) {
+                int first = lineNumber;
+                String[] rows = new String[CHUNK];
+                int size = 0;
+                while (line != null && size < CHUNK) {
+                    rows[size++] = line;
+                    line = reader.readLine();
+                    lineNumber++;
+                }
+                Chunk chunk = new Chunk(bank, defaultPeriod, first, rows, size, counters, rejected);
+                inFlight.acquireUninterruptibly();
+                chunks.add(workers.submit(() -> {
+                    try {
+                        chunk.load();
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                await(chunk);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new LoadReport(counters.rows.sum(), counters.clients.sum(), counters.accounts.sum(),
+                counters.rejected.sum());
+    }
+
+    private static void await(Future<?> chunk) throws IOException {
+        try {
+            chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Counts the lines of a file by scanning its bytes, without decoding them.
+     */
+    private static int countLines(Path source) throws IOException {
+        long lines = 0;
+        boolean pending = false;
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < buffer.position(); i++) {
+                    if (bytes[i] == '\n') {
+                        lines++;
+                        pending = false;
+                    } else {
+                        pending = true;
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, pending ? lines + 1 : lines);
+    }
+
+    private static final class Counters {
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder clients = new LongAdder();
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    private final class Chunk {
+        private final Bank bank;
+        private final Duration defaultPeriod;
+        private final int firstLine;
+        private final String[] rows;
+        private final int size;
+        private final Counters counters;
+        private final BufferedWriter rejected;
+
+        private Chunk(Bank bank, Duration defaultPeriod, int firstLine, String[] rows, int size, Counters counters,
+                      BufferedWriter rejected) {
+            this.bank = bank;
+            this.defaultPeriod = defaultPeriod;
+            this.firstLine = firstLine;
+            this.rows = rows;
+            this.size = size;
+            this.counters = counters;
+            this.rejected = rejected;
+        }
+
+        private void load() {
+            String[] fields = new String[FIELDS];
+            StringBuilder rejects = null;
+            for (int i = 0; i < size; i++) {
+                try {
+                    loadRow(rows[i], fields);
+                } catch (ClientException | BankException | IllegalArgumentException e) {
+                    if (rejects == null) {
+                        rejects = new StringBuilder();
+                    }
+                    rejects.append(firstLine + i).append('\t').append(reason(e)).append('\t')
+                            .append(rows[i]).append(System.lineSeparator());
+                    counters.rejected.increment();
+                }
+            }
+            counters.rows.add(size);
+            if (rejects != null) {
+                synchronized (rejected) {
+                    try {
+                        rejected.append(rejects);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+
+        private void loadRow(String row, String[] fields) throws ClientException, BankException {
+            split(row, fields);
+            if (fields[0] == null || fields[1] == null) {
+                throw new IllegalArgumentException("Name and surname are required");
+            }
+            if (fields[4] == null) {
+                throw new IllegalArgumentException("Account type is required");
+            }
+            TypeOfBankAccount type = TypeOfBankAccount.valueOf(fields[4]);
+            Duration period = fields[5] == null ? defaultPeriod : period(fields[5]);
+
+            Client client = new ClientBuilder()
+                    .addId(centralBank.getIdGenerator().next())
+                    .addName(fields[0])
+                    .addSurname(fields[1])
+                    .build();
+            if (fields[2] != null) {
+                client.setAddress(fields[2]);
+            }
+            if (fields[3] != null) {
+                client.setPassportNumber(Long.valueOf(fields[3]));
+            }
+            Client registered = centralBank.registerClient(client);
+            if (registered == client) {
+                counters.clients.increment();
+            }
+            bank.createAccount(type, registered, period);
+            counters.accounts.increment();
+        }
+
+        /**
+         * Parses a period in days, checking that a deposit opened now with it ends at a time the clock can hold.
+         */
+        private Duration period(String days) {
+            long count = Long.parseLong(days);
+            if (count <= 0) {
+                throw new IllegalArgumentException("Period must be a positive number of days: " + days);
+            }
+            try {
+                Duration period = Duration.ofDays(count);
+                bank.getClock().currentTime().plus(period);
+                return period;
+            } catch (ArithmeticException | DateTimeException e) {
+                throw new IllegalArgumentException("Period is too long: " + days, e);
+            }
+        }
+
+        /**
+         * Gets the message of an exception on one line, so it fits into one field of the rejects file.
+         */
+        private String reason(Exception e) {
+            String message = e.getMessage();
+            return message == null ? e.getClass().getSimpleName() : message.replaceAll("\\s+", " ");
+        }
+
+        /**
+         * Splits a row into exactly {@value #FIELDS} fields, empty ones as {@code null}.
+         */
+        private void split(String row, String[] fields) {
+            int start = 0;
+            for (int i = 0; i < FIELDS; i++) {
+                int end = i == FIELDS - 1 ? row.length() : row.indexOf(',', start);
+                if (end < 0 || (i == FIELDS - 1 && row.indexOf(',', start) >= 0)) {
+                    throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+                }
+                fields[i] = end == start ? null : row.substring(start, end);
+                start = end + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.tech.labs.BulkLoad;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The outcome of one bulk load, see {@link BulkLoader}.
+ */
+@Getter
+@AllArgsConstructor
+public class LoadReport {
+    /**
+     * The number of data rows read, the header not included.
+     */
+    private final long rows;
+    /**
+     * The number of clients registered; rows of a client registered before reuse that client.
+     */
+    private final long clients;
+    private final long accounts;
+    /**
+     * The number of rows written to the rejects file.
+     */
+    private final long rejected;
+}
@@ -0,0 +1,205 @@
+package com.tech.labs.Clearing;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Collects the obligations between banks that cross-bank transfers create and settles them in cycles.
+ *
+ * <p>During a cycle every obligation is added to a bank by bank position matrix; recording one is a single atomic
+ * add under a shared lock, so transfers between different banks do not wait for each other. Closing the cycle nets
+ * the matrix multilaterally: every bank ends up with one net position, what all other banks owe it minus what it
+ * owes them. The banks that owe are then matched with the banks that are owed, largest amounts first, so a cycle is
+ * settled with fewer payments than there are banks with obligations, and two banks never exchange more than one
+ * payment per cycle, however many transfers went between them.
+ */
+public class ClearingHouse {
+    private static final int INITIAL_STRIDE = 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Bank indices of the matrix. Written only under the write lock, so readers holding the read lock see a
+     * stable map.
+     */
+    private final Map<UUID, Integer> indices = new HashMap<>();
+    private final List<UUID> banks = new ArrayList<>();
+    private final Map<UUID, Long> settledPositions = new ConcurrentHashMap<>();
+    private final LongAdder obligationCount = new LongAdder();
+    private final LongAdder grossAmount = new LongAdder();
+    private int stride = INITIAL_STRIDE;
+    /**
+     * What the bank of the row owes the bank of the column in the current cycle, in minor units.
+     */
+    private AtomicLongArray positions = new AtomicLongArray(INITIAL_STRIDE * INITIAL_STRIDE);
+    private long cycle;
+
+    /**
+     * Records that one bank owes another an amount in the current cycle.
+     *
+     * @param payerBankId the bank that owes the amount
+     * @param payeeBankId the bank that is owed the amount
+     * @param amount      the amount in minor units
+     * @throws IllegalArgumentException if both banks are the same or the amount is not positive
+     */
+    public void record(@NonNull UUID payerBankId, @NonNull UUID payeeBankId, long amount) {
+        if (payerBankId.equals(payeeBankId) || amount <= 0) {
+            throw new IllegalArgumentException("An obligation needs two banks and a positive amount");
+        }
+        lock.readLock().lock();
+        try {
+            Integer payer = indices.get(payerBankId);
+            Integer payee = indices.get(payeeBankId);
+            if (payer != null && payee != null) {
+                add(payer, payee, amount);
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            add(indexOf(payerBankId), indexOf(payeeBankId), amount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nets the obligations of the current cycle, settles them and starts the next cycle.
+     *
+     * @return the net positions and the settlement payments of the closed cycle
+     */
+    public ClearingReport closeCycle() {
+        lock.writeLock().lock();
+        try {
+            int size = banks.size();
+            Map<UUID, Long> netPositions = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                long net = 0;
+                boolean active = false;
+                for (int j = 0; j < size; j++) {
+                    long owed = positions.get(j * stride + i);
+                    long owes = positions.get(i * stride + j);
+                    net += owed - owes;
+                    active |= owed != 0 || owes != 0;
+                }
+                if (active) {
+                    netPositions.put(banks.get(i), net);
+                }
+            }
+            List<Settlement> settlements = settle(netPositions);
+            for (Settlement settlement : settlements) {
+                settledPositions.merge(settlement.getPayerBankId(), -settlement.getAmount(), Long::sum);
+                settledPositions.merge(settlement.getPayeeBankId(), settlement.getAmount(), Long::sum);
+            }
+            ClearingReport report = new ClearingReport(++cycle, obligationCount.sumThenReset(),
+                    grossAmount.sumThenReset(), Collections.unmodifiableMap(netPositions),
+                    Collections.unmodifiableList(settlements));
+            positions = new AtomicLongArray(stride * stride);
+            return report;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the sum of all settlements a bank took part in over the closed cycles.
+     *
+     * @param bankId the ID of the bank
+     * @return what the bank received minus what it paid, in minor units
+     */
+    public long getSettledPosition(UUID bankId) {
+        return settledPositions.getOrDefault(bankId, 0L);
+    }
+
+    /**
+     * @return the number of closed cycles
+     */
+    public long getCycle() {
+        lock.readLock().lock();
+        try {
+            return cycle;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(int payer, int payee, long amount) {
+        positions.getAndAdd(payer * stride + payee, amount);
+        obligationCount.increment();
+        grossAmount.add(amount);
+    }
+
+    private int indexOf(UUID bankId) {
+        Integer index = indices.get(bankId);
+        if (index != null) {
+            return index;
+        }
+        int size = banks.size();
+        if (size == stride) {
+            int newStride = stride * 2;
+            AtomicLongArray grown = new AtomicLongArray(newStride * newStride);
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    grown.set(i * newStride + j, positions.get(i * stride + j));
+                }
+            }
+            positions = grown;
+            stride = newStride;
+        }
+        indices.put(bankId, size);
+        banks.add(bankId);
+        return size;
+    }
+
+    /**
+     * Matches the banks with negative net positions with those with positive ones, largest first.
+     */
+    private static List<Settlement> settle(Map<UUID, Long> netPositions) {
+        Comparator<Map.Entry<UUID, Long>> largestFirst = Comparator
+                .comparingLong((Map.Entry<UUID, Long> entry) -> -Math.abs(entry.getValue()))
+                .thenComparing(Map.Entry::getKey);
+        List<Map.Entry<UUID, Long>> payers = new ArrayList<>();
+        List<Map.Entry<UUID, Long>> payees = new ArrayList<>();
+        for (Map.Entry<UUID, Long> entry : netPositions.entrySet()) {
+            if (entry.getValue() < 0) {
+                payers.add(entry);
+            } else if (entry.getValue() > 0) {
+                payees.add(entry);
+            }
+        }
+        payers.sort(largestFirst);
+        payees.sort(largestFirst);
+
+        List<Settlement> settlements = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        long toPay = payers.isEmpty() ? 0 : -payers.get(0).getValue();
+        long toReceive = payees.isEmpty() ? 0 : payees.get(0).getValue();
+        while (i < payers.size() && j < payees.size()) {
+            long amount = Math.min(toPay, toReceive);
+            settlements.add(new Settlement(payers.get(i).getKey(), payees.get(j).getKey(), amount));
+            toPay -= amount;
+            toReceive -= amount;
+            if (toPay == 0 && ++i < payers.size()) {
+                toPay = -payers.get(i).getValue();
+            }
+            if (toReceive == 0 && ++j < payees.size()) {
+                toReceive = payees.get(j).getValue();
+            }
+        }
+        return settlements;
+    }
+}
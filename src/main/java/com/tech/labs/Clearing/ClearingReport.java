@@ -0,0 +1,44 @@
+package com.tech.labs.Clearing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The outcome of one closed clearing cycle, see {@link ClearingHouse#closeCycle()}.
+ */
+@Getter
+@AllArgsConstructor
+public class ClearingReport {
+    /**
+     * The number of the cycle, starting from 1.
+     */
+    private final long cycle;
+    /**
+     * The number of obligations recorded during the cycle, reversals included.
+     */
+    private final long obligationCount;
+    /**
+     * The sum of all obligations of the cycle in minor units.
+     */
+    private final long grossAmount;
+    /**
+     * The net position of every bank with obligations: what it receives minus what it pays, in minor units.
+     */
+    private final Map<UUID, Long> netPositions;
+    private final List<Settlement> settlements;
+
+    /**
+     * @return the sum of all settlement payments in minor units
+     */
+    public long getSettledAmount() {
+        long amount = 0;
+        for (Settlement settlement : settlements) {
+            amount += settlement.getAmount();
+        }
+        return amount;
+    }
+}
@@ -0,0 +1,20 @@
+package com.tech.labs.Clearing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * One payment between two banks that settles a clearing cycle.
+ */
+@Getter
+@AllArgsConstructor
+public class Settlement {
+    private final UUID payerBankId;
+    private final UUID payeeBankId;
+    /**
+     * The amount in minor units, always positive.
+     */
+    private final long amount;
+}
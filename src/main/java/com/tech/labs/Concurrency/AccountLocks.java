@@ -0,0 +1,69 @@
+package com.tech.labs.Concurrency;
+
+import com.tech.labs.Accounts.BaseAccount;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Acquires the locks of several accounts in one global order (ascending account id),
+ * so two operations over the same accounts can never wait for each other in a cycle.
+ */
+public final class AccountLocks {
+    private static final Comparator<BaseAccount> LOCK_ORDER = Comparator.comparing(BaseAccount::getId);
+
+    private AccountLocks() {
+    }
+
+    /**
+     * Locks two accounts in global order. Passing the same account twice locks it once.
+     *
+     * @param first  the first account
+     * @param second the second account
+     */
+    public static void lock(BaseAccount first, BaseAccount second) {
+        if (first == second) {
+            first.getLock().lock();
+            return;
+        }
+        if (LOCK_ORDER.compare(first, second) > 0) {
+            BaseAccount swap = first;
+            first = second;
+            second = swap;
+        }
+        first.getLock().lock();
+        second.getLock().lock();
+    }
+
+    public static void unlock(BaseAccount first, BaseAccount second) {
+        second.getLock().unlock();
+        if (first != second) {
+            first.getLock().unlock();
+        }
+    }
+
+    /**
+     * Locks all given accounts in global order and returns them in the order they were locked,
+     * which must be passed to {@link #unlockAll(List)}. Duplicates are locked once.
+     *
+     * @param accounts the accounts to lock
+     * @return the locked accounts in lock order
+     */
+    public static List<BaseAccount> lockAll(Collection<BaseAccount> accounts) {
+        List<BaseAccount> ordered = accounts.stream()
+                .distinct()
+                .sorted(LOCK_ORDER)
+                .toList();
+        for (BaseAccount account : ordered) {
+            account.getLock().lock();
+        }
+        return ordered;
+    }
+
+    public static void unlockAll(List<BaseAccount> locked) {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).getLock().unlock();
+        }
+    }
+}
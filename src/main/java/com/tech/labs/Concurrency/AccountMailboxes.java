@@ -0,0 +1,188 @@
+package com.tech.labs.Concurrency;
+
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serial executors keyed by account ID on top of one shared executor. Tasks of one account run one at a time
+ * in submission order; tasks of different accounts run in parallel.
+ *
+ * <p>A task of two accounts waits at the head of both mailboxes and runs once it has reached both, so it is
+ * ordered against everything submitted to either account before and after it. It is put into both mailboxes
+ * while holding both of them, taken in ascending account ID order, so every mailbox sees such tasks in the same
+ * relative order and two mailboxes never wait for each other in a cycle.
+ *
+ * <p>A mailbox exists only while it has tasks; it is dropped as soon as it runs empty. A mailbox runs at most
+ * {@value #BATCH} tasks in a row before it gives the thread back to the executor. A task that throws does not
+ * stop its mailbox: the exception goes to the uncaught exception handler of the thread.
+ */
+public final class AccountMailboxes {
+    private static final int BATCH = 64;
+
+    private final Executor executor;
+    private final ConcurrentHashMap<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public AccountMailboxes(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs a task after all tasks submitted before for the account.
+     *
+     * @param accountId the ID of the account
+     * @param task      the task to run
+     */
+    public void submit(@NonNull UUID accountId, @NonNull Runnable task) {
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(accountId, Mailbox::new);
+            boolean start;
+            synchronized (mailbox) {
+                if (mailbox.closed) {
+                    continue;
+                }
+                start = mailbox.enqueue(task);
+            }
+            if (start) {
+                executor.execute(mailbox::drain);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Runs a task after all tasks submitted before for either account, and before any task submitted after it
+     * for either account. Passing the same account twice is the same as {@link #submit(UUID, Runnable)}.
+     *
+     * @param firstAccountId  the ID of one account
+     * @param secondAccountId the ID of the other account
+     * @param task            the task to run
+     */
+    public void submit(@NonNull UUID firstAccountId, @NonNull UUID secondAccountId, @NonNull Runnable task) {
+        if (firstAccountId.equals(secondAccountId)) {
+            submit(firstAccountId, task);
+            return;
+        }
+        UUID low = firstAccountId.compareTo(secondAccountId) < 0 ? firstAccountId : secondAccountId;
+        UUID high = low == firstAccountId ? secondAccountId : firstAccountId;
+        while (true) {
+            Mailbox first = mailboxes.computeIfAbsent(low, Mailbox::new);
+            Mailbox second = mailboxes.computeIfAbsent(high, Mailbox::new);
+            boolean startFirst;
+            boolean startSecond;
+            synchronized (first) {
+                synchronized (second) {
+                    if (first.closed || second.closed) {
+                        continue;
+                    }
+                    Joint joint = new Joint(task, first, second);
+                    startFirst = first.enqueue(joint);
+                    startSecond = second.enqueue(joint);
+                }
+            }
+            if (startFirst) {
+                executor.execute(first::drain);
+            }
+            if (startSecond) {
+                executor.execute(second::drain);
+            }
+            return;
+        }
+    }
+
+    /**
+     * @return the number of accounts with tasks that are queued or running
+     */
+    public int size() {
+        return mailboxes.size();
+    }
+
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private final class Mailbox {
+        private final UUID accountId;
+        /**
+         * The queued tasks, each a {@link Runnable} of this account or a {@link Joint}.
+         */
+        private final ArrayDeque<Object> queue = new ArrayDeque<>();
+        private boolean active;
+        private boolean closed;
+
+        private Mailbox(UUID accountId) {
+            this.accountId = accountId;
+        }
+
+        /**
+         * @return whether the mailbox was idle and has to be started
+         */
+        private boolean enqueue(Object task) {
+            queue.add(task);
+            if (active) {
+                return false;
+            }
+            active = true;
+            return true;
+        }
+
+        private void drain() {
+            for (int i = 0; i < BATCH; i++) {
+                Object task;
+                synchronized (this) {
+                    task = queue.poll();
+                    if (task == null) {
+                        active = false;
+                        closed = true;
+                        mailboxes.remove(accountId, this);
+                        return;
+                    }
+                }
+                if (task instanceof Joint joint) {
+                    if (!joint.arrive()) {
+                        return;
+                    }
+                    runSafely(joint.task);
+                    executor.execute(joint.other(this)::drain);
+                } else {
+                    runSafely((Runnable) task);
+                }
+            }
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * A task queued in two mailboxes. The mailbox that reaches it first stops; the one that reaches it second
+     * runs it and then resumes the first.
+     */
+    private static final class Joint {
+        private final Runnable task;
+        private final Mailbox first;
+        private final Mailbox second;
+        private final AtomicInteger pending = new AtomicInteger(2);
+
+        private Joint(Runnable task, Mailbox first, Mailbox second) {
+            this.task = task;
+            this.first = first;
+            this.second = second;
+        }
+
+        private boolean arrive() {
+            return pending.decrementAndGet() == 0;
+        }
+
+        private Mailbox other(Mailbox mailbox) {
+            return mailbox == first ? second : first;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.tech.labs.Concurrency;
+
+import com.tech.labs.Accounts.Commands.Command;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer, single-consumer queue of commands over pre-allocated slots.
+ *
+ * <p>A producer claims a sequence number, waits until the slot of that number is free, fills it and publishes it
+ * by writing the number into the slot. The consumer takes the slots strictly in sequence order. Nothing is
+ * allocated per command: the caller waits on a {@link Completion} of its own thread, which the consumer fills
+ * in before it frees the slot.
+ *
+ * <p>The ring is closed by publishing its last command with {@link #publishLast}: the sign bit of the claimed
+ * count is set in the same step as that command's sequence number is claimed, so every command published later
+ * is refused rather than queued behind it.
+ */
+final class CommandRing {
+    private static final int SPINS = 100;
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile boolean consumerParked;
+    private volatile Thread consumer;
+
+    CommandRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i - capacity);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Queues a command and returns without waiting for it. Blocks only while the ring is full.
+     *
+     * @return {@code false} if the ring is closed and the command was not queued
+     */
+    boolean publish(Command command, Completion completion) {
+        return publish(command, completion, false);
+    }
+
+    /**
+     * Queues the last command of the ring. Commands published afterwards are refused.
+     *
+     * @return {@code false} if the ring was closed already and the command was not queued
+     */
+    boolean publishLast(Command command, Completion completion) {
+        return publish(command, completion, true);
+    }
+
+    private boolean publish(Command command, Completion completion, boolean last) {
+        long sequence;
+        long next;
+        do {
+            sequence = claimed.get();
+            if (sequence < 0) {
+                return false;
+            }
+            next = last ? (sequence + 1) | CLOSED : sequence + 1;
+        } while (!claimed.compareAndSet(sequence, next));
+        int spins = 0;
+        while (sequence - consumed >= slots.length) {
+            spins = idle(spins);
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.command = command;
+        slot.completion = completion;
+        slot.sequence = sequence;
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Takes the command with the given sequence number, parking the consumer until it is published.
+     *
+     * @return the slot of the command, or {@code null} if the consumer was interrupted while waiting
+     */
+    Slot take(long sequence) {
+        Slot slot = slots[(int) sequence & mask];
+        int spins = 0;
+        while (slot.sequence != sequence) {
+            if (spins < SPINS) {
+                spins++;
+                Thread.onSpinWait();
+                continue;
+            }
+            consumer = Thread.currentThread();
+            consumerParked = true;
+            if (slot.sequence != sequence) {
+                LockSupport.park(this);
+            }
+            consumerParked = false;
+            if (Thread.interrupted()) {
+                return null;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Frees the slot of the given sequence number once its command has run.
+     */
+    void release(Slot slot, long sequence) {
+        slot.command = null;
+        slot.completion = null;
+        consumed = sequence + 1;
+    }
+
+    private static int idle(int spins) {
+        if (spins < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return spins + 1;
+    }
+
+    static final class Slot {
+        private volatile long sequence;
+        Command command;
+        Completion completion;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The outcome of one command, reused by its calling thread for all the commands it queues.
+     */
+    static final class Completion {
+        private final Thread waiter = Thread.currentThread();
+        private volatile boolean done;
+        private Throwable failure;
+
+        void reset() {
+            done = false;
+            failure = null;
+        }
+
+        void complete(Throwable failure) {
+            this.failure = failure;
+            done = true;
+            LockSupport.unpark(waiter);
+        }
+
+        Throwable await() {
+            int spins = 0;
+            while (!done) {
+                if (spins < SPINS) {
+                    spins++;
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.tech.labs.Concurrency;
+
+/**
+ * How a central bank applies balance updates.
+ */
+public enum ExecutionMode {
+    /**
+     * Every caller updates balances itself, holding the locks of the accounts it touches.
+     */
+    LOCKING,
+
+    /**
+     * Balances are updated by the shard writers of a {@link ShardedEngine}; callers wait for them.
+     */
+    SHARDED
+}
@@ -0,0 +1,181 @@
+package com.tech.labs.Concurrency;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.Commands.BalanceOperationCommand;
+import com.tech.labs.Accounts.Commands.Command;
+import com.tech.labs.Accounts.Commands.ShardedCommand;
+import com.tech.labs.Accounts.Commands.ShardedTransfer;
+import com.tech.labs.Accounts.Commands.Transfer;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Exceptions.TransactionException;
+
+import java.util.UUID;
+
+/**
+ * Runs the balance updates of accounts on shard writer threads. Accounts are split into shards by account ID,
+ * and every shard has one writer thread that takes commands from a {@link CommandRing}, so the balance of an
+ * account is only ever updated by the writer of its shard and its lock is never contended by other callers.
+ *
+ * <p>A caller queues a command for the shard of the account and waits until the writer has run it. A transfer
+ * between accounts of one shard runs on that shard as one command; a transfer between shards runs as a debit on
+ * the source shard followed by a credit on the target shard, see {@link ShardedTransfer}.
+ *
+ * <p>Writers are daemon threads; {@link #close()} stops them once the commands already queued have run.
+ * A command queued while the engine closes either runs before the writer stops or is refused.
+ */
+public final class ShardedEngine implements AutoCloseable {
+    private static final int RING_CAPACITY = 1024;
+
+    private final Shard[] shards;
+    private final ThreadLocal<CommandRing.Completion> completions = ThreadLocal.withInitial(CommandRing.Completion::new);
+
+    public ShardedEngine(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(UUID accountId) {
+        return shardOf(accountId, shards.length);
+    }
+
+    /**
+     * Gets the shard an account belongs to among the given number of shards.
+     *
+     * @param accountId  the ID of the account
+     * @param shardCount the number of shards
+     * @return the index of the shard
+     */
+    public static int shardOf(UUID accountId, int shardCount) {
+        int hash = accountId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    /**
+     * Wraps a command of one account so that it runs on the shard of the account.
+     *
+     * @param account the account the command updates
+     * @param command the command
+     * @return the command to put into a transaction
+     */
+    public BalanceOperationCommand route(BaseAccount account, BalanceOperationCommand command) {
+        return new ShardedCommand(this, account.getId(), command);
+    }
+
+    /**
+     * Creates the command of a transfer between two accounts.
+     *
+     * @param toAccount   the account to transfer to
+     * @param fromAccount the account to transfer from
+     * @param sum         the amount in minor units
+     * @return the command to put into a transaction
+     * @throws TransactionException if the sum is negative
+     */
+    public BalanceOperationCommand transfer(BaseAccount toAccount, BaseAccount fromAccount, long sum)
+            throws TransactionException {
+        if (shardOf(toAccount.getId()) == shardOf(fromAccount.getId())) {
+            return new ShardedCommand(this, fromAccount.getId(), new Transfer(toAccount, fromAccount, sum));
+        }
+        return new ShardedTransfer(this, toAccount, fromAccount, sum);
+    }
+
+    /**
+     * Runs a command on the shard of the account and waits for it. A command queued from the writer of that
+     * shard runs at once.
+     *
+     * @param accountId the ID of the account the command updates
+     * @param command   the command
+     * @throws TransactionException  if the command throws it
+     * @throws AccountException      if the command throws it
+     * @throws IllegalStateException if the engine is closed
+     */
+    public void execute(UUID accountId, Command command) throws TransactionException, AccountException {
+        Shard shard = shards[shardOf(accountId)];
+        if (Thread.currentThread() == shard.writer) {
+            command.execute();
+            return;
+        }
+        CommandRing.Completion completion = completions.get();
+        completion.reset();
+        if (!shard.ring.publish(command, completion)) {
+            throw new IllegalStateException("Sharded engine is closed");
+        }
+        Throwable failure = completion.await();
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof TransactionException e) {
+            throw e;
+        }
+        if (failure instanceof AccountException e) {
+            throw e;
+        }
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        throw (Error) failure;
+    }
+
+    /**
+     * Stops the writers once the commands already queued have run and waits for them. If interrupted while
+     * waiting, returns at once with the interrupt status of the thread set; the writers still stop.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.ring.publishLast(Shard.STOP, completions.get());
+        }
+        try {
+            for (Shard shard : shards) {
+                shard.writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Shard implements Runnable {
+        private static final Command STOP = () -> {
+        };
+
+        private final CommandRing ring = new CommandRing(RING_CAPACITY);
+        private final Thread writer;
+
+        private Shard(int index) {
+            writer = new Thread(this, "shard-writer-" + index);
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        @Override
+        public void run() {
+            for (long sequence = 0; ; sequence++) {
+                CommandRing.Slot slot = ring.take(sequence);
+                if (slot == null) {
+                    return;
+                }
+                Command command = slot.command;
+                CommandRing.Completion completion = slot.completion;
+                ring.release(slot, sequence);
+                if (command == STOP) {
+                    return;
+                }
+                Throwable failure = null;
+                try {
+                    command.execute();
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                completion.complete(failure);
+            }
+        }
+    }
+}
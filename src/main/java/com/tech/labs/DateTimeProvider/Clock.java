@@ -1,9 +1,29 @@
 package com.tech.labs.DateTimeProvider;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.function.Consumer;
 
 public interface Clock {
     LocalDateTime currentTime();
     void addAction(Consumer<LocalDateTime> action);
+
+    /**
+     * Schedules an action to run once when the clock reaches the given time.
+     *
+     * @param time   the time the action is due
+     * @param action the action to run, gets the time it was due
+     * @return the scheduled event, which can be cancelled
+     */
+    ScheduledEvent schedule(LocalDateTime time, Consumer<LocalDateTime> action);
+
+    /**
+     * Schedules an action to run at {@code first} and then every {@code period}.
+     *
+     * @param first  the time of the first run
+     * @param period the time between runs
+     * @param action the action to run, gets the time it was due
+     * @return the scheduled event, which can be cancelled
+     */
+    ScheduledEvent scheduleAtFixedRate(LocalDateTime first, Duration period, Consumer<LocalDateTime> action);
 }
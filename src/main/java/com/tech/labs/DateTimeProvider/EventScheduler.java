@@ -0,0 +1,81 @@
+package com.tech.labs.DateTimeProvider;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Priority queue of timed events ordered by due time, events due at the same time in scheduling order.
+ *
+ * <p>Taking the next due event costs O(log n) in the number of pending events, so advancing the time
+ * costs in proportion to the events that become due, not to everything that is scheduled.
+ * Cancelled events stay queued until they come up and are then dropped.
+ */
+public class EventScheduler {
+    private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>(
+            Comparator.comparing(ScheduledEvent::getTime).thenComparingLong(ScheduledEvent::getSequence));
+    private long sequence;
+
+    public synchronized ScheduledEvent schedule(LocalDateTime time, Consumer<LocalDateTime> action) {
+        return add(new ScheduledEvent(time, null, action, sequence++));
+    }
+
+    /**
+     * Schedules an action that fires at {@code first} and then every {@code period} until cancelled.
+     *
+     * @param first  the time of the first firing
+     * @param period the time between firings
+     * @param action the action to run, gets the time the firing was due
+     * @return the scheduled event
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public synchronized ScheduledEvent scheduleAtFixedRate(LocalDateTime first, Duration period,
+                                                           Consumer<LocalDateTime> action) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period of a recurring event must be positive");
+        }
+        return add(new ScheduledEvent(first, period, action, sequence++));
+    }
+
+    /**
+     * Takes the earliest event that is due at or before the given time.
+     *
+     * @param time the time up to which events are due
+     * @return the due event, or null if no event is due
+     */
+    synchronized ScheduledEvent pollDue(LocalDateTime time) {
+        while (!events.isEmpty()) {
+            ScheduledEvent next = events.peek();
+            if (next.getTime().isAfter(time)) {
+                return null;
+            }
+            events.poll();
+            if (!next.isCancelled()) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts a recurring event that has just fired back into the queue at its next time.
+     *
+     * @param event the event that fired
+     */
+    synchronized void requeue(ScheduledEvent event) {
+        if (event.reschedule()) {
+            events.add(event);
+        }
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+
+    private ScheduledEvent add(ScheduledEvent event) {
+        events.add(event);
+        return event;
+    }
+}
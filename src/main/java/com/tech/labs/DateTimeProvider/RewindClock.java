@@ -1,23 +1,45 @@
 package com.tech.labs.DateTimeProvider;
 
 import com.tech.labs.Exceptions.AccountException;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
-@AllArgsConstructor
+/**
+ * Simulated clock. Time only moves when it is advanced or rewound. Timed events are kept in an
+ * {@link EventScheduler}, so an advance over any number of days fires only the events that fall due,
+ * each with the clock set to its due time. Every change of time holds the clock's monitor, so the actions and
+ * listeners see the changes one at a time and in order.
+ */
 public class RewindClock implements Clock {
     @Getter
-    @Setter
-    private LocalDateTime currentTime;
+    private volatile LocalDateTime currentTime;
 
-    private List<Runnable> actions = new ArrayList<>();
+    private final List<Runnable> actions;
+    private final List<Consumer<LocalDateTime>> listeners = new CopyOnWriteArrayList<>();
+    @Getter
+    private final EventScheduler scheduler = new EventScheduler();
+
+    /**
+     * Constructs a clock set to the given time.
+     *
+     * @param currentTime the initial time
+     * @param actions     actions run once after every change of time
+     */
+    public RewindClock(LocalDateTime currentTime, List<Runnable> actions) {
+        this.currentTime = currentTime;
+        this.actions = new CopyOnWriteArrayList<>(actions);
+    }
+
+    public RewindClock(LocalDateTime currentTime) {
+        this(currentTime, new ArrayList<>());
+    }
 
     /**
      * Rewinds the time of the account by the specified amount and unit.
@@ -27,7 +49,7 @@ public class RewindClock implements Clock {
      * @param amount the amount of time to rewind
      * @throws AccountException if the amount is negative or the new time is before the current time
      */
-    public void rewindTime(ChronoUnit unit, long amount) throws AccountException {
+    public synchronized void rewindTime(ChronoUnit unit, long amount) throws AccountException {
         if (amount < 0) {
             throw new AccountException("Invalid period of account");
         }
@@ -38,16 +60,86 @@ public class RewindClock implements Clock {
         }
 
         this.currentTime = newTime;
-        actions.forEach(Runnable::run);
+        notifyActions();
+    }
+
+    /**
+     * Moves the time forward by the specified amount and unit, firing the events that fall due.
+     *
+     * @param unit   the unit of time to advance (e.g., days, months)
+     * @param amount the amount of time to advance
+     * @throws AccountException if the amount is negative
+     * @see #advanceTo(LocalDateTime)
+     */
+    public synchronized void advanceTime(ChronoUnit unit, long amount) throws AccountException {
+        if (amount < 0) {
+            throw new AccountException("Invalid period of account");
+        }
+        advanceTo(currentTime.plus(amount, unit));
+    }
+
+    /**
+     * Moves the time forward to the given time. Events due up to and including that time fire in order of
+     * due time, and the clock shows each event's due time while it runs. A recurring event fires once per
+     * period it crossed. The actions registered on the clock run once at the end, not once per day.
+     *
+     * @param time the new time
+     * @throws AccountException if the time is before the current time
+     */
+    public synchronized void advanceTo(LocalDateTime time) throws AccountException {
+        if (time.isBefore(currentTime)) {
+            throw new AccountException("Cannot advance time to the past");
+        }
+
+        ScheduledEvent event;
+        while ((event = scheduler.pollDue(time)) != null) {
+            if (event.getTime().isAfter(currentTime)) {
+                currentTime = event.getTime();
+            }
+            try {
+                event.fire();
+            } finally {
+                scheduler.requeue(event);
+            }
+        }
+
+        this.currentTime = time;
+        notifyActions();
+    }
+
+    /**
+     * Sets the time, forward or back, without firing the events due in between. The actions and listeners run
+     * as after an advance, so a jump is seen by everything that follows the clock, e.g. the journal.
+     *
+     * @param time the new time
+     */
+    public synchronized void setCurrentTime(LocalDateTime time) {
+        this.currentTime = time;
+        notifyActions();
     }
 
     @Override
     public LocalDateTime currentTime() {
-        return null;
+        return currentTime;
     }
 
     @Override
     public void addAction(Consumer<LocalDateTime> action) {
+        listeners.add(action);
+    }
+
+    @Override
+    public ScheduledEvent schedule(LocalDateTime time, Consumer<LocalDateTime> action) {
+        return scheduler.schedule(time, action);
+    }
 
+    @Override
+    public ScheduledEvent scheduleAtFixedRate(LocalDateTime first, Duration period, Consumer<LocalDateTime> action) {
+        return scheduler.scheduleAtFixedRate(first, period, action);
+    }
+
+    private void notifyActions() {
+        actions.forEach(Runnable::run);
+        listeners.forEach(listener -> listener.accept(currentTime));
     }
 }
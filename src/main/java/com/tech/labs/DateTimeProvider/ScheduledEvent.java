@@ -0,0 +1,59 @@
+package com.tech.labs.DateTimeProvider;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * An action scheduled on a {@link Clock}, once or at a fixed rate.
+ * The action gets the time the event was due, which for a recurring event differs between firings.
+ */
+public final class ScheduledEvent {
+    private final Consumer<LocalDateTime> action;
+    private final Duration period;
+    private final long sequence;
+    private volatile LocalDateTime time;
+    private volatile boolean cancelled;
+
+    ScheduledEvent(LocalDateTime time, Duration period, Consumer<LocalDateTime> action, long sequence) {
+        this.time = time;
+        this.period = period;
+        this.action = action;
+        this.sequence = sequence;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public boolean isRecurring() {
+        return period != null;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels the event. An event that is firing finishes, but is not fired again.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void fire() {
+        action.accept(time);
+    }
+
+    boolean reschedule() {
+        if (period == null || cancelled) {
+            return false;
+        }
+        time = time.plus(period);
+        return true;
+    }
+}
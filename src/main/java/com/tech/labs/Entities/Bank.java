@@ -2,37 +2,84 @@ package com.tech.labs.Entities;
 
 import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
 import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.AccountConfigurations.VersionedConfiguration;
 import com.tech.labs.Accounts.*;
 import com.tech.labs.Accounts.Commands.BalanceOperationCommand;
 import com.tech.labs.Accounts.Commands.Income;
+import com.tech.labs.Accounts.Commands.VelocityCheckedCommand;
 import com.tech.labs.Accounts.Commands.Withdraw;
+import com.tech.labs.Concurrency.ShardedEngine;
 import com.tech.labs.DateTimeProvider.Clock;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.BankException;
 import com.tech.labs.Exceptions.ObserverException;
 import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Identifiers.IdGenerator;
 import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Journal.Journal;
+import com.tech.labs.Ledger.StatementPage;
 import com.tech.labs.Observer.Observer;
+import com.tech.labs.Registry.AccountLoader;
+import com.tech.labs.Registry.AccountRegistry;
+import com.tech.labs.Registry.SubscriberRegistry;
+import com.tech.labs.Registry.TransactionRegistry;
 import com.tech.labs.Transaction.BankTransaction;
-import lombok.AllArgsConstructor;
+import com.tech.labs.Transaction.OperationType;
+import com.tech.labs.Transaction.State;
+import com.tech.labs.Velocity.VelocityLimit;
+import com.tech.labs.Velocity.VelocityLimiter;
 import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
 
 import java.time.Duration;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-@AllArgsConstructor
 public class Bank {
     @Getter
     private final UUID id;
     @Getter
     private final String name;
-    private final List<BaseAccount> bankAccounts = new ArrayList<>();
-    private final List<Observer<String>> subscribers = new ArrayList<Observer<String>>();
-    private final BankConfiguration bankConfiguration;
+    private final AccountRegistry bankAccounts = new AccountRegistry();
+    private final SubscriberRegistry subscribers = new SubscriberRegistry();
+    /**
+     * The current configuration of the bank, shared with its accounts.
+     */
+    @Getter
+    private final VersionedConfiguration configuration;
+    @Getter
     private final Clock clock;
+    @Setter
+    private volatile Journal journal = Journal.DISABLED;
+    /**
+     * The engine that runs the balance updates of this bank, or {@code null} if callers run them under the
+     * account locks themselves.
+     */
+    @Setter
+    private volatile ShardedEngine shardedEngine;
+    /**
+     * The source of the IDs of new accounts and transactions.
+     */
+    @Setter
+    @NonNull
+    private volatile IdGenerator idGenerator = IdGenerator.RANDOM;
+    /**
+     * The index the transactions of this bank are registered in, or {@code null} if they are not indexed.
+     */
+    @Setter
+    private volatile TransactionRegistry transactionRegistry;
+    /**
+     * The velocity limits on the money taken out of this bank, or {@code null} if there are none.
+     */
+    @Getter
+    private volatile VelocityLimiter velocityLimiter;
 
 
     /**
@@ -45,13 +92,36 @@ public class Bank {
      */
     public Bank(String name,
                 Clock clock, BankConfiguration bankConfiguration) {
+        this(UUID.randomUUID(), name, clock, bankConfiguration);
+    }
+
+    /**
+     * Constructs a Bank with a known ID, e.g. when the bank is restored from a journal.
+     *
+     * @param id                the ID of the bank
+     * @param name              the name of the bank
+     * @param clock             the clock for managing time-related operations
+     * @param bankConfiguration the configuration settings for the bank
+     * @throws IllegalArgumentException if the name is null or empty
+     */
+    public Bank(UUID id, String name, Clock clock, BankConfiguration bankConfiguration) {
         if (name == null || name.isEmpty()) {
             throw new IllegalArgumentException("Name cannot be null or empty");
         }
         this.name = name;
-        this.id = UUID.randomUUID();
+        this.id = id;
         this.clock = clock;
-        this.bankConfiguration = bankConfiguration;
+        this.configuration = new VersionedConfiguration(bankConfiguration);
+    }
+
+    /**
+     * Gets the current configuration of the bank. The configuration returned does not change; a caller that
+     * needs several settings should take it once and read them all from it.
+     *
+     * @return the current configuration
+     */
+    public BankConfiguration getBankConfiguration() {
+        return configuration.get();
     }
 
     /**
@@ -61,9 +131,55 @@ public class Bank {
      * @return an Optional containing the found account, or empty if not found
      */
     public Optional<BaseAccount> findAccount(UUID accountId) {
-        return bankAccounts.stream()
-                .filter(acc -> acc.getId().equals(accountId))
-                .findFirst();
+        return bankAccounts.find(accountId);
+    }
+
+    /**
+     * Gets all accounts of the given client in this bank.
+     *
+     * @param clientId the ID of the client
+     * @return the client's accounts, empty if the client has none in this bank
+     */
+    public Collection<BaseAccount> findClientAccounts(UUID clientId) {
+        return bankAccounts.accountsOf(clientId);
+    }
+
+    public Collection<BaseAccount> getAccounts() {
+        return bankAccounts.getAccounts();
+    }
+
+    public int getAccountCount() {
+        return bankAccounts.size();
+    }
+
+    /**
+     * Makes room for the given number of further accounts ahead of a bulk load, see
+     * {@link AccountRegistry#reserve(int)}. Must not run while accounts are being created.
+     *
+     * @param additional the number of accounts about to be created
+     */
+    public void reserveAccounts(int additional) {
+        bankAccounts.reserve(additional);
+    }
+
+    /**
+     * Backs the bank with accounts restored from a snapshot. They are built on first access.
+     *
+     * @param loader the source of the restored accounts
+     * @throws IllegalStateException if the bank already has accounts
+     */
+    public void attachAccounts(AccountLoader loader) {
+        bankAccounts.attach(loader);
+    }
+
+    /**
+     * Runs an action on the accounts in memory and the loader of the others, with no account built meanwhile,
+     * see {@link AccountRegistry#withLoadingHeld}.
+     *
+     * @param action gets the accounts in memory and the loader, or {@code null} if every account is in memory
+     */
+    public void withAccountsHeld(BiConsumer<Collection<BaseAccount>, AccountLoader> action) {
+        bankAccounts.withLoadingHeld(action);
     }
 
 
@@ -79,23 +195,31 @@ public class Bank {
                 .orElseThrow(() -> new AccountException("Account does not exist with ID: " + accountId));
     }
 
+    /**
+     * Subscribes an observer to configuration changes. A client is notified of the changes
+     * that concern the types of accounts it has in this bank.
+     *
+     * @param observer the observer to subscribe
+     * @throws ObserverException if the observer is already subscribed
+     */
     public void subscribe(Observer<String> observer) throws ObserverException {
         if (observer == null) {
             throw new NullPointerException("Observer cannot be null");
         }
 
-        if (subscribers.contains(observer)) {
+        Supplier<Collection<BaseAccount>> accounts = observer instanceof Clients client
+                ? () -> bankAccounts.accountsOf(client.getId())
+                : List::of;
+        if (!subscribers.subscribe(observer, accounts)) {
             throw ObserverException.subscribeAlreadyExists();
         }
-
-        subscribers.add(observer);
     }
 
     public void unsubscribe(Observer<String> observer) throws ObserverException {
         if (observer == null) {
             throw new NullPointerException("Observer cannot be null");
         }
-        if (!subscribers.remove(observer)) {
+        if (!subscribers.unsubscribe(observer)) {
             throw ObserverException.subscribeDoesNotExist();
         }
     }
@@ -103,6 +227,7 @@ public class Bank {
 
     /**
      * Creates a new bank account of the specified type for the given client.
+     * A deposit account gets its maturity payout scheduled on the bank clock.
      *
      * @param typeOfBankAccount the type of bank account to create
      * @param client            the client for whom the account is created
@@ -111,21 +236,44 @@ public class Bank {
      * @throws BankException if there is an error creating the account
      */
     public BaseAccount createAccount(TypeOfBankAccount typeOfBankAccount, Clients client, Duration endOfPeriod) throws BankException {
+        return createAccount(idGenerator.next(), typeOfBankAccount, client, endOfPeriod);
+    }
+
+    /**
+     * Creates a new bank account with a known ID, e.g. when the account is restored from a journal.
+     *
+     * @param accountId         the ID of the account
+     * @param typeOfBankAccount the type of bank account to create
+     * @param client            the client for whom the account is created
+     * @param endOfPeriod       the end of the deposit account's period
+     * @return the created bank account
+     * @throws BankException if there is an error creating the account
+     */
+    public BaseAccount createAccount(UUID accountId, TypeOfBankAccount typeOfBankAccount, Clients client,
+                                     Duration endOfPeriod) throws BankException {
         BaseAccount account;
         switch (typeOfBankAccount) {
             case CREDIT:
-                account = new CreditAccount(client, bankConfiguration);
+                account = new CreditAccount(accountId, client, configuration);
                 break;
             case DEBIT:
-                account = new DebitAccount(clock, client, bankConfiguration);
+                account = new DebitAccount(accountId, clock, client, configuration);
                 break;
             case DEPOSIT:
-                account = new DepositAccount(clock, client, bankConfiguration, endOfPeriod);
+                DepositAccount deposit = new DepositAccount(accountId, clock, client, configuration, endOfPeriod);
+                clock.schedule(deposit.getEndOfPeriod(), time -> deposit.maturityPayoff());
+                account = deposit;
                 break;
             default:
                 throw new IllegalArgumentException("Invalid type of bank account");
         }
-        bankAccounts.add(account);
+        try {
+            bankAccounts.register(account);
+        } catch (AccountException e) {
+            throw new BankException(e.getMessage());
+        }
+        subscribers.accountOpened(account);
+        journal.accountOpened(this, account, endOfPeriod);
         return account;
     }
 
@@ -136,20 +284,28 @@ public class Bank {
      * @param percent the new debit percent
      * @throws TransactionException if there is an error changing the percent
      */
-    public void changeDebitPercent(Integer percent) throws TransactionException {
-        bankConfiguration.getDebitAccountConfiguration().setDebitPercent(percent);
+    public void changeDebitPercent(int percent) throws TransactionException {
+        synchronized (configuration) {
+            configuration.update(current -> current.withDebitPercent(percent));
+            journal.debitPercentChanged(this, percent);
+        }
         notifyClients(TypeOfBankAccount.DEBIT, "New debit percent: " + percent + "%");
     }
 
 
     /**
      * Changes the deposit percents for the bank's deposit accounts.
+     * The percents are compiled into a tier table before they take effect; an invalid list is rejected
+     * and the current percents stay in place.
      *
      * @param depositPercents the new deposit percents
-     * @throws AccountException if there is an error changing the percents
+     * @throws AccountException if the list is empty or its tiers overlap or leave a gap
      */
     public void changeDepositPercents(List<DepositPercent> depositPercents) throws AccountException {
-        bankConfiguration.getDepositAccountConfiguration().setDepositPercents(depositPercents);
+        synchronized (configuration) {
+            configuration.update(current -> current.withDepositPercents(depositPercents));
+            journal.depositPercentsChanged(this, depositPercents);
+        }
         StringBuilder percents = new StringBuilder();
         depositPercents.forEach(dp -> percents.append(dp.getLeftBorder())
                 .append(" - ")
@@ -160,40 +316,88 @@ public class Bank {
         notifyClients(TypeOfBankAccount.DEPOSIT, "New deposit percents:\n" + percents.toString());
     }
 
-    public void changeCreditCommission(Integer commission) throws AccountException {
-        bankConfiguration.getCreditAccountConfiguration().setCreditCommission(commission);
+    public void changeCreditCommission(long commission) throws AccountException {
+        synchronized (configuration) {
+            configuration.update(current -> current.withCreditCommission(commission));
+            journal.creditCommissionChanged(this, commission);
+        }
         notifyClients(TypeOfBankAccount.CREDIT, "New credit commission: " + commission);
     }
 
-    public void changeCreditLimit(Integer creditLimit) throws AccountException {
-        bankConfiguration.getCreditAccountConfiguration().setCreditLimit(creditLimit);
+    public void changeCreditLimit(long creditLimit) throws AccountException {
+        synchronized (configuration) {
+            configuration.update(current -> current.withCreditLimit(creditLimit));
+            journal.creditLimitChanged(this, creditLimit);
+        }
         notifyClients(TypeOfBankAccount.CREDIT, "New credit limit: " + creditLimit);
     }
 
-    public void changeLimitForDubiousClient(Integer limitForDubiousClient) throws TransactionException {
-        bankConfiguration.setLimitForDubiousClient(limitForDubiousClient);
+    public void changeLimitForDubiousClient(long limitForDubiousClient) throws TransactionException {
+        synchronized (configuration) {
+            configuration.update(current -> current.withLimitForDubiousClient(limitForDubiousClient));
+            journal.limitForDubiousClientChanged(this, limitForDubiousClient);
+        }
         notifyClients(TypeOfBankAccount.CREDIT, "New limit for dubious client: " + limitForDubiousClient);
         notifyClients(TypeOfBankAccount.DEBIT, "New limit for dubious client: " + limitForDubiousClient);
         notifyClients(TypeOfBankAccount.DEPOSIT, "New limit for dubious client: " + limitForDubiousClient);
     }
 
 
+    /**
+     * Gets the transactions of an account committed in {@code [from, to)} by the bank clock, oldest first.
+     * The stream reads the history of the account in place.
+     *
+     * @param accountId the ID of the account
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, exclusive
+     * @return a stream over the transactions of the range
+     * @throws AccountException if the account does not exist
+     */
+    public Stream<BankTransaction> statement(UUID accountId, LocalDateTime from, LocalDateTime to)
+            throws AccountException {
+        return getAccount(accountId).getStatement(from, to);
+    }
+
+    /**
+     * Gets one page of the transactions of an account committed in {@code [from, to)} by the bank clock.
+     * The time it takes depends on the size of the page, not on the length of the history.
+     *
+     * @param accountId the ID of the account
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, exclusive
+     * @param cursor    the next cursor of the previous page, 0 for the first page
+     * @param limit     the largest number of transactions on the page
+     * @return the page
+     * @throws AccountException if the account does not exist
+     */
+    public StatementPage statement(UUID accountId, LocalDateTime from, LocalDateTime to, int cursor, int limit)
+            throws AccountException {
+        return getAccount(accountId).getStatement(from, to, cursor, limit);
+    }
+
     /**
      * Initiates an income transaction for the specified account.
      *
      * @param accountId the ID of the account to receive the income
-     * @param sum       the amount of money to add to the account
+     * @param sum       the amount of money to add to the account, in minor units
      * @return the transaction details
      * @throws TransactionException if there is an error with the transaction
      * @throws AccountException     if there is an error with the account
      */
-    public BankTransaction income(UUID accountId, Integer sum) throws TransactionException, AccountException {
-        BaseAccount account = getAccount(accountId);
-        BalanceOperationCommand incomeCommand = new Income(account, sum);
-        BankTransaction transaction = new BankTransaction(incomeCommand);
-        transaction.doTransaction();
-        account.saveChanges(transaction);
-        return transaction;
+    public BankTransaction income(UUID accountId, long sum) throws TransactionException, AccountException {
+        return income(getAccount(accountId), sum);
+    }
+
+    /**
+     * Initiates an income transaction for an account of this bank that was already looked up.
+     *
+     * @param account the account to receive the income
+     * @param sum     the amount of money to add to the account, in minor units
+     * @return the transaction details
+     * @throws TransactionException if there is an error with the transaction
+     */
+    public BankTransaction income(BaseAccount account, long sum) throws TransactionException {
+        return commit(account, new Income(account, sum), OperationType.INCOME, sum);
     }
 
 
@@ -201,17 +405,71 @@ public class Bank {
      * Initiates a withdrawal transaction for the specified account.
      *
      * @param accountId the ID of the account to withdraw from
-     * @param sum       the amount of money to withdraw
+     * @param sum       the amount of money to withdraw, in minor units
      * @return the transaction details
      * @throws AccountException     if there is an error with the account
      * @throws TransactionException if there is an error with the transaction
      */
-    public BankTransaction withdraw(UUID accountId, Integer sum) throws AccountException, TransactionException {
-        BaseAccount account = getAccount(accountId);
-        BalanceOperationCommand withdrawCommand = new Withdraw(account, sum);
-        BankTransaction transaction = new BankTransaction(withdrawCommand);
+    public BankTransaction withdraw(UUID accountId, long sum) throws AccountException, TransactionException {
+        return withdraw(getAccount(accountId), sum);
+    }
+
+    /**
+     * Initiates a withdrawal transaction for an account of this bank that was already looked up.
+     *
+     * @param account the account to withdraw from
+     * @param sum     the amount of money to withdraw, in minor units
+     * @return the transaction details
+     * @throws TransactionException if there is an error with the transaction
+     */
+    public BankTransaction withdraw(BaseAccount account, long sum) throws TransactionException {
+        return commit(account, limitVelocity(account, sum, new Withdraw(account, sum)), OperationType.WITHDRAW, sum);
+    }
+
+    /**
+     * Sets the velocity limits on the money taken out of this bank by withdrawals and transfers, replacing the
+     * limits set before together with what they have counted so far.
+     *
+     * @param clientLimit the limit per client over all its accounts in this bank, or {@code null} for none
+     * @param bankLimit   the limit over all clients of this bank together, or {@code null} for none
+     */
+    public void setVelocityLimits(VelocityLimit clientLimit, VelocityLimit bankLimit) {
+        velocityLimiter = clientLimit == null && bankLimit == null
+                ? null
+                : new VelocityLimiter(id, clock, clientLimit, bankLimit);
+    }
+
+    /**
+     * Wraps an operation that takes money out of an account of this bank so that it runs only within the
+     * velocity limits of the bank; a transaction of it that would go over them ends up
+     * {@link State#Rejected}.
+     *
+     * @param account the account the money leaves
+     * @param sum     the amount in minor units
+     * @param command the operation
+     * @return the command to put into a transaction
+     */
+    public BalanceOperationCommand limitVelocity(BaseAccount account, long sum, BalanceOperationCommand command) {
+        VelocityLimiter limiter = velocityLimiter;
+        return limiter == null ? command : new VelocityCheckedCommand(limiter, account.getClient(), sum, command);
+    }
+
+    private BankTransaction commit(BaseAccount account, BalanceOperationCommand command,
+                                   OperationType type, long sum) throws TransactionException {
+        ShardedEngine engine = shardedEngine;
+        BankTransaction transaction = new BankTransaction(idGenerator.next(),
+                engine == null ? command : engine.route(account, command));
+        transaction.setConfigurationVersion(configuration.get().getVersion());
         transaction.doTransaction();
+        transaction.setCommitTime(clock.currentTime());
         account.saveChanges(transaction);
+        TransactionRegistry registry = transactionRegistry;
+        if (registry != null) {
+            registry.register(this, transaction);
+        }
+        if (transaction.getTransactionState() == State.Ended) {
+            journal.transactionCommitted(transaction, type, account, account, sum);
+        }
         return transaction;
     }
 
@@ -222,11 +480,6 @@ public class Bank {
      * @param data       the data to send to clients
      */
     private void notifyClients(TypeOfBankAccount selectType, String data) {
-        bankAccounts.stream()
-                .filter(acc -> acc.getType().equals(selectType))
-                .filter(acc -> subscribers.contains(acc.getClient()))
-                .distinct()
-                .map(BaseAccount::getClient)
-                .forEach(client -> client.update(data));
+        subscribers.subscribersOf(selectType).forEach(client -> client.update(data));
     }
 }
\ No newline at end of file
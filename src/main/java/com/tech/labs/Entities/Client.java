@@ -2,6 +2,7 @@ package com.tech.labs.Entities;
 
 import com.tech.labs.Exceptions.ClientException;
 import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Registry.ClientRegistry;
 import lombok.NonNull;
 
 import java.util.ArrayList;
@@ -12,13 +13,32 @@ import java.util.UUID;
 
 public class Client implements Clients {
     private final List<String> updates = new ArrayList<>();
-    private final UUID id = UUID.randomUUID();
+    private final UUID id;
     private final String name;
     private final String surname;
-    private String address;
-    private Long passportNumber;
+    private volatile String address;
+    private volatile Long passportNumber;
+    /**
+     * The directory the client is registered in and reports its changes to, or {@code null} if it is not
+     * registered.
+     */
+    private volatile ClientRegistry clientRegistry;
 
     public Client(@NonNull String name, @NonNull String surname, String address, Long passportNumber) {
+        this(UUID.randomUUID(), name, surname, address, passportNumber);
+    }
+
+    /**
+     * Creates a client with a known ID, e.g. when the client is restored from a journal.
+     *
+     * @param id             the ID of the client
+     * @param name           the name of the client
+     * @param surname        the surname of the client
+     * @param address        the address, null if unknown
+     * @param passportNumber the passport number, null if unknown
+     */
+    public Client(@NonNull UUID id, @NonNull String name, @NonNull String surname, String address, Long passportNumber) {
+        this.id = id;
         this.name = name;
         this.surname = surname;
         this.address = address;
@@ -46,6 +66,7 @@ public class Client implements Clients {
             throw ClientException.invalidAddress();
         }
         this.address = address;
+        changed();
     }
 
     @Override
@@ -57,6 +78,10 @@ public class Client implements Clients {
         return passportNumber;
     }
 
+    public boolean hasPassport() {
+        return passportNumber != null;
+    }
+
     @Override
     public void setPassportNumber(Long passportNumber) throws ClientException {
         if (this.passportNumber != null) {
@@ -68,6 +93,7 @@ public class Client implements Clients {
         }
 
         this.passportNumber = passportNumber;
+        changed();
     }
 
     public boolean isDubious() {
@@ -81,4 +107,15 @@ public class Client implements Clients {
     public void update(String data) {
         updates.add(data);
     }
+
+    public void setClientRegistry(ClientRegistry clientRegistry) {
+        this.clientRegistry = clientRegistry;
+    }
+
+    private void changed() {
+        ClientRegistry registry = clientRegistry;
+        if (registry != null) {
+            registry.clientChanged(this);
+        }
+    }
 }
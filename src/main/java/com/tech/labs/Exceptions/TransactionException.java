@@ -24,6 +24,11 @@ public class TransactionException extends Exception {
         return new TransactionException("Transaction with id: " + id.toString() + " doesn't exist");
     }
 
+    public static TransactionException notReconciled(UUID accountId, long amount, String reason) {
+        return new TransactionException("Transaction failed and is not reconciled\n" + amount
+                + " was taken from account " + accountId + " and couldn't be returned: " + reason);
+    }
+
     public static TransactionException sumExceedingLimit(BigDecimal sum, long limit) {
         return new TransactionException("Sum " + sum + " exceeding the limit " + limit);
     }
@@ -0,0 +1,23 @@
+package com.tech.labs.Exceptions;
+
+import com.tech.labs.Velocity.VelocityLimit;
+
+import java.util.UUID;
+
+/**
+ * Thrown when an operation would take a client or a bank over a velocity limit; a transaction failing with it
+ * ends up {@link com.tech.labs.Transaction.State#Rejected}.
+ */
+public class VelocityLimitException extends TransactionException {
+    public VelocityLimitException(String message) {
+        super(message);
+    }
+
+    public static VelocityLimitException clientLimitExceeded(UUID clientId, VelocityLimit limit) {
+        return new VelocityLimitException("Velocity limit of client " + clientId + " exceeded: " + limit);
+    }
+
+    public static VelocityLimitException bankLimitExceeded(UUID bankId, VelocityLimit limit) {
+        return new VelocityLimitException("Velocity limit of bank " + bankId + " exceeded: " + limit);
+    }
+}
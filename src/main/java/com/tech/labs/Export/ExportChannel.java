@@ -0,0 +1,158 @@
+package com.tech.labs.Export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A file written through a direct buffer that is handed in and not owned. Values are encoded straight into the
+ * buffer, text included, so writing a record allocates nothing.
+ */
+final class ExportChannel implements AutoCloseable {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+    private long written;
+
+    ExportChannel(Path file, ByteBuffer buffer) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = buffer.clear();
+    }
+
+    /**
+     * Makes sure the next {@code bytes} bytes fit into the buffer, writing it out if they do not.
+     */
+    ExportChannel ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+        return this;
+    }
+
+    ExportChannel put(byte value) {
+        buffer.put(value);
+        return this;
+    }
+
+    ExportChannel put(byte[] bytes) {
+        buffer.put(bytes);
+        return this;
+    }
+
+    ExportChannel putShort(short value) {
+        buffer.putShort(value);
+        return this;
+    }
+
+    ExportChannel putInt(int value) {
+        buffer.putInt(value);
+        return this;
+    }
+
+    ExportChannel putLong(long value) {
+        buffer.putLong(value);
+        return this;
+    }
+
+    /**
+     * Puts a UUID as 16 bytes, or 16 zero bytes for {@code null}.
+     */
+    ExportChannel putUuid(UUID id) {
+        buffer.putLong(id == null ? 0 : id.getMostSignificantBits());
+        buffer.putLong(id == null ? 0 : id.getLeastSignificantBits());
+        return this;
+    }
+
+    /**
+     * Puts a UUID as its 36 characters of text, or nothing for {@code null}.
+     */
+    ExportChannel putUuidText(UUID id) {
+        if (id == null) {
+            return this;
+        }
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        putHex(most >>> 32, 8).put((byte) '-');
+        putHex(most >>> 16, 4).put((byte) '-');
+        putHex(most, 4).put((byte) '-');
+        putHex(least >>> 48, 4).put((byte) '-');
+        return putHex(least, 12);
+    }
+
+    ExportChannel putDecimal(long value) {
+        if (value == Long.MIN_VALUE) {
+            return put(Long.toString(value).getBytes());
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, position, digits.length - position);
+        return this;
+    }
+
+    /**
+     * Puts a time as {@code yyyy-MM-ddTHH:mm:ss.nnnnnnnnn}, or nothing for {@code null}.
+     */
+    ExportChannel putDateTime(LocalDateTime time) {
+        if (time == null) {
+            return this;
+        }
+        putPadded(time.getYear(), 4).put((byte) '-');
+        putPadded(time.getMonthValue(), 2).put((byte) '-');
+        putPadded(time.getDayOfMonth(), 2).put((byte) 'T');
+        putPadded(time.getHour(), 2).put((byte) ':');
+        putPadded(time.getMinute(), 2).put((byte) ':');
+        putPadded(time.getSecond(), 2).put((byte) '.');
+        return putPadded(time.getNano(), 9);
+    }
+
+    long getWritten() {
+        return written + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private ExportChannel putHex(long value, int length) {
+        for (int shift = (length - 1) * 4; shift >= 0; shift -= 4) {
+            buffer.put(HEX[(int) (value >>> shift) & 0xF]);
+        }
+        return this;
+    }
+
+    private ExportChannel putPadded(int value, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.put(digits, 0, length);
+        return this;
+    }
+}
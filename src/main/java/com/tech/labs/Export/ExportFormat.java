@@ -0,0 +1,24 @@
+package com.tech.labs.Export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The formats {@link LedgerExporter} writes.
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+    /**
+     * Comma-separated text with a header row. Balances and amounts are in minor units, times are ISO local
+     * date-times of the bank clock.
+     */
+    CSV("csv"),
+    /**
+     * Fixed-size big-endian records after a header of the magic number, the format version and the record kind;
+     * only the records of banks carry a variable-length name.
+     */
+    BINARY("bin");
+
+    private final String extension;
+}
@@ -0,0 +1,19 @@
+package com.tech.labs.Export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What one export wrote, see {@link LedgerExporter}.
+ */
+@Getter
+@AllArgsConstructor
+public class ExportReport {
+    private final long banks;
+    private final long accounts;
+    /**
+     * The number of transaction rows; a transfer is written once for each of its two accounts.
+     */
+    private final long transactions;
+    private final long bytes;
+}
@@ -0,0 +1,287 @@
+package com.tech.labs.Export;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Transaction.BankTransaction;
+import com.tech.labs.Transaction.OperationType;
+import com.tech.labs.Transaction.State;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dumps the balances and transaction histories of banks into files, in {@link ExportFormat#CSV} or
+ * {@link ExportFormat#BINARY}.
+ *
+ * <p>An export writes {@code banks.<ext>} with one row per bank, and for every bank
+ * {@code <bankId>-accounts.<ext>} and {@code <bankId>-transactions.<ext>}. A transaction row carries the account
+ * whose history it belongs to, so a transfer appears once in the history of each of its accounts.
+ *
+ * <p>Banks are written in parallel, each by one worker. Every file goes through a direct buffer and a
+ * {@link java.nio.channels.FileChannel}; the buffers are pooled by the exporter and reused by later exports, and
+ * rows are encoded straight into them without building strings. Balances and histories are read while the banks
+ * keep working, so the dump of an account is consistent with itself but not with other accounts.
+ */
+public class LedgerExporter {
+    /**
+     * {@code LEDX}, the first four bytes of every binary file.
+     */
+    public static final int MAGIC = 0x4C454458;
+    public static final short VERSION = 1;
+    public static final byte BANKS = 1;
+    public static final byte ACCOUNTS = 2;
+    public static final byte TRANSACTIONS = 3;
+    /**
+     * The size of a binary account record: bank, account and client IDs, type, balance, transaction count.
+     */
+    public static final int ACCOUNT_SIZE = 16 + 16 + 16 + 1 + 8 + 4;
+    /**
+     * The size of a binary transaction record: account and transaction IDs, state, type, amount, source and
+     * target account IDs, commit time as epoch nanoseconds.
+     */
+    public static final int TRANSACTION_SIZE = 16 + 16 + 1 + 1 + 8 + 16 + 16 + 8;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_ROW = 256;
+    private static final byte[] BANKS_HEADER = "bank_id,name,accounts\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ACCOUNTS_HEADER = "bank_id,account_id,client_id,type,balance,transactions\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRANSACTIONS_HEADER = ("account_id,transaction_id,state,type,amount,"
+            + "source_account_id,target_account_id,commit_time\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] STATES = names(State.values());
+    private static final byte[][] OPERATION_TYPES = names(OperationType.values());
+    private static final byte[][] ACCOUNT_TYPES = names(TypeOfBankAccount.values());
+
+    private final ExportFormat format;
+    private final int parallelism;
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    public LedgerExporter(@NonNull ExportFormat format) {
+        this(format, Runtime.getRuntime().availableProcessors());
+    }
+
+    public LedgerExporter(@NonNull ExportFormat format, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.format = format;
+        this.parallelism = parallelism;
+        this.buffers = new ArrayBlockingQueue<>(parallelism * 2);
+    }
+
+    /**
+     * Writes the given banks into a directory, replacing files of earlier exports.
+     *
+     * @param banks     the banks to export
+     * @param directory the directory to write to; it is created if missing
+     * @return the number of banks, accounts, transaction rows and bytes written
+     * @throws IOException if a file cannot be written
+     */
+    public ExportReport export(@NonNull Collection<Bank> banks, @NonNull Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Counters counters = new Counters();
+        List<long[]> accountCounts = new ArrayList<>();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "ledger-exporter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Bank bank : banks) {
+                long[] accounts = new long[1];
+                accountCounts.add(accounts);
+                tasks.add(workers.submit(() -> {
+                    accounts[0] = exportBank(bank, directory, counters);
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                await(task);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        ByteBuffer buffer = takeBuffer();
+        try (ExportChannel out = new ExportChannel(directory.resolve("banks." + format.getExtension()), buffer)) {
+            header(out, BANKS, BANKS_HEADER);
+            int i = 0;
+            for (Bank bank : banks) {
+                writeBank(out, bank, accountCounts.get(i++)[0]);
+            }
+            counters.bytes.add(out.getWritten());
+        } finally {
+            buffers.offer(buffer);
+        }
+        return new ExportReport(accountCounts.size(), counters.accounts.sum(), counters.transactions.sum(),
+                counters.bytes.sum());
+    }
+
+    private long exportBank(Bank bank, Path directory, Counters counters) throws IOException {
+        String prefix = bank.getId() + "-";
+        ByteBuffer accountBuffer = takeBuffer();
+        ByteBuffer transactionBuffer = takeBuffer();
+        long accountCount = 0;
+        try (ExportChannel accounts = new ExportChannel(
+                directory.resolve(prefix + "accounts." + format.getExtension()), accountBuffer);
+             ExportChannel transactions = new ExportChannel(
+                     directory.resolve(prefix + "transactions." + format.getExtension()), transactionBuffer)) {
+            header(accounts, ACCOUNTS, ACCOUNTS_HEADER);
+            header(transactions, TRANSACTIONS, TRANSACTIONS_HEADER);
+            for (BaseAccount account : bank.getAccounts()) {
+                int count = 0;
+                Iterator<BankTransaction> history = account.getTransactionHistory().iterator();
+                while (history.hasNext()) {
+                    writeTransaction(transactions, account.getId(), history.next());
+                    count++;
+                }
+                writeAccount(accounts, bank.getId(), account, count);
+                counters.transactions.add(count);
+                accountCount++;
+            }
+            counters.accounts.add(accountCount);
+            counters.bytes.add(accounts.getWritten() + transactions.getWritten());
+        } finally {
+            buffers.offer(accountBuffer);
+            buffers.offer(transactionBuffer);
+        }
+        return accountCount;
+    }
+
+    private void header(ExportChannel out, byte kind, byte[] csvHeader) throws IOException {
+        if (format == ExportFormat.CSV) {
+            out.ensure(csvHeader.length).put(csvHeader);
+        } else {
+            out.ensure(7).putInt(MAGIC).putShort(VERSION).put(kind);
+        }
+    }
+
+    private void writeBank(ExportChannel out, Bank bank, long accounts) throws IOException {
+        byte[] name = bank.getName().getBytes(StandardCharsets.UTF_8);
+        if (format == ExportFormat.CSV) {
+            out.ensure(MAX_ROW + 2 * name.length).putUuidText(bank.getId()).put((byte) ',').put((byte) '"');
+            for (byte b : name) {
+                if (b == '"') {
+                    out.put(b);
+                }
+                out.put(b);
+            }
+            out.put((byte) '"').put((byte) ',').putDecimal(accounts).put((byte) '\n');
+        } else {
+            out.ensure(16 + 4 + name.length + 8).putUuid(bank.getId()).putInt(name.length).put(name)
+                    .putLong(accounts);
+        }
+    }
+
+    private void writeAccount(ExportChannel out, UUID bankId, BaseAccount account, int transactions)
+            throws IOException {
+        out.ensure(MAX_ROW);
+        if (format == ExportFormat.CSV) {
+            out.putUuidText(bankId).put((byte) ',')
+                    .putUuidText(account.getId()).put((byte) ',')
+                    .putUuidText(account.getClient().getId()).put((byte) ',')
+                    .put(ACCOUNT_TYPES[account.getType().ordinal()]).put((byte) ',')
+                    .putDecimal(account.getBalance()).put((byte) ',')
+                    .putDecimal(transactions).put((byte) '\n');
+        } else {
+            out.putUuid(bankId)
+                    .putUuid(account.getId())
+                    .putUuid(account.getClient().getId())
+                    .put((byte) account.getType().ordinal())
+                    .putLong(account.getBalance())
+                    .putInt(transactions);
+        }
+    }
+
+    private void writeTransaction(ExportChannel out, UUID accountId, BankTransaction transaction)
+            throws IOException {
+        List<BaseAccount> accounts = transaction.getAccounts();
+        OperationType type = transaction.getType();
+        UUID source = type == OperationType.INCOME ? null : accounts.get(0).getId();
+        UUID target = type == OperationType.WITHDRAW ? null : accounts.get(accounts.size() - 1).getId();
+        LocalDateTime commitTime = transaction.getCommitTime();
+        out.ensure(MAX_ROW);
+        if (format == ExportFormat.CSV) {
+            out.putUuidText(accountId).put((byte) ',')
+                    .putUuidText(transaction.getId()).put((byte) ',')
+                    .put(STATES[transaction.getTransactionState().ordinal()]).put((byte) ',')
+                    .put(OPERATION_TYPES[type.ordinal()]).put((byte) ',')
+                    .putDecimal(transaction.getAmount()).put((byte) ',')
+                    .putUuidText(source).put((byte) ',')
+                    .putUuidText(target).put((byte) ',')
+                    .putDateTime(commitTime).put((byte) '\n');
+        } else {
+            out.putUuid(accountId)
+                    .putUuid(transaction.getId())
+                    .put((byte) transaction.getTransactionState().ordinal())
+                    .put((byte) type.ordinal())
+                    .putLong(transaction.getAmount())
+                    .putUuid(source)
+                    .putUuid(target)
+                    .putLong(commitTime == null ? Long.MIN_VALUE : epochNanos(commitTime));
+        }
+    }
+
+    private ByteBuffer takeBuffer() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private static long epochNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = value.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    private static void await(Future<?> task) throws IOException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder transactions = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+}
@@ -0,0 +1,15 @@
+package com.tech.labs.Identifiers;
+
+import java.util.UUID;
+
+/**
+ * Source of the IDs of clients, banks, accounts and transactions.
+ */
+public interface IdGenerator {
+    /**
+     * Random IDs from {@link UUID#randomUUID()}.
+     */
+    IdGenerator RANDOM = new RandomIdGenerator();
+
+    UUID next();
+}
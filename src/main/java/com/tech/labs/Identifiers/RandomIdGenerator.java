@@ -0,0 +1,14 @@
+package com.tech.labs.Identifiers;
+
+import java.util.UUID;
+
+/**
+ * Version 4 UUIDs from {@link UUID#randomUUID()}. They are unguessable, but every ID is drawn from one shared
+ * {@link java.security.SecureRandom}, and consecutive IDs are scattered over the whole ID space.
+ */
+public class RandomIdGenerator implements IdGenerator {
+    @Override
+    public UUID next() {
+        return UUID.randomUUID();
+    }
+}
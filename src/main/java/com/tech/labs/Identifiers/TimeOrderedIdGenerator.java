@@ -0,0 +1,79 @@
+package com.tech.labs.Identifiers;
+
+import lombok.Getter;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version 7 UUIDs (RFC 9562) that grow with every call: a millisecond timestamp, a sequence number within the
+ * millisecond, the node ID of the generator and random bits.
+ *
+ * <p>The most significant half is {@code [48 bits unix time in ms][4 bits version][12 bits sequence]}, the least
+ * significant half {@code [2 bits variant][14 bits node ID][48 random bits]}. Timestamp and sequence come from one
+ * atomic counter, so the IDs of one generator strictly increase in {@link UUID#compareTo} order even when the
+ * clock goes back or more than 4096 IDs are taken in one millisecond; the timestamp then runs ahead of the clock
+ * until the clock catches up. The random bits come from {@link ThreadLocalRandom}, so threads share nothing but
+ * the counter.
+ *
+ * <p>IDs of generators with different node IDs never collide. Generators with the same node ID, e.g. two nodes
+ * with a random node ID that happen to draw the same one, collide only if they also draw the same random bits.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    public static final int MAX_NODE_ID = (1 << 14) - 1;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final int NODE_SHIFT = 48;
+    private static final long RANDOM_MASK = (1L << NODE_SHIFT) - 1;
+
+    @Getter
+    private final int nodeId;
+    private final long nodeBits;
+    private final AtomicLong lastState = new AtomicLong();
+
+    /**
+     * Creates a generator with a random node ID.
+     */
+    public TimeOrderedIdGenerator() {
+        this(ThreadLocalRandom.current().nextInt(MAX_NODE_ID + 1));
+    }
+
+    /**
+     * Creates a generator for one node.
+     *
+     * @param nodeId the ID of the node, from 0 to {@value #MAX_NODE_ID}
+     */
+    public TimeOrderedIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = VARIANT | (long) nodeId << NODE_SHIFT;
+    }
+
+    @Override
+    public UUID next() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        long last;
+        long state;
+        do {
+            last = lastState.get();
+            state = Math.max(now, last + 1);
+        } while (!lastState.compareAndSet(last, state));
+        long mostSigBits = (state >>> SEQUENCE_BITS) << 16 | VERSION | (state & ((1 << SEQUENCE_BITS) - 1));
+        return new UUID(mostSigBits, nodeBits | ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+    }
+
+    /**
+     * Gets the time an ID of this kind was generated at, or the time its generator ran ahead to.
+     *
+     * @param id an ID created by a time-ordered generator
+     * @return the unix time of the ID in milliseconds
+     */
+    public static long timestampOf(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tech.labs.Interfaces;
+
+import com.tech.labs.Transaction.BankTransaction;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of the money operations of {@link CentralBank}. Operations on one account complete
+ * in the order they were submitted; operations on different accounts run in parallel. A future completes
+ * exceptionally with the exception the synchronous operation would have thrown.
+ */
+public interface AsyncCentralBank {
+    CompletableFuture<BankTransaction> replenishAccount(UUID bankId, UUID accountId, long amount);
+    CompletableFuture<BankTransaction> withdrawMoney(UUID bankId, UUID accountId, long amount);
+    CompletableFuture<BankTransaction> transferMoney(UUID bankId1, UUID accountId1, UUID bankId2, UUID accountId2, long amount);
+
+    CompletableFuture<Void> cancelTransaction(UUID bankId, UUID accountId, UUID transactionId);
+}
@@ -5,11 +5,14 @@ import com.tech.labs.DateTimeProvider.*;
 import com.tech.labs.Entities.*;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.BankException;
+import com.tech.labs.Exceptions.ClientException;
 import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Ledger.StatementPage;
 import com.tech.labs.Transaction.*;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
@@ -18,15 +21,28 @@ public interface CentralBank {
     RewindClock getRewindClock();
 
     Clients registerClient(String name, String surname, String address, Long passport);
+    Clients findClient(UUID clientId) throws ClientException;
+    Clients findClientByPassport(long passportNumber) throws ClientException;
+    List<? extends Clients> searchClients(String prefix, int limit);
+    Collection<? extends Clients> getDubiousClients();
     Bank findBankByName(String name) throws BankException;
 
-    BankTransaction withdrawMoney(UUID bankId, UUID accountId, double amount) throws TransactionException, AccountException, BankException;
-    BankTransaction transferMoney(UUID bankId1, UUID accountId1, UUID bankId2, UUID accountId2, double amount) throws AccountException, TransactionException, BankException;
-    Bank createBank(String name, double debitPercent, List<DepositPercent> depositPercents,
-                    double creditCommission, double creditLimit, double limitForDubiousClient,
+    BankTransaction withdrawMoney(UUID bankId, UUID accountId, long amount) throws TransactionException, AccountException, BankException;
+    BankTransaction transferMoney(UUID bankId1, UUID accountId1, UUID bankId2, UUID accountId2, long amount) throws AccountException, TransactionException, BankException;
+    Bank createBank(String name, int debitPercent, List<DepositPercent> depositPercents,
+                    long creditCommission, long creditLimit, long limitForDubiousClient,
                     Duration endOfPeriod) throws BankException, AccountException, TransactionException;
 
-    BankTransaction replenishAccount(UUID bankId, UUID accountId, double amount) throws TransactionException, AccountException, BankException;
+    BankTransaction replenishAccount(UUID bankId, UUID accountId, long amount) throws TransactionException, AccountException, BankException;
+
+    BatchResult submitBatch(List<BatchOperation> operations);
+
+    StatementPage getStatement(UUID bankId, UUID accountId, LocalDateTime from, LocalDateTime to,
+                               int cursor, int limit) throws AccountException, BankException;
 
     void cancelTransaction(UUID bankId, UUID accountId, UUID transactionId) throws AccountException, TransactionException, BankException;
+
+    void cancelTransaction(UUID transactionId) throws TransactionException;
+
+    BatchResult reverseClientTransactions(UUID clientId, LocalDateTime since) throws ClientException;
 }
@@ -12,6 +12,7 @@ public interface Clients extends Observer<String> {
     String getSurname();
     String getAddress();
     long getPassportNumber();
+    boolean hasPassport();
 
     void setPassportNumber(Long passportNumber) throws ClientException;
 
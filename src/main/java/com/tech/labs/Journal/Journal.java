@@ -0,0 +1,86 @@
+package com.tech.labs.Journal;
+
+import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.BankTransaction;
+import com.tech.labs.Transaction.OperationType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Write-ahead journal of the changes made to a central bank.
+ *
+ * <p>Every method is called after the change was applied in memory and before the operation returns,
+ * so an operation that returned is in the journal. Only committed changes are recorded: failed
+ * transactions and rejected configuration changes are not. Interest accrual and deposit maturity are not
+ * recorded either; they follow from the clock moves, which are. Implementations report a write failure
+ * with {@link java.io.UncheckedIOException}. All methods do nothing by default.
+ */
+public interface Journal {
+    Journal DISABLED = new Journal() {
+    };
+
+    default void bankCreated(Bank bank, int debitPercent, List<DepositPercent> depositPercents,
+                             long creditCommission, long creditLimit, long limitForDubiousClient,
+                             Duration endOfPeriod) {
+    }
+
+    default void clientRegistered(Clients client) {
+    }
+
+    /**
+     * Records the address and passport of a registered client after one of them was set.
+     *
+     * @param client the client that has changed
+     */
+    default void clientChanged(Clients client) {
+    }
+
+    default void accountOpened(Bank bank, BaseAccount account, Duration endOfPeriod) {
+    }
+
+    /**
+     * Records a committed transaction. For income and withdrawal the source and target are the same account.
+     * Along with the amount, implementations record {@link BankTransaction#getDebited()}, so a replay changes
+     * the balances by what the transaction actually did, credit commission included.
+     *
+     * @param transaction the committed transaction
+     * @param type        the kind of operation
+     * @param source      the account the money comes from, or the account of an income
+     * @param target      the account the money goes to, or the account of a withdrawal
+     * @param amount      the amount of the operation
+     */
+    default void transactionCommitted(BankTransaction transaction, OperationType type,
+                                      BaseAccount source, BaseAccount target, long amount) {
+    }
+
+    /**
+     * Records a cancelled transaction, with {@link BankTransaction#getDebitedOnCancel()} for the same reason.
+     *
+     * @param transaction the cancelled transaction
+     */
+    default void transactionCanceled(BankTransaction transaction) {
+    }
+
+    default void clockMoved(LocalDateTime time) {
+    }
+
+    default void debitPercentChanged(Bank bank, int percent) {
+    }
+
+    default void depositPercentsChanged(Bank bank, List<DepositPercent> depositPercents) {
+    }
+
+    default void creditCommissionChanged(Bank bank, long commission) {
+    }
+
+    default void creditLimitChanged(Bank bank, long creditLimit) {
+    }
+
+    default void limitForDubiousClientChanged(Bank bank, long limit) {
+    }
+}
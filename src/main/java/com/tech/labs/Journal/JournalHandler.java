@@ -0,0 +1,54 @@
+package com.tech.labs.Journal;
+
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Transaction.OperationType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Receives the records of a journal in the order they were written, decoded back to ids and values.
+ * Deposit percents come as {@code {percent, leftBorder, rightBorder}} triples.
+ */
+public interface JournalHandler {
+    void bankCreated(UUID bankId, String name, int debitPercent, List<long[]> depositPercents,
+                     long creditCommission, long creditLimit, long limitForDubiousClient,
+                     Duration endOfPeriod) throws Exception;
+
+    void clientRegistered(UUID clientId, String name, String surname, String address, Long passport) throws Exception;
+
+    /**
+     * Receives the address and passport of a client after one of them was set.
+     *
+     * @param address  the address, null if unknown
+     * @param passport the passport number, null if unknown
+     */
+    void clientChanged(UUID clientId, String address, Long passport) throws Exception;
+
+    void accountOpened(UUID bankId, UUID accountId, TypeOfBankAccount type, Duration endOfPeriod,
+                       UUID clientId, String name, String surname, String address, Long passport) throws Exception;
+
+    /**
+     * Receives a committed transaction.
+     *
+     * @param debited how much the transaction took out of the source, credit commission included
+     */
+    void transactionCommitted(UUID transactionId, OperationType type, UUID sourceId, UUID targetId,
+                              long amount, long debited) throws Exception;
+
+    /**
+     * Receives a cancelled transaction.
+     *
+     * @param debited how much the cancellation took out of the account the money returned from, credit
+     *                commission included
+     */
+    void transactionCanceled(UUID transactionId, long debited) throws Exception;
+
+    void clockMoved(LocalDateTime time) throws Exception;
+
+    void configurationChanged(UUID bankId, RecordType type, long value) throws Exception;
+
+    void depositPercentsChanged(UUID bankId, List<long[]> depositPercents) throws Exception;
+}
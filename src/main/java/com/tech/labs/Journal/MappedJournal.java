@@ -0,0 +1,525 @@
+package com.tech.labs.Journal;
+
+import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Transaction.BankTransaction;
+import com.tech.labs.Transaction.OperationType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Journal kept in an append-only file that is written through memory-mapped segments.
+ *
+ * <p>The file starts with a header holding the clock time the journal was started at, followed by records
+ * {@code [length][crc32][type][payload]}; a zero length marks the end. An append copies the record into the
+ * mapping and then waits until it is on disk. Waiting writers share flushes (group commit): one of them
+ * forces everything written so far while the others wait, so under load many commits cost one flush.
+ */
+public class MappedJournal implements Journal, Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 16 << 20;
+
+    private static final long MAGIC = 0x4C41424A524E4C31L;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ThreadLocal<ByteBuffer> encoders = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+    private final ThreadLocal<CRC32> checksums = ThreadLocal.withInitial(CRC32::new);
+    private long writePosition;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushDone = flushLock.newCondition();
+    private long durablePosition;
+    private boolean flushing;
+
+    private MappedJournal(FileChannel channel, int segmentSize, long writePosition) {
+        this.channel = channel;
+        this.segmentSize = segmentSize;
+        this.writePosition = writePosition;
+        this.durablePosition = writePosition;
+    }
+
+    /**
+     * Opens a journal for appending. A new file gets a header with the given clock time;
+     * an existing file keeps its header and is appended to after its last valid record.
+     *
+     * @param file       the journal file
+     * @param clockStart the clock time recovery starts the clock at, used only for a new file
+     * @return the opened journal
+     * @throws IOException if the file cannot be created, read or mapped
+     */
+    public static MappedJournal open(Path file, LocalDateTime clockStart) throws IOException {
+        return open(file, clockStart, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static MappedJournal open(Path file, LocalDateTime clockStart, int segmentSize) throws IOException {
+        if (segmentSize < HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + HEADER_SIZE);
+        }
+        boolean created = !Files.exists(file) || Files.size(file) == 0;
+        long end = created ? HEADER_SIZE : scan(file, null);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedJournal journal = new MappedJournal(channel, segmentSize, end);
+        if (created) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).putInt(0);
+            writeTime(header, clockStart);
+            header.flip();
+            journal.copy(0, header);
+            journal.force(0, HEADER_SIZE);
+        }
+        return journal;
+    }
+
+    /**
+     * Reads the clock time stored in the header of a journal.
+     *
+     * @param file the journal file
+     * @return the clock time the journal was started at
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static LocalDateTime readClockStart(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    /**
+     * Passes every record of a journal to the handler, in the order they were written.
+     * Reading stops at the end marker or at the first torn or corrupt record.
+     *
+     * @param file    the journal file
+     * @param handler the handler to pass the records to
+     * @throws IOException if the file cannot be read or a record cannot be applied
+     */
+    public static void read(Path file, JournalHandler handler) throws IOException {
+        scan(file, handler);
+    }
+
+    @Override
+    public void bankCreated(Bank bank, int debitPercent, List<DepositPercent> depositPercents,
+                            long creditCommission, long creditLimit, long limitForDubiousClient,
+                            Duration endOfPeriod) {
+        ByteBuffer buffer = begin(RecordType.BANK_CREATED);
+        buffer = putUuid(buffer, bank.getId());
+        buffer = putString(buffer, bank.getName());
+        buffer = ensure(buffer, 40);
+        buffer.putInt(debitPercent).putLong(creditCommission).putLong(creditLimit).putLong(limitForDubiousClient);
+        buffer.putLong(endOfPeriod.getSeconds()).putInt(endOfPeriod.getNano());
+        buffer = putPercents(buffer, depositPercents);
+        append(buffer);
+    }
+
+    @Override
+    public void clientRegistered(Clients client) {
+        append(putClient(begin(RecordType.CLIENT_REGISTERED), client));
+    }
+
+    @Override
+    public void clientChanged(Clients client) {
+        ByteBuffer buffer = putUuid(begin(RecordType.CLIENT_CHANGED), client.getId());
+        append(putPassport(putString(buffer, client.getAddress()), client));
+    }
+
+    @Override
+    public void accountOpened(Bank bank, BaseAccount account, Duration endOfPeriod) {
+        ByteBuffer buffer = begin(RecordType.ACCOUNT_OPENED);
+        buffer = putUuid(buffer, bank.getId());
+        buffer = putUuid(buffer, account.getId());
+        buffer = ensure(buffer, 13);
+        buffer.put((byte) account.getType().ordinal());
+        buffer.putLong(endOfPeriod.getSeconds()).putInt(endOfPeriod.getNano());
+        append(putClient(buffer, account.getClient()));
+    }
+
+    @Override
+    public void transactionCommitted(BankTransaction transaction, OperationType type,
+                                     BaseAccount source, BaseAccount target, long amount) {
+        ByteBuffer buffer = begin(RecordType.TRANSACTION_COMMITTED);
+        buffer = putUuid(buffer, transaction.getId());
+        buffer = ensure(buffer, 1);
+        buffer.put((byte) type.ordinal());
+        buffer = putUuid(buffer, source.getId());
+        buffer = putUuid(buffer, target.getId());
+        buffer = ensure(buffer, 16);
+        buffer.putLong(amount);
+        buffer.putLong(transaction.getDebited());
+        append(buffer);
+    }
+
+    @Override
+    public void transactionCanceled(BankTransaction transaction) {
+        ByteBuffer buffer = ensure(putUuid(begin(RecordType.TRANSACTION_CANCELED), transaction.getId()), 8);
+        buffer.putLong(transaction.getDebitedOnCancel());
+        append(buffer);
+    }
+
+    @Override
+    public void clockMoved(LocalDateTime time) {
+        ByteBuffer buffer = ensure(begin(RecordType.CLOCK_MOVED), 12);
+        writeTime(buffer, time);
+        append(buffer);
+    }
+
+    @Override
+    public void debitPercentChanged(Bank bank, int percent) {
+        appendChange(RecordType.DEBIT_PERCENT_CHANGED, bank, percent);
+    }
+
+    @Override
+    public void depositPercentsChanged(Bank bank, List<DepositPercent> depositPercents) {
+        ByteBuffer buffer = putUuid(begin(RecordType.DEPOSIT_PERCENTS_CHANGED), bank.getId());
+        append(putPercents(buffer, depositPercents));
+    }
+
+    @Override
+    public void creditCommissionChanged(Bank bank, long commission) {
+        appendChange(RecordType.CREDIT_COMMISSION_CHANGED, bank, commission);
+    }
+
+    @Override
+    public void creditLimitChanged(Bank bank, long creditLimit) {
+        appendChange(RecordType.CREDIT_LIMIT_CHANGED, bank, creditLimit);
+    }
+
+    @Override
+    public void limitForDubiousClientChanged(Bank bank, long limit) {
+        appendChange(RecordType.LIMIT_FOR_DUBIOUS_CLIENT_CHANGED, bank, limit);
+    }
+
+    /**
+     * Gets the position after the last record written, header included.
+     *
+     * @return the size of the journal's content in bytes
+     */
+    public synchronized long size() {
+        return writePosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            segments.clear();
+        }
+        channel.close();
+    }
+
+    private void appendChange(RecordType type, Bank bank, long value) {
+        ByteBuffer buffer = ensure(putUuid(begin(type), bank.getId()), 8);
+        buffer.putLong(value);
+        append(buffer);
+    }
+
+    private ByteBuffer begin(RecordType type) {
+        ByteBuffer buffer = encoders.get();
+        buffer.clear();
+        buffer.position(RECORD_HEADER_SIZE);
+        buffer.put(type.getCode());
+        return buffer;
+    }
+
+    private void append(ByteBuffer buffer) {
+        encoders.set(buffer);
+        int length = buffer.position() - RECORD_HEADER_SIZE;
+        CRC32 crc = checksums.get();
+        crc.reset();
+        crc.update(buffer.array(), RECORD_HEADER_SIZE, length);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+
+        long end;
+        try {
+            synchronized (this) {
+                copy(writePosition, buffer);
+                writePosition += buffer.limit();
+                end = writePosition;
+            }
+            awaitDurable(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write to the journal", e);
+        }
+    }
+
+    private void awaitDurable(long end) throws IOException {
+        flushLock.lock();
+        try {
+            while (durablePosition < end) {
+                if (flushing) {
+                    flushDone.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                long from = durablePosition;
+                long to = from;
+                flushLock.unlock();
+                try {
+                    synchronized (this) {
+                        to = writePosition;
+                    }
+                    force(from, to);
+                } finally {
+                    flushLock.lock();
+                    flushing = false;
+                    if (to > durablePosition) {
+                        durablePosition = to;
+                    }
+                    flushDone.signalAll();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void copy(long position, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            MappedByteBuffer segment = segment((int) (position / segmentSize));
+            int offset = (int) (position % segmentSize);
+            int length = Math.min(source.remaining(), segmentSize - offset);
+            segment.put(offset, source, source.position(), length);
+            source.position(source.position() + length);
+            position += length;
+        }
+    }
+
+    private void force(long from, long to) throws IOException {
+        while (from < to) {
+            MappedByteBuffer segment;
+            synchronized (this) {
+                segment = segment((int) (from / segmentSize));
+            }
+            int offset = (int) (from % segmentSize);
+            int length = (int) Math.min(to - from, segmentSize - offset);
+            segment.force(offset, length);
+            from += length;
+        }
+    }
+
+    private MappedByteBuffer segment(int index) throws IOException {
+        while (segments.size() <= index) {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentSize, segmentSize));
+        }
+        return segments.get(index);
+    }
+
+    private static long scan(Path file, JournalHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            readHeader(channel);
+            long position = HEADER_SIZE;
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            while (position + RECORD_HEADER_SIZE <= size) {
+                header.clear();
+                channel.read(header, position);
+                int length = header.getInt(0);
+                if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.allocate(length);
+                channel.read(record, position + RECORD_HEADER_SIZE);
+                crc.reset();
+                crc.update(record.array(), 0, length);
+                if ((int) crc.getValue() != header.getInt(4)) {
+                    break;
+                }
+                if (handler != null) {
+                    record.flip();
+                    try {
+                        dispatch(record, handler);
+                    } catch (Exception e) {
+                        throw new IOException("Couldn't replay the journal record at " + position, e);
+                    }
+                }
+                position += RECORD_HEADER_SIZE + length;
+            }
+            return position;
+        }
+    }
+
+    private static void dispatch(ByteBuffer record, JournalHandler handler) throws Exception {
+        RecordType type = RecordType.of(record.get());
+        switch (type) {
+            case BANK_CREATED: {
+                UUID bankId = getUuid(record);
+                String name = getString(record);
+                int debitPercent = record.getInt();
+                long creditCommission = record.getLong();
+                long creditLimit = record.getLong();
+                long limitForDubiousClient = record.getLong();
+                Duration endOfPeriod = Duration.ofSeconds(record.getLong(), record.getInt());
+                handler.bankCreated(bankId, name, debitPercent, getPercents(record), creditCommission,
+                        creditLimit, limitForDubiousClient, endOfPeriod);
+                break;
+            }
+            case CLIENT_REGISTERED:
+                handler.clientRegistered(getUuid(record), getString(record), getString(record), getString(record),
+                        getPassport(record));
+                break;
+            case CLIENT_CHANGED:
+                handler.clientChanged(getUuid(record), getString(record), getPassport(record));
+                break;
+            case ACCOUNT_OPENED: {
+                UUID bankId = getUuid(record);
+                UUID accountId = getUuid(record);
+                TypeOfBankAccount accountType = TypeOfBankAccount.values()[record.get()];
+                Duration endOfPeriod = Duration.ofSeconds(record.getLong(), record.getInt());
+                handler.accountOpened(bankId, accountId, accountType, endOfPeriod, getUuid(record),
+                        getString(record), getString(record), getString(record), getPassport(record));
+                break;
+            }
+            case TRANSACTION_COMMITTED: {
+                UUID transactionId = getUuid(record);
+                OperationType operationType = OperationType.values()[record.get()];
+                handler.transactionCommitted(transactionId, operationType, getUuid(record), getUuid(record),
+                        record.getLong(), record.getLong());
+                break;
+            }
+            case TRANSACTION_CANCELED:
+                handler.transactionCanceled(getUuid(record), record.getLong());
+                break;
+            case CLOCK_MOVED:
+                handler.clockMoved(readTime(record));
+                break;
+            case DEPOSIT_PERCENTS_CHANGED:
+                handler.depositPercentsChanged(getUuid(record), getPercents(record));
+                break;
+            default:
+                handler.configurationChanged(getUuid(record), type, record.getLong());
+                break;
+        }
+    }
+
+    private static LocalDateTime readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getLong() != MAGIC) {
+            throw new IOException("Not a journal file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        header.getInt();
+        return readTime(header);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static ByteBuffer putUuid(ByteBuffer buffer, UUID id) {
+        buffer = ensure(buffer, 16);
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        return buffer;
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer = ensure(buffer, 4);
+            buffer.putInt(-1);
+            return buffer;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensure(buffer, 4 + bytes.length);
+        buffer.putInt(bytes.length).put(bytes);
+        return buffer;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer putClient(ByteBuffer buffer, Clients client) {
+        buffer = putUuid(buffer, client.getId());
+        buffer = putString(buffer, client.getName());
+        buffer = putString(buffer, client.getSurname());
+        buffer = putString(buffer, client.getAddress());
+        return putPassport(buffer, client);
+    }
+
+    private static ByteBuffer putPassport(ByteBuffer buffer, Clients client) {
+        buffer = ensure(buffer, 9);
+        boolean hasPassport = client.hasPassport();
+        buffer.put((byte) (hasPassport ? 1 : 0));
+        buffer.putLong(hasPassport ? client.getPassportNumber() : 0);
+        return buffer;
+    }
+
+    private static Long getPassport(ByteBuffer buffer) {
+        boolean hasPassport = buffer.get() != 0;
+        long passport = buffer.getLong();
+        return hasPassport ? passport : null;
+    }
+
+    private static ByteBuffer putPercents(ByteBuffer buffer, List<DepositPercent> depositPercents) {
+        buffer = ensure(buffer, 4 + depositPercents.size() * 20);
+        buffer.putInt(depositPercents.size());
+        for (DepositPercent percent : depositPercents) {
+            buffer.putInt((int) Math.round(percent.getPercent().getValue() * 100))
+                    .putLong(percent.getLeftBorder())
+                    .putLong(percent.getRightBorder());
+        }
+        return buffer;
+    }
+
+    private static List<long[]> getPercents(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<long[]> percents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            percents.add(new long[]{buffer.getInt(), buffer.getLong(), buffer.getLong()});
+        }
+        return percents;
+    }
+
+    private static void writeTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+}
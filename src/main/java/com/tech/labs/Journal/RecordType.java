@@ -0,0 +1,45 @@
+package com.tech.labs.Journal;
+
+/**
+ * Kinds of journal records. The code is what is stored in the file, so codes are never reused.
+ */
+public enum RecordType {
+    BANK_CREATED(1),
+    CLIENT_REGISTERED(2),
+    ACCOUNT_OPENED(3),
+    TRANSACTION_COMMITTED(4),
+    TRANSACTION_CANCELED(5),
+    CLOCK_MOVED(6),
+    DEBIT_PERCENT_CHANGED(7),
+    DEPOSIT_PERCENTS_CHANGED(8),
+    CREDIT_COMMISSION_CHANGED(9),
+    CREDIT_LIMIT_CHANGED(10),
+    LIMIT_FOR_DUBIOUS_CLIENT_CHANGED(11),
+    CLIENT_CHANGED(12);
+
+    private static final RecordType[] BY_CODE = new RecordType[13];
+
+    static {
+        for (RecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    RecordType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static RecordType of(byte code) {
+        RecordType type = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown journal record type " + code);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tech.labs.Ledger;
+
+import com.tech.labs.Transaction.BankTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of an account statement, see {@link TransactionLedger#page}.
+ */
+@Getter
+@AllArgsConstructor
+public class StatementPage {
+    private final List<BankTransaction> transactions;
+    /**
+     * The cursor of the next page, or -1 if this is the last page of the range.
+     */
+    private final int nextCursor;
+
+    public boolean hasMore() {
+        return nextCursor >= 0;
+    }
+}
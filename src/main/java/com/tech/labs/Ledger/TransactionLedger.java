@@ -0,0 +1,229 @@
+package com.tech.labs.Ledger;
+
+import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Transaction.BankTransaction;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Append-only history of the transactions of one account.
+ *
+ * <p>Entries live in segments of doubling size (16, 32, 64, ...) that are never copied or
+ * moved once allocated, so appending stays O(1) however old the account is and an empty
+ * account costs only a few references. An id to position index gives O(1) duplicate
+ * detection and lookup. Appends are serialized; readers never lock.
+ *
+ * <p>Next to every entry the ledger keeps its commit time as epoch nanoseconds, in segments of the same
+ * layout, so the entries of a time range are found by binary search and read in place. The times never
+ * decrease along the ledger: an entry committed earlier than the entry before it, e.g. after the clock was
+ * set back, or without a commit time, is indexed at the time of the entry before it.
+ */
+public class TransactionLedger implements Iterable<BankTransaction> {
+    private static final int FIRST_SEGMENT_SHIFT = 4;
+    private static final int FIRST_SEGMENT_SIZE = 1 << FIRST_SEGMENT_SHIFT;
+
+    private final Map<UUID, Integer> positions = new ConcurrentHashMap<>();
+    private BankTransaction[][] segments = new BankTransaction[0][];
+    private long[][] timeSegments = new long[0][];
+    private long lastTime = Long.MIN_VALUE;
+    private volatile int size;
+
+    /**
+     * Appends a transaction to the end of the ledger.
+     *
+     * @param transaction the transaction to append
+     * @throws TransactionException if a transaction with the same id is already in the ledger
+     */
+    public synchronized void append(BankTransaction transaction) throws TransactionException {
+        UUID id = transaction.getId();
+        if (positions.containsKey(id)) {
+            throw TransactionException.transactionAlreadyExists(id);
+        }
+
+        int position = size;
+        int segment = segmentOf(position);
+        if (segment == segments.length) {
+            segments = Arrays.copyOf(segments, segment + 1);
+            segments[segment] = new BankTransaction[FIRST_SEGMENT_SIZE << segment];
+            timeSegments = Arrays.copyOf(timeSegments, segment + 1);
+            timeSegments[segment] = new long[FIRST_SEGMENT_SIZE << segment];
+        }
+        LocalDateTime commitTime = transaction.getCommitTime();
+        if (commitTime != null) {
+            lastTime = Math.max(lastTime, timeOf(commitTime));
+        }
+        segments[segment][offsetOf(position)] = transaction;
+        timeSegments[segment][offsetOf(position)] = lastTime;
+        size = position + 1;
+        positions.put(id, position);
+    }
+
+    public Optional<BankTransaction> find(UUID transactionId) {
+        Integer position = positions.get(transactionId);
+        return position == null ? Optional.empty() : Optional.of(get(position));
+    }
+
+    public boolean contains(UUID transactionId) {
+        return positions.containsKey(transactionId);
+    }
+
+    /**
+     * Gets the transaction at the given position, 0 being the oldest one.
+     *
+     * @param position the position in commit order
+     * @return the transaction at that position
+     * @throws IndexOutOfBoundsException if the position is outside the ledger
+     */
+    public BankTransaction get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of ledger size " + size);
+        }
+        return segments[segmentOf(position)][offsetOf(position)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the first position whose entry was committed at or after the given time.
+     *
+     * @param time the time
+     * @return the position, or the size of the ledger if every entry is older
+     */
+    public int positionOf(LocalDateTime time) {
+        return positionOf(timeOf(time), size);
+    }
+
+    /**
+     * Streams the transactions committed in {@code [from, to)}, oldest first, without copying them.
+     * The stream sees the entries that existed when it was created.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return a stream over the transactions of the range
+     */
+    public Stream<BankTransaction> between(LocalDateTime from, LocalDateTime to) {
+        int end = size;
+        int first = positionOf(timeOf(from), end);
+        int last = Math.max(first, positionOf(timeOf(to), end));
+        return StreamSupport.stream(Spliterators.spliterator(iterator(first, last), last - first,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED), false);
+    }
+
+    /**
+     * Reads one page of the transactions committed in {@code [from, to)}, oldest first. The first page starts at
+     * cursor 0; every further page at the {@link StatementPage#getNextCursor() next cursor} of the one before, which
+     * stays valid however many transactions are committed meanwhile. Only the entries of the page are read.
+     *
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, exclusive
+     * @param cursor where to continue, 0 for the first page
+     * @param limit  the largest number of transactions on the page
+     * @return the page
+     */
+    public StatementPage page(LocalDateTime from, LocalDateTime to, int cursor, int limit) {
+        if (cursor < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor + " or limit " + limit);
+        }
+        int end = size;
+        int first = Math.max(cursor, positionOf(timeOf(from), end));
+        int last = positionOf(timeOf(to), end);
+        int pageEnd = (int) Math.min(last, (long) first + limit);
+        List<BankTransaction> transactions = new ArrayList<>(Math.max(0, pageEnd - first));
+        for (int position = first; position < pageEnd; position++) {
+            transactions.add(get(position));
+        }
+        return new StatementPage(Collections.unmodifiableList(transactions), pageEnd < last ? pageEnd : -1);
+    }
+
+    /**
+     * Iterates the transactions in commit order. The iterator sees the entries that
+     * existed when it was created, later appends are not visited.
+     */
+    @Override
+    public Iterator<BankTransaction> iterator() {
+        return iterator(size);
+    }
+
+    public Stream<BankTransaction> stream() {
+        int end = size;
+        return StreamSupport.stream(Spliterators.spliterator(iterator(end), end,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED), false);
+    }
+
+    private Iterator<BankTransaction> iterator(int end) {
+        return iterator(0, end);
+    }
+
+    private Iterator<BankTransaction> iterator(int start, int end) {
+        return new Iterator<>() {
+            private int position = start;
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+
+            @Override
+            public BankTransaction next() {
+                if (position >= end) {
+                    throw new NoSuchElementException();
+                }
+                return get(position++);
+            }
+        };
+    }
+
+    /**
+     * Binary search over the commit times of the first {@code end} entries.
+     */
+    private int positionOf(long time, int end) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeSegments[segmentOf(mid)][offsetOf(mid)] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long timeOf(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        if (seconds > Long.MAX_VALUE / 1_000_000_000L - 1) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds < Long.MIN_VALUE / 1_000_000_000L + 1) {
+            return Long.MIN_VALUE + 1;
+        }
+        return seconds * 1_000_000_000L + time.getNano();
+    }
+
+    private static int segmentOf(int position) {
+        return 31 - Integer.numberOfLeadingZeros(position + FIRST_SEGMENT_SIZE) - FIRST_SEGMENT_SHIFT;
+    }
+
+    private static int offsetOf(int position) {
+        int shifted = position + FIRST_SEGMENT_SIZE;
+        return shifted - Integer.highestOneBit(shifted);
+    }
+}
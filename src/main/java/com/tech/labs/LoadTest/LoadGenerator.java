@@ -0,0 +1,289 @@
+package com.tech.labs.LoadTest;
+
+import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Exceptions.BankException;
+import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Metrics.BankOperation;
+import com.tech.labs.Metrics.LatencyHistogram;
+import com.tech.labs.Metrics.OperationMetrics;
+import com.tech.labs.Metrics.OperationSnapshot;
+import com.tech.labs.Service.ServiceCentralBank;
+import com.tech.labs.Transaction.BankTransaction;
+import com.tech.labs.Transaction.State;
+import lombok.NonNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a central bank with a synthetic workload described by a {@link LoadProfile}.
+ *
+ * <p>The load is open-loop: operation {@code i} is scheduled to start {@code i / rate} seconds after the run
+ * starts, whether or not the operations before it have finished. The threads take the operations in schedule
+ * order, each waiting until the scheduled start of the one it took, and its latency is counted from that
+ * scheduled start, not from when a thread got to it. So when the bank falls behind the rate, the time operations
+ * queue for a thread shows in the latencies instead of silently lowering the rate; the wake-up jitter of the
+ * threads is part of them as well.
+ *
+ * <p>Every operation picks its kind by the weights of the mix and its accounts by Zipf rank. A transfer picks two
+ * distinct accounts, possibly of different banks. A cancellation cancels the newest transaction its thread made
+ * and has not cancelled yet; a thread keeps its last {@value #RECENT} ended transactions for that.
+ */
+public class LoadGenerator {
+    private static final int RECENT = 1024;
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final LoadProfile profile;
+
+    public LoadGenerator(@NonNull LoadProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Runs the load against a new central bank in the execution mode of the profile.
+     *
+     * @return the report of the run
+     * @throws BankException        if a bank cannot be created
+     * @throws AccountException     if an account cannot be opened
+     * @throws TransactionException if an account cannot be replenished with the initial balance
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public LoadTestReport run() throws BankException, AccountException, TransactionException, InterruptedException {
+        try (ServiceCentralBank centralBank = new ServiceCentralBank(new RewindClock(LocalDateTime.now()),
+                profile.getExecutionMode())) {
+            return run(centralBank);
+        }
+    }
+
+    /**
+     * Opens the banks, clients and accounts of the profile in a central bank and runs the load against them.
+     *
+     * @param centralBank the central bank; it must not have banks named {@code LoadBank<n>}
+     * @return the report of the run
+     * @throws BankException        if a bank cannot be created
+     * @throws AccountException     if an account cannot be opened
+     * @throws TransactionException if an account cannot be replenished with the initial balance
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public LoadTestReport run(@NonNull CentralBank centralBank)
+            throws BankException, AccountException, TransactionException, InterruptedException {
+        long setupStart = System.nanoTime();
+        LoadPopulation population = LoadPopulation.build(centralBank, profile);
+        ZipfSampler sampler = new ZipfSampler(population.size(), profile.getZipfExponent());
+        long setupNanos = System.nanoTime() - setupStart;
+
+        Run run = new Run(centralBank, population, sampler);
+        SplittableRandom seeds = new SplittableRandom(profile.getSeed() ^ 0x5DEECE66DL);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(profile.getThreads(), task -> {
+            Thread thread = new Thread(task, "load-generator-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long maxLag = 0;
+        try {
+            List<Future<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i < profile.getThreads(); i++) {
+                tasks.add(workers.submit(run.new Worker(seeds.split())));
+            }
+            for (Future<Long> task : tasks) {
+                maxLag = Math.max(maxLag, await(task));
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - run.measureStart;
+
+        Map<BankOperation, OperationSnapshot> operations = new EnumMap<>(BankOperation.class);
+        for (BankOperation operation : profile.getMix().keySet()) {
+            operations.put(operation, run.metrics[operation.ordinal()].snapshot());
+        }
+        return new LoadTestReport(profile, setupNanos, elapsed, run.scheduled.sum(), run.skippedCancels.sum(),
+                maxLag, run.latency.snapshot(), Collections.unmodifiableMap(operations));
+    }
+
+    private static long await(Future<Long> task) throws InterruptedException {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("A load generator thread failed", cause);
+        }
+    }
+
+    /**
+     * The schedule and the counters of one run, shared by its threads.
+     */
+    private final class Run {
+        private final CentralBank centralBank;
+        private final LoadPopulation population;
+        private final ZipfSampler sampler;
+        private final BankOperation[] operations;
+        private final int[] cumulativeWeights;
+        private final double intervalNanos;
+        private final long start;
+        private final long measureStart;
+        private final long end;
+        private final AtomicLong next = new AtomicLong();
+        private final OperationMetrics[] metrics = new OperationMetrics[BankOperation.values().length];
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder scheduled = new LongAdder();
+        private final LongAdder skippedCancels = new LongAdder();
+
+        Run(CentralBank centralBank, LoadPopulation population, ZipfSampler sampler) {
+            this.centralBank = centralBank;
+            this.population = population;
+            this.sampler = sampler;
+            Map<BankOperation, Integer> mix = profile.getMix();
+            operations = mix.keySet().toArray(new BankOperation[0]);
+            cumulativeWeights = new int[operations.length];
+            int sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += mix.get(operations[i]);
+                cumulativeWeights[i] = sum;
+            }
+            for (int i = 0; i < metrics.length; i++) {
+                metrics[i] = new OperationMetrics();
+            }
+            intervalNanos = 1e9 / profile.getRate();
+            start = System.nanoTime() + START_DELAY_NANOS;
+            measureStart = start + profile.getWarmup().toNanos();
+            end = measureStart + profile.getDuration().toNanos();
+        }
+
+        private BankOperation pickOperation(SplittableRandom random) {
+            int weight = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int i = 0;
+            while (cumulativeWeights[i] <= weight) {
+                i++;
+            }
+            return operations[i];
+        }
+
+        private final class Worker implements Callable<Long> {
+            private final SplittableRandom random;
+            private final ArrayDeque<UUID> recent = new ArrayDeque<>(RECENT);
+
+            Worker(SplittableRandom random) {
+                this.random = random;
+            }
+
+            /**
+             * @return the largest lag of an operation behind its schedule
+             */
+            @Override
+            public Long call() {
+                long maxLag = 0;
+                while (true) {
+                    long scheduledStart = start + (long) (next.getAndIncrement() * intervalNanos);
+                    if (scheduledStart - end >= 0) {
+                        return maxLag;
+                    }
+                    long wait = scheduledStart - System.nanoTime();
+                    while (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                        wait = scheduledStart - System.nanoTime();
+                    }
+                    boolean measured = scheduledStart - measureStart >= 0;
+                    if (measured) {
+                        scheduled.increment();
+                        maxLag = Math.max(maxLag, -wait);
+                    }
+                    execute(pickOperation(random), scheduledStart, measured);
+                }
+            }
+
+            private void execute(BankOperation operation, long scheduledStart, boolean measured) {
+                UUID cancelled = null;
+                if (operation == BankOperation.CANCEL) {
+                    cancelled = recent.pollLast();
+                    if (cancelled == null) {
+                        if (measured) {
+                            skippedCancels.increment();
+                        }
+                        return;
+                    }
+                }
+                State state;
+                Class<?> failureType = null;
+                try {
+                    if (operation == BankOperation.CANCEL) {
+                        centralBank.cancelTransaction(cancelled);
+                        state = State.Canceled;
+                    } else {
+                        BankTransaction transaction = transact(operation);
+                        state = transaction.getTransactionState();
+                        failureType = transaction.getFailureType();
+                        if (state == State.Ended) {
+                            remember(transaction.getTransactionId());
+                        }
+                    }
+                } catch (TransactionException | AccountException | BankException | RuntimeException e) {
+                    if (measured) {
+                        long nanos = System.nanoTime() - scheduledStart;
+                        metrics[operation.ordinal()].record(nanos, e);
+                        latency.record(nanos);
+                    }
+                    return;
+                }
+                if (measured) {
+                    long nanos = System.nanoTime() - scheduledStart;
+                    metrics[operation.ordinal()].record(nanos, state, failureType);
+                    latency.record(nanos);
+                }
+            }
+
+            private BankTransaction transact(BankOperation operation)
+                    throws TransactionException, AccountException, BankException {
+                int account = sampler.next(random);
+                long amount = 1 + random.nextLong(profile.getMaxAmount());
+                switch (operation) {
+                    case REPLENISH:
+                        return centralBank.replenishAccount(population.bankId(account),
+                                population.accountId(account), amount);
+                    case WITHDRAW:
+                        return centralBank.withdrawMoney(population.bankId(account), population.accountId(account),
+                                amount);
+                    case TRANSFER:
+                        int to = sampler.next(random);
+                        if (to == account) {
+                            to = (to + 1) % population.size();
+                        }
+                        return centralBank.transferMoney(population.bankId(account), population.accountId(account),
+                                population.bankId(to), population.accountId(to), amount);
+                    default:
+                        throw new IllegalArgumentException("Not a transaction: " + operation);
+                }
+            }
+
+            private void remember(UUID transactionId) {
+                if (recent.size() == RECENT) {
+                    recent.pollFirst();
+                }
+                recent.addLast(transactionId);
+            }
+        }
+    }
+}
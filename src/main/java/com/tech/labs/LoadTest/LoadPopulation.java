@@ -0,0 +1,96 @@
+package com.tech.labs.LoadTest;
+
+import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Exceptions.AccountException;
+import com.tech.labs.Exceptions.BankException;
+import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Models.Percent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * The banks, clients and accounts a load runs against. Account {@code i} is the one of Zipf rank {@code i}; the
+ * accounts are shuffled once they are open, so the hot ones are spread over banks, clients and types.
+ */
+final class LoadPopulation {
+    static final Duration DEPOSIT_PERIOD = Duration.ofDays(365);
+    private static final TypeOfBankAccount[] TYPES = TypeOfBankAccount.values();
+
+    private final UUID[] bankIds;
+    private final UUID[] accountIds;
+
+    private LoadPopulation(UUID[] bankIds, UUID[] accountIds) {
+        this.bankIds = bankIds;
+        this.accountIds = accountIds;
+    }
+
+    /**
+     * Opens the banks, clients and accounts of a profile in a central bank and replenishes every account with the
+     * initial balance. Banks are named {@code LoadBank<n>}, so the central bank must not have banks of these names.
+     */
+    static LoadPopulation build(CentralBank centralBank, LoadProfile profile)
+            throws BankException, AccountException, TransactionException {
+        int accounts = profile.getAccounts();
+        UUID[] bankIds = new UUID[accounts];
+        UUID[] accountIds = new UUID[accounts];
+        List<DepositPercent> depositPercents = new ArrayList<>();
+        depositPercents.add(new DepositPercent(new Percent(3), 0, 50000));
+        depositPercents.add(new DepositPercent(new Percent(4), 50000));
+        int i = 0;
+        long passport = 0;
+        for (int b = 0; b < profile.getBanks(); b++) {
+            Bank bank = centralBank.createBank("LoadBank" + b, 3, depositPercents, 10, 100000, -1,
+                    DEPOSIT_PERIOD);
+            for (int c = 0; c < profile.getClientsPerBank(); c++) {
+                passport++;
+                Clients client = centralBank.registerClient("Load", "Client" + passport, "Address " + passport,
+                        passport);
+                for (int a = 0; a < profile.getAccountsPerClient(); a++) {
+                    BaseAccount account = bank.createAccount(TYPES[(c + a) % TYPES.length], client,
+                            DEPOSIT_PERIOD);
+                    if (profile.getInitialBalance() > 0) {
+                        bank.income(account, profile.getInitialBalance());
+                    }
+                    bankIds[i] = bank.getId();
+                    accountIds[i] = account.getId();
+                    i++;
+                }
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(profile.getSeed());
+        for (int j = accounts - 1; j > 0; j--) {
+            int k = random.nextInt(j + 1);
+            swap(bankIds, j, k);
+            swap(accountIds, j, k);
+        }
+        return new LoadPopulation(bankIds, accountIds);
+    }
+
+    private static void swap(UUID[] ids, int i, int j) {
+        UUID id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    int size() {
+        return accountIds.length;
+    }
+
+    UUID bankId(int account) {
+        return bankIds[account];
+    }
+
+    UUID accountId(int account) {
+        return accountIds[account];
+    }
+}
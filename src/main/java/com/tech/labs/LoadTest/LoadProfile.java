@@ -0,0 +1,122 @@
+package com.tech.labs.LoadTest;
+
+import com.tech.labs.Concurrency.ExecutionMode;
+import com.tech.labs.Metrics.BankOperation;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What a {@link LoadGenerator} builds and how hard it drives it, see
+ * {@link com.tech.labs.Builders.LoadProfileBuilder}.
+ */
+@Getter
+public class LoadProfile {
+    private final int banks;
+    private final int clientsPerBank;
+    /**
+     * The accounts of every client; their types take turns, so every type gets a third of the accounts.
+     */
+    private final int accountsPerClient;
+    /**
+     * The amount every account is replenished with before the load starts.
+     */
+    private final long initialBalance;
+    /**
+     * The largest amount of one operation; amounts are uniform between 1 and this.
+     */
+    private final long maxAmount;
+    /**
+     * The relative weight of every operation in the mix; operations missing from the map are never run.
+     */
+    private final Map<BankOperation, Integer> mix;
+    /**
+     * The exponent of the Zipf distribution accounts are picked from: 0 picks them uniformly, and the larger it
+     * is, the more the operations crowd on a few hot accounts.
+     */
+    private final double zipfExponent;
+    /**
+     * The target rate, in operations per second.
+     */
+    private final double rate;
+    private final int threads;
+    /**
+     * How long the load runs before latencies and outcomes are recorded.
+     */
+    private final Duration warmup;
+    /**
+     * How long the load runs while latencies and outcomes are recorded.
+     */
+    private final Duration duration;
+    private final long seed;
+    private final ExecutionMode executionMode;
+
+    public LoadProfile(int banks, int clientsPerBank, int accountsPerClient, long initialBalance, long maxAmount,
+                       @NonNull Map<BankOperation, Integer> mix, double zipfExponent, double rate, int threads,
+                       @NonNull Duration warmup, @NonNull Duration duration, long seed,
+                       @NonNull ExecutionMode executionMode) {
+        if (banks <= 0 || clientsPerBank <= 0 || accountsPerClient <= 0) {
+            throw new IllegalArgumentException("Banks, clients and accounts must be positive: " + banks + ", "
+                    + clientsPerBank + ", " + accountsPerClient);
+        }
+        if (initialBalance < 0 || maxAmount <= 0) {
+            throw new IllegalArgumentException("Invalid amounts: initial balance " + initialBalance
+                    + ", max amount " + maxAmount);
+        }
+        if (!(zipfExponent >= 0) || Double.isInfinite(zipfExponent)) {
+            throw new IllegalArgumentException("Zipf exponent must be finite and not negative: " + zipfExponent);
+        }
+        if (!(rate > 0) || Double.isInfinite(rate) || threads <= 0) {
+            throw new IllegalArgumentException("Rate and threads must be positive: " + rate + ", " + threads);
+        }
+        if (warmup.isNegative() || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Invalid warmup " + warmup + " or duration " + duration);
+        }
+        Map<BankOperation, Integer> weights = new EnumMap<>(BankOperation.class);
+        long total = 0;
+        for (Map.Entry<BankOperation, Integer> weight : mix.entrySet()) {
+            if (weight.getValue() < 0) {
+                throw new IllegalArgumentException("Negative weight of " + weight.getKey() + ": "
+                        + weight.getValue());
+            }
+            if (weight.getValue() > 0) {
+                weights.put(weight.getKey(), weight.getValue());
+                total += weight.getValue();
+            }
+        }
+        if (total == 0 || total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The weights of the mix must add up to a positive int: " + mix);
+        }
+        if (weights.containsKey(BankOperation.TRANSFER) && (long) banks * clientsPerBank * accountsPerClient < 2) {
+            throw new IllegalArgumentException("Transfers need at least two accounts");
+        }
+        this.banks = banks;
+        this.clientsPerBank = clientsPerBank;
+        this.accountsPerClient = accountsPerClient;
+        this.initialBalance = initialBalance;
+        this.maxAmount = maxAmount;
+        this.mix = Collections.unmodifiableMap(weights);
+        this.zipfExponent = zipfExponent;
+        this.rate = rate;
+        this.threads = threads;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.seed = seed;
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Gets the number of accounts across all banks.
+     */
+    public int getAccounts() {
+        long accounts = (long) banks * clientsPerBank * accountsPerClient;
+        if (accounts > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many accounts: " + accounts);
+        }
+        return (int) accounts;
+    }
+}
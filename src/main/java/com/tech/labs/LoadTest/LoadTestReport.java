@@ -0,0 +1,113 @@
+package com.tech.labs.LoadTest;
+
+import com.tech.labs.Metrics.BankOperation;
+import com.tech.labs.Metrics.HistogramSnapshot;
+import com.tech.labs.Metrics.OperationSnapshot;
+import com.tech.labs.Transaction.State;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The outcome of one load test, see {@link LoadGenerator}. Everything but the setup covers the measured part of
+ * the run only; latencies are counted from the moment an operation was scheduled to start.
+ */
+@Getter
+@AllArgsConstructor
+public class LoadTestReport {
+    private final LoadProfile profile;
+    /**
+     * How long opening the banks, clients and accounts took.
+     */
+    private final long setupNanos;
+    /**
+     * From the scheduled start of the first measured operation to the end of the last one.
+     */
+    private final long elapsedNanos;
+    /**
+     * The number of operations scheduled to start in the measured part of the run.
+     */
+    private final long scheduled;
+    /**
+     * Cancellations scheduled while their thread had no transaction of its own left to cancel; they are not run
+     * and not part of the latencies.
+     */
+    private final long skippedCancels;
+    /**
+     * The most an operation started after its scheduled time. Operations still wait for a free thread when the
+     * target rate is out of reach, so a lag growing with the duration means the rate was not sustained.
+     */
+    private final long maxLagNanos;
+    private final HistogramSnapshot latency;
+    private final Map<BankOperation, OperationSnapshot> operations;
+
+    public long getCompleted() {
+        return latency.getCount();
+    }
+
+    /**
+     * Gets the operations completed per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getCompleted() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the number of operations that ended their transaction or, for cancellations, cancelled it.
+     */
+    public long getSucceeded(BankOperation operation) {
+        OperationSnapshot snapshot = operations.get(operation);
+        return snapshot.getCount(State.Ended) + snapshot.getCount(State.Canceled);
+    }
+
+    /**
+     * Gets the share of the operations that failed, were rejected or threw.
+     */
+    public double getFailureRate(BankOperation operation) {
+        long count = operations.get(operation).getLatency().getCount();
+        return count == 0 ? 0 : (double) (count - getSucceeded(operation)) / count;
+    }
+
+    public double getFailureRate() {
+        long succeeded = 0;
+        for (BankOperation operation : operations.keySet()) {
+            succeeded += getSucceeded(operation);
+        }
+        return getCompleted() == 0 ? 0 : (double) (getCompleted() - succeeded) / getCompleted();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d banks, %d accounts, set up in %.2f s%n", profile.getBanks(),
+                profile.getAccounts(), setupNanos / 1e9));
+        out.append(String.format("Target %.1f op/s, achieved %.1f op/s over %.2f s: %d scheduled, %d completed, "
+                        + "%d cancellations skipped, max lag %.3f ms%n", profile.getRate(), getThroughput(),
+                elapsedNanos / 1e9, scheduled, getCompleted(), skippedCancels, maxLagNanos / 1e6));
+        out.append(String.format("%-10s %10s %8s %10s %10s %10s %10s %10s %10s%n", "operation", "count",
+                "failed", "mean us", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us"));
+        for (Map.Entry<BankOperation, OperationSnapshot> operation : operations.entrySet()) {
+            row(out, operation.getKey().name(), operation.getValue().getLatency(),
+                    getFailureRate(operation.getKey()));
+        }
+        row(out, "ALL", latency, getFailureRate());
+        for (Map.Entry<BankOperation, OperationSnapshot> operation : operations.entrySet()) {
+            OperationSnapshot snapshot = operation.getValue();
+            long failed = snapshot.getCount(State.Failed);
+            long rejected = snapshot.getCount(State.Rejected);
+            if (failed + rejected > 0 || !snapshot.getExceptions().isEmpty()) {
+                out.append(String.format("%s failures: %d failed, %d rejected, exceptions %s%n",
+                        operation.getKey(), failed, rejected, snapshot.getExceptions()));
+            }
+        }
+        return out.toString();
+    }
+
+    private static void row(StringBuilder out, String name, HistogramSnapshot latency, double failureRate) {
+        out.append(String.format("%-10s %10d %7.2f%% %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", name,
+                latency.getCount(), failureRate * 100, latency.getMeanNanos() / 1e3, latency.getP50Nanos() / 1e3,
+                latency.getP90Nanos() / 1e3, latency.getP99Nanos() / 1e3, latency.getP999Nanos() / 1e3,
+                latency.getMaxNanos() / 1e3));
+    }
+}
@@ -0,0 +1,40 @@
+package com.tech.labs.LoadTest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks ranks {@code 0..n-1} with a Zipf distribution: rank {@code k} comes up in proportion to
+ * {@code 1 / (k + 1)^exponent}. The cumulative probabilities are computed once, so a pick is one uniform draw and
+ * a binary search over them and allocates nothing.
+ */
+final class ZipfSampler {
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += exponent == 0 ? 1 : Math.pow(k + 1, -exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+        cumulative[n - 1] = 1;
+    }
+
+    int next(SplittableRandom random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > u) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
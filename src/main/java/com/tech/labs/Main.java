@@ -0,0 +1,112 @@
+package com.tech.labs;
+
+import com.tech.labs.Builders.LoadProfileBuilder;
+import com.tech.labs.Concurrency.ExecutionMode;
+import com.tech.labs.LoadTest.LoadGenerator;
+import com.tech.labs.LoadTest.LoadProfile;
+import com.tech.labs.Metrics.BankOperation;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Runs a load test from the command line and prints its report, e.g.
+ *
+ * <pre>
+ * java -jar target/Lab1-1.0-SNAPSHOT.jar --banks=8 --clients=10000 --rate=20000 --threads=32 \
+ *     --mix=withdraw:40,replenish:30,transfer:25,cancel:5 --zipf=1.1 --duration=30
+ * </pre>
+ *
+ * <p>Options left out keep the defaults of {@link LoadProfileBuilder}.
+ */
+public class Main {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar Lab1.jar [--option=value ...]",
+            "  --banks=N            banks to open",
+            "  --clients=N          clients per bank",
+            "  --accounts=N         accounts per client, of the three types in turn",
+            "  --balance=N          initial balance of every account",
+            "  --amount=N           largest amount of one operation",
+            "  --mix=op:w,...       weights of replenish, withdraw, transfer and cancel; left out means 0",
+            "  --zipf=X             Zipf exponent of account popularity, 0 for uniform",
+            "  --rate=X             target operations per second",
+            "  --threads=N          threads running the operations",
+            "  --warmup=SECONDS     time run before recording",
+            "  --duration=SECONDS   time recorded",
+            "  --seed=N             seed of the workload",
+            "  --mode=MODE          LOCKING or SHARDED");
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile;
+        try {
+            profile = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (profile == null) {
+            System.out.println(USAGE);
+            return;
+        }
+        System.out.print(new LoadGenerator(profile).run());
+    }
+
+    /**
+     * @return the profile the arguments describe, or {@code null} if they ask for help
+     * @throws IllegalArgumentException if an argument is unknown or invalid
+     */
+    static LoadProfile parse(String[] args) {
+        LoadProfileBuilder builder = new LoadProfileBuilder();
+        for (String arg : args) {
+            if (arg.equals("--help") || arg.equals("-h")) {
+                return null;
+            }
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Not an option: " + arg);
+            }
+            String value = arg.substring(equals + 1);
+            try {
+                switch (arg.substring(2, equals)) {
+                    case "banks" -> builder.addBanks(Integer.parseInt(value));
+                    case "clients" -> builder.addClientsPerBank(Integer.parseInt(value));
+                    case "accounts" -> builder.addAccountsPerClient(Integer.parseInt(value));
+                    case "balance" -> builder.addInitialBalance(Long.parseLong(value));
+                    case "amount" -> builder.addMaxAmount(Long.parseLong(value));
+                    case "mix" -> mix(builder, value);
+                    case "zipf" -> builder.addZipfExponent(Double.parseDouble(value));
+                    case "rate" -> builder.addRate(Double.parseDouble(value));
+                    case "threads" -> builder.addThreads(Integer.parseInt(value));
+                    case "warmup" -> builder.addWarmup(seconds(value));
+                    case "duration" -> builder.addDuration(seconds(value));
+                    case "seed" -> builder.addSeed(Long.parseLong(value));
+                    case "mode" -> builder.addExecutionMode(ExecutionMode.valueOf(value.toUpperCase(Locale.ROOT)));
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value of " + arg, e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void mix(LoadProfileBuilder builder, String value) {
+        for (BankOperation operation : BankOperation.values()) {
+            builder.addWeight(operation, 0);
+        }
+        for (String part : value.split(",")) {
+            int colon = part.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Not an operation and weight: " + part);
+            }
+            builder.addWeight(BankOperation.valueOf(part.substring(0, colon).trim().toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(part.substring(colon + 1).trim()));
+        }
+    }
+
+    private static Duration seconds(String value) {
+        return Duration.ofNanos(Math.round(Double.parseDouble(value) * 1e9));
+    }
+}
@@ -0,0 +1,11 @@
+package com.tech.labs.Metrics;
+
+/**
+ * The operations of a central bank that are measured, one per {@link com.tech.labs.Interfaces.CentralBank} method.
+ */
+public enum BankOperation {
+    REPLENISH,
+    WITHDRAW,
+    TRANSFER,
+    CANCEL
+}
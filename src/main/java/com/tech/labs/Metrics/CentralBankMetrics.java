@@ -0,0 +1,165 @@
+package com.tech.labs.Metrics;
+
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Transaction.BankTransaction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of the operations of a central bank, in total and per bank.
+ *
+ * <p>Recording a call updates the {@link OperationMetrics} of the operation in total and of the bank it ran in,
+ * and allocates nothing once the bank and the exception types have been seen. The metrics are read through
+ * {@link #snapshot()} or, after {@link #registerMBeans(String)}, as {@link OperationStatsMXBean}s named
+ * {@code com.tech.labs:type=CentralBank,name=<name>,operation=<operation>}, with a {@code bank=<bank name>}
+ * key for the metrics of one bank.
+ */
+public class CentralBankMetrics {
+    private static final String DOMAIN = "com.tech.labs";
+    private static final BankOperation[] OPERATIONS = BankOperation.values();
+
+    private final OperationMetrics[] total = newOperations();
+    private final ConcurrentHashMap<UUID, BankMetrics> banks = new ConcurrentHashMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private String jmxName;
+
+    /**
+     * Records a call that completed with a transaction.
+     *
+     * @param operation   the operation
+     * @param bank        the bank the operation ran in, or {@code null} if it was not found
+     * @param startNanos  the {@link System#nanoTime()} the call started at
+     * @param transaction the transaction of the call
+     */
+    public void record(BankOperation operation, Bank bank, long startNanos, BankTransaction transaction) {
+        long nanos = System.nanoTime() - startNanos;
+        total[operation.ordinal()].record(nanos, transaction.getTransactionState(), transaction.getFailureType());
+        if (bank != null) {
+            forBank(bank)[operation.ordinal()].record(nanos, transaction.getTransactionState(), transaction.getFailureType());
+        }
+    }
+
+    /**
+     * Records a call that threw.
+     *
+     * @param operation  the operation
+     * @param bank       the bank the operation ran in, or {@code null} if it was not found
+     * @param startNanos the {@link System#nanoTime()} the call started at
+     * @param exception  the exception the call threw
+     */
+    public void record(BankOperation operation, Bank bank, long startNanos, Throwable exception) {
+        long nanos = System.nanoTime() - startNanos;
+        total[operation.ordinal()].record(nanos, exception);
+        if (bank != null) {
+            forBank(bank)[operation.ordinal()].record(nanos, exception);
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, Map<BankOperation, OperationSnapshot>> byBank = new HashMap<>();
+        banks.values().forEach(bank -> byBank.put(bank.name, snapshot(bank.operations)));
+        return new MetricsSnapshot(snapshot(total), Collections.unmodifiableMap(byBank));
+    }
+
+    /**
+     * Registers the metrics as MBeans in the platform MBean server, including the metrics of banks that record
+     * their first call later.
+     *
+     * @param name the value of the {@code name} key of the MBeans
+     * @throws JMException if the MBeans cannot be registered, e.g. because the name is taken
+     */
+    public synchronized void registerMBeans(String name) throws JMException {
+        unregisterMBeans();
+        jmxName = name;
+        register(null, total);
+        for (BankMetrics bank : banks.values()) {
+            register(bank.name, bank.operations);
+        }
+    }
+
+    /**
+     * Removes the MBeans registered by {@link #registerMBeans(String)}.
+     *
+     * @throws JMException if an MBean cannot be removed
+     */
+    public synchronized void unregisterMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registered) {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        }
+        registered.clear();
+        jmxName = null;
+    }
+
+    private OperationMetrics[] forBank(Bank bank) {
+        BankMetrics metrics = banks.get(bank.getId());
+        if (metrics != null) {
+            return metrics.operations;
+        }
+        metrics = new BankMetrics(bank.getName());
+        BankMetrics existing = banks.putIfAbsent(bank.getId(), metrics);
+        if (existing != null) {
+            return existing.operations;
+        }
+        synchronized (this) {
+            if (jmxName != null) {
+                try {
+                    register(metrics.name, metrics.operations);
+                } catch (JMException e) {
+                    throw new IllegalStateException("Couldn't register metrics of bank " + bank.getName(), e);
+                }
+            }
+        }
+        return metrics.operations;
+    }
+
+    private void register(String bankName, OperationMetrics[] operations) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (BankOperation operation : OPERATIONS) {
+            String name = DOMAIN + ":type=CentralBank,name=" + ObjectName.quote(jmxName)
+                    + (bankName == null ? "" : ",bank=" + ObjectName.quote(bankName))
+                    + ",operation=" + operation.name().toLowerCase();
+            ObjectName objectName = new ObjectName(name);
+            server.registerMBean(new OperationStats(operations[operation.ordinal()]), objectName);
+            registered.add(objectName);
+        }
+    }
+
+    private static Map<BankOperation, OperationSnapshot> snapshot(OperationMetrics[] operations) {
+        Map<BankOperation, OperationSnapshot> snapshots = new EnumMap<>(BankOperation.class);
+        for (BankOperation operation : OPERATIONS) {
+            snapshots.put(operation, operations[operation.ordinal()].snapshot());
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    private static OperationMetrics[] newOperations() {
+        OperationMetrics[] operations = new OperationMetrics[OPERATIONS.length];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationMetrics();
+        }
+        return operations;
+    }
+
+    private static final class BankMetrics {
+        private final String name;
+        private final OperationMetrics[] operations = newOperations();
+
+        private BankMetrics(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tech.labs.Metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Latencies recorded by a {@link LatencyHistogram} up to one moment, in nanoseconds. Percentiles are the upper
+ * bounds of their buckets.
+ */
+@Getter
+@AllArgsConstructor
+public class HistogramSnapshot {
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+}
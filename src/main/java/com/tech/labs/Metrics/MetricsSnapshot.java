@@ -0,0 +1,28 @@
+package com.tech.labs.Metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * What {@link CentralBankMetrics} recorded up to one moment, in total and per bank name.
+ */
+@Getter
+@AllArgsConstructor
+public class MetricsSnapshot {
+    private final Map<BankOperation, OperationSnapshot> total;
+    private final Map<String, Map<BankOperation, OperationSnapshot>> banks;
+
+    public OperationSnapshot getTotal(BankOperation operation) {
+        return total.get(operation);
+    }
+
+    /**
+     * @return the metrics of the operation in the bank, or {@code null} if the bank has not recorded any call
+     */
+    public OperationSnapshot getBank(String bankName, BankOperation operation) {
+        Map<BankOperation, OperationSnapshot> bank = banks.get(bankName);
+        return bank == null ? null : bank.get(operation);
+    }
+}
@@ -0,0 +1,68 @@
+package com.tech.labs.Metrics;
+
+import com.tech.labs.Transaction.State;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one operation: how many calls left their transaction in each {@link State}, and how
+ * many failed with each type of exception, thrown or caught in a failed transaction.
+ */
+public final class OperationMetrics {
+    private static final State[] STATES = State.values();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLongArray states = new AtomicLongArray(STATES.length);
+    private final ConcurrentHashMap<Class<?>, LongAdder> exceptions = new ConcurrentHashMap<>();
+
+    /**
+     * Records a call that completed with a transaction.
+     *
+     * @param nanos       the latency of the call
+     * @param state       the state the call left the transaction in
+     * @param failureType the type of the exception that failed the transaction, or {@code null}
+     */
+    public void record(long nanos, State state, Class<?> failureType) {
+        latency.record(nanos);
+        states.incrementAndGet(state.ordinal());
+        if (failureType != null) {
+            countException(failureType);
+        }
+    }
+
+    /**
+     * Records a call that threw.
+     *
+     * @param nanos     the latency of the call
+     * @param exception the exception it threw
+     */
+    public void record(long nanos, Throwable exception) {
+        latency.record(nanos);
+        countException(exception.getClass());
+    }
+
+    private void countException(Class<?> type) {
+        LongAdder count = exceptions.get(type);
+        if (count == null) {
+            count = exceptions.computeIfAbsent(type, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    public OperationSnapshot snapshot() {
+        Map<State, Long> stateCounts = new EnumMap<>(State.class);
+        for (State state : STATES) {
+            stateCounts.put(state, states.get(state.ordinal()));
+        }
+        Map<String, Long> exceptionCounts = new HashMap<>();
+        exceptions.forEach((type, count) -> exceptionCounts.merge(type.getSimpleName(), count.sum(), Long::sum));
+        return new OperationSnapshot(latency.snapshot(), Collections.unmodifiableMap(stateCounts),
+                Collections.unmodifiableMap(exceptionCounts));
+    }
+}
@@ -0,0 +1,26 @@
+package com.tech.labs.Metrics;
+
+import com.tech.labs.Transaction.State;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * What {@link OperationMetrics} recorded up to one moment. Exceptions are counted by simple class name.
+ */
+@Getter
+@AllArgsConstructor
+public class OperationSnapshot {
+    private final HistogramSnapshot latency;
+    private final Map<State, Long> states;
+    private final Map<String, Long> exceptions;
+
+    public long getCount(State state) {
+        return states.getOrDefault(state, 0L);
+    }
+
+    public long getExceptionCount(Class<?> type) {
+        return exceptions.getOrDefault(type.getSimpleName(), 0L);
+    }
+}
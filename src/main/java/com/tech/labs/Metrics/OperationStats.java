@@ -0,0 +1,62 @@
+package com.tech.labs.Metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes {@link OperationMetrics} through JMX. Every attribute is read from a fresh snapshot.
+ */
+class OperationStats implements OperationStatsMXBean {
+    private final OperationMetrics metrics;
+
+    OperationStats(OperationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public long getCount() {
+        return metrics.snapshot().getLatency().getCount();
+    }
+
+    @Override
+    public long getMeanNanos() {
+        return metrics.snapshot().getLatency().getMeanNanos();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return metrics.snapshot().getLatency().getP50Nanos();
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return metrics.snapshot().getLatency().getP90Nanos();
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return metrics.snapshot().getLatency().getP99Nanos();
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return metrics.snapshot().getLatency().getP999Nanos();
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return metrics.snapshot().getLatency().getMaxNanos();
+    }
+
+    @Override
+    public Map<String, Long> getStates() {
+        Map<String, Long> states = new TreeMap<>();
+        metrics.snapshot().getStates().forEach((state, count) -> states.put(state.name(), count));
+        return states;
+    }
+
+    @Override
+    public Map<String, Long> getExceptions() {
+        return new TreeMap<>(metrics.snapshot().getExceptions());
+    }
+}
@@ -0,0 +1,19 @@
+package com.tech.labs.Metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link OperationMetrics} of one operation, for the whole central bank or for one bank.
+ */
+public interface OperationStatsMXBean {
+    long getCount();
+    long getMeanNanos();
+    long getP50Nanos();
+    long getP90Nanos();
+    long getP99Nanos();
+    long getP999Nanos();
+    long getMaxNanos();
+
+    Map<String, Long> getStates();
+    Map<String, Long> getExceptions();
+}
@@ -0,0 +1,36 @@
+package com.tech.labs.Models;
+
+/**
+ * Amounts of money are primitive {@code long} numbers of minor units (kopecks): balances, transaction sums,
+ * credit limits and commissions, deposit tier borders. Arithmetic on them is exact and allocates nothing.
+ * This class converts amounts from and to major units.
+ */
+public final class Money {
+    public static final long MINOR_UNITS = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Converts whole major units to minor units.
+     *
+     * @param major the amount in major units
+     * @return the amount in minor units
+     * @throws ArithmeticException if the amount does not fit into a long
+     */
+    public static long ofMajor(long major) {
+        return Math.multiplyExact(major, MINOR_UNITS);
+    }
+
+    /**
+     * Formats an amount of minor units as major units with two decimals, e.g. {@code 12345} as {@code 123.45}.
+     *
+     * @param minor the amount in minor units
+     * @return the formatted amount
+     */
+    public static String format(long minor) {
+        long fraction = Math.abs(minor % MINOR_UNITS);
+        String sign = minor < 0 && minor / MINOR_UNITS == 0 ? "-" : "";
+        return sign + minor / MINOR_UNITS + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -10,9 +10,9 @@ public class Percent {
     private static final double MinPercentValue = 0;
     private final double value;
 
-    public Percent(Integer value) throws TransactionException {
+    public Percent(int value) throws TransactionException {
         if (value < MinPercentValue)
             throw TransactionException.negativeAmount();
-        this.value = value / 100;
+        this.value = value / 100.0;
     }
 }
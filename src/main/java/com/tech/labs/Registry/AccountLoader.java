@@ -0,0 +1,40 @@
+package com.tech.labs.Registry;
+
+import com.tech.labs.Accounts.BaseAccount;
+
+import java.util.UUID;
+
+/**
+ * Source of accounts that are not in memory yet, e.g. the accounts of a bank in a snapshot file.
+ * The accounts are numbered from 0 to {@link #size()} - 1; an {@link AccountRegistry} builds an account
+ * object only when it is first asked for.
+ */
+public interface AccountLoader {
+    int size();
+
+    /**
+     * Finds the number of an account.
+     *
+     * @param accountId the ID of the account
+     * @return the number of the account, or -1 if the loader has no such account
+     */
+    int indexOf(UUID accountId);
+
+    UUID idAt(int index);
+
+    /**
+     * Builds the account with the given number. Every call builds a new object.
+     *
+     * @param index the number of the account
+     * @return the account
+     */
+    BaseAccount loadAt(int index);
+
+    /**
+     * Finds the numbers of a client's accounts.
+     *
+     * @param clientId the ID of the client
+     * @return the numbers of the client's accounts, empty if the client has none
+     */
+    int[] indicesOf(UUID clientId);
+}
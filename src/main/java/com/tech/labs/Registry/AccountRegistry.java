@@ -0,0 +1,146 @@
+package com.tech.labs.Registry;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Exceptions.AccountException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Accounts of a bank, indexed by id and by client. The registry may be backed by an {@link AccountLoader}:
+ * its accounts are built on first lookup, and all of them at once the first time every account is asked for.
+ * Building an account holds the registry's monitor, so {@link #withLoadingHeld} sees no account built meanwhile.
+ */
+public class AccountRegistry {
+    private volatile Map<UUID, BaseAccount> accountsById = new ConcurrentHashMap<>();
+    private volatile Map<UUID, Set<BaseAccount>> accountsByClient = new ConcurrentHashMap<>();
+    private volatile AccountLoader loader;
+    private final AtomicInteger loaded = new AtomicInteger();
+
+    /**
+     * Backs the registry with accounts that are built on first access.
+     *
+     * @param loader the source of the accounts
+     * @throws IllegalStateException if the registry already has accounts
+     */
+    public synchronized void attach(AccountLoader loader) {
+        if (this.loader != null || !accountsById.isEmpty()) {
+            throw new IllegalStateException("Accounts can only be attached to an empty registry");
+        }
+        this.loader = loader;
+    }
+
+    /**
+     * Adds an account to the id index and to the index of its client's accounts.
+     *
+     * @param account the account to register
+     * @throws AccountException if an account with the same id is already registered
+     */
+    public void register(BaseAccount account) throws AccountException {
+        AccountLoader source = loader;
+        if (source != null && source.indexOf(account.getId()) >= 0) {
+            throw AccountException.accountAlreadyExists(account.getId());
+        }
+        if (accountsById.putIfAbsent(account.getId(), account) != null) {
+            throw AccountException.accountAlreadyExists(account.getId());
+        }
+        index(account);
+    }
+
+    /**
+     * Grows the indices so that the given number of further accounts fits without resizing them on the way,
+     * ahead of a bulk registration. Must not run concurrently with registrations.
+     *
+     * @param additional the number of accounts about to be registered
+     */
+    public synchronized void reserve(int additional) {
+        accountsById = ClientRegistry.grow(accountsById, additional);
+        accountsByClient = ClientRegistry.grow(accountsByClient, additional);
+    }
+
+    public Optional<BaseAccount> find(UUID accountId) {
+        BaseAccount account = accountsById.get(accountId);
+        AccountLoader source = loader;
+        if (account == null && source != null) {
+            int index = source.indexOf(accountId);
+            if (index >= 0) {
+                account = load(source, index);
+            }
+        }
+        return Optional.ofNullable(account);
+    }
+
+    public Collection<BaseAccount> accountsOf(UUID clientId) {
+        AccountLoader source = loader;
+        if (source != null) {
+            for (int index : source.indicesOf(clientId)) {
+                if (!accountsById.containsKey(source.idAt(index))) {
+                    load(source, index);
+                }
+            }
+        }
+        Set<BaseAccount> accounts = accountsByClient.get(clientId);
+        return accounts == null ? Collections.emptySet() : Collections.unmodifiableSet(accounts);
+    }
+
+    public Collection<BaseAccount> getAccounts() {
+        if (loader != null) {
+            loadAll();
+        }
+        return Collections.unmodifiableCollection(accountsById.values());
+    }
+
+    /**
+     * Runs an action while no account is being built, e.g. an accrual that keeps the state of the accounts not
+     * built yet in their loader. Lookups that have to build an account wait until the action returns.
+     *
+     * @param action gets the accounts in memory and the loader of the others, or {@code null} if every account
+     *               is in memory
+     */
+    public synchronized void withLoadingHeld(BiConsumer<Collection<BaseAccount>, AccountLoader> action) {
+        action.accept(Collections.unmodifiableCollection(accountsById.values()), loader);
+    }
+
+    public int size() {
+        AccountLoader source = loader;
+        return source == null ? accountsById.size() : accountsById.size() + source.size() - loaded.get();
+    }
+
+    private synchronized void loadAll() {
+        AccountLoader source = loader;
+        if (source == null) {
+            return;
+        }
+        for (int index = 0; index < source.size(); index++) {
+            if (!accountsById.containsKey(source.idAt(index))) {
+                load(source, index);
+            }
+        }
+        loader = null;
+    }
+
+    private synchronized BaseAccount load(AccountLoader source, int index) {
+        BaseAccount existing = accountsById.get(source.idAt(index));
+        if (existing != null) {
+            return existing;
+        }
+        BaseAccount account = source.loadAt(index);
+        accountsById.put(account.getId(), account);
+        loaded.incrementAndGet();
+        index(account);
+        return account;
+    }
+
+    private void index(BaseAccount account) {
+        accountsByClient
+                .computeIfAbsent(account.getClient().getId(), id -> ConcurrentHashMap.newKeySet())
+                .add(account);
+    }
+}
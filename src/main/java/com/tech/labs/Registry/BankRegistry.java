@@ -0,0 +1,51 @@
+package com.tech.labs.Registry;
+
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Exceptions.BankException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BankRegistry {
+    private final Map<UUID, Bank> banksById = new ConcurrentHashMap<>();
+    private final Map<String, Bank> banksByName = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a bank in both the id and the name index.
+     * The name index is claimed first, so two concurrent registrations of the same name
+     * can never both succeed.
+     *
+     * @param bank the bank to register
+     * @throws BankException if a bank with the same name is already registered
+     */
+    public void register(Bank bank) throws BankException {
+        if (banksByName.putIfAbsent(bank.getName(), bank) != null) {
+            throw BankException.bankAlreadyExists(bank.getName());
+        }
+        banksById.put(bank.getId(), bank);
+    }
+
+    public boolean containsName(String name) {
+        return banksByName.containsKey(name);
+    }
+
+    public Optional<Bank> findById(UUID bankId) {
+        return Optional.ofNullable(banksById.get(bankId));
+    }
+
+    public Optional<Bank> findByName(String name) {
+        return Optional.ofNullable(banksByName.get(name));
+    }
+
+    public Collection<Bank> getBanks() {
+        return Collections.unmodifiableCollection(banksById.values());
+    }
+
+    public int size() {
+        return banksById.size();
+    }
+}
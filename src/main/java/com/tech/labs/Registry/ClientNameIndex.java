@@ -0,0 +1,95 @@
+package com.tech.labs.Registry;
+
+import com.tech.labs.Entities.Client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted index of clients by surname and name, for type-ahead search.
+ *
+ * <p>The key of a client is {@code "<surname> <name>"} in lower case with runs of whitespace collapsed, so a
+ * prefix such as {@code "batmanov ar"} finds the clients whose surname is {@code Batmanov} and whose name starts
+ * with {@code Ar}, while {@code "batmanov "} with a trailing space finds only the surname {@code Batmanov}.
+ * Clients with the same key share one entry: a single client is stored as is, several as an array, so the index
+ * holds one key string per distinct full name and nothing per client beyond that.
+ */
+final class ClientNameIndex {
+    private final ConcurrentSkipListMap<String, Object> entries = new ConcurrentSkipListMap<>();
+
+    void add(Client client) {
+        entries.merge(key(client), client, ClientNameIndex::append);
+    }
+
+    /**
+     * Finds the clients whose key starts with the given prefix, in key order.
+     *
+     * @param prefix the start of the surname, optionally followed by a space and the start of the name
+     * @param limit  the maximum number of clients to return
+     * @return at most {@code limit} clients
+     */
+    List<Client> search(String prefix, int limit) {
+        String from = normalize(prefix);
+        ConcurrentNavigableMap<String, Object> range = from.isEmpty()
+                ? entries
+                : entries.subMap(from, true, from + Character.MAX_VALUE, false);
+        List<Client> found = new ArrayList<>(Math.min(limit, 64));
+        for (Map.Entry<String, Object> entry : range.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Client client) {
+                found.add(client);
+            } else {
+                for (Client client : (Client[]) value) {
+                    if (found.size() == limit) {
+                        break;
+                    }
+                    found.add(client);
+                }
+            }
+            if (found.size() >= limit) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    static String key(Client client) {
+        return normalize(client.getSurname() + ' ' + client.getName());
+    }
+
+    static String normalize(String text) {
+        StringBuilder key = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+                continue;
+            }
+            if (space) {
+                key.append(' ');
+                space = false;
+            }
+            key.append(c);
+        }
+        if (space) {
+            key.append(' ');
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static Object append(Object existing, Object added) {
+        if (existing instanceof Client client) {
+            return new Client[]{client, (Client) added};
+        }
+        Client[] clients = (Client[]) existing;
+        Client[] grown = Arrays.copyOf(clients, clients.length + 1);
+        grown[clients.length] = (Client) added;
+        return grown;
+    }
+}
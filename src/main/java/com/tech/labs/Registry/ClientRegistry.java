@@ -0,0 +1,150 @@
+package com.tech.labs.Registry;
+
+import com.tech.labs.Entities.Client;
+import com.tech.labs.Journal.Journal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directory of the clients of a central bank: hash indexes by ID and passport number, a name index for
+ * type-ahead search and the set of dubious clients.
+ *
+ * <p>A registered client reports changes of its address and passport back to the registry, see
+ * {@link #clientChanged(Client)}, so the passport index and the dubious set follow the client. Names cannot
+ * change, so the name index never has to be updated. The registry journals these changes as well.
+ */
+public class ClientRegistry {
+    private volatile Map<UUID, Client> clientsById = new ConcurrentHashMap<>();
+    private volatile Map<Long, Client> clientsByPassport = new ConcurrentHashMap<>();
+    private final ClientNameIndex clientsByName = new ClientNameIndex();
+    private final Map<UUID, Client> dubiousClients = new ConcurrentHashMap<>();
+    private volatile Journal journal = Journal.DISABLED;
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Adds a client to the id index and, if the client has a passport, to the passport index.
+     * A passport that is already indexed keeps pointing to the client registered first.
+     *
+     * @param client the client to register
+     */
+    public void register(Client client) {
+        clientsById.put(client.getId(), client);
+        if (client.hasPassport()) {
+            clientsByPassport.putIfAbsent(client.getPassportNumber(), client);
+        }
+        index(client);
+    }
+
+    /**
+     * Registers a client unless a client with the same passport is already registered.
+     *
+     * @param client the client to register
+     * @return the client registered with the same passport before, or the given client if it was registered
+     */
+    public Client registerIfAbsent(Client client) {
+        if (client.hasPassport()) {
+            Client existing = clientsByPassport.putIfAbsent(client.getPassportNumber(), client);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        clientsById.put(client.getId(), client);
+        index(client);
+        return client;
+    }
+
+    /**
+     * Brings the passport index and the dubious set up to date after the address or the passport of a
+     * registered client has been set, and journals the change. A passport already indexed for another client
+     * keeps pointing to that client.
+     *
+     * @param client the client that has changed
+     */
+    public void clientChanged(Client client) {
+        if (client.hasPassport()) {
+            clientsByPassport.putIfAbsent(client.getPassportNumber(), client);
+        }
+        if (!client.isDubious()) {
+            dubiousClients.remove(client.getId());
+        }
+        journal.clientChanged(client);
+    }
+
+    /**
+     * Grows the indices so that the given number of further clients fits without resizing them on the way,
+     * ahead of a bulk registration. Must not run concurrently with registrations.
+     *
+     * @param additional the number of clients about to be registered
+     */
+    public synchronized void reserve(int additional) {
+        clientsById = grow(clientsById, additional);
+        clientsByPassport = grow(clientsByPassport, additional);
+    }
+
+    public Optional<Client> findById(UUID clientId) {
+        return Optional.ofNullable(clientsById.get(clientId));
+    }
+
+    public Optional<Client> findByPassport(long passportNumber) {
+        return Optional.ofNullable(clientsByPassport.get(passportNumber));
+    }
+
+    /**
+     * Finds clients by the start of their surname and name, ignoring case, in the order of surname and name.
+     *
+     * @param prefix the start of the surname, optionally followed by a space and the start of the name
+     * @param limit  the maximum number of clients to return
+     * @return at most {@code limit} clients
+     */
+    public List<Client> searchByName(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        return clientsByName.search(prefix, limit);
+    }
+
+    /**
+     * @return the clients without an address or a passport, as a live view
+     */
+    public Collection<Client> getDubiousClients() {
+        return Collections.unmodifiableCollection(dubiousClients.values());
+    }
+
+    public Collection<Client> getClients() {
+        return Collections.unmodifiableCollection(clientsById.values());
+    }
+
+    public int size() {
+        return clientsById.size();
+    }
+
+    /**
+     * Adds a client to the name index and, while it is dubious, to the dubious set. A client can only stop being
+     * dubious, so checking it again after adding it catches a change reported before it was added.
+     */
+    private void index(Client client) {
+        clientsByName.add(client);
+        client.setClientRegistry(this);
+        if (client.isDubious()) {
+            dubiousClients.put(client.getId(), client);
+            if (!client.isDubious()) {
+                dubiousClients.remove(client.getId());
+            }
+        }
+    }
+
+    static <K, V> Map<K, V> grow(Map<K, V> map, int additional) {
+        Map<K, V> grown = new ConcurrentHashMap<>(map.size() + additional);
+        grown.putAll(map);
+        return grown;
+    }
+}
@@ -0,0 +1,93 @@
+package com.tech.labs.Registry;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Observer.Observer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Subscribers of a bank, indexed by the account types they hold.
+ *
+ * <p>For every account type the registry keeps the set of subscribed clients that have an account of that type,
+ * so a configuration change reaches its clients without looking at any account. The index is updated when
+ * a client subscribes or unsubscribes and when a subscribed client opens an account. Updates are serialized;
+ * readers never lock.
+ */
+public class SubscriberRegistry {
+    private final Set<Observer<String>> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<TypeOfBankAccount, Set<Clients>> subscribersByType = new EnumMap<>(TypeOfBankAccount.class);
+
+    public SubscriberRegistry() {
+        for (TypeOfBankAccount type : TypeOfBankAccount.values()) {
+            subscribersByType.put(type, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Adds a subscriber. A subscriber that is a client is indexed under the types of its accounts. The accounts
+     * are looked up under the same lock as {@link #accountOpened}, so an account opened meanwhile is indexed by
+     * one or the other.
+     *
+     * @param observer the subscriber
+     * @param accounts looks up the accounts the subscriber already has in the bank
+     * @return false if the observer was already subscribed
+     */
+    public synchronized boolean subscribe(Observer<String> observer, Supplier<Collection<BaseAccount>> accounts) {
+        if (!subscribers.add(observer)) {
+            return false;
+        }
+        accounts.get().forEach(this::index);
+        return true;
+    }
+
+    /**
+     * Removes a subscriber from the registry and from the index of every account type.
+     *
+     * @param observer the subscriber
+     * @return false if the observer was not subscribed
+     */
+    public synchronized boolean unsubscribe(Observer<String> observer) {
+        if (!subscribers.remove(observer)) {
+            return false;
+        }
+        subscribersByType.values().forEach(clients -> clients.remove(observer));
+        return true;
+    }
+
+    /**
+     * Indexes a newly opened account if its client is subscribed.
+     *
+     * @param account the opened account
+     */
+    public synchronized void accountOpened(BaseAccount account) {
+        if (subscribers.contains(account.getClient())) {
+            index(account);
+        }
+    }
+
+    public boolean isSubscribed(Observer<String> observer) {
+        return subscribers.contains(observer);
+    }
+
+    /**
+     * Gets the subscribed clients that have at least one account of the given type.
+     *
+     * @param type the account type
+     * @return the clients, each once however many accounts of the type it has
+     */
+    public Collection<Clients> subscribersOf(TypeOfBankAccount type) {
+        return Collections.unmodifiableSet(subscribersByType.get(type));
+    }
+
+    private void index(BaseAccount account) {
+        subscribersByType.get(account.getType()).add(account.getClient());
+    }
+}
@@ -0,0 +1,39 @@
+package com.tech.labs.Registry;
+
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Transaction.BankTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All transactions of a central bank indexed by id, each with the bank it was committed in, so a transaction
+ * is found without knowing its bank or account. A transfer between banks is filed under the bank of the
+ * source account.
+ */
+public class TransactionRegistry {
+    private final Map<UUID, Entry> transactions = new ConcurrentHashMap<>();
+
+    public void register(Bank bank, BankTransaction transaction) {
+        transactions.put(transaction.getId(), new Entry(bank, transaction));
+    }
+
+    public Optional<Entry> findById(UUID transactionId) {
+        return Optional.ofNullable(transactions.get(transactionId));
+    }
+
+    public int size() {
+        return transactions.size();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Bank bank;
+        private final BankTransaction transaction;
+    }
+}
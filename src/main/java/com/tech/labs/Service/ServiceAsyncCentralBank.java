@@ -0,0 +1,98 @@
+package com.tech.labs.Service;
+
+import com.tech.labs.Concurrency.AccountMailboxes;
+import com.tech.labs.Interfaces.AsyncCentralBank;
+import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Transaction.BankTransaction;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the money operations of a {@link CentralBank} asynchronously, through one mailbox per account.
+ *
+ * <p>Callers never block: an operation is queued in the mailbox of its account and runs on the executor once
+ * everything submitted before it for that account is done. A transfer is queued in the mailboxes of both
+ * accounts and runs when it is at the head of both, so it is ordered against the other operations of either
+ * account; the synchronous transfer still takes both account locks, so callers of the synchronous API can keep
+ * using it at the same time.
+ *
+ * <p>The executor runs the operations themselves, which may wait for account locks or for a journal flush.
+ * The default is the common fork/join pool; with a journal, pass an executor with more threads than cores,
+ * or a virtual-thread-per-task executor on a runtime that has one.
+ */
+public class ServiceAsyncCentralBank implements AsyncCentralBank {
+    @Getter
+    private final CentralBank centralBank;
+    private final AccountMailboxes mailboxes;
+
+    public ServiceAsyncCentralBank(@NonNull CentralBank centralBank) {
+        this(centralBank, ForkJoinPool.commonPool());
+    }
+
+    public ServiceAsyncCentralBank(@NonNull CentralBank centralBank, @NonNull Executor executor) {
+        this.centralBank = centralBank;
+        this.mailboxes = new AccountMailboxes(executor);
+    }
+
+    @Override
+    public CompletableFuture<BankTransaction> replenishAccount(UUID bankId, UUID accountId, long amount) {
+        CompletableFuture<BankTransaction> future = new CompletableFuture<>();
+        mailboxes.submit(accountId, () -> complete(future, () -> centralBank.replenishAccount(bankId, accountId, amount)));
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<BankTransaction> withdrawMoney(UUID bankId, UUID accountId, long amount) {
+        CompletableFuture<BankTransaction> future = new CompletableFuture<>();
+        mailboxes.submit(accountId, () -> complete(future, () -> centralBank.withdrawMoney(bankId, accountId, amount)));
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<BankTransaction> transferMoney(UUID bankId1, UUID accountId1, UUID bankId2, UUID accountId2,
+                                                           long amount) {
+        CompletableFuture<BankTransaction> future = new CompletableFuture<>();
+        mailboxes.submit(accountId1, accountId2, () -> complete(future,
+                () -> centralBank.transferMoney(bankId1, accountId1, bankId2, accountId2, amount)));
+        return future;
+    }
+
+    /**
+     * Cancels a transaction in order with the other operations of the given account. The other account of
+     * a canceled transfer is not waited for; the cancellation takes its lock like the synchronous one.
+     */
+    @Override
+    public CompletableFuture<Void> cancelTransaction(UUID bankId, UUID accountId, UUID transactionId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        mailboxes.submit(accountId, () -> complete(future, () -> {
+            centralBank.cancelTransaction(bankId, accountId, transactionId);
+            return null;
+        }));
+        return future;
+    }
+
+    /**
+     * @return the number of accounts with operations that are queued or running
+     */
+    public int getPendingAccounts() {
+        return mailboxes.size();
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Operation<T> operation) {
+        try {
+            future.complete(operation.apply());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation<T> {
+        T apply() throws Exception;
+    }
+}
@@ -2,32 +2,253 @@ package com.tech.labs.Service;
 
 import com.tech.labs.Accounts.AccountConfigurations.*;
 import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.DepositAccount;
+import com.tech.labs.Accounts.Commands.BalanceOperationCommand;
+import com.tech.labs.Accounts.Commands.ClearedTransfer;
+import com.tech.labs.Accounts.Commands.Income;
 import com.tech.labs.Accounts.Commands.Transfer;
+import com.tech.labs.Accounts.Commands.Withdraw;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Accrual.AccrualEngine;
 import com.tech.labs.Builders.ClientBuilder;
+import com.tech.labs.Clearing.ClearingHouse;
+import com.tech.labs.Clearing.ClearingReport;
+import com.tech.labs.Concurrency.AccountLocks;
+import com.tech.labs.Concurrency.ExecutionMode;
+import com.tech.labs.Concurrency.ShardedEngine;
 import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.DateTimeProvider.ScheduledEvent;
 import com.tech.labs.Entities.Bank;
 import com.tech.labs.Entities.Client;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.BankException;
+import com.tech.labs.Exceptions.ClientException;
 import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Identifiers.IdGenerator;
 import com.tech.labs.Interfaces.CentralBank;
+import com.tech.labs.Journal.Journal;
+import com.tech.labs.Journal.JournalHandler;
+import com.tech.labs.Journal.MappedJournal;
+import com.tech.labs.Journal.RecordType;
+import com.tech.labs.Ledger.StatementPage;
+import com.tech.labs.Metrics.BankOperation;
+import com.tech.labs.Metrics.CentralBankMetrics;
 import com.tech.labs.Models.Limit;
 import com.tech.labs.Models.Percent;
+import com.tech.labs.Registry.BankRegistry;
+import com.tech.labs.Registry.ClientRegistry;
+import com.tech.labs.Registry.TransactionRegistry;
+import com.tech.labs.Snapshot.BankSnapshot;
+import com.tech.labs.Snapshot.SnapshotAccounts;
 import com.tech.labs.Transaction.BankTransaction;
+import com.tech.labs.Transaction.BatchOperation;
+import com.tech.labs.Transaction.BatchResult;
+import com.tech.labs.Transaction.BatchStatus;
+import com.tech.labs.Transaction.OperationType;
+import com.tech.labs.Transaction.State;
+import lombok.Getter;
 import lombok.NonNull;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
-public class ServiceCentralBank implements CentralBank {
-    private final List<Bank> banks = new ArrayList<>();
-    private final List<Client> clients = new ArrayList<>();
+public class ServiceCentralBank implements CentralBank, AutoCloseable {
+    private final BankRegistry banks = new BankRegistry();
+    private final ClientRegistry clients = new ClientRegistry();
+    private final TransactionRegistry transactions = new TransactionRegistry();
     private final RewindClock rewindClock;
+    private final AccrualEngine accrualEngine = new AccrualEngine();
+    private volatile Journal journal = Journal.DISABLED;
+    private volatile IdGenerator idGenerator = IdGenerator.RANDOM;
+    /**
+     * Collects the obligations of cross-bank transfers in the clearing mode, or {@code null} while cross-bank
+     * transfers are not cleared.
+     */
+    @Getter
+    private volatile ClearingHouse clearingHouse;
+    private final Map<UUID, ScheduledEvent> accruals = new ConcurrentHashMap<>();
+    @Getter
+    private final ExecutionMode executionMode;
+    private final ShardedEngine shardedEngine;
+    /**
+     * Latencies and outcomes of replenishments, withdrawals, transfers and cancellations, see
+     * {@link CentralBankMetrics}. Batches are not measured.
+     */
+    @Getter
+    private final CentralBankMetrics metrics = new CentralBankMetrics();
 
     public ServiceCentralBank(@NonNull RewindClock rewindClock) {
+        this(rewindClock, ExecutionMode.LOCKING);
+    }
+
+    /**
+     * Creates a central bank that applies balance updates in the given mode. The sharded mode uses one shard
+     * per available processor.
+     *
+     * @param rewindClock   the clock of the central bank
+     * @param executionMode how balance updates are applied
+     */
+    public ServiceCentralBank(@NonNull RewindClock rewindClock, @NonNull ExecutionMode executionMode) {
+        this(rewindClock, executionMode, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a central bank that applies balance updates in the given mode.
+     *
+     * @param rewindClock   the clock of the central bank
+     * @param executionMode how balance updates are applied
+     * @param shardCount    the number of shard writers in the sharded mode; ignored otherwise
+     */
+    public ServiceCentralBank(@NonNull RewindClock rewindClock, @NonNull ExecutionMode executionMode, int shardCount) {
         this.rewindClock = rewindClock;
+        this.executionMode = executionMode;
+        this.shardedEngine = executionMode == ExecutionMode.SHARDED ? new ShardedEngine(shardCount) : null;
+        rewindClock.addAction(time -> journal.clockMoved(time));
+    }
+
+    /**
+     * Creates a central bank that records every change in the given journal.
+     *
+     * @param rewindClock the clock of the central bank
+     * @param journal     the journal to record changes in
+     */
+    public ServiceCentralBank(@NonNull RewindClock rewindClock, @NonNull Journal journal) {
+        this(rewindClock);
+        setJournal(journal);
+    }
+
+    /**
+     * Restores a central bank from a journal and keeps journaling into the same file.
+     * The clock starts at the time stored in the journal; banks, clients, accounts, configuration
+     * changes and clock moves are replayed in order, so scheduled accruals and deposit payouts run again
+     * as they did originally. Committed transactions are reapplied with their original IDs without
+     * repeating the checks they already passed.
+     *
+     * @param journalFile the journal file
+     * @return the restored central bank
+     * @throws IOException if the journal cannot be read or a record cannot be replayed
+     */
+    public static ServiceCentralBank recover(Path journalFile) throws IOException {
+        ServiceCentralBank centralBank = new ServiceCentralBank(new RewindClock(MappedJournal.readClockStart(journalFile)));
+        MappedJournal.read(journalFile, centralBank.new JournalReplay());
+        centralBank.setJournal(MappedJournal.open(journalFile, centralBank.rewindClock.currentTime()));
+        return centralBank;
+    }
+
+    /**
+     * Restores a central bank from a snapshot written by {@link #checkpoint(Path)}. Clients and banks are
+     * built at once; the accounts stay in the mapped file and are built on first access, so a large snapshot
+     * is ready as soon as its clients are. Daily accruals and deposit payouts that were still due are scheduled
+     * again; the daily accruals do not build the accounts. The restored central bank does not journal until
+     * a journal is set.
+     *
+     * @param snapshotFile the snapshot file
+     * @return the restored central bank
+     * @throws IOException if the snapshot cannot be read or holds an invalid bank
+     */
+    public static ServiceCentralBank restore(Path snapshotFile) throws IOException {
+        BankSnapshot snapshot = BankSnapshot.read(snapshotFile);
+        ServiceCentralBank centralBank = new ServiceCentralBank(new RewindClock(snapshot.getClockTime()));
+        snapshot.getRegisteredClients().forEach(centralBank.clients::register);
+        for (BankSnapshot.Entry entry : snapshot.getBanks()) {
+            try {
+                centralBank.restoreBank(entry);
+            } catch (BankException | AccountException | TransactionException e) {
+                throw new IOException("Couldn't restore bank " + entry.getName(), e);
+            }
+        }
+        return centralBank;
+    }
+
+    /**
+     * Writes the clients, banks and accounts with their balances to a snapshot file, replacing the previous one.
+     * Transaction histories and subscriptions are not written. Operations that run meanwhile may or may not
+     * be in the snapshot.
+     *
+     * @param snapshotFile the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void checkpoint(Path snapshotFile) throws IOException {
+        BankSnapshot.write(snapshotFile, rewindClock.currentTime(), clients.getClients(), banks.getBanks(),
+                bankId -> {
+                    ScheduledEvent accrual = accruals.get(bankId);
+                    return accrual == null || accrual.isCancelled() ? null : accrual.getTime();
+                });
+    }
+
+    /**
+     * Switches the journal of the central bank and of all its banks.
+     *
+     * @param journal the journal to record changes in from now on
+     */
+    public void setJournal(@NonNull Journal journal) {
+        this.journal = journal;
+        clients.setJournal(journal);
+        banks.getBanks().forEach(bank -> bank.setJournal(journal));
+    }
+
+    /**
+     * Switches the source of the IDs of new clients, banks, accounts and transactions, here and in all banks.
+     * IDs that already exist are kept.
+     *
+     * @param idGenerator the generator of IDs from now on
+     */
+    public void setIdGenerator(@NonNull IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+        banks.getBanks().forEach(bank -> bank.setIdGenerator(idGenerator));
+    }
+
+    /**
+     * Switches on the clearing mode: from now on every cross-bank transfer also records what the bank of the
+     * source account owes the bank of the target account, and the banks settle once per cycle, see
+     * {@link ClearingHouse}. Transfers made before are not cleared.
+     *
+     * @return the clearing house of this central bank
+     */
+    public synchronized ClearingHouse enableClearing() {
+        if (clearingHouse == null) {
+            clearingHouse = new ClearingHouse();
+        }
+        return clearingHouse;
+    }
+
+    /**
+     * Closes the current clearing cycle, see {@link ClearingHouse#closeCycle()}.
+     *
+     * @return the net positions and the settlement payments of the cycle
+     * @throws IllegalStateException if the clearing mode is off
+     */
+    public ClearingReport closeClearingCycle() {
+        ClearingHouse house = clearingHouse;
+        if (house == null) {
+            throw new IllegalStateException("Clearing is not enabled");
+        }
+        return house.closeCycle();
+    }
+
+    /**
+     * Stops the shard writers once the updates already queued have run, see {@link ShardedEngine#close()}.
+     * Does nothing in the locking mode.
+     */
+    @Override
+    public void close() {
+        if (shardedEngine != null) {
+            shardedEngine.close();
+        }
     }
 
     @Override
@@ -38,25 +259,97 @@ public class ServiceCentralBank implements CentralBank {
     @Override
     public Client registerClient(String name, String surname, String address, Long passport) {
         Client client = new ClientBuilder()
+                .addId(idGenerator.next())
                 .addName(name)
                 .addSurname(surname)
                 .addAddress(address)
                 .addPassportNumber(passport)
                 .build();
-        clients.add(client);
+        clients.register(client);
+        journal.clientRegistered(client);
         return client;
     }
 
+    /**
+     * Registers a client built elsewhere, e.g. by a bulk load, unless a client with the same passport is
+     * registered already.
+     *
+     * @param client the client to register
+     * @return the client registered with the same passport before, or the given client if it was registered
+     */
+    public Client registerClient(@NonNull Client client) {
+        Client registered = clients.registerIfAbsent(client);
+        if (registered == client) {
+            journal.clientRegistered(client);
+        }
+        return registered;
+    }
+
+    /**
+     * Makes room for the given number of further clients ahead of a bulk load, see
+     * {@link ClientRegistry#reserve(int)}. Must not run while clients are being registered.
+     *
+     * @param additional the number of clients about to be registered
+     */
+    public void reserveClients(int additional) {
+        clients.reserve(additional);
+    }
+
+    /**
+     * @return the source of the IDs of new clients, banks, accounts and transactions
+     */
+    public IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    public Collection<Bank> getBanks() {
+        return banks.getBanks();
+    }
+
+    public Collection<Client> getClients() {
+        return clients.getClients();
+    }
+
+    @Override
+    public Client findClient(UUID clientId) throws ClientException {
+        return clients.findById(clientId)
+                .orElseThrow(() -> ClientException.clientDoesNotExist(clientId.toString()));
+    }
+
+    @Override
+    public Client findClientByPassport(long passportNumber) throws ClientException {
+        return clients.findByPassport(passportNumber)
+                .orElseThrow(() -> ClientException.clientDoesNotExist("passport " + passportNumber));
+    }
+
+    /**
+     * Finds clients by the start of their surname and name, ignoring case, see
+     * {@link ClientRegistry#searchByName(String, int)}.
+     *
+     * @param prefix the start of the surname, optionally followed by a space and the start of the name
+     * @param limit  the maximum number of clients to return
+     * @return at most {@code limit} clients in the order of surname and name
+     */
+    @Override
+    public List<Client> searchClients(@NonNull String prefix, int limit) {
+        return clients.searchByName(prefix, limit);
+    }
+
+    @Override
+    public Collection<Client> getDubiousClients() {
+        return clients.getDubiousClients();
+    }
+
     @Override
     public Bank findBankByName(String name) throws BankException {
-        return banks.stream()
-                .filter(bank -> bank.getName().equals(name))
-                .findFirst()
-                .orElseThrow(() -> new BankException("Bank with name: " + name + " doesn't exist"));
+        return banks.findByName(name)
+                .orElseThrow(() -> BankException.bankDoesNotExist(name));
     }
 
     /**
      * Creates a new Bank entity with the specified parameters.
+     * The daily interest accrual of the bank is scheduled on the clock, one day from now and then every day.
+     * The bank is journaled before it is registered, so a bank that cannot be journaled is not created.
      *
      * @param name                  the name of the new bank
      * @param debitPercent          the debit percent for debit accounts
@@ -71,39 +364,107 @@ public class ServiceCentralBank implements CentralBank {
      * @throws TransactionException if there is an error with the transaction
      */
     @Override
-    public Bank createBank(String name, double debitPercent, List<DepositPercent> depositPercents,
-                           double creditCommission, double creditLimit, double limitForDubiousClient,
-                           Duration endOfPeriod) throws BankException, AccountException, TransactionException {
-        if (banks.stream().anyMatch(bank -> bank.getName().equals(name))) {
-            throw new BankException("Bank with name: " + name + " already exists");
+    public synchronized Bank createBank(String name, int debitPercent, List<DepositPercent> depositPercents,
+                                        long creditCommission, long creditLimit, long limitForDubiousClient,
+                                        Duration endOfPeriod)
+            throws BankException, AccountException, TransactionException {
+        Bank bank = newBank(idGenerator.next(), name, debitPercent, depositPercents, creditCommission,
+                creditLimit, limitForDubiousClient, endOfPeriod);
+        journal.bankCreated(bank, debitPercent, depositPercents, creditCommission, creditLimit,
+                limitForDubiousClient, endOfPeriod);
+        return registerBank(bank, rewindClock.currentTime().plusDays(1));
+    }
+
+    private Bank createBank(UUID bankId, String name, int debitPercent, List<DepositPercent> depositPercents,
+                            long creditCommission, long creditLimit, long limitForDubiousClient,
+                            Duration endOfPeriod) throws BankException, AccountException, TransactionException {
+        return registerBank(newBank(bankId, name, debitPercent, depositPercents, creditCommission, creditLimit,
+                limitForDubiousClient, endOfPeriod), rewindClock.currentTime().plusDays(1));
+    }
+
+    private Bank newBank(UUID bankId, String name, int debitPercent, List<DepositPercent> depositPercents,
+                         long creditCommission, long creditLimit, long limitForDubiousClient,
+                         Duration endOfPeriod) throws BankException, AccountException, TransactionException {
+        if (banks.containsName(name)) {
+            throw BankException.bankAlreadyExists(name);
         }
 
-        CreditAccountConfiguration credit = new CreditAccountConfiguration((int) creditCommission, (int) creditLimit);
-        DebitAccountConfiguration debit = new DebitAccountConfiguration(new Percent((int) debitPercent));
+        CreditAccountConfiguration credit = new CreditAccountConfiguration(creditCommission, creditLimit);
+        DebitAccountConfiguration debit = new DebitAccountConfiguration(new Percent(debitPercent));
         DepositAccountConfiguration deposit = new DepositAccountConfiguration(depositPercents, endOfPeriod);
         BankConfiguration bankConfiguration = new BankConfiguration(credit, debit, deposit,
-                new Limit((long) limitForDubiousClient));
+                new Limit(limitForDubiousClient));
+
+        return new Bank(bankId, name, rewindClock, bankConfiguration);
+    }
 
-        Bank bank = new Bank(name, rewindClock, bankConfiguration);
-        banks.add(bank);
+    private Bank registerBank(Bank bank, LocalDateTime firstAccrual) throws BankException {
+        bank.setJournal(journal);
+        bank.setShardedEngine(shardedEngine);
+        bank.setIdGenerator(idGenerator);
+        bank.setTransactionRegistry(transactions);
+        banks.register(bank);
+        if (firstAccrual != null) {
+            accruals.put(bank.getId(), rewindClock.scheduleAtFixedRate(firstAccrual, Duration.ofDays(1),
+                    time -> accrualEngine.accrueDaily(bank)));
+        }
         return bank;
     }
 
+    private void restoreBank(BankSnapshot.Entry entry) throws BankException, AccountException, TransactionException {
+        Long limit = entry.getLimitForDubiousClient();
+        BankConfiguration bankConfiguration = new BankConfiguration(
+                new CreditAccountConfiguration(entry.getCreditCommission(), entry.getCreditLimit()),
+                new DebitAccountConfiguration(new Percent(entry.getDebitPercent())),
+                new DepositAccountConfiguration(toDepositPercents(entry.getDepositPercents()), entry.getDepositPeriod()),
+                limit == null ? null : new Limit(limit));
+
+        Bank bank = new Bank(entry.getId(), entry.getName(), rewindClock, bankConfiguration);
+        SnapshotAccounts accounts = entry.accountsOf(bank);
+        bank.attachAccounts(accounts);
+        registerBank(bank, entry.getNextAccrual());
+
+        LocalDateTime now = rewindClock.currentTime();
+        accounts.forEachDeposit((accountId, endOfPeriod) -> {
+            if (endOfPeriod.isAfter(now)) {
+                rewindClock.schedule(endOfPeriod, time -> bank.findAccount(accountId)
+                        .ifPresent(account -> ((DepositAccount) account).maturityPayoff()));
+            }
+        });
+    }
+
+    private static List<DepositPercent> toDepositPercents(List<long[]> percents) throws AccountException, TransactionException {
+        List<DepositPercent> depositPercents = new ArrayList<>(percents.size());
+        for (long[] percent : percents) {
+            depositPercents.add(new DepositPercent(new Percent((int) percent[0]), percent[1], percent[2]));
+        }
+        return depositPercents;
+    }
+
     /**
      * Initiates an income transaction to replenish the specified account.
      *
      * @param bankId   the ID of the bank where the account is located
      * @param accountId the ID of the account to replenish
-     * @param amount   the amount of money to add to the account
+     * @param amount   the amount of money to add to the account, in minor units
      * @return the transaction details
      * @throws TransactionException if there is an error with the transaction
      * @throws AccountException     if there is an error with the account
      * @throws BankException        if there is an error with the bank
      */
     @Override
-    public BankTransaction replenishAccount(UUID bankId, UUID accountId, double amount) throws TransactionException, AccountException, BankException {
-        Bank bank = findBankById(bankId);
-        return bank.income(accountId, (int) amount);
+    public BankTransaction replenishAccount(UUID bankId, UUID accountId, long amount) throws TransactionException, AccountException, BankException {
+        long start = System.nanoTime();
+        Bank bank = null;
+        try {
+            bank = findBankById(bankId);
+            BankTransaction transaction = bank.income(accountId, amount);
+            metrics.record(BankOperation.REPLENISH, bank, start, transaction);
+            return transaction;
+        } catch (TransactionException | AccountException | BankException | RuntimeException e) {
+            metrics.record(BankOperation.REPLENISH, bank, start, e);
+            throw e;
+        }
     }
 
 
@@ -112,16 +473,25 @@ public class ServiceCentralBank implements CentralBank {
      *
      * @param bankId   the ID of the bank where the account is located
      * @param accountId the ID of the account to withdraw from
-     * @param amount   the amount of money to withdraw
+     * @param amount   the amount of money to withdraw, in minor units
      * @return the transaction details
      * @throws TransactionException if there is an error with the transaction
      * @throws AccountException     if there is an error with the account
      * @throws BankException        if there is an error with the bank
      */
     @Override
-    public BankTransaction withdrawMoney(UUID bankId, UUID accountId, double amount) throws TransactionException, AccountException, BankException {
-        Bank bank = findBankById(bankId);
-        return bank.withdraw(accountId, (int) amount);
+    public BankTransaction withdrawMoney(UUID bankId, UUID accountId, long amount) throws TransactionException, AccountException, BankException {
+        long start = System.nanoTime();
+        Bank bank = null;
+        try {
+            bank = findBankById(bankId);
+            BankTransaction transaction = bank.withdraw(accountId, amount);
+            metrics.record(BankOperation.WITHDRAW, bank, start, transaction);
+            return transaction;
+        } catch (TransactionException | AccountException | BankException | RuntimeException e) {
+            metrics.record(BankOperation.WITHDRAW, bank, start, e);
+            throw e;
+        }
     }
 
 
@@ -132,37 +502,546 @@ public class ServiceCentralBank implements CentralBank {
      * @param accountId1 the ID of the first account to transfer money from
      * @param bankId2   the ID of the bank where the second account is located
      * @param accountId2 the ID of the second account to transfer money to
-     * @param amount    the amount of money to transfer
+     * @param amount    the amount of money to transfer, in minor units
      * @return the transaction details
      * @throws AccountException     if there is an error with the accounts
      * @throws TransactionException if there is an error with the transaction
      * @throws BankException        if there is an error with the banks
      */
     @Override
-    public BankTransaction transferMoney(UUID bankId1, UUID accountId1, UUID bankId2, UUID accountId2, double amount) throws AccountException, TransactionException, BankException {
-        Bank bank1 = findBankById(bankId1);
-        Bank bank2 = findBankById(bankId2);
-        BaseAccount fromAccount = bank1.getAccount(accountId1);
-        BaseAccount toAccount = bank2.getAccount(accountId2);
+    public BankTransaction transferMoney(UUID bankId1, UUID accountId1, UUID bankId2, UUID accountId2, long amount) throws AccountException, TransactionException, BankException {
+        long start = System.nanoTime();
+        Bank bank1 = null;
+        try {
+            bank1 = findBankById(bankId1);
+            Bank bank2 = findBankById(bankId2);
+            BaseAccount fromAccount = bank1.getAccount(accountId1);
+            BaseAccount toAccount = bank2.getAccount(accountId2);
+            BankTransaction transaction = transfer(bank1, fromAccount, bank2, toAccount, amount);
+            metrics.record(BankOperation.TRANSFER, bank1, start, transaction);
+            return transaction;
+        } catch (TransactionException | AccountException | BankException | RuntimeException e) {
+            metrics.record(BankOperation.TRANSFER, bank1, start, e);
+            throw e;
+        }
+    }
 
-        BankTransaction transaction = new BankTransaction(new Transfer(toAccount, fromAccount, (int) amount));
+    private BankTransaction transfer(Bank fromBank, BaseAccount fromAccount, Bank toBank, BaseAccount toAccount,
+                                     long sum) throws TransactionException {
+        BalanceOperationCommand command = shardedEngine == null
+                ? new Transfer(toAccount, fromAccount, sum)
+                : shardedEngine.transfer(toAccount, fromAccount, sum);
+        ClearingHouse house = clearingHouse;
+        if (house != null && fromBank != toBank) {
+            command = new ClearedTransfer(house, fromBank.getId(), toBank.getId(), sum, command);
+        }
+        command = fromBank.limitVelocity(fromAccount, sum, command);
+        BankTransaction transaction = new BankTransaction(idGenerator.next(), command);
+        transaction.setConfigurationVersion(fromBank.getBankConfiguration().getVersion());
         transaction.doTransaction();
+        transaction.setCommitTime(rewindClock.currentTime());
         toAccount.saveChanges(transaction);
-        fromAccount.saveChanges(transaction);
+        if (fromAccount != toAccount) {
+            fromAccount.saveChanges(transaction);
+        }
+        transactions.register(fromBank, transaction);
+        if (transaction.getTransactionState() == State.Ended) {
+            journal.transactionCommitted(transaction, OperationType.TRANSFER, fromAccount, toAccount, sum);
+        }
 
         return transaction;
     }
 
+    /**
+     * Applies a batch of operations in submission order.
+     * Every distinct bank and account of the batch is looked up once, before anything is applied;
+     * unknown banks or accounts and negative amounts reject only the operation they appear in,
+     * without throwing.
+     *
+     * <p>Every applied operation is recorded in the {@link #getMetrics() metrics} as its own call of the matching
+     * operation, {@link BankOperation#REPLENISH} for an income, with the latency of that operation alone.
+     * Operations rejected before they are applied are reported only in the result.
+     *
+     * @param operations the operations to apply
+     * @return the status and transaction of every operation, in submission order
+     */
+    @Override
+    public BatchResult submitBatch(List<BatchOperation> operations) {
+        int size = operations.size();
+        BatchResult result = new BatchResult(size);
+        Bank[] sourceBanks = new Bank[size];
+        Bank[] targetBanks = new Bank[size];
+        BaseAccount[] sources = new BaseAccount[size];
+        BaseAccount[] targets = new BaseAccount[size];
+
+        BatchResolver resolver = new BatchResolver();
+        for (int i = 0; i < size; i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation.getAmount() < 0) {
+                result.reject(i, BatchStatus.INVALID_AMOUNT);
+                continue;
+            }
+            sourceBanks[i] = resolver.bank(operation.getBankId());
+            targetBanks[i] = operation.getType() == OperationType.TRANSFER
+                    ? resolver.bank(operation.getTargetBankId())
+                    : sourceBanks[i];
+            if (sourceBanks[i] == null || targetBanks[i] == null) {
+                result.reject(i, BatchStatus.BANK_NOT_FOUND);
+                continue;
+            }
+            sources[i] = resolver.account(sourceBanks[i], operation.getAccountId());
+            targets[i] = operation.getType() == OperationType.TRANSFER
+                    ? resolver.account(targetBanks[i], operation.getTargetAccountId())
+                    : sources[i];
+            if (sources[i] == null || targets[i] == null) {
+                sources[i] = null;
+                result.reject(i, BatchStatus.ACCOUNT_NOT_FOUND);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (sources[i] == null) {
+                continue;
+            }
+            BatchOperation operation = operations.get(i);
+            BankOperation measured = measured(operation.getType());
+            BankTransaction transaction;
+            long start = System.nanoTime();
+            try {
+                switch (operation.getType()) {
+                    case INCOME:
+                        transaction = sourceBanks[i].income(sources[i], operation.getAmount());
+                        break;
+                    case WITHDRAW:
+                        transaction = sourceBanks[i].withdraw(sources[i], operation.getAmount());
+                        break;
+                    case TRANSFER:
+                        transaction = transfer(sourceBanks[i], sources[i], targetBanks[i], targets[i],
+                                operation.getAmount());
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Invalid type of operation");
+                }
+            } catch (TransactionException e) {
+                metrics.record(measured, sourceBanks[i], start, e);
+                result.reject(i, BatchStatus.FAILED);
+                continue;
+            }
+            metrics.record(measured, sourceBanks[i], start, transaction);
+            result.complete(i, transaction);
+        }
+        return result;
+    }
+
+    private static BankOperation measured(OperationType type) {
+        switch (type) {
+            case INCOME:
+                return BankOperation.REPLENISH;
+            case WITHDRAW:
+                return BankOperation.WITHDRAW;
+            default:
+                return BankOperation.TRANSFER;
+        }
+    }
+
+    /**
+     * Memoizes the bank and account lookups of one batch, misses included.
+     */
+    private class BatchResolver {
+        private final Map<UUID, Bank> resolvedBanks = new HashMap<>();
+        private final Map<Bank, Map<UUID, BaseAccount>> resolvedAccounts = new HashMap<>();
+
+        private Bank bank(UUID bankId) {
+            Bank bank = resolvedBanks.get(bankId);
+            if (bank == null && !resolvedBanks.containsKey(bankId)) {
+                bank = banks.findById(bankId).orElse(null);
+                resolvedBanks.put(bankId, bank);
+            }
+            return bank;
+        }
+
+        private BaseAccount account(Bank bank, UUID accountId) {
+            Map<UUID, BaseAccount> accounts = resolvedAccounts.get(bank);
+            if (accounts == null) {
+                accounts = new HashMap<>();
+                resolvedAccounts.put(bank, accounts);
+            }
+            BaseAccount account = accounts.get(accountId);
+            if (account == null && !accounts.containsKey(accountId)) {
+                account = bank.findAccount(accountId).orElse(null);
+                accounts.put(accountId, account);
+            }
+            return account;
+        }
+    }
+
     @Override
     public void cancelTransaction(UUID bankId, UUID accountId, UUID transactionId) throws AccountException, TransactionException, BankException {
-        Bank bank = findBankById(bankId);
-        bank.getAccount(accountId).getTransaction(transactionId).undo();
+        long start = System.nanoTime();
+        Bank bank = null;
+        try {
+            bank = findBankById(bankId);
+            cancel(bank.getAccount(accountId).getTransaction(transactionId), bank, start);
+        } catch (TransactionException | AccountException | BankException | RuntimeException e) {
+            metrics.record(BankOperation.CANCEL, bank, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels a transaction found by its ID alone through the index of all transactions of the central bank.
+     *
+     * @param transactionId the ID of the transaction
+     * @throws TransactionException if the transaction does not exist or cannot be cancelled
+     */
+    @Override
+    public void cancelTransaction(UUID transactionId) throws TransactionException {
+        long start = System.nanoTime();
+        Bank bank = null;
+        try {
+            TransactionRegistry.Entry entry = transactions.findById(transactionId)
+                    .orElseThrow(() -> TransactionException.transactionDoesNotExist(transactionId));
+            bank = entry.getBank();
+            cancel(entry.getTransaction(), bank, start);
+        } catch (TransactionException | RuntimeException e) {
+            metrics.record(BankOperation.CANCEL, bank, start, e);
+            throw e;
+        }
+    }
+
+    private void cancel(BankTransaction transaction, Bank bank, long start) throws TransactionException {
+        transaction.undo();
+        if (transaction.getTransactionState() == State.Canceled) {
+            journal.transactionCanceled(transaction);
+        }
+        metrics.record(BankOperation.CANCEL, bank, start, transaction);
+    }
+
+    /**
+     * Cancels every transaction of a client's accounts committed at or after the given time, newest first, e.g.
+     * once the client turns out to be a fraudster. Transfers are cancelled on both sides, so the counterparty
+     * accounts are affected as well.
+     *
+     * <p>The locks of all affected accounts are taken once, in the global lock order, and held while all the
+     * transactions are cancelled, so no other operation sees a partly reversed client. In the sharded mode the
+     * shard writers apply the cancellations and no locks are taken here. Transactions that failed or are already
+     * cancelled are skipped; a cancellation that fails does not stop the others.
+     *
+     * @param clientId the ID of the client
+     * @param since    the commit time from which on transactions are cancelled
+     * @return the outcome of every cancellation, newest transaction first, with {@link BatchStatus#CANCELED}
+     *         for those that were cancelled
+     * @throws ClientException if the client is not registered
+     */
+    @Override
+    public BatchResult reverseClientTransactions(UUID clientId, LocalDateTime since) throws ClientException {
+        findClient(clientId);
+        List<List<BankTransaction>> histories = new ArrayList<>();
+        for (Bank bank : banks.getBanks()) {
+            for (BaseAccount account : bank.findClientAccounts(clientId)) {
+                List<BankTransaction> history = account.getStatement(since, LocalDateTime.MAX)
+                        .filter(transaction -> transaction.getTransactionState() == State.Ended)
+                        .collect(Collectors.toCollection(ArrayList::new));
+                if (!history.isEmpty()) {
+                    Collections.reverse(history);
+                    histories.add(history);
+                }
+            }
+        }
+        List<BankTransaction> ordered = newestFirst(histories);
+
+        BatchResult result = new BatchResult(ordered.size());
+        List<BaseAccount> locked = List.of();
+        if (shardedEngine == null) {
+            Set<BaseAccount> affected = new HashSet<>();
+            ordered.forEach(transaction -> affected.addAll(transaction.getAccounts()));
+            locked = AccountLocks.lockAll(affected);
+        }
+        try {
+            for (int i = 0; i < ordered.size(); i++) {
+                BankTransaction transaction = ordered.get(i);
+                try {
+                    transaction.undo();
+                } catch (TransactionException e) {
+                    result.reject(i, BatchStatus.FAILED);
+                    continue;
+                }
+                if (transaction.getTransactionState() == State.Canceled) {
+                    journal.transactionCanceled(transaction);
+                }
+                result.complete(i, transaction);
+            }
+        } finally {
+            AccountLocks.unlockAll(locked);
+        }
+        return result;
+    }
+
+    /**
+     * Merges the histories of several accounts, each newest first, into one order that keeps the order of every
+     * history, so each account sees its transactions cancelled newest first. Of the transactions that are next in
+     * all histories they appear in, the one committed last goes first. Transfers between two of the accounts
+     * that were recorded in opposite orders by the two ledgers are resolved by commit time.
+     *
+     * <p>Every history is read through a cursor that skips the transactions already merged, so the merge takes
+     * time linear in the length of the histories times their number, and nothing is removed from them.
+     */
+    private static List<BankTransaction> newestFirst(List<List<BankTransaction>> histories) {
+        Map<BankTransaction, Integer> occurrences = new IdentityHashMap<>();
+        int total = 0;
+        for (List<BankTransaction> history : histories) {
+            for (BankTransaction transaction : history) {
+                if (occurrences.merge(transaction, 1, Integer::sum) == 1) {
+                    total++;
+                }
+            }
+        }
+        List<BankTransaction> ordered = new ArrayList<>(total);
+        Set<BankTransaction> merged = Collections.newSetFromMap(new IdentityHashMap<>());
+        int[] cursors = new int[histories.size()];
+        Map<BankTransaction, Integer> heads = new IdentityHashMap<>();
+        while (ordered.size() < total) {
+            heads.clear();
+            BankTransaction next = null;
+            BankTransaction fallback = null;
+            for (int i = 0; i < histories.size(); i++) {
+                List<BankTransaction> history = histories.get(i);
+                int cursor = cursors[i];
+                while (cursor < history.size() && merged.contains(history.get(cursor))) {
+                    cursor++;
+                }
+                cursors[i] = cursor;
+                if (cursor == history.size()) {
+                    continue;
+                }
+                BankTransaction head = history.get(cursor);
+                if (heads.merge(head, 1, Integer::sum).equals(occurrences.get(head)) && newer(head, next)) {
+                    next = head;
+                }
+                if (newer(head, fallback)) {
+                    fallback = head;
+                }
+            }
+            if (next == null) {
+                next = fallback;
+            }
+            merged.add(next);
+            ordered.add(next);
+        }
+        return ordered;
+    }
+
+    private static boolean newer(BankTransaction transaction, BankTransaction than) {
+        return than == null || transaction.getCommitTime().isAfter(than.getCommitTime());
+    }
+
+    /**
+     * Gets one page of the transactions of an account committed in {@code [from, to)}, see
+     * {@link Bank#statement(UUID, LocalDateTime, LocalDateTime, int, int)}.
+     */
+    @Override
+    public StatementPage getStatement(UUID bankId, UUID accountId, LocalDateTime from, LocalDateTime to,
+                                      int cursor, int limit) throws AccountException, BankException {
+        return findBankById(bankId).statement(accountId, from, to, cursor, limit);
+    }
+
+    /**
+     * Applies the records of a journal to this central bank. The central bank must not be journaling while
+     * the records are applied, or they would be written again.
+     */
+    private class JournalReplay implements JournalHandler {
+        private final Map<UUID, BaseAccount> accounts = new HashMap<>();
+        private final Map<UUID, Client> unregisteredClients = new HashMap<>();
+        private final Map<UUID, Bank> accountBanks = new HashMap<>();
+        private final Map<UUID, ReplayedTransaction> replayedTransactions = new HashMap<>();
+
+        @Override
+        public void bankCreated(UUID bankId, String name, int debitPercent, List<long[]> depositPercents,
+                                long creditCommission, long creditLimit, long limitForDubiousClient,
+                                Duration endOfPeriod) throws Exception {
+            createBank(bankId, name, debitPercent, toDepositPercents(depositPercents), creditCommission,
+                    creditLimit, limitForDubiousClient, endOfPeriod);
+        }
+
+        @Override
+        public void clientRegistered(UUID clientId, String name, String surname, String address, Long passport) {
+            clients.register(new Client(clientId, name, surname, address, passport));
+        }
+
+        /**
+         * Sets what the client did not have yet. A change journaled between the registration of a client and
+         * its CLIENT_REGISTERED record finds no client; that record already holds the change, so it is skipped.
+         */
+        @Override
+        public void clientChanged(UUID clientId, String address, Long passport) throws ClientException {
+            Client client = clients.findById(clientId).orElse(null);
+            if (client == null) {
+                return;
+            }
+            if (address != null && !address.equals(client.getAddress())) {
+                client.setAddress(address);
+            }
+            if (passport != null && !client.hasPassport()) {
+                client.setPassportNumber(passport);
+            }
+        }
+
+        @Override
+        public void accountOpened(UUID bankId, UUID accountId, TypeOfBankAccount type, Duration endOfPeriod,
+                                  UUID clientId, String name, String surname, String address,
+                                  Long passport) throws Exception {
+            Client client = clients.findById(clientId)
+                    .orElseGet(() -> unregisteredClients.computeIfAbsent(clientId,
+                            id -> new Client(id, name, surname, address, passport)));
+            Bank bank = findBankById(bankId);
+            accounts.put(accountId, bank.createAccount(accountId, type, client, endOfPeriod));
+            accountBanks.put(accountId, bank);
+        }
+
+        @Override
+        public void transactionCommitted(UUID transactionId, OperationType type, UUID sourceId, UUID targetId,
+                                         long amount, long debited) throws Exception {
+            BaseAccount source = account(sourceId);
+            BaseAccount target = account(targetId);
+            BankTransaction transaction;
+            switch (type) {
+                case INCOME:
+                    transaction = new BankTransaction(transactionId, new Income(source, amount));
+                    break;
+                case WITHDRAW:
+                    transaction = new BankTransaction(transactionId, new Withdraw(source, amount));
+                    break;
+                case TRANSFER:
+                    transaction = new BankTransaction(transactionId, new Transfer(target, source, amount));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid type of operation");
+            }
+            ReplayedTransaction replayed = new ReplayedTransaction(transaction, type, source, target, amount);
+            replayed.commit(debited);
+            transaction.setTransactionState(State.Ended);
+            transaction.setCommitTime(rewindClock.currentTime());
+            target.saveChanges(transaction);
+            if (source != target) {
+                source.saveChanges(transaction);
+            }
+            transactions.register(accountBanks.get(sourceId), transaction);
+            replayedTransactions.put(transactionId, replayed);
+        }
+
+        @Override
+        public void transactionCanceled(UUID transactionId, long debited) throws Exception {
+            ReplayedTransaction replayed = replayedTransactions.get(transactionId);
+            if (replayed == null) {
+                throw TransactionException.transactionDoesNotExist(transactionId);
+            }
+            replayed.cancel(debited);
+            replayed.transaction.setTransactionState(State.Canceled);
+        }
+
+        @Override
+        public void clockMoved(LocalDateTime time) throws Exception {
+            if (time.isBefore(rewindClock.currentTime())) {
+                rewindClock.setCurrentTime(time);
+            } else {
+                rewindClock.advanceTo(time);
+            }
+        }
+
+        @Override
+        public void configurationChanged(UUID bankId, RecordType type, long value) throws Exception {
+            Bank bank = findBankById(bankId);
+            switch (type) {
+                case DEBIT_PERCENT_CHANGED:
+                    bank.changeDebitPercent((int) value);
+                    break;
+                case CREDIT_COMMISSION_CHANGED:
+                    bank.changeCreditCommission(value);
+                    break;
+                case CREDIT_LIMIT_CHANGED:
+                    bank.changeCreditLimit(value);
+                    break;
+                case LIMIT_FOR_DUBIOUS_CLIENT_CHANGED:
+                    bank.changeLimitForDubiousClient(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Not a configuration record: " + type);
+            }
+        }
+
+        @Override
+        public void depositPercentsChanged(UUID bankId, List<long[]> depositPercents) throws Exception {
+            findBankById(bankId).changeDepositPercents(toDepositPercents(depositPercents));
+        }
+
+        private BaseAccount account(UUID accountId) throws AccountException {
+            BaseAccount account = accounts.get(accountId);
+            if (account == null) {
+                throw AccountException.accountDoesNotExist(accountId);
+            }
+            return account;
+        }
+    }
+
+    /**
+     * A transaction restored from a journal together with what it did, so that a later cancel
+     * can be replayed without repeating the checks of the original cancel. The balances change by what the
+     * journal says the commit or cancel took out of an account, so a credit commission charged then is charged
+     * again, whatever the configuration and the balances are during the replay.
+     */
+    private static final class ReplayedTransaction {
+        private final BankTransaction transaction;
+        private final OperationType type;
+        private final BaseAccount source;
+        private final BaseAccount target;
+        private final long amount;
+
+        private ReplayedTransaction(BankTransaction transaction, OperationType type,
+                                    BaseAccount source, BaseAccount target, long amount) {
+            this.transaction = transaction;
+            this.type = type;
+            this.source = source;
+            this.target = target;
+            this.amount = amount;
+        }
+
+        private void commit(long debited) {
+            switch (type) {
+                case INCOME:
+                    source.setBalance(source.getBalance() + amount);
+                    break;
+                case WITHDRAW:
+                    source.setBalance(source.getBalance() - debited);
+                    break;
+                case TRANSFER:
+                    source.setBalance(source.getBalance() - debited);
+                    target.setBalance(target.getBalance() + amount);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid type of operation");
+            }
+        }
+
+        private void cancel(long debited) {
+            switch (type) {
+                case INCOME:
+                    source.setBalance(source.getBalance() - debited);
+                    break;
+                case WITHDRAW:
+                    source.setBalance(source.getBalance() + amount);
+                    break;
+                case TRANSFER:
+                    target.setBalance(target.getBalance() - debited);
+                    source.setBalance(source.getBalance() + amount);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid type of operation");
+            }
+        }
     }
 
     private Bank findBankById(UUID bankId) throws BankException {
-        return banks.stream()
-                .filter(bank -> bank.getId().equals(bankId))
-                .findFirst()
+        return banks.findById(bankId)
                 .orElseThrow(() -> new BankException("Bank with ID: " + bankId.toString() + " doesn't exist"));
     }
 }
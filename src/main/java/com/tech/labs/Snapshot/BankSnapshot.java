@@ -0,0 +1,517 @@
+package com.tech.labs.Snapshot;
+
+import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.DebitAccount;
+import com.tech.labs.Accounts.DepositAccount;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Entities.Client;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Models.Limit;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Binary image of a central bank: the clock, the clients, the banks with their configuration, and every
+ * account with its balance and accrual state.
+ *
+ * <p>The file starts with a header holding the format version, the clock time and the offset of the
+ * metadata. The accounts of each bank follow as fixed-size records sorted by account ID, together with
+ * their numbers sorted by client, so an account is found by binary search directly in the mapped file.
+ * The metadata at the end holds the sorted client IDs, the clients and the banks. Reading a snapshot maps
+ * the file and builds only the clients and banks; accounts are built by {@link SnapshotAccounts} when
+ * they are first asked for.
+ *
+ * <p>Transaction histories and subscriptions are not part of a snapshot. The accounts of one bank are mapped
+ * as one region, which limits a bank to about 40 million accounts.
+ */
+public final class BankSnapshot {
+    private static final long MAGIC = 0x4C41424A534E5031L;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    static final int ACCOUNT_SIZE = 56;
+
+    private static final byte REGISTERED = 1;
+    private static final byte HAS_PASSPORT = 2;
+    private static final byte HAS_LIMIT = 1;
+    private static final byte HAS_NEXT_ACCRUAL = 2;
+
+    @Getter
+    private final LocalDateTime clockTime;
+    private final Client[] clients;
+    private final List<Client> registeredClients;
+    private final ByteBuffer clientIds;
+    @Getter
+    private final List<Entry> banks;
+
+    private BankSnapshot(LocalDateTime clockTime, Client[] clients, List<Client> registeredClients,
+                         ByteBuffer clientIds, List<Entry> banks) {
+        this.clockTime = clockTime;
+        this.clients = clients;
+        this.registeredClients = registeredClients;
+        this.clientIds = clientIds;
+        this.banks = banks;
+    }
+
+    /**
+     * Gets the clients that were registered at the central bank. Clients that only own accounts are built
+     * as well, and are reachable through their accounts.
+     *
+     * @return the registered clients
+     */
+    public List<Client> getRegisteredClients() {
+        return Collections.unmodifiableList(registeredClients);
+    }
+
+    /**
+     * Writes a snapshot. The snapshot is written to a temporary file that then replaces the target,
+     * so a failed write leaves the previous snapshot intact. Accounts are read one at a time under
+     * their locks; for a snapshot of a single moment no operations should run while it is written.
+     *
+     * @param file              the snapshot file
+     * @param clockTime         the time of the central bank's clock
+     * @param registeredClients the clients registered at the central bank
+     * @param banks             the banks
+     * @param nextAccruals      the time of the next daily accrual of a bank by bank ID, null if none
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, LocalDateTime clockTime, Collection<? extends Clients> registeredClients,
+                             Collection<Bank> banks, Function<UUID, LocalDateTime> nextAccruals) throws IOException {
+        List<Bank> bankList = new ArrayList<>(banks);
+        List<BaseAccount[]> accounts = new ArrayList<>(bankList.size());
+        Map<UUID, Clients> clientsById = new HashMap<>();
+        for (Clients client : registeredClients) {
+            clientsById.put(client.getId(), client);
+        }
+        for (Bank bank : bankList) {
+            BaseAccount[] bankAccounts = bank.getAccounts().toArray(new BaseAccount[0]);
+            Arrays.sort(bankAccounts, Comparator.comparing(BaseAccount::getId));
+            for (BaseAccount account : bankAccounts) {
+                clientsById.putIfAbsent(account.getClient().getId(), account.getClient());
+            }
+            accounts.add(bankAccounts);
+        }
+
+        Clients[] clients = clientsById.values().toArray(new Clients[0]);
+        Arrays.sort(clients, Comparator.comparing(Clients::getId));
+        Map<UUID, Integer> clientIndex = new HashMap<>(clients.length * 2);
+        for (int i = 0; i < clients.length; i++) {
+            clientIndex.put(clients[i].getId(), i);
+        }
+        Set<UUID> registered = new HashSet<>();
+        registeredClients.forEach(client -> registered.add(client.getId()));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel, HEADER_SIZE);
+            long[] accountOffsets = new long[bankList.size()];
+            for (int b = 0; b < bankList.size(); b++) {
+                accountOffsets[b] = out.position();
+                writeAccounts(out, accounts.get(b), clientIndex);
+            }
+
+            long metadataOffset = out.position();
+            for (Clients client : clients) {
+                out.putUuid(client.getId());
+            }
+            for (Clients client : clients) {
+                byte flags = registered.contains(client.getId()) ? REGISTERED : 0;
+                if (client.hasPassport()) {
+                    flags |= HAS_PASSPORT;
+                }
+                out.put(flags);
+                out.putLong(client.hasPassport() ? client.getPassportNumber() : 0);
+                out.putString(client.getName());
+                out.putString(client.getSurname());
+                out.putString(client.getAddress());
+            }
+            for (int b = 0; b < bankList.size(); b++) {
+                writeBank(out, bankList.get(b), nextAccruals.apply(bankList.get(b).getId()),
+                        accounts.get(b).length, accountOffsets[b]);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).putInt(clients.length).putInt(bankList.size());
+            writeTime(header, clockTime);
+            header.putLong(metadataOffset);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a snapshot and builds its clients and banks. The file may be closed, moved or replaced
+     * afterwards; the mapping stays valid.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+     */
+    public static BankSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getLong() != MAGIC) {
+                throw new IOException("Not a bank snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            int clientCount = header.getInt();
+            int bankCount = header.getInt();
+            LocalDateTime clockTime = readTime(header);
+            long metadataOffset = header.getLong();
+
+            MappedByteBuffer metadata = channel.map(FileChannel.MapMode.READ_ONLY, metadataOffset,
+                    channel.size() - metadataOffset);
+            try {
+                ByteBuffer clientIds = metadata.slice(0, clientCount * 16);
+                metadata.position(clientCount * 16);
+                Client[] clients = new Client[clientCount];
+                List<Client> registeredClients = new ArrayList<>();
+                for (int i = 0; i < clientCount; i++) {
+                    byte flags = metadata.get();
+                    long passport = metadata.getLong();
+                    clients[i] = new Client(new UUID(clientIds.getLong(i * 16), clientIds.getLong(i * 16 + 8)),
+                            getString(metadata), getString(metadata), getString(metadata),
+                            (flags & HAS_PASSPORT) != 0 ? passport : null);
+                    if ((flags & REGISTERED) != 0) {
+                        registeredClients.add(clients[i]);
+                    }
+                }
+
+                List<Entry> banks = new ArrayList<>(bankCount);
+                BankSnapshot snapshot = new BankSnapshot(clockTime, clients, registeredClients, clientIds, banks);
+                for (int b = 0; b < bankCount; b++) {
+                    banks.add(readBank(channel, metadata, snapshot));
+                }
+                return snapshot;
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Truncated bank snapshot: " + file, e);
+            }
+        }
+    }
+
+    Client clientAt(int index) {
+        return clients[index];
+    }
+
+    /**
+     * Finds the number of a client by binary search over the sorted client IDs.
+     *
+     * @param clientId the ID of the client
+     * @return the number of the client, or -1 if the snapshot has no such client
+     */
+    int clientIndexOf(UUID clientId) {
+        int low = 0;
+        int high = clients.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(clientIds, mid * 16, clientId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the UUID stored at the given offset with another one, in the order of {@link UUID#compareTo}.
+     */
+    static int compare(ByteBuffer buffer, int offset, UUID id) {
+        int cmp = Long.compare(buffer.getLong(offset), id.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compare(buffer.getLong(offset + 8), id.getLeastSignificantBits());
+    }
+
+    static LocalDateTime readTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+    }
+
+    private static void writeAccounts(Output out, BaseAccount[] accounts, Map<UUID, Integer> clientIndex)
+            throws IOException {
+        int[] clientOf = new int[accounts.length];
+        for (int i = 0; i < accounts.length; i++) {
+            BaseAccount account = accounts[i];
+            clientOf[i] = clientIndex.get(account.getClient().getId());
+            account.getLock().lock();
+            try {
+                out.putUuid(account.getId());
+                out.putInt(clientOf[i]);
+                out.put((byte) account.getType().ordinal());
+                out.put((byte) 0).put((byte) 0).put((byte) 0);
+                out.putLong(account.getBalance());
+                if (account instanceof DebitAccount) {
+                    DebitAccount debit = (DebitAccount) account;
+                    out.putInt(debit.getCountOfDays());
+                    out.putInt(0);
+                    out.putDouble(debit.getPercentageAmount());
+                    out.putLong(0);
+                } else if (account instanceof DepositAccount) {
+                    DepositAccount deposit = (DepositAccount) account;
+                    out.putInt(deposit.getEndOfPeriod().getNano());
+                    out.putInt(0);
+                    out.putDouble(deposit.getPercentageAmount());
+                    out.putLong(deposit.getEndOfPeriod().toEpochSecond(ZoneOffset.UTC));
+                } else {
+                    out.putLong(0);
+                    out.putDouble(0);
+                    out.putLong(0);
+                }
+            } finally {
+                account.getLock().unlock();
+            }
+        }
+
+        // account numbers grouped by client: a counting sort over the client numbers
+        int clientCount = clientIndex.size();
+        int[] start = new int[clientCount + 1];
+        for (int client : clientOf) {
+            start[client + 1]++;
+        }
+        for (int c = 0; c < clientCount; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] order = new int[accounts.length];
+        for (int i = 0; i < accounts.length; i++) {
+            order[start[clientOf[i]]++] = i;
+        }
+        for (int index : order) {
+            out.putInt(index);
+        }
+    }
+
+    private static void writeBank(Output out, Bank bank, LocalDateTime nextAccrual, int accountCount,
+                                  long accountOffset) throws IOException {
+        BankConfiguration configuration = bank.getBankConfiguration();
+        Limit limit = configuration.getLimitForDubiousClient();
+        out.putUuid(bank.getId());
+        out.putString(bank.getName());
+        out.putInt((int) Math.round(configuration.getDebitAccountConfiguration().getDebitPercent().getValue() * 100));
+        out.putLong(configuration.getCreditAccountConfiguration().getCreditCommission());
+        out.putLong(configuration.getCreditAccountConfiguration().getCreditLimit());
+        byte flags = 0;
+        if (limit != null) {
+            flags |= HAS_LIMIT;
+        }
+        if (nextAccrual != null) {
+            flags |= HAS_NEXT_ACCRUAL;
+        }
+        out.put(flags);
+        out.putLong(limit != null ? limit.getValue() : 0);
+        Duration period = configuration.getDepositAccountConfiguration().getTime();
+        out.putLong(period.getSeconds());
+        out.putInt(period.getNano());
+        out.putLong(nextAccrual != null ? nextAccrual.toEpochSecond(ZoneOffset.UTC) : 0);
+        out.putInt(nextAccrual != null ? nextAccrual.getNano() : 0);
+        List<DepositPercent> percents = configuration.getDepositAccountConfiguration().getDepositPercents();
+        out.putInt(percents.size());
+        for (DepositPercent percent : percents) {
+            out.putInt((int) Math.round(percent.getPercent().getValue() * 100));
+            out.putLong(percent.getLeftBorder());
+            out.putLong(percent.getRightBorder());
+        }
+        out.putInt(accountCount);
+        out.putLong(accountOffset);
+    }
+
+    private static Entry readBank(FileChannel channel, ByteBuffer metadata, BankSnapshot snapshot) throws IOException {
+        UUID id = new UUID(metadata.getLong(), metadata.getLong());
+        String name = getString(metadata);
+        int debitPercent = metadata.getInt();
+        long creditCommission = metadata.getLong();
+        long creditLimit = metadata.getLong();
+        byte flags = metadata.get();
+        long limit = metadata.getLong();
+        Duration period = Duration.ofSeconds(metadata.getLong(), metadata.getInt());
+        LocalDateTime nextAccrual = readTime(metadata);
+        int percentCount = metadata.getInt();
+        List<long[]> depositPercents = new ArrayList<>(percentCount);
+        for (int i = 0; i < percentCount; i++) {
+            depositPercents.add(new long[]{metadata.getInt(), metadata.getLong(), metadata.getLong()});
+        }
+        int accountCount = metadata.getInt();
+        long accountOffset = metadata.getLong();
+        MappedByteBuffer accounts = channel.map(FileChannel.MapMode.READ_ONLY, accountOffset,
+                (long) accountCount * (ACCOUNT_SIZE + 4));
+        return new Entry(snapshot, id, name, debitPercent, depositPercents, creditCommission, creditLimit,
+                (flags & HAS_LIMIT) != 0 ? limit : null, period,
+                (flags & HAS_NEXT_ACCRUAL) != 0 ? nextAccrual : null, accountCount, accounts);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A bank of a snapshot: its configuration and the location of its accounts.
+     */
+    @Getter
+    public static final class Entry {
+        @Getter(lombok.AccessLevel.NONE)
+        private final BankSnapshot snapshot;
+        private final UUID id;
+        private final String name;
+        private final int debitPercent;
+        /**
+         * The deposit tiers as {percent, left border, right border}.
+         */
+        private final List<long[]> depositPercents;
+        private final long creditCommission;
+        private final long creditLimit;
+        /**
+         * The limit for dubious clients, null if the bank has none.
+         */
+        private final Long limitForDubiousClient;
+        private final Duration depositPeriod;
+        /**
+         * The time of the next daily accrual, null if none was scheduled.
+         */
+        private final LocalDateTime nextAccrual;
+        private final int accountCount;
+        @Getter(lombok.AccessLevel.NONE)
+        private final ByteBuffer accounts;
+
+        private Entry(BankSnapshot snapshot, UUID id, String name, int debitPercent, List<long[]> depositPercents,
+                      long creditCommission, long creditLimit, Long limitForDubiousClient, Duration depositPeriod,
+                      LocalDateTime nextAccrual, int accountCount, ByteBuffer accounts) {
+            this.snapshot = snapshot;
+            this.id = id;
+            this.name = name;
+            this.debitPercent = debitPercent;
+            this.depositPercents = depositPercents;
+            this.creditCommission = creditCommission;
+            this.creditLimit = creditLimit;
+            this.limitForDubiousClient = limitForDubiousClient;
+            this.depositPeriod = depositPeriod;
+            this.nextAccrual = nextAccrual;
+            this.accountCount = accountCount;
+            this.accounts = accounts;
+        }
+
+        /**
+         * Gets the accounts of this bank as a loader for the restored bank.
+         *
+         * @param bank the restored bank, which provides the configuration and the clock of the accounts
+         * @return the accounts of the bank
+         */
+        public SnapshotAccounts accountsOf(Bank bank) {
+            return new SnapshotAccounts(snapshot, accounts, accountCount, bank);
+        }
+    }
+
+    /**
+     * Buffered writer over a file channel that keeps track of its position in the file.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        private long position;
+
+        private Output(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        long position() {
+            return position + buffer.position();
+        }
+
+        Output put(byte value) throws IOException {
+            ensure(1).put(value);
+            return this;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4).putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8).putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8).putDouble(value);
+        }
+
+        void putUuid(UUID id) throws IOException {
+            ensure(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                int length = Math.min(bytes.length - offset, ensure(1).remaining());
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.tech.labs.Snapshot;
+
+import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.CreditAccount;
+import com.tech.labs.Accounts.DebitAccount;
+import com.tech.labs.Accounts.DepositAccount;
+import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Accrual.UnloadedAccounts;
+import com.tech.labs.Entities.Bank;
+import com.tech.labs.Exceptions.BankException;
+import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Registry.AccountLoader;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * The accounts of one bank in a mapped snapshot. Records are read in place: an account is found by binary
+ * search over the records sorted by ID, and the accounts of a client by binary search over the account
+ * numbers sorted by client.
+ *
+ * <p>A record is {@code [id][client number][type][3 bytes padding][balance][days left or end nanos]
+ * [4 bytes padding][accrued interest][end of period seconds]}, {@value BankSnapshot#ACCOUNT_SIZE} bytes.
+ *
+ * <p>The file is mapped read-only, so the balance, accrued interest and days left that an accrual changes
+ * before an account is loaded are kept in heap columns, created by the first such accrual; a loaded account
+ * is built from them. The accounts are loaded and accrued under the monitor of their
+ * {@link com.tech.labs.Registry.AccountRegistry}, which orders these accesses.
+ */
+public class SnapshotAccounts implements AccountLoader, UnloadedAccounts {
+    private static final int CLIENT = 16;
+    private static final int TYPE = 20;
+    private static final int BALANCE = 24;
+    private static final int DAYS_OR_NANOS = 32;
+    private static final int PERCENTAGE = 40;
+    private static final int END_SECONDS = 48;
+    private static final int[] NONE = new int[0];
+
+    private final BankSnapshot snapshot;
+    private final ByteBuffer records;
+    private final int count;
+    private final int order;
+    private final Bank bank;
+    private final boolean[] loaded;
+    private volatile State state;
+
+    SnapshotAccounts(BankSnapshot snapshot, ByteBuffer records, int count, Bank bank) {
+        this.snapshot = snapshot;
+        this.records = records;
+        this.count = count;
+        this.order = count * BankSnapshot.ACCOUNT_SIZE;
+        this.bank = bank;
+        this.loaded = new boolean[count];
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int indexOf(UUID accountId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = BankSnapshot.compare(records, offset(mid), accountId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public UUID idAt(int index) {
+        int offset = offset(index);
+        return new UUID(records.getLong(offset), records.getLong(offset + 8));
+    }
+
+    @Override
+    public BaseAccount loadAt(int index) {
+        int offset = offset(index);
+        UUID id = idAt(index);
+        Clients client = snapshot.clientAt(records.getInt(offset + CLIENT));
+        long balance = balanceAt(index);
+        double percentageAmount = percentageAmountAt(index);
+        loaded[index] = true;
+        switch (typeAt(index)) {
+            case CREDIT: {
+                try {
+                    CreditAccount account = new CreditAccount(id, client, bank.getConfiguration());
+                    account.setBalance(balance);
+                    return account;
+                } catch (BankException e) {
+                    throw new IllegalStateException("Couldn't restore account " + id, e);
+                }
+            }
+            case DEBIT: {
+                DebitAccount account = new DebitAccount(id, bank.getClock(), client, bank.getConfiguration());
+                account.setBalance(balance);
+                account.applyAccrual(percentageAmount, countOfDaysAt(index), 0);
+                return account;
+            }
+            case DEPOSIT: {
+                DepositAccount account = new DepositAccount(id, bank.getClock(), client, bank.getConfiguration(),
+                        endOfPeriodAt(index));
+                account.setBalance(balance);
+                account.applyAccrual(percentageAmount, 0);
+                return account;
+            }
+            default:
+                throw new IllegalStateException("Invalid type of account " + id);
+        }
+    }
+
+    @Override
+    public int[] indicesOf(UUID clientId) {
+        int client = snapshot.clientIndexOf(clientId);
+        if (client < 0) {
+            return NONE;
+        }
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (clientOf(mid) < client) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = low;
+        while (end < count && clientOf(end) == client) {
+            end++;
+        }
+        int[] indices = new int[end - low];
+        for (int i = low; i < end; i++) {
+            indices[i - low] = records.getInt(order + i * 4);
+        }
+        return indices;
+    }
+
+    /**
+     * Passes the ID and the end of period of every deposit account to the consumer, without building
+     * the accounts.
+     *
+     * @param consumer the consumer of the deposits
+     */
+    public void forEachDeposit(BiConsumer<UUID, LocalDateTime> consumer) {
+        for (int index = 0; index < count; index++) {
+            if (typeAt(index) == TypeOfBankAccount.DEPOSIT) {
+                consumer.accept(idAt(index), endOfPeriodAt(index));
+            }
+        }
+    }
+
+    @Override
+    public boolean isLoaded(int index) {
+        return loaded[index];
+    }
+
+    @Override
+    public TypeOfBankAccount typeAt(int index) {
+        return TypeOfBankAccount.values()[records.get(offset(index) + TYPE)];
+    }
+
+    @Override
+    public long balanceAt(int index) {
+        State current = state;
+        return current == null ? records.getLong(offset(index) + BALANCE) : current.balances[index];
+    }
+
+    @Override
+    public double percentageAmountAt(int index) {
+        State current = state;
+        return current == null ? records.getDouble(offset(index) + PERCENTAGE) : current.percentageAmounts[index];
+    }
+
+    @Override
+    public int countOfDaysAt(int index) {
+        State current = state;
+        return current == null ? records.getInt(offset(index) + DAYS_OR_NANOS) : current.countOfDays[index];
+    }
+
+    @Override
+    public LocalDateTime endOfPeriodAt(int index) {
+        int offset = offset(index);
+        return LocalDateTime.ofEpochSecond(records.getLong(offset + END_SECONDS),
+                records.getInt(offset + DAYS_OR_NANOS), ZoneOffset.UTC);
+    }
+
+    @Override
+    public void applyAccrual(int index, double percentageAmount, int countOfDays, long payout) {
+        State current = writableState();
+        current.percentageAmounts[index] = percentageAmount;
+        current.countOfDays[index] = countOfDays;
+        current.balances[index] += payout;
+    }
+
+    @Override
+    public void applyAccrual(int index, double percentageAmount, long payout) {
+        State current = writableState();
+        current.percentageAmounts[index] = percentageAmount;
+        current.balances[index] += payout;
+    }
+
+    private State writableState() {
+        State current = state;
+        if (current == null) {
+            synchronized (this) {
+                current = state;
+                if (current == null) {
+                    current = new State();
+                    state = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private int clientOf(int position) {
+        return records.getInt(offset(records.getInt(order + position * 4)) + CLIENT);
+    }
+
+    private static int offset(int index) {
+        return index * BankSnapshot.ACCOUNT_SIZE;
+    }
+
+    /**
+     * The accrual state of every account, copied from the records. Only the entries of accounts that are not
+     * loaded are kept up to date.
+     */
+    private final class State {
+        private final long[] balances = new long[count];
+        private final double[] percentageAmounts = new double[count];
+        private final int[] countOfDays = new int[count];
+
+        private State() {
+            for (int index = 0; index < count; index++) {
+                int offset = offset(index);
+                balances[index] = records.getLong(offset + BALANCE);
+                percentageAmounts[index] = records.getDouble(offset + PERCENTAGE);
+                countOfDays[index] = records.getInt(offset + DAYS_OR_NANOS);
+            }
+        }
+    }
+}
@@ -1,63 +1,180 @@
 package com.tech.labs.Transaction;
 
+import com.tech.labs.Accounts.BaseAccount;
 import com.tech.labs.Accounts.Commands.BalanceOperationCommand;
 import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Exceptions.VelocityLimitException;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+/**
+ * A balance operation with its state. Committing and cancelling are claimed with a flag instead of a monitor, so
+ * a transaction never holds a lock while its command takes the account locks: a caller that holds account locks
+ * and cancels, e.g. {@link com.tech.labs.Service.ServiceCentralBank#reverseClientTransactions}, cannot deadlock
+ * with one that cancels the same transaction without them. A call that finds the transaction claimed by another
+ * one fails instead of waiting.
+ */
 public class BankTransaction {
+    private static final AtomicIntegerFieldUpdater<BankTransaction> BUSY =
+            AtomicIntegerFieldUpdater.newUpdater(BankTransaction.class, "busy");
+
     private final BalanceOperationCommand command;
 
+    /**
+     * 1 while a commit or a cancellation of the transaction is running, 0 otherwise.
+     */
+    private volatile int busy;
+
     @Getter
-    private final UUID id = UUID.randomUUID();
+    private final UUID id;
 
     @Getter
     @Setter
-    private State transactionState = State.Started;
+    private volatile State transactionState = State.Started;
+
+    /**
+     * Explicit status message, set only when the transaction failed; otherwise the message is
+     * derived from the state on demand instead of building a string for every transaction.
+     */
+    @Setter
+    private volatile String statusMessage;
 
+    /**
+     * The type of the exception that failed the transaction, or {@code null} if it did not fail.
+     */
+    @Getter
+    private volatile Class<? extends Exception> failureType;
+
+    /**
+     * The time of the bank clock at which the transaction was committed, or {@code null} if it was not committed.
+     */
     @Getter
     @Setter
-    private String statusMessage = "BankTransaction " + transactionState.toString();
+    private volatile LocalDateTime commitTime;
+
+    /**
+     * The version of the configuration of the bank the money leaves that was current when the transaction ran,
+     * see {@link com.tech.labs.Accounts.AccountConfigurations.BankConfiguration#getVersion()}, or 0 if unknown,
+     * e.g. for a transaction replayed from a journal.
+     */
+    @Getter
+    @Setter
+    private volatile long configurationVersion;
 
     public BankTransaction(BalanceOperationCommand command) {
-        if (command == null) {
-            throw new IllegalArgumentException("Command cannot be null");
+        this(UUID.randomUUID(), command);
+    }
+
+    public BankTransaction(UUID id, BalanceOperationCommand command) {
+        if (id == null || command == null) {
+            throw new IllegalArgumentException("Id and command cannot be null");
         }
+        this.id = id;
         this.command = command;
     }
 
     public void doTransaction() throws TransactionException {
-        if (transactionState != State.Started && transactionState != State.Canceled) {
-            throw TransactionException.failedTransaction("Transaction already in progress or canceled.");
-        }
-
+        claim();
         try {
-            command.execute();
-            transactionState = State.Ended;
-            statusMessage = "BankTransaction " + transactionState.toString();
-        } catch (Exception e) {
-            transactionState = State.Failed;
-            statusMessage = "BankTransaction " + transactionState.toString() + ": " + e.getMessage();
+            if (transactionState != State.Started && transactionState != State.Canceled) {
+                throw TransactionException.failedTransaction("Transaction already in progress or canceled.");
+            }
+
+            try {
+                command.execute();
+                transactionState = State.Ended;
+                statusMessage = null;
+                failureType = null;
+            } catch (Exception e) {
+                transactionState = e instanceof VelocityLimitException ? State.Rejected : State.Failed;
+                failureType = e.getClass();
+                statusMessage = "BankTransaction " + transactionState.toString() + ": " + e.getMessage();
+            }
+        } finally {
+            busy = 0;
         }
     }
 
+    /**
+     * Cancels the transaction. Only an ended transaction can be cancelled, so a transaction is reversed once at
+     * most, whichever way its cancellation comes.
+     *
+     * @throws TransactionException if the transaction has not ended, e.g. because it is already cancelled, or
+     *                              another commit or cancellation of it is running
+     */
     public void undo() throws TransactionException {
-        if (transactionState != State.Ended && transactionState != State.Canceled) {
-            throw TransactionException.failedTransaction("Transaction not in a state to be undone.");
+        claim();
+        try {
+            if (transactionState != State.Ended) {
+                throw TransactionException.failedTransaction("Transaction not in a state to be undone: "
+                        + transactionState);
+            }
+
+            try {
+                command.cancel();
+                transactionState = State.Canceled;
+                statusMessage = null;
+                failureType = null;
+            } catch (Exception e) {
+                transactionState = State.Failed;
+                failureType = e.getClass();
+                statusMessage = "BankTransaction " + transactionState.toString() + ": " + e.getMessage();
+            }
+        } finally {
+            busy = 0;
         }
+    }
 
-        try {
-            command.cancel();
-            transactionState = State.Canceled;
-            statusMessage = "BankTransaction " + transactionState.toString();
-        } catch (Exception e) {
-            transactionState = State.Failed;
-            statusMessage = "BankTransaction " + transactionState.toString() + ": " + e.getMessage();
+    private void claim() throws TransactionException {
+        if (!BUSY.compareAndSet(this, 0, 1)) {
+            throw TransactionException.failedTransaction("Transaction " + id + " is being committed or canceled.");
         }
     }
 
+    public String getStatusMessage() {
+        String message = statusMessage;
+        return message != null ? message : "BankTransaction " + transactionState.toString();
+    }
+
+    /**
+     * @return the accounts whose balances the transaction changes
+     */
+    public List<BaseAccount> getAccounts() {
+        return command.getAccounts();
+    }
+
+    public OperationType getType() {
+        return command.getType();
+    }
+
+    /**
+     * @return the amount the transaction moves, in minor units
+     */
+    public long getAmount() {
+        return command.getAmount();
+    }
+
+    /**
+     * @return how much the commit took out of the account the money left, see
+     *         {@link BalanceOperationCommand#getDebited()}
+     */
+    public long getDebited() {
+        return command.getDebited();
+    }
+
+    /**
+     * @return how much the cancellation took out of the account the money returned from, see
+     *         {@link BalanceOperationCommand#getDebitedOnCancel()}
+     */
+    public long getDebitedOnCancel() {
+        return command.getDebitedOnCancel();
+    }
+
     public UUID getTransactionId() {
         return this.id;
     }
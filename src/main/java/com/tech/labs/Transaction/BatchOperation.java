@@ -0,0 +1,43 @@
+package com.tech.labs.Transaction;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.UUID;
+
+/**
+ * One operation of a batch submitted to {@link com.tech.labs.Interfaces.CentralBank#submitBatch}.
+ * For a transfer the bank and account are the source, the target ones are the destination.
+ */
+@Getter
+public class BatchOperation {
+    private final OperationType type;
+    private final UUID bankId;
+    private final UUID accountId;
+    private final UUID targetBankId;
+    private final UUID targetAccountId;
+    private final long amount;
+
+    private BatchOperation(OperationType type, UUID bankId, UUID accountId,
+                           UUID targetBankId, UUID targetAccountId, long amount) {
+        this.type = type;
+        this.bankId = bankId;
+        this.accountId = accountId;
+        this.targetBankId = targetBankId;
+        this.targetAccountId = targetAccountId;
+        this.amount = amount;
+    }
+
+    public static BatchOperation income(@NonNull UUID bankId, @NonNull UUID accountId, long amount) {
+        return new BatchOperation(OperationType.INCOME, bankId, accountId, null, null, amount);
+    }
+
+    public static BatchOperation withdraw(@NonNull UUID bankId, @NonNull UUID accountId, long amount) {
+        return new BatchOperation(OperationType.WITHDRAW, bankId, accountId, null, null, amount);
+    }
+
+    public static BatchOperation transfer(@NonNull UUID bankId, @NonNull UUID accountId,
+                                          @NonNull UUID targetBankId, @NonNull UUID targetAccountId, long amount) {
+        return new BatchOperation(OperationType.TRANSFER, bankId, accountId, targetBankId, targetAccountId, amount);
+    }
+}
@@ -0,0 +1,55 @@
+package com.tech.labs.Transaction;
+
+/**
+ * Per-operation outcome of a batch, index i describing the i-th submitted operation.
+ * Statuses are kept as one byte per operation; the transaction is absent for operations
+ * that were rejected before a transaction was created.
+ */
+public class BatchResult {
+    private static final BatchStatus[] STATUSES = BatchStatus.values();
+
+    private final byte[] statuses;
+    private final BankTransaction[] transactions;
+
+    public BatchResult(int size) {
+        this.statuses = new byte[size];
+        this.transactions = new BankTransaction[size];
+    }
+
+    public void reject(int index, BatchStatus status) {
+        statuses[index] = (byte) status.ordinal();
+    }
+
+    public void complete(int index, BankTransaction transaction) {
+        BatchStatus status = switch (transaction.getTransactionState()) {
+            case Ended -> BatchStatus.ENDED;
+            case Canceled -> BatchStatus.CANCELED;
+            case Rejected -> BatchStatus.REJECTED;
+            default -> BatchStatus.FAILED;
+        };
+        statuses[index] = (byte) status.ordinal();
+        transactions[index] = transaction;
+    }
+
+    public int size() {
+        return statuses.length;
+    }
+
+    public BatchStatus getStatus(int index) {
+        return STATUSES[statuses[index]];
+    }
+
+    public BankTransaction getTransaction(int index) {
+        return transactions[index];
+    }
+
+    public int count(BatchStatus status) {
+        int count = 0;
+        for (byte value : statuses) {
+            if (value == status.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tech.labs.Transaction;
+
+public enum BatchStatus {
+    ENDED,
+    FAILED,
+    BANK_NOT_FOUND,
+    ACCOUNT_NOT_FOUND,
+    INVALID_AMOUNT,
+    CANCELED,
+    REJECTED
+}
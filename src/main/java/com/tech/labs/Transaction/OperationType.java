@@ -0,0 +1,7 @@
+package com.tech.labs.Transaction;
+
+public enum OperationType {
+    INCOME,
+    WITHDRAW,
+    TRANSFER
+}
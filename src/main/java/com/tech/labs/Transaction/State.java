@@ -6,5 +6,9 @@ public enum State {
     Started,
     Ended,
     Failed,
-    Canceled
+    Canceled,
+    /**
+     * Refused before any balance changed because it would go over a velocity limit.
+     */
+    Rejected
 }
@@ -0,0 +1,109 @@
+package com.tech.labs.Velocity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free amount and count of operations over a sliding time window, kept in a ring of {@value #BUCKETS}
+ * buckets that each cover a slice of the window.
+ *
+ * <p>A bucket is tagged with the number of its slice since the epoch; a bucket whose slice has left the window is
+ * replaced by a fresh one with one CAS when an operation falls into its place in the ring, so nothing is
+ * allocated except once per slice. The window slides by whole slices, so it covers between
+ * {@code (BUCKETS - 1) / BUCKETS} of the window and the full window behind the current time.
+ *
+ * <p>An operation is added before the window is summed and taken back if the sum is over the limit. Concurrent
+ * operations can therefore reject each other near the limit, but never let the window go over it.
+ */
+final class SlidingWindow {
+    static final int BUCKETS = 16;
+
+    private final long sliceNanos;
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+    SlidingWindow(Duration window) {
+        sliceNanos = Math.max(1, window.toNanos() / BUCKETS);
+    }
+
+    /**
+     * Adds an operation unless it takes the window over one of the limits.
+     *
+     * @param now       the current time in nanoseconds
+     * @param amount    the amount of the operation
+     * @param maxAmount the most money allowed within the window
+     * @param maxCount  the most operations allowed within the window
+     * @return whether the operation was added
+     */
+    boolean tryAdd(long now, long amount, long maxAmount, int maxCount) {
+        long slice = Math.floorDiv(now, sliceNanos);
+        Bucket bucket = bucket(slice);
+        bucket.add(amount, 1);
+        long totalAmount = 0;
+        long totalCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            Bucket other = buckets.get(i);
+            if (other != null && other.slice > slice - BUCKETS) {
+                totalAmount += other.amount;
+                totalCount += other.count;
+            }
+        }
+        if (totalAmount > maxAmount || totalCount > maxCount) {
+            bucket.add(-amount, -1);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes back an operation added at the given time, unless its slice has already left the ring.
+     *
+     * @param now    the time the operation was added at
+     * @param amount the amount of the operation
+     */
+    void remove(long now, long amount) {
+        long slice = Math.floorDiv(now, sliceNanos);
+        Bucket bucket = buckets.get(Math.floorMod(slice, BUCKETS));
+        if (bucket != null && bucket.slice == slice) {
+            bucket.add(-amount, -1);
+        }
+    }
+
+    /**
+     * Gets the bucket of a slice, replacing the bucket of an older slice in its place. After the clock has been
+     * set back, the newer bucket is kept and the operation is counted in it.
+     */
+    private Bucket bucket(long slice) {
+        int index = Math.floorMod(slice, BUCKETS);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.slice >= slice) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(slice);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private static final AtomicLongFieldUpdater<Bucket> AMOUNT =
+                AtomicLongFieldUpdater.newUpdater(Bucket.class, "amount");
+        private static final AtomicLongFieldUpdater<Bucket> COUNT =
+                AtomicLongFieldUpdater.newUpdater(Bucket.class, "count");
+
+        private final long slice;
+        private volatile long amount;
+        private volatile long count;
+
+        private Bucket(long slice) {
+            this.slice = slice;
+        }
+
+        private void add(long amount, long count) {
+            AMOUNT.getAndAdd(this, amount);
+            COUNT.getAndAdd(this, count);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.tech.labs.Velocity;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+
+/**
+ * The most money and the most operations allowed within a sliding time window.
+ */
+@Getter
+public class VelocityLimit {
+    private final Duration window;
+    /**
+     * The most money, in minor units, allowed within the window.
+     */
+    private final long maxAmount;
+    private final int maxCount;
+
+    public VelocityLimit(@NonNull Duration window, long maxAmount, int maxCount) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        if (maxAmount <= 0 || maxCount <= 0) {
+            throw new IllegalArgumentException("Limits must be positive: " + maxAmount + ", " + maxCount);
+        }
+        this.window = window;
+        this.maxAmount = maxAmount;
+        this.maxCount = maxCount;
+    }
+
+    @Override
+    public String toString() {
+        return "at most " + maxCount + " operations and " + maxAmount + " within " + window;
+    }
+}
@@ -0,0 +1,98 @@
+package com.tech.labs.Velocity;
+
+import com.tech.labs.DateTimeProvider.Clock;
+import com.tech.labs.Exceptions.VelocityLimitException;
+import com.tech.labs.Interfaces.Clients;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Velocity limits of one bank on the money taken out of it: a limit per client, over all the accounts of the
+ * client in the bank, and a limit over all clients of the bank together. Either can be {@code null} to leave it
+ * out. The windows slide with the clock of the bank, so simulated time moves them too.
+ *
+ * <p>Unlike the per-operation limit for dubious clients, these limits catch a large withdrawal split into many
+ * small ones.
+ */
+public class VelocityLimiter {
+    private final UUID bankId;
+    private final Clock clock;
+    @Getter
+    private final VelocityLimit clientLimit;
+    @Getter
+    private final VelocityLimit bankLimit;
+    private final Map<UUID, SlidingWindow> clientWindows = new ConcurrentHashMap<>();
+    private final SlidingWindow bankWindow;
+
+    public VelocityLimiter(@NonNull UUID bankId, @NonNull Clock clock, VelocityLimit clientLimit,
+                           VelocityLimit bankLimit) {
+        this.bankId = bankId;
+        this.clock = clock;
+        this.clientLimit = clientLimit;
+        this.bankLimit = bankLimit;
+        this.bankWindow = bankLimit == null ? null : new SlidingWindow(bankLimit.getWindow());
+    }
+
+    /**
+     * @return the current time of the clock in nanoseconds, for {@link #acquire} and {@link #release}
+     */
+    public long now() {
+        LocalDateTime time = clock.currentTime();
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    /**
+     * Counts an operation of a client against the limits.
+     *
+     * @param client the client taking the money out
+     * @param amount the amount in minor units
+     * @param now    the current time, see {@link #now()}
+     * @throws VelocityLimitException if the operation would take the client or the bank over its limit
+     */
+    public void acquire(Clients client, long amount, long now) throws VelocityLimitException {
+        SlidingWindow clientWindow = clientWindow(client.getId());
+        if (clientWindow != null
+                && !clientWindow.tryAdd(now, amount, clientLimit.getMaxAmount(), clientLimit.getMaxCount())) {
+            throw VelocityLimitException.clientLimitExceeded(client.getId(), clientLimit);
+        }
+        if (bankWindow != null && !bankWindow.tryAdd(now, amount, bankLimit.getMaxAmount(), bankLimit.getMaxCount())) {
+            if (clientWindow != null) {
+                clientWindow.remove(now, amount);
+            }
+            throw VelocityLimitException.bankLimitExceeded(bankId, bankLimit);
+        }
+    }
+
+    /**
+     * Takes back an operation counted by {@link #acquire} that did not go through.
+     *
+     * @param client the client of the operation
+     * @param amount the amount of the operation
+     * @param now    the time the operation was counted at
+     */
+    public void release(Clients client, long amount, long now) {
+        SlidingWindow clientWindow = clientWindow(client.getId());
+        if (clientWindow != null) {
+            clientWindow.remove(now, amount);
+        }
+        if (bankWindow != null) {
+            bankWindow.remove(now, amount);
+        }
+    }
+
+    private SlidingWindow clientWindow(UUID clientId) {
+        if (clientLimit == null) {
+            return null;
+        }
+        SlidingWindow window = clientWindows.get(clientId);
+        return window != null
+                ? window
+                : clientWindows.computeIfAbsent(clientId, id -> new SlidingWindow(clientLimit.getWindow()));
+    }
+}
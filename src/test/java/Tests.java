@@ -1,26 +1,100 @@
+import com.tech.labs.Accounts.AccountConfigurations.BankConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.CreditAccountConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.DebitAccountConfiguration;
+import com.tech.labs.Accounts.AccountConfigurations.DepositAccountConfiguration;
 import com.tech.labs.Accounts.AccountConfigurations.DepositPercent;
+import com.tech.labs.Accounts.AccountConfigurations.DepositTierTable;
+import com.tech.labs.Accounts.AccountConfigurations.VersionedConfiguration;
 import com.tech.labs.Accounts.BaseAccount;
+import com.tech.labs.Accounts.Commands.ShardedTransfer;
+import com.tech.labs.Accounts.CreditAccount;
+import com.tech.labs.Accounts.DebitAccount;
+import com.tech.labs.Accounts.DepositAccount;
 import com.tech.labs.Accounts.TypeOfBankAccount;
+import com.tech.labs.Accrual.AccrualEngine;
+import com.tech.labs.Accrual.AccrualReport;
+import com.tech.labs.Builders.ClientBuilder;
+import com.tech.labs.Builders.LoadProfileBuilder;
+import com.tech.labs.BulkLoad.BulkLoader;
+import com.tech.labs.BulkLoad.LoadReport;
+import com.tech.labs.Clearing.ClearingHouse;
+import com.tech.labs.Clearing.ClearingReport;
+import com.tech.labs.Clearing.Settlement;
+import com.tech.labs.Concurrency.ExecutionMode;
+import com.tech.labs.Concurrency.ShardedEngine;
+import com.tech.labs.DateTimeProvider.Clock;
 import com.tech.labs.DateTimeProvider.RewindClock;
+import com.tech.labs.DateTimeProvider.ScheduledEvent;
 import com.tech.labs.Entities.Bank;
+import com.tech.labs.Entities.Client;
 import com.tech.labs.Exceptions.AccountException;
 import com.tech.labs.Exceptions.BankException;
+import com.tech.labs.Exceptions.ClientException;
+import com.tech.labs.Exceptions.ObserverException;
 import com.tech.labs.Exceptions.TransactionException;
+import com.tech.labs.Exceptions.VelocityLimitException;
+import com.tech.labs.Export.ExportFormat;
+import com.tech.labs.Export.ExportReport;
+import com.tech.labs.Export.LedgerExporter;
 import com.tech.labs.Interfaces.CentralBank;
 import com.tech.labs.Interfaces.Clients;
+import com.tech.labs.Identifiers.TimeOrderedIdGenerator;
+import com.tech.labs.Journal.MappedJournal;
+import com.tech.labs.Ledger.StatementPage;
+import com.tech.labs.LoadTest.LoadGenerator;
+import com.tech.labs.LoadTest.LoadTestReport;
+import com.tech.labs.Metrics.BankOperation;
+import com.tech.labs.Metrics.HistogramSnapshot;
+import com.tech.labs.Metrics.LatencyHistogram;
+import com.tech.labs.Metrics.MetricsSnapshot;
+import com.tech.labs.Metrics.OperationSnapshot;
+import com.tech.labs.Models.Limit;
+import com.tech.labs.Models.Money;
 import com.tech.labs.Models.Percent;
+import com.tech.labs.Service.ServiceAsyncCentralBank;
 import com.tech.labs.Service.ServiceCentralBank;
+import com.tech.labs.Snapshot.BankSnapshot;
+import com.tech.labs.Snapshot.SnapshotAccounts;
 import com.tech.labs.Transaction.BankTransaction;
+import com.tech.labs.Transaction.BatchOperation;
+import com.tech.labs.Transaction.BatchResult;
+import com.tech.labs.Transaction.BatchStatus;
 import com.tech.labs.Transaction.State;
+import com.tech.labs.Velocity.VelocityLimit;
 import org.junit.jupiter.api.Test;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class Tests {
 
@@ -82,4 +156,1692 @@ public class Tests {
             throw e;
         }
     }
+
+    /**
+     * Tests the bank, account and client indexes of the central bank.
+     *
+     * <p>Banks are found by name, accounts by ID and by owner, clients by ID and by passport,
+     * and a second bank with an existing name is rejected.
+     *
+     * @throws Exception if creating the bank, the client or the accounts fails
+     */
+    @Test
+    public void registryLookupTest() throws Exception {
+        CentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now(), new ArrayList<>()));
+
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+
+        Bank bank = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        assertSame(bank, cb.findBankByName("Tinkoff"));
+        assertThrows(BankException.class, () -> cb.createBank("Tinkoff", 3, list, 10,
+                200000, -1, Duration.ofDays(90)));
+        assertThrows(BankException.class, () -> cb.findBankByName("Alfa"));
+
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        assertSame(client, cb.findClient(client.getId()));
+        assertSame(client, cb.findClientByPassport(12345L));
+        assertThrows(ClientException.class, () -> cb.findClientByPassport(54321L));
+
+        BaseAccount debit = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount credit = bank.createAccount(TypeOfBankAccount.CREDIT, client, Duration.ofDays(90));
+        assertSame(debit, bank.getAccount(debit.getId()));
+        assertSame(credit, bank.getAccount(credit.getId()));
+        assertEquals(2, bank.findClientAccounts(client.getId()).size());
+        assertTrue(bank.findAccount(client.getId()).isEmpty());
+    }
+
+    /**
+     * Tests the per-account transaction ledger.
+     *
+     * <p>Committed transactions are returned in commit order, are found by ID,
+     * and saving the same transaction twice is rejected.
+     *
+     * @throws Exception if creating the bank or running the transactions fails
+     */
+    @Test
+    public void transactionLedgerTest() throws Exception {
+        CentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now(), new ArrayList<>()));
+
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        BaseAccount account = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+
+        List<BankTransaction> committed = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            committed.add(cb.replenishAccount(bank.getId(), account.getId(), i));
+        }
+
+        assertEquals(1000, account.getTransactionCount());
+        assertEquals(committed, account.getTransactionHistory().toList());
+        assertSame(committed.get(500), account.getTransaction(committed.get(500).getId()));
+        assertThrows(TransactionException.class, () -> account.saveChanges(committed.get(0)));
+    }
+
+    /**
+     * Tests concurrent balance updates across many threads.
+     *
+     * <p>Several threads replenish one account and transfer random sums between accounts of two banks
+     * in both directions. No update may be lost, the total amount of money must be conserved,
+     * and the run must finish, which it would not if two transfers deadlocked.
+     *
+     * @throws Exception if creating the banks fails or the workers do not finish in time
+     */
+    @Test
+    public void concurrentTransfersTest() throws Exception {
+        CentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now(), new ArrayList<>()));
+
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+
+        Bank sber = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+
+        int accountCount = 16;
+        int threads = 8;
+        int operationsPerThread = 20000;
+        List<BaseAccount> accounts = new ArrayList<>();
+        List<Bank> banks = new ArrayList<>();
+        for (int i = 0; i < accountCount; i++) {
+            Bank bank = i % 2 == 0 ? sber : tinkoff;
+            BaseAccount account = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+            cb.replenishAccount(bank.getId(), account.getId(), 1000);
+            accounts.add(account);
+            banks.add(bank);
+        }
+        BaseAccount hot = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Object>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    int from = random.nextInt(accountCount);
+                    int to = random.nextInt(accountCount);
+                    cb.transferMoney(banks.get(from).getId(), accounts.get(from).getId(),
+                            banks.get(to).getId(), accounts.get(to).getId(), 1 + random.nextInt(50));
+                    sber.income(hot.getId(), 1);
+                }
+                return null;
+            }));
+        }
+        for (Future<Object> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long total = accounts.stream().mapToLong(BaseAccount::getBalance).sum();
+        assertEquals(accountCount * 1000, total);
+        assertEquals(threads * operationsPerThread, hot.getBalance());
+    }
+
+    /**
+     * Tests batch submission through the central bank.
+     *
+     * <p>Operations are applied in order, and every operation gets its own status.
+     * An unknown account, a negative amount or an overdraft rejects only that operation.
+     *
+     * @throws Exception if creating the bank or the accounts fails
+     */
+    @Test
+    public void batchSubmissionTest() throws Exception {
+        CentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now(), new ArrayList<>()));
+
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        BaseAccount first = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount second = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+
+        BatchResult result = cb.submitBatch(List.of(
+                BatchOperation.income(bank.getId(), first.getId(), 1000),
+                BatchOperation.transfer(bank.getId(), first.getId(), bank.getId(), second.getId(), 300),
+                BatchOperation.withdraw(bank.getId(), second.getId(), 500),
+                BatchOperation.income(bank.getId(), UUID.randomUUID(), 10),
+                BatchOperation.income(UUID.randomUUID(), first.getId(), 10),
+                BatchOperation.income(bank.getId(), first.getId(), -5),
+                BatchOperation.withdraw(bank.getId(), second.getId(), 100)));
+
+        assertEquals(7, result.size());
+        assertEquals(BatchStatus.ENDED, result.getStatus(0));
+        assertEquals(BatchStatus.ENDED, result.getStatus(1));
+        assertEquals(BatchStatus.FAILED, result.getStatus(2));
+        assertEquals(BatchStatus.ACCOUNT_NOT_FOUND, result.getStatus(3));
+        assertEquals(BatchStatus.BANK_NOT_FOUND, result.getStatus(4));
+        assertEquals(BatchStatus.INVALID_AMOUNT, result.getStatus(5));
+        assertEquals(BatchStatus.ENDED, result.getStatus(6));
+        assertSame(result.getTransaction(0), first.getTransaction(result.getTransaction(0).getId()));
+        assertEquals(700, first.getBalance());
+        assertEquals(200, second.getBalance());
+    }
+
+    /**
+     * Tests that the accrual engine gives the same results as the per-account daily payoff.
+     *
+     * <p>Two banks get identical debit and deposit accounts. One runs {@code accountDailyPayoff} on every
+     * account, the other runs the engine, for 45 days so that monthly debit payouts happen too.
+     * Balances and accrued interest must then be equal.
+     *
+     * @throws Exception if creating the banks or the accrual fails
+     */
+    @Test
+    public void accrualEngineTest() throws Exception {
+        Clock clock = new RewindClock(LocalDateTime.now());
+        Bank perAccount = new Bank("Sberbank", clock, accrualConfiguration());
+        Bank columnar = new Bank("Tinkoff", clock, accrualConfiguration());
+        Clients client = new Client("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+
+        List<BaseAccount> expected = new ArrayList<>();
+        List<BaseAccount> actual = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            TypeOfBankAccount type = i % 2 == 0 ? TypeOfBankAccount.DEBIT : TypeOfBankAccount.DEPOSIT;
+            BaseAccount first = perAccount.createAccount(type, client, Duration.ofDays(90));
+            BaseAccount second = columnar.createAccount(type, client, Duration.ofDays(90));
+            first.increaseAmount(1 + i * 37 % 250000);
+            second.increaseAmount(1 + i * 37 % 250000);
+            expected.add(first);
+            actual.add(second);
+        }
+
+        AccrualEngine engine = new AccrualEngine();
+        for (int day = 0; day < 45; day++) {
+            for (BaseAccount account : expected) {
+                if (account instanceof DebitAccount debit) {
+                    debit.accountDailyPayoff();
+                } else {
+                    ((DepositAccount) account).accountDailyPayoff();
+                }
+            }
+            AccrualReport report = engine.accrueDaily(columnar);
+            assertEquals(5000, report.getDebitAccrued());
+            assertEquals(5000, report.getDepositAccrued());
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getBalance(), actual.get(i).getBalance());
+            if (expected.get(i) instanceof DebitAccount debit) {
+                assertEquals(debit.getPercentageAmount(), ((DebitAccount) actual.get(i)).getPercentageAmount());
+                assertEquals(debit.getCountOfDays(), ((DebitAccount) actual.get(i)).getCountOfDays());
+            } else {
+                assertEquals(((DepositAccount) expected.get(i)).getPercentageAmount(),
+                        ((DepositAccount) actual.get(i)).getPercentageAmount());
+            }
+        }
+        assertTrue(actual.get(2000).getBalance() > 1 + 2000 * 37 % 250000);
+    }
+
+    /**
+     * Tests the compiled deposit tier table.
+     *
+     * <p>Tiers given out of order are sorted, lookups at the borders pick the tier that starts there,
+     * balances outside every tier earn nothing, and a list with a gap or an overlap is rejected
+     * without replacing the percents already in place.
+     *
+     * @throws Exception if creating the configuration fails
+     */
+    @Test
+    public void depositTierTableTest() throws Exception {
+        List<DepositPercent> percents = new ArrayList<>();
+        percents.add(new DepositPercent(new Percent(5), 100000));
+        percents.add(new DepositPercent(new Percent(3), 12, 50000));
+        percents.add(new DepositPercent(new Percent(4), 50000, 100000));
+        DepositAccountConfiguration configuration = new DepositAccountConfiguration(percents, Duration.ofDays(90));
+
+        DepositTierTable table = configuration.getTierTable();
+        assertEquals(3, table.size());
+        assertEquals(-1, table.findTier(11));
+        assertEquals(0, table.findTier(12));
+        assertEquals(0, table.findTier(49999));
+        assertEquals(1, table.findTier(50000));
+        assertEquals(2, table.findTier(100000));
+        assertEquals(0.05, table.rateFor(Integer.MAX_VALUE - 1));
+        assertEquals(0, table.rateFor(0));
+
+        List<DepositPercent> withGap = List.of(
+                new DepositPercent(new Percent(3), 0, 1000),
+                new DepositPercent(new Percent(4), 2000));
+        List<DepositPercent> withOverlap = List.of(
+                new DepositPercent(new Percent(3), 0, 1000),
+                new DepositPercent(new Percent(4), 500));
+        assertThrows(AccountException.class, () -> configuration.withDepositPercents(withGap));
+        assertThrows(AccountException.class, () -> configuration.withDepositPercents(withOverlap));
+        assertThrows(AccountException.class, () -> configuration.withDepositPercents(new ArrayList<>()));
+        assertSame(table, configuration.getTierTable());
+
+        DepositAccountConfiguration changed = configuration.withDepositPercents(
+                List.of(new DepositPercent(new Percent(7), 0)));
+        assertEquals(0.07, changed.getTierTable().rateFor(0));
+        assertSame(table, configuration.getTierTable());
+    }
+
+    /**
+     * Tests the scheduler behind the simulated clock.
+     *
+     * <p>Events fire in order of due time with the clock showing their due time, a recurring event fires once
+     * per period crossed until it is cancelled, and the clock actions run once per advance. Advancing a central
+     * bank by 45 days runs the daily accrual and pays a 30-day deposit out at maturity, after which only the
+     * daily accrual event is left pending.
+     *
+     * @throws Exception if creating the bank or advancing the clock fails
+     */
+    @Test
+    public void simulatedTimeTest() throws Exception {
+        LocalDateTime start = LocalDateTime.now();
+        AtomicInteger advances = new AtomicInteger();
+        RewindClock clock = new RewindClock(start, List.of(advances::incrementAndGet));
+
+        List<String> fired = new ArrayList<>();
+        clock.schedule(start.plusHours(2), time -> fired.add("once " + Duration.between(start, clock.currentTime()).toHours()));
+        ScheduledEvent hourly = clock.scheduleAtFixedRate(start.plusHours(1), Duration.ofHours(1),
+                time -> fired.add("hourly " + Duration.between(start, time).toHours()));
+        clock.schedule(start.plusHours(3), time -> hourly.cancel());
+        clock.advanceTime(ChronoUnit.HOURS, 5);
+
+        assertEquals(List.of("hourly 1", "once 2", "hourly 2", "hourly 3"), fired);
+        assertEquals(start.plusHours(5), clock.currentTime());
+        assertEquals(1, advances.get());
+        assertEquals(0, clock.getScheduler().size());
+        assertThrows(AccountException.class, () -> clock.advanceTo(start));
+
+        CentralBank cb = new ServiceCentralBank(new RewindClock(start));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 0));
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(30));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        DebitAccount debit = (DebitAccount) bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(30));
+        DepositAccount deposit = (DepositAccount) bank.createAccount(TypeOfBankAccount.DEPOSIT, client, Duration.ofDays(30));
+        debit.increaseAmount(100000);
+        deposit.increaseAmount(100000);
+
+        cb.getRewindClock().advanceTime(ChronoUnit.DAYS, 45);
+
+        assertTrue(debit.getBalance() > 100000);
+        assertTrue(deposit.getBalance() > 100000);
+        assertEquals(0, deposit.getPercentageAmount());
+        assertEquals(1, cb.getRewindClock().getScheduler().size());
+    }
+
+    /**
+     * Tests configuration notifications through the subscriber index.
+     *
+     * <p>A client is notified once per change however many accounts of the type it has, a client subscribed
+     * before opening an account is notified for that account's type, and unsubscribed clients and clients
+     * without an account of the type are not notified.
+     *
+     * @throws Exception if creating the bank or changing the configuration fails
+     */
+    @Test
+    public void subscriberIndexTest() throws Exception {
+        CentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+
+        Clients twoDebits = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 1L);
+        Clients early = cb.registerClient("Ivan", "Ivanov", "Nevsky", 2L);
+        Clients credit = cb.registerClient("Petr", "Petrov", "Liteyny", 3L);
+        Clients silent = cb.registerClient("Anna", "Smirnova", "Sadovaya", 4L);
+
+        bank.createAccount(TypeOfBankAccount.DEBIT, twoDebits, Duration.ofDays(90));
+        bank.createAccount(TypeOfBankAccount.DEBIT, twoDebits, Duration.ofDays(90));
+        bank.createAccount(TypeOfBankAccount.CREDIT, credit, Duration.ofDays(90));
+        bank.createAccount(TypeOfBankAccount.DEBIT, silent, Duration.ofDays(90));
+        bank.subscribe(twoDebits);
+        bank.subscribe(early);
+        bank.subscribe(credit);
+        bank.subscribe(silent);
+        bank.createAccount(TypeOfBankAccount.DEBIT, early, Duration.ofDays(90));
+        bank.unsubscribe(silent);
+        assertThrows(ObserverException.class, () -> bank.subscribe(early));
+        assertThrows(ObserverException.class, () -> bank.unsubscribe(silent));
+
+        bank.changeDebitPercent(4);
+
+        assertEquals(1, twoDebits.getUpdatesOfAccountsConfiguration().size());
+        assertEquals(1, early.getUpdatesOfAccountsConfiguration().size());
+        assertEquals(0, credit.getUpdatesOfAccountsConfiguration().size());
+        assertEquals(0, silent.getUpdatesOfAccountsConfiguration().size());
+
+        bank.changeCreditLimit(300000);
+        assertEquals(1, twoDebits.getUpdatesOfAccountsConfiguration().size());
+        assertEquals(1, credit.getUpdatesOfAccountsConfiguration().size());
+    }
+
+    /**
+     * Tests a client subscribing while an account of the client is being opened: whichever runs first, the
+     * client is indexed under the type of the account and notified of its changes.
+     *
+     * @throws Exception if creating the bank fails or a thread does not finish in time
+     */
+    @Test
+    public void subscribeWhileOpeningTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 500; round++) {
+                Bank bank = new Bank("Sberbank", new RewindClock(LocalDateTime.now()), accrualConfiguration());
+                Clients client = new ClientBuilder().addName("Artyom").addSurname("Batmanov").build();
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> subscribe = executor.submit(() -> {
+                    start.await();
+                    bank.subscribe(client);
+                    return null;
+                });
+                Future<?> open = executor.submit(() -> {
+                    start.await();
+                    return bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+                });
+                start.countDown();
+                subscribe.get(10, TimeUnit.SECONDS);
+                open.get(10, TimeUnit.SECONDS);
+
+                bank.changeDebitPercent(4);
+                assertEquals(1, client.getUpdatesOfAccountsConfiguration().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BankConfiguration accrualConfiguration() throws Exception {
+        List<DepositPercent> percents = new ArrayList<>();
+        percents.add(new DepositPercent(new Percent(3), 0, 50000));
+        percents.add(new DepositPercent(new Percent(4), 50000, 100000));
+        percents.add(new DepositPercent(new Percent(5), 100000));
+        return new BankConfiguration(new CreditAccountConfiguration(10, 200000),
+                new DebitAccountConfiguration(new Percent(3)),
+                new DepositAccountConfiguration(percents, Duration.ofDays(90)),
+                new Limit(-1));
+    }
+
+    /**
+     * Checks that a central bank recovered from its journal has the same banks, accounts, balances,
+     * transactions and clock as the one that wrote it, a clock set back included, and that a torn record at
+     * the end of the journal is ignored.
+     */
+    @Test
+    public void journalRecoveryTest() throws Exception {
+        Path file = Files.createTempFile("journal", ".bin");
+        Files.delete(file);
+        try {
+            LocalDateTime start = LocalDateTime.now();
+            RewindClock clock = new RewindClock(start);
+            MappedJournal journal = MappedJournal.open(file, start, 4096);
+            ServiceCentralBank cb = new ServiceCentralBank(clock, journal);
+
+            List<DepositPercent> list = new ArrayList<>();
+            list.add(new DepositPercent(new Percent(3), 0, 50000));
+            list.add(new DepositPercent(new Percent(4), 50000));
+            Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(30));
+            Bank other = cb.createBank("Tinkoff", 5, list, 10, 200000, -1, Duration.ofDays(30));
+            Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+            Clients stranger = new ClientBuilder().addName("Ivan").addSurname("Ivanov").build();
+            BaseAccount debit = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(30));
+            BaseAccount deposit = bank.createAccount(TypeOfBankAccount.DEPOSIT, client, Duration.ofDays(30));
+            BaseAccount credit = other.createAccount(TypeOfBankAccount.CREDIT, stranger, Duration.ofDays(30));
+
+            cb.replenishAccount(bank.getId(), debit.getId(), 100000);
+            cb.replenishAccount(bank.getId(), deposit.getId(), 70000);
+            cb.withdrawMoney(bank.getId(), debit.getId(), 1000);
+            BankTransaction transfer = cb.transferMoney(bank.getId(), debit.getId(), other.getId(), credit.getId(), 5000);
+            BankTransaction canceled = cb.replenishAccount(bank.getId(), debit.getId(), 300);
+            cb.cancelTransaction(bank.getId(), debit.getId(), canceled.getId());
+            Bank alfa = cb.createBank("Alfa", 3, list, 50, 1, -1, Duration.ofDays(30));
+            BaseAccount commissioned = alfa.createAccount(TypeOfBankAccount.CREDIT, client, Duration.ofDays(30));
+            cb.replenishAccount(alfa.getId(), commissioned.getId(), 30);
+            cb.withdrawMoney(alfa.getId(), commissioned.getId(), 40);
+            assertEquals(41, commissioned.getBalance());
+            BankTransaction toCredit = cb.transferMoney(bank.getId(), debit.getId(), alfa.getId(),
+                    commissioned.getId(), 5);
+            cb.withdrawMoney(alfa.getId(), commissioned.getId(), 45);
+            cb.cancelTransaction(bank.getId(), debit.getId(), toCredit.getId());
+            assertEquals(46, commissioned.getBalance());
+            alfa.changeCreditCommission(0);
+            bank.changeDebitPercent(5);
+            Client completed = cb.registerClient("Petr", "Petrov", null, null);
+            completed.setAddress("Nevsky");
+            completed.setPassportNumber(Long.valueOf(777L));
+            Client addressed = cb.registerClient("Oleg", "Olegov", null, null);
+            addressed.setAddress("Liteyny");
+            clock.advanceTime(ChronoUnit.DAYS, 40);
+            clock.setCurrentTime(clock.currentTime().minusDays(5));
+            journal.close();
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer torn = ByteBuffer.allocate(16).putInt(64).putInt(12345).putLong(-1L);
+                channel.write(torn.flip(), journal.size());
+            }
+
+            ServiceCentralBank recovered = ServiceCentralBank.recover(file);
+            assertEquals(clock.currentTime(), recovered.getRewindClock().currentTime());
+            assertEquals(client.getId(), recovered.findClientByPassport(12345L).getId());
+            Client recoveredCompleted = recovered.findClientByPassport(777L);
+            assertEquals(completed.getId(), recoveredCompleted.getId());
+            assertEquals("Nevsky", recoveredCompleted.getAddress());
+            Client recoveredAddressed = recovered.findClient(addressed.getId());
+            assertEquals("Liteyny", recoveredAddressed.getAddress());
+            assertTrue(recoveredAddressed.isDubious());
+            Bank recoveredBank = recovered.findBankByName("Sberbank");
+            Bank recoveredOther = recovered.findBankByName("Tinkoff");
+            assertEquals(bank.getId(), recoveredBank.getId());
+            assertEquals(debit.getBalance(), recoveredBank.getAccount(debit.getId()).getBalance());
+            assertEquals(deposit.getBalance(), recoveredBank.getAccount(deposit.getId()).getBalance());
+            BaseAccount recoveredCredit = recoveredOther.getAccount(credit.getId());
+            assertEquals(credit.getBalance(), recoveredCredit.getBalance());
+            assertEquals(stranger.getId(), recoveredCredit.getClient().getId());
+            assertEquals(46, recovered.findBankByName("Alfa").getAccount(commissioned.getId()).getBalance());
+            assertEquals(State.Ended, recoveredCredit.getTransaction(transfer.getId()).getTransactionState());
+            assertEquals(State.Canceled,
+                    recoveredBank.getAccount(debit.getId()).getTransaction(canceled.getId()).getTransactionState());
+
+            recovered.withdrawMoney(recoveredBank.getId(), debit.getId(), 100);
+            ServiceCentralBank again = ServiceCentralBank.recover(file);
+            assertEquals(debit.getBalance() - 100,
+                    again.findBankByName("Sberbank").getAccount(debit.getId()).getBalance());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Checks that banks whose deposit percents have more tiers than fit the initial record buffer are journaled
+     * when they are created and when their percents change, and are recovered with all their tiers.
+     */
+    @Test
+    public void journalDepositTiersTest() throws Exception {
+        Path file = Files.createTempFile("journal", ".bin");
+        Files.delete(file);
+        try {
+            LocalDateTime start = LocalDateTime.now();
+            MappedJournal journal = MappedJournal.open(file, start, 4096);
+            ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(start), journal);
+            List<Bank> banks = new ArrayList<>();
+            for (int tiers = 11; tiers <= 20; tiers++) {
+                banks.add(cb.createBank("Bank" + tiers, 3, depositTiers(tiers), 10, 200000, -1, Duration.ofDays(30)));
+                Bank changed = cb.createBank("Changed" + tiers, 3, depositTiers(2), 10, 200000, -1,
+                        Duration.ofDays(30));
+                changed.changeDepositPercents(depositTiers(tiers));
+                banks.add(changed);
+            }
+            journal.close();
+
+            ServiceCentralBank recovered = ServiceCentralBank.recover(file);
+            for (Bank expected : banks) {
+                List<DepositPercent> percents = expected.getBankConfiguration().getDepositAccountConfiguration()
+                        .getDepositPercents();
+                List<DepositPercent> recoveredPercents = recovered.findBankByName(expected.getName())
+                        .getBankConfiguration().getDepositAccountConfiguration().getDepositPercents();
+                assertEquals(percents.size(), recoveredPercents.size());
+                for (int i = 0; i < percents.size(); i++) {
+                    assertEquals(percents.get(i).getLeftBorder(), recoveredPercents.get(i).getLeftBorder());
+                    assertEquals(percents.get(i).getRightBorder(), recoveredPercents.get(i).getRightBorder());
+                    assertEquals(percents.get(i).getPercent().getValue(),
+                            recoveredPercents.get(i).getPercent().getValue(), 1e-9);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<DepositPercent> depositTiers(int count) throws Exception {
+        List<DepositPercent> list = new ArrayList<>();
+        for (int i = 0; i < count - 1; i++) {
+            list.add(new DepositPercent(new Percent(1 + i % 5), i * 10000L, (i + 1) * 10000L));
+        }
+        list.add(new DepositPercent(new Percent(6), (count - 1) * 10000L));
+        return list;
+    }
+
+    /**
+     * Checks that a central bank restored from a snapshot has the same clients, configuration, accounts and
+     * accrual state as the one that wrote it, and that both go on accruing the same way.
+     */
+    @Test
+    public void snapshotRestoreTest() throws Exception {
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            LocalDateTime start = LocalDateTime.now();
+            ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(start));
+            List<DepositPercent> list = new ArrayList<>();
+            list.add(new DepositPercent(new Percent(3), 0, 50000));
+            list.add(new DepositPercent(new Percent(4), 50000));
+            Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(30));
+            Bank other = cb.createBank("Tinkoff", 5, list, 20, 100000, -1, Duration.ofDays(60));
+            Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+            Clients stranger = new ClientBuilder().addName("Ivan").addSurname("Ivanov").build();
+
+            List<BaseAccount> accounts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                BaseAccount debit = bank.createAccount(TypeOfBankAccount.DEBIT, i % 2 == 0 ? client : stranger, Duration.ofDays(30));
+                bank.income(debit, 1000 * (i + 1));
+                accounts.add(debit);
+            }
+            BaseAccount deposit = bank.createAccount(TypeOfBankAccount.DEPOSIT, client, Duration.ofDays(30));
+            bank.income(deposit, 70000);
+            accounts.add(deposit);
+            BaseAccount credit = other.createAccount(TypeOfBankAccount.CREDIT, stranger, Duration.ofDays(30));
+            bank.changeDebitPercent(4);
+            cb.getRewindClock().advanceTime(ChronoUnit.DAYS, 10);
+
+            cb.checkpoint(file);
+            ServiceCentralBank restored = ServiceCentralBank.restore(file);
+
+            assertEquals(cb.getRewindClock().currentTime(), restored.getRewindClock().currentTime());
+            assertEquals(client.getId(), restored.findClientByPassport(12345L).getId());
+            Bank restoredBank = restored.findBankByName("Sberbank");
+            Bank restoredOther = restored.findBankByName("Tinkoff");
+            assertEquals(bank.getId(), restoredBank.getId());
+            assertEquals(201, restoredBank.getAccountCount());
+            assertEquals(0.04, restoredBank.getBankConfiguration().getDebitAccountConfiguration().getDebitPercent().getValue(), 1e-9);
+            assertEquals(20, restoredOther.getBankConfiguration().getCreditAccountConfiguration().getCreditCommission());
+            assertEquals(Duration.ofDays(60), restoredOther.getBankConfiguration().getDepositAccountConfiguration().getTime());
+
+            DebitAccount debit = (DebitAccount) restoredBank.getAccount(accounts.get(7).getId());
+            assertEquals(accounts.get(7).getBalance(), debit.getBalance());
+            assertEquals(((DebitAccount) accounts.get(7)).getPercentageAmount(), debit.getPercentageAmount(), 1e-9);
+            assertEquals(((DebitAccount) accounts.get(7)).getCountOfDays(), debit.getCountOfDays());
+            assertSame(debit, restoredBank.getAccount(debit.getId()));
+            assertEquals(stranger.getId(), debit.getClient().getId());
+            assertEquals(101, restoredBank.findClientAccounts(client.getId()).size());
+            assertEquals(((DepositAccount) deposit).getEndOfPeriod(),
+                    ((DepositAccount) restoredBank.getAccount(deposit.getId())).getEndOfPeriod());
+            assertEquals(credit.getBalance(), restoredOther.getAccount(credit.getId()).getBalance());
+            assertTrue(restoredBank.findAccount(UUID.randomUUID()).isEmpty());
+
+            cb.getRewindClock().advanceTime(ChronoUnit.DAYS, 40);
+            restored.getRewindClock().advanceTime(ChronoUnit.DAYS, 40);
+            for (BaseAccount account : accounts) {
+                assertEquals(account.getBalance(), restoredBank.getAccount(account.getId()).getBalance());
+            }
+            BaseAccount created = restoredBank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(30));
+            assertEquals(202, restoredBank.getAccountCount());
+            assertSame(created, restoredBank.getAccount(created.getId()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Checks that daily accruals after a restore do not load the restored accounts: the accounts not looked up
+     * accrue in the snapshot's columns, and once looked up they have the balance and accrual state of the
+     * accounts that were never written to a snapshot.
+     */
+    @Test
+    public void snapshotAccrualTest() throws Exception {
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+            List<DepositPercent> list = new ArrayList<>();
+            list.add(new DepositPercent(new Percent(3), 0, 50000));
+            list.add(new DepositPercent(new Percent(4), 50000));
+            Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(30));
+            Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+            List<BaseAccount> accounts = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                BaseAccount account = bank.createAccount(i % 5 == 0 ? TypeOfBankAccount.DEPOSIT : TypeOfBankAccount.DEBIT,
+                        client, Duration.ofDays(30));
+                bank.income(account, 20000 * (i + 1));
+                accounts.add(account);
+            }
+            cb.getRewindClock().advanceTime(ChronoUnit.DAYS, 10);
+            cb.checkpoint(file);
+
+            BankSnapshot snapshot = BankSnapshot.read(file);
+            RewindClock clock = new RewindClock(snapshot.getClockTime());
+            BankSnapshot.Entry entry = snapshot.getBanks().get(0);
+            Bank restored = new Bank(entry.getId(), entry.getName(), clock, bank.getBankConfiguration());
+            SnapshotAccounts snapshotAccounts = entry.accountsOf(restored);
+            restored.attachAccounts(snapshotAccounts);
+            AccrualEngine engine = new AccrualEngine();
+
+            for (int day = 0; day < 40; day++) {
+                if (day == 15) {
+                    restored.getAccount(accounts.get(3).getId());
+                }
+                cb.getRewindClock().advanceTime(ChronoUnit.DAYS, 1);
+                clock.advanceTime(ChronoUnit.DAYS, 1);
+                AccrualReport report = engine.accrueDaily(restored);
+                assertEquals(40, report.getDebitAccrued());
+            }
+            for (int index = 0; index < snapshotAccounts.size(); index++) {
+                assertEquals(snapshotAccounts.idAt(index).equals(accounts.get(3).getId()), snapshotAccounts.isLoaded(index));
+            }
+
+            for (BaseAccount account : accounts) {
+                BaseAccount loaded = restored.getAccount(account.getId());
+                assertEquals(account.getBalance(), loaded.getBalance());
+                if (account instanceof DebitAccount debit) {
+                    assertEquals(debit.getPercentageAmount(), ((DebitAccount) loaded).getPercentageAmount(), 1e-9);
+                    assertEquals(debit.getCountOfDays(), ((DebitAccount) loaded).getCountOfDays());
+                } else {
+                    assertEquals(((DepositAccount) account).getPercentageAmount(),
+                            ((DepositAccount) loaded).getPercentageAmount(), 1e-9);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests amounts in minor units.
+     *
+     * <p>A balance grows past the range of an int without overflowing, a transfer of such an amount
+     * moves it exactly, deposit tiers above that range are found, and minor units are formatted as
+     * major units with two decimals.
+     *
+     * @throws Exception if creating the bank or the accounts fails
+     */
+    @Test
+    public void minorUnitsTest() throws Exception {
+        CentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 0, Money.ofMajor(100_000_000)));
+        list.add(new DepositPercent(new Percent(4), Money.ofMajor(100_000_000)));
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, Money.ofMajor(1_000_000), -1, Duration.ofDays(30));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        BaseAccount debit = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(30));
+        BaseAccount other = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(30));
+
+        long amount = Money.ofMajor(30_000_000);
+        bank.income(debit, amount);
+        bank.income(debit, amount);
+        assertEquals(2 * amount, debit.getBalance());
+        assertTrue(debit.getBalance() > Integer.MAX_VALUE);
+
+        BankTransaction transfer = cb.transferMoney(bank.getId(), debit.getId(), bank.getId(), other.getId(), amount + 1);
+        assertEquals(State.Ended, transfer.getTransactionState());
+        assertEquals(amount - 1, debit.getBalance());
+        assertEquals(amount + 1, other.getBalance());
+
+        DepositTierTable table = bank.getBankConfiguration().getDepositAccountConfiguration().getTierTable();
+        assertEquals(0.03, table.rateFor(Money.ofMajor(99_999_999)), 1e-9);
+        assertEquals(0.04, table.rateFor(Money.ofMajor(100_000_000)), 1e-9);
+
+        assertEquals("123.45", Money.format(12345));
+        assertEquals("0.07", Money.format(7));
+        assertEquals("-0.50", Money.format(-50));
+        assertEquals("-3.05", Money.format(-305));
+        assertThrows(ArithmeticException.class, () -> Money.ofMajor(Long.MAX_VALUE / 10));
+    }
+
+    /**
+     * Tests the asynchronous central bank.
+     *
+     * <p>Alternating incomes and withdrawals of one account all succeed, which they would not if they
+     * overtook each other, and the account history keeps the submission order. Transfers in both directions
+     * between accounts of two banks conserve the total amount of money and all complete, which they would not
+     * if two mailboxes waited for each other. An unknown bank fails only its own future, and no mailbox is left
+     * behind once everything is done.
+     *
+     * @throws Exception if creating the banks fails or the operations do not finish in time
+     */
+    @Test
+    public void asyncCentralBankTest() throws Exception {
+        CentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Bank sber = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ServiceAsyncCentralBank async = new ServiceAsyncCentralBank(cb, executor);
+
+            BaseAccount ordered = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+            List<CompletableFuture<BankTransaction>> sequence = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                sequence.add(async.replenishAccount(sber.getId(), ordered.getId(), 10));
+                sequence.add(async.withdrawMoney(sber.getId(), ordered.getId(), 10));
+            }
+
+            int accountCount = 16;
+            List<BaseAccount> accounts = new ArrayList<>();
+            List<Bank> banks = new ArrayList<>();
+            for (int i = 0; i < accountCount; i++) {
+                Bank bank = i % 2 == 0 ? sber : tinkoff;
+                BaseAccount account = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+                bank.income(account, 1000);
+                accounts.add(account);
+                banks.add(bank);
+            }
+            List<CompletableFuture<BankTransaction>> transfers = new ArrayList<>();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20000; i++) {
+                int from = random.nextInt(accountCount);
+                int to = random.nextInt(accountCount);
+                transfers.add(async.transferMoney(banks.get(from).getId(), accounts.get(from).getId(),
+                        banks.get(to).getId(), accounts.get(to).getId(), 1 + random.nextInt(50)));
+            }
+            CompletableFuture<BankTransaction> unknown = async.replenishAccount(UUID.randomUUID(), ordered.getId(), 10);
+
+            CompletableFuture.allOf(transfers.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+            CompletableFuture.allOf(sequence.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> unknown.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(BankException.class, failure.getCause());
+
+            for (CompletableFuture<BankTransaction> future : sequence) {
+                assertEquals(State.Ended, future.get().getTransactionState());
+            }
+            assertEquals(0, ordered.getBalance());
+            assertEquals(sequence.stream().map(future -> future.join().getId()).toList(),
+                    ordered.getTransactionHistory().map(BankTransaction::getId).toList());
+            assertEquals(accountCount * 1000, accounts.stream().mapToLong(BaseAccount::getBalance).sum());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (async.getPendingAccounts() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, async.getPendingAccounts());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests the sharded execution mode.
+     *
+     * <p>Threads transfer random sums between accounts of all shards in both directions while replenishing
+     * one account. The total amount of money is conserved and no income is lost. A transfer between shards
+     * that the sender cannot cover fails without touching either account, and a canceled transfer between
+     * shards moves the money back.
+     *
+     * @throws Exception if creating the banks fails or the workers do not finish in time
+     */
+    @Test
+    public void shardedExecutionTest() throws Exception {
+        try (ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()), ExecutionMode.SHARDED, 4)) {
+            assertEquals(ExecutionMode.SHARDED, cb.getExecutionMode());
+            List<DepositPercent> list = new ArrayList<>();
+            list.add(new DepositPercent(new Percent(3), 12));
+            Bank sber = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+            Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+            Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+
+            int accountCount = 16;
+            List<BaseAccount> accounts = new ArrayList<>();
+            List<Bank> banks = new ArrayList<>();
+            for (int i = 0; i < accountCount; i++) {
+                Bank bank = i % 2 == 0 ? sber : tinkoff;
+                BaseAccount account = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+                cb.replenishAccount(bank.getId(), account.getId(), 1000);
+                accounts.add(account);
+                banks.add(bank);
+            }
+            BaseAccount hot = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+
+            int threads = 4;
+            int operationsPerThread = 5000;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<Object>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        int from = random.nextInt(accountCount);
+                        int to = random.nextInt(accountCount);
+                        cb.transferMoney(banks.get(from).getId(), accounts.get(from).getId(),
+                                banks.get(to).getId(), accounts.get(to).getId(), 1 + random.nextInt(50));
+                        sber.income(hot, 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Object> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+            assertEquals(accountCount * 1000, accounts.stream().mapToLong(BaseAccount::getBalance).sum());
+            assertEquals(threads * operationsPerThread, hot.getBalance());
+
+            BaseAccount poor = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+            BaseAccount rich = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+            while (ShardedEngine.shardOf(poor.getId(), 4) == ShardedEngine.shardOf(rich.getId(), 4)) {
+                rich = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+            }
+            sber.income(poor, 100);
+            sber.income(rich, 1000);
+            BankTransaction overdraft = cb.transferMoney(sber.getId(), poor.getId(), sber.getId(), rich.getId(), 101);
+            assertEquals(State.Failed, overdraft.getTransactionState());
+            assertEquals(100, poor.getBalance());
+            assertEquals(1000, rich.getBalance());
+
+            BankTransaction transfer = cb.transferMoney(sber.getId(), rich.getId(), sber.getId(), poor.getId(), 400);
+            assertEquals(State.Ended, transfer.getTransactionState());
+            assertEquals(500, poor.getBalance());
+            cb.cancelTransaction(sber.getId(), rich.getId(), transfer.getId());
+            assertEquals(State.Canceled, transfer.getTransactionState());
+            assertEquals(100, poor.getBalance());
+            assertEquals(1000, rich.getBalance());
+        }
+    }
+
+    /**
+     * Tests the compensation of a transfer between shards whose deposit fails.
+     *
+     * <p>The source is a credit account that paid a commission on the debit, so it is given back exactly what
+     * the debit took, not the sum, and the transfer fails with the source as it was.
+     *
+     * @throws Exception if the accounts cannot be created
+     */
+    @Test
+    public void shardedTransferRefundTest() throws Exception {
+        Clients client = new ClientBuilder().addName("Artyom").addSurname("Batmanov")
+                .addAddress("KushelevskaiaDoroga").addPassportNumber(12345L).build();
+        List<DepositPercent> percents = new ArrayList<>();
+        percents.add(new DepositPercent(new Percent(3), 0));
+        VersionedConfiguration configuration = new VersionedConfiguration(new BankConfiguration(
+                new CreditAccountConfiguration(50, 1), new DebitAccountConfiguration(new Percent(3)),
+                new DepositAccountConfiguration(percents, Duration.ofDays(90)), new Limit(-1)));
+        try (ShardedEngine engine = new ShardedEngine(4)) {
+            BaseAccount source = new CreditAccount(client, configuration);
+            BaseAccount target;
+            do {
+                target = new BaseAccount(client, TypeOfBankAccount.DEBIT) {
+                    @Override
+                    public void increaseAmount(long sum) throws TransactionException {
+                        throw new TransactionException("Account is frozen");
+                    }
+
+                    @Override
+                    protected void checkAndDecrease(long sum) {
+                    }
+                };
+            } while (engine.shardOf(target.getId()) == engine.shardOf(source.getId()));
+
+            BankTransaction transfer = new BankTransaction(new ShardedTransfer(engine, target, source, 10));
+            transfer.doTransaction();
+            assertEquals(State.Failed, transfer.getTransactionState());
+            assertTrue(transfer.getStatusMessage().contains("returned to the sender"));
+            assertEquals(1, source.getBalance());
+            assertEquals(0, target.getBalance());
+        }
+    }
+
+    /**
+     * Tests closing a sharded engine while callers keep queuing commands.
+     *
+     * <p>Every caller returns: a command queued before the writers stop runs, and one queued after is refused.
+     * No caller waits for a command that was queued behind the stop and never runs.
+     *
+     * @throws Exception if a caller fails or does not return in time
+     */
+    @Test
+    public void shardedCloseTest() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 200; round++) {
+                ShardedEngine engine = new ShardedEngine(2);
+                AtomicInteger ran = new AtomicInteger();
+                CountDownLatch started = new CountDownLatch(8);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(callers.submit(() -> {
+                        int returned = 0;
+                        started.countDown();
+                        while (true) {
+                            try {
+                                engine.execute(UUID.randomUUID(), ran::incrementAndGet);
+                            } catch (IllegalStateException e) {
+                                return returned;
+                            }
+                            returned++;
+                        }
+                    }));
+                }
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+                engine.close();
+                int returned = 0;
+                for (Future<Integer> result : results) {
+                    returned += result.get(10, TimeUnit.SECONDS);
+                }
+                assertEquals(ran.get(), returned);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests the operation metrics of the central bank.
+     *
+     * <p>Successful, failed and canceled transactions are counted by state in total and per bank, the exception
+     * of a failed transaction and an exception thrown for an unknown bank are counted by type, and the counts are
+     * visible through JMX until the MBeans are removed. Histogram percentiles are within one bucket of the
+     * recorded values. Every applied operation of a batch is counted as a call of its own operation.
+     *
+     * @throws Exception if creating the banks fails or the MBeans cannot be registered
+     */
+    @Test
+    public void operationMetricsTest() throws Exception {
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Bank sber = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        BaseAccount first = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount second = tinkoff.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+
+        cb.getMetrics().registerMBeans("metricsTest");
+        try {
+            cb.replenishAccount(sber.getId(), first.getId(), 1000);
+            cb.replenishAccount(tinkoff.getId(), second.getId(), 500);
+            BankTransaction overdraft = cb.withdrawMoney(sber.getId(), first.getId(), 5000);
+            assertEquals(State.Failed, overdraft.getTransactionState());
+            assertEquals(AccountException.class, overdraft.getFailureType());
+            cb.withdrawMoney(sber.getId(), first.getId(), 100);
+            BankTransaction transfer = cb.transferMoney(sber.getId(), first.getId(), tinkoff.getId(), second.getId(), 100);
+            cb.cancelTransaction(sber.getId(), first.getId(), transfer.getId());
+            assertThrows(BankException.class, () -> cb.withdrawMoney(UUID.randomUUID(), first.getId(), 1));
+
+            MetricsSnapshot snapshot = cb.getMetrics().snapshot();
+            OperationSnapshot withdrawals = snapshot.getTotal(BankOperation.WITHDRAW);
+            assertEquals(3, withdrawals.getLatency().getCount());
+            assertEquals(1, withdrawals.getCount(State.Ended));
+            assertEquals(1, withdrawals.getCount(State.Failed));
+            assertEquals(1, withdrawals.getExceptionCount(AccountException.class));
+            assertEquals(1, withdrawals.getExceptionCount(BankException.class));
+            assertEquals(2, snapshot.getBank("Sberbank", BankOperation.WITHDRAW).getLatency().getCount());
+            assertEquals(0, snapshot.getBank("Sberbank", BankOperation.WITHDRAW).getExceptionCount(BankException.class));
+            assertEquals(1, snapshot.getBank("Tinkoff", BankOperation.REPLENISH).getCount(State.Ended));
+            assertEquals(0, snapshot.getBank("Tinkoff", BankOperation.TRANSFER).getLatency().getCount());
+            assertEquals(1, snapshot.getTotal(BankOperation.TRANSFER).getCount(State.Ended));
+            assertEquals(1, snapshot.getTotal(BankOperation.CANCEL).getCount(State.Canceled));
+            assertTrue(withdrawals.getLatency().getMaxNanos() >= withdrawals.getLatency().getP50Nanos());
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(3L, server.getAttribute(
+                    new ObjectName("com.tech.labs:type=CentralBank,name=\"metricsTest\",operation=withdraw"), "Count"));
+            assertEquals(2L, server.getAttribute(new ObjectName(
+                    "com.tech.labs:type=CentralBank,name=\"metricsTest\",bank=\"Sberbank\",operation=withdraw"), "Count"));
+        } finally {
+            cb.getMetrics().unregisterMBeans();
+        }
+        assertTrue(ManagementFactory.getPlatformMBeanServer()
+                .queryNames(new ObjectName("com.tech.labs:name=\"metricsTest\",*"), null).isEmpty());
+
+        BatchResult batch = cb.submitBatch(List.of(
+                BatchOperation.income(tinkoff.getId(), second.getId(), 200),
+                BatchOperation.withdraw(sber.getId(), first.getId(), 1000000),
+                BatchOperation.transfer(tinkoff.getId(), second.getId(), sber.getId(), first.getId(), 50),
+                BatchOperation.income(sber.getId(), UUID.randomUUID(), 10)));
+        assertEquals(BatchStatus.ACCOUNT_NOT_FOUND, batch.getStatus(3));
+        MetricsSnapshot afterBatch = cb.getMetrics().snapshot();
+        assertEquals(3, afterBatch.getTotal(BankOperation.REPLENISH).getCount(State.Ended));
+        assertEquals(2, afterBatch.getBank("Tinkoff", BankOperation.REPLENISH).getCount(State.Ended));
+        assertEquals(0, afterBatch.getBank("Sberbank", BankOperation.REPLENISH).getExceptionCount(BankException.class));
+        assertEquals(4, afterBatch.getTotal(BankOperation.WITHDRAW).getLatency().getCount());
+        assertEquals(2, afterBatch.getBank("Sberbank", BankOperation.WITHDRAW).getCount(State.Failed));
+        assertEquals(1, afterBatch.getBank("Tinkoff", BankOperation.TRANSFER).getCount(State.Ended));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100000; nanos++) {
+            histogram.record(nanos);
+        }
+        HistogramSnapshot latency = histogram.snapshot();
+        assertEquals(100000, latency.getCount());
+        assertEquals(50000, latency.getMeanNanos());
+        assertEquals(100000, latency.getMaxNanos());
+        assertTrue(latency.getP50Nanos() >= 50000 && latency.getP50Nanos() <= 50000 * 9 / 8);
+        assertTrue(latency.getP99Nanos() >= 99000 && latency.getP99Nanos() <= 100000);
+    }
+
+    /**
+     * Tests time-ordered IDs.
+     *
+     * <p>IDs taken by several threads at once are unique, increase within every thread and carry the version,
+     * variant, node ID and time they were made with. A central bank given the generator uses it for its clients,
+     * banks, accounts and transactions, in creation order.
+     *
+     * @throws Exception if creating the bank fails or the workers do not finish in time
+     */
+    @Test
+    public void timeOrderedIdTest() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(42);
+        long before = System.currentTimeMillis();
+        int threads = 4;
+        int idsPerThread = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<UUID>>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                List<UUID> ids = new ArrayList<>(idsPerThread);
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(generator.next());
+                }
+                return ids;
+            }));
+        }
+        Set<UUID> all = new HashSet<>();
+        for (Future<List<UUID>> worker : workers) {
+            List<UUID> ids = worker.get(60, TimeUnit.SECONDS);
+            for (int i = 1; i < ids.size(); i++) {
+                assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+            }
+            all.addAll(ids);
+        }
+        executor.shutdown();
+        assertEquals(threads * idsPerThread, all.size());
+
+        UUID id = generator.next();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(42, (int) (id.getLeastSignificantBits() >>> 48) & TimeOrderedIdGenerator.MAX_NODE_ID);
+        assertTrue(TimeOrderedIdGenerator.timestampOf(id) >= before);
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID + 1));
+
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        cb.setIdGenerator(generator);
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        BaseAccount account = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BankTransaction income = cb.replenishAccount(bank.getId(), account.getId(), 100);
+        List<UUID> created = List.of(id, client.getId(), bank.getId(), account.getId(), income.getId());
+        for (int i = 1; i < created.size(); i++) {
+            assertEquals(7, created.get(i).version());
+            assertTrue(created.get(i - 1).compareTo(created.get(i)) < 0);
+        }
+    }
+
+    /**
+     * Tests statement queries over the account history.
+     *
+     * <p>Transactions carry the time of the bank clock they were committed at. A statement of a time range returns
+     * exactly the transactions of {@code [from, to)}, both as a stream and page by page, and a cursor keeps its place
+     * while new transactions are committed. A transfer shows up in the statements of both accounts.
+     *
+     * @throws Exception if an operation of the central bank fails
+     */
+    @Test
+    public void statementTest() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 30);
+        RewindClock clock = new RewindClock(start);
+        ServiceCentralBank cb = new ServiceCentralBank(clock);
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        BaseAccount account = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount other = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+
+        List<BankTransaction> committed = new ArrayList<>();
+        for (int hour = 0; hour < 20; hour++) {
+            BankTransaction transaction = cb.replenishAccount(bank.getId(), account.getId(), 100);
+            assertEquals(clock.currentTime(), transaction.getCommitTime());
+            committed.add(transaction);
+            clock.advanceTime(ChronoUnit.HOURS, 1);
+        }
+
+        LocalDateTime from = start.plusHours(5);
+        LocalDateTime to = start.plusHours(15);
+        List<BankTransaction> expected = committed.subList(5, 15);
+        assertEquals(expected, bank.statement(account.getId(), from, to).toList());
+        assertEquals(0, bank.statement(account.getId(), to, from).count());
+        assertEquals(20, bank.statement(account.getId(), start, clock.currentTime()).count());
+
+        List<BankTransaction> paged = new ArrayList<>();
+        int cursor = 0;
+        int pages = 0;
+        StatementPage page;
+        do {
+            page = cb.getStatement(bank.getId(), account.getId(), from, to, cursor, 4);
+            assertTrue(page.getTransactions().size() <= 4);
+            paged.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+            pages++;
+            if (pages == 1) {
+                cb.replenishAccount(bank.getId(), account.getId(), 100);
+            }
+        } while (page.hasMore());
+        assertEquals(3, pages);
+        assertEquals(expected, paged);
+        assertThrows(IllegalArgumentException.class, () -> bank.statement(account.getId(), from, to, 0, 0));
+
+        BankTransaction transfer = cb.transferMoney(bank.getId(), account.getId(), bank.getId(), other.getId(), 50);
+        LocalDateTime now = clock.currentTime();
+        assertEquals(List.of(transfer), bank.statement(other.getId(), now, now.plusSeconds(1)).toList());
+        assertTrue(bank.statement(account.getId(), now, now.plusSeconds(1)).anyMatch(t -> t == transfer));
+
+        clock.setCurrentTime(now.minusHours(10));
+        BankTransaction late = cb.replenishAccount(bank.getId(), account.getId(), 100);
+        assertTrue(late.getCommitTime().isBefore(now));
+        assertEquals(List.of(transfer, late), bank.statement(account.getId(), now, now.plusSeconds(1)).skip(1).toList());
+    }
+
+    /**
+     * Tests clearing of cross-bank transfers.
+     *
+     * <p>With clearing enabled, successful cross-bank transfers become obligations between banks, cancellations
+     * reverse them, and transfers inside one bank or failed ones leave no trace. Closing the cycle nets them into one
+     * position per bank and settles the cycle with fewer payments than there are banks, after which the next cycle
+     * starts empty.
+     *
+     * @throws Exception if an operation of the central bank fails
+     */
+    @Test
+    public void clearingTest() throws Exception {
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Bank sber = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank alfa = cb.createBank("Alfa", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        BaseAccount a = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount a2 = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount b = tinkoff.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount c = alfa.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        for (BaseAccount account : List.of(a, b, c)) {
+            account.setBalance(100000);
+        }
+        cb.transferMoney(sber.getId(), a.getId(), tinkoff.getId(), b.getId(), 100);
+        ClearingHouse house = cb.enableClearing();
+        assertSame(house, cb.enableClearing());
+
+        BankTransaction canceled = null;
+        for (int i = 0; i < 30; i++) {
+            canceled = cb.transferMoney(sber.getId(), a.getId(), tinkoff.getId(), b.getId(), 100);
+        }
+        for (int i = 0; i < 20; i++) {
+            cb.transferMoney(tinkoff.getId(), b.getId(), alfa.getId(), c.getId(), 50);
+        }
+        for (int i = 0; i < 10; i++) {
+            cb.transferMoney(alfa.getId(), c.getId(), sber.getId(), a.getId(), 70);
+        }
+        cb.transferMoney(sber.getId(), a.getId(), sber.getId(), a2.getId(), 500);
+        BankTransaction failed = cb.transferMoney(sber.getId(), a2.getId(), alfa.getId(), c.getId(), 1000);
+        assertEquals(State.Failed, failed.getTransactionState());
+        cb.cancelTransaction(sber.getId(), a.getId(), canceled.getId());
+
+        ClearingReport report = cb.closeClearingCycle();
+        assertEquals(1, report.getCycle());
+        assertEquals(61, report.getObligationCount());
+        assertEquals(3000 + 1000 + 700 + 100, report.getGrossAmount());
+        assertEquals(-2200L, report.getNetPositions().get(sber.getId()));
+        assertEquals(1900L, report.getNetPositions().get(tinkoff.getId()));
+        assertEquals(300L, report.getNetPositions().get(alfa.getId()));
+        assertEquals(2, report.getSettlements().size());
+        assertEquals(2200, report.getSettledAmount());
+        for (Settlement settlement : report.getSettlements()) {
+            assertEquals(sber.getId(), settlement.getPayerBankId());
+        }
+        assertEquals(-2200, house.getSettledPosition(sber.getId()));
+        assertEquals(1900, house.getSettledPosition(tinkoff.getId()));
+
+        ClearingReport empty = cb.closeClearingCycle();
+        assertEquals(2, empty.getCycle());
+        assertEquals(0, empty.getObligationCount());
+        assertTrue(empty.getSettlements().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> house.record(sber.getId(), sber.getId(), 1));
+    }
+
+    /**
+     * Tests cancellation by transaction ID and the bulk reversal of a client.
+     *
+     * <p>Any transaction, a cross-bank transfer included, is cancelled by its ID alone. Reversing a client since a
+     * time cancels every transaction of the client's accounts in all banks from then on, newest first and on both
+     * sides of transfers, and leaves the older transactions and the accounts of other clients' own operations alone.
+     *
+     * @throws Exception if an operation of the central bank fails
+     */
+    @Test
+    public void transactionIndexTest() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        RewindClock clock = new RewindClock(start);
+        ServiceCentralBank cb = new ServiceCentralBank(clock);
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Clients fraudster = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Clients victim = cb.registerClient("Ivan", "Ivanov", "Nevsky", 54321L);
+        Bank sber = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        BaseAccount first = sber.createAccount(TypeOfBankAccount.DEBIT, fraudster, Duration.ofDays(90));
+        BaseAccount second = tinkoff.createAccount(TypeOfBankAccount.DEBIT, fraudster, Duration.ofDays(90));
+        BaseAccount other = sber.createAccount(TypeOfBankAccount.DEBIT, victim, Duration.ofDays(90));
+
+        cb.replenishAccount(sber.getId(), first.getId(), 1000);
+        cb.replenishAccount(sber.getId(), other.getId(), 1000);
+        BankTransaction crossBank = cb.transferMoney(sber.getId(), first.getId(), tinkoff.getId(), second.getId(), 100);
+        cb.cancelTransaction(crossBank.getId());
+        assertEquals(State.Canceled, crossBank.getTransactionState());
+        assertEquals(1000, first.getBalance());
+        assertEquals(0, second.getBalance());
+        assertThrows(TransactionException.class, () -> cb.cancelTransaction(crossBank.getId()));
+        assertThrows(TransactionException.class, () -> cb.cancelTransaction(sber.getId(), first.getId(),
+                crossBank.getId()));
+        assertEquals(State.Canceled, crossBank.getTransactionState());
+        assertEquals(1000, first.getBalance());
+        assertEquals(0, second.getBalance());
+        assertThrows(TransactionException.class, () -> cb.cancelTransaction(UUID.randomUUID()));
+
+        clock.advanceTime(ChronoUnit.HOURS, 1);
+        LocalDateTime since = clock.currentTime();
+        cb.replenishAccount(sber.getId(), other.getId(), 300);
+        cb.transferMoney(sber.getId(), other.getId(), sber.getId(), first.getId(), 500);
+        cb.transferMoney(sber.getId(), first.getId(), tinkoff.getId(), second.getId(), 1200);
+        cb.withdrawMoney(tinkoff.getId(), second.getId(), 700);
+        cb.replenishAccount(tinkoff.getId(), second.getId(), 50);
+        assertEquals(300, first.getBalance());
+        assertEquals(550, second.getBalance());
+        assertEquals(800, other.getBalance());
+
+        BatchResult result = cb.reverseClientTransactions(fraudster.getId(), since);
+        assertEquals(4, result.size());
+        assertEquals(4, result.count(BatchStatus.CANCELED));
+        assertEquals(1000, first.getBalance());
+        assertEquals(0, second.getBalance());
+        assertEquals(1300, other.getBalance());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(!result.getTransaction(i).getCommitTime().isAfter(result.getTransaction(i - 1).getCommitTime()));
+        }
+        assertEquals(0, cb.reverseClientTransactions(fraudster.getId(), since).size());
+        assertThrows(ClientException.class, () -> cb.reverseClientTransactions(UUID.randomUUID(), since));
+    }
+
+    /**
+     * Tests cancellation by ID racing the reversal of the same client.
+     *
+     * <p>Both paths take the account locks and claim the transaction, so in every round they finish without
+     * waiting for each other, and each transaction is cancelled exactly once whichever path wins.
+     *
+     * @throws Exception if an operation of the central bank fails or a round does not finish
+     */
+    @Test
+    public void cancelWhileReversingTest() throws Exception {
+        RewindClock clock = new RewindClock(LocalDateTime.of(2024, 1, 1, 12, 0));
+        ServiceCentralBank cb = new ServiceCentralBank(clock);
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 500; round++) {
+                Clients client = cb.registerClient("Client", "Number" + round, "Address", 1000L + round);
+                BaseAccount from = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+                BaseAccount to = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+                cb.replenishAccount(bank.getId(), from.getId(), 1000);
+                clock.advanceTime(ChronoUnit.SECONDS, 1);
+                LocalDateTime since = clock.currentTime();
+                BankTransaction transfer = cb.transferMoney(bank.getId(), from.getId(), bank.getId(), to.getId(), 400);
+                BankTransaction income = cb.replenishAccount(bank.getId(), to.getId(), 50);
+
+                CountDownLatch go = new CountDownLatch(1);
+                Future<?> cancel = pool.submit(() -> {
+                    go.await();
+                    try {
+                        cb.cancelTransaction(transfer.getId());
+                    } catch (TransactionException e) {
+                        // the reversal got to the transfer first
+                    }
+                    return null;
+                });
+                Future<BatchResult> reverse = pool.submit(() -> {
+                    go.await();
+                    return cb.reverseClientTransactions(client.getId(), since);
+                });
+                go.countDown();
+                cancel.get(10, TimeUnit.SECONDS);
+                reverse.get(10, TimeUnit.SECONDS);
+
+                assertEquals(State.Canceled, transfer.getTransactionState());
+                assertEquals(State.Canceled, income.getTransactionState());
+                assertEquals(1000, from.getBalance());
+                assertEquals(0, to.getBalance());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests the bulk load of clients and accounts.
+     *
+     * <p>Valid rows open accounts over several chunks loaded in parallel, rows with a known passport open further
+     * accounts of the same client, and empty fields make dubious clients. Rows with an invalid passport, an unknown
+     * account type, a wrong number of fields or a period that is not positive or too long go to the rejects file
+     * with their line number and do not stop the load. A rejected row registers no client.
+     *
+     * @throws Exception if the files cannot be written or read
+     */
+    @Test
+    public void bulkLoadTest() throws Exception {
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Client existing = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+
+        int generated = 10000;
+        List<String> rows = new ArrayList<>();
+        rows.add(BulkLoader.HEADER);
+        for (int i = 0; i < generated; i++) {
+            rows.add("Client,Number" + i + ",Street " + i + "," + (1_000_000 + i) + ",DEBIT,");
+        }
+        rows.add("Artyom,Batmanov,,12345,DEPOSIT,30");
+        rows.add("Ivan,Ivanov,,,CREDIT,");
+        rows.add("Petr,Petrov,Nevsky,-5,DEBIT,");
+        rows.add("Petr,Petrov,Nevsky,abc,DEBIT,");
+        rows.add("Petr,Petrov,Nevsky,777,SAVINGS,");
+        rows.add("Petr,Petrov,Nevsky,777,DEBIT");
+        rows.add("Sergey,Sergeev,Nevsky,888,DEPOSIT,-3");
+        rows.add("Sergey,Sergeev,Nevsky,888,DEPOSIT,999999999999");
+        Path source = Files.createTempFile("clients", ".csv");
+        Path rejects = Files.createTempFile("rejects", ".tsv");
+        try {
+            Files.write(source, rows);
+            LoadReport report = new BulkLoader(cb, 4).load(bank, source, rejects);
+
+            assertEquals(generated + 8, report.getRows());
+            assertEquals(generated + 1, report.getClients());
+            assertEquals(generated + 2, report.getAccounts());
+            assertEquals(6, report.getRejected());
+            assertThrows(ClientException.class, () -> cb.findClientByPassport(888L));
+            assertEquals(generated + 2, bank.getAccountCount());
+            assertEquals(1, bank.findClientAccounts(existing.getId()).size());
+            Client loaded = cb.findClientByPassport(1_000_042L);
+            assertEquals("Number42", loaded.getSurname());
+            assertEquals(1, bank.findClientAccounts(loaded.getId()).size());
+
+            List<String> rejected = Files.readAllLines(rejects);
+            assertEquals(6, rejected.size());
+            Set<String> lines = new HashSet<>();
+            for (String line : rejected) {
+                lines.add(line.substring(0, line.indexOf('\t')));
+            }
+            Set<String> expected = new HashSet<>();
+            for (int line = generated + 4; line <= generated + 9; line++) {
+                expected.add(String.valueOf(line));
+            }
+            assertEquals(expected, lines);
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(rejects);
+        }
+    }
+
+    /**
+     * Checks the export of balances and histories in both formats.
+     *
+     * <p>Every bank gets its accounts and transactions files, a transfer appears in the history of both its
+     * accounts, and a canceled operation is exported with its state. The CSV rows carry amounts in minor units
+     * and the commit time, and the binary files have fixed-size records after the header.
+     *
+     * @throws Exception if the files cannot be written or read
+     */
+    @Test
+    public void exportTest() throws Exception {
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Bank sber = cb.createBank("Sberbank \"Online\"", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        BaseAccount a = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount b = tinkoff.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        tinkoff.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        cb.replenishAccount(sber.getId(), a.getId(), 10000);
+        cb.withdrawMoney(sber.getId(), a.getId(), 2500);
+        BankTransaction transfer = cb.transferMoney(sber.getId(), a.getId(), tinkoff.getId(), b.getId(), 1234);
+        BankTransaction canceled = cb.replenishAccount(tinkoff.getId(), b.getId(), 99);
+        cb.cancelTransaction(canceled.getId());
+
+        Path directory = Files.createTempDirectory("export");
+        try {
+            ExportReport csv = new LedgerExporter(ExportFormat.CSV, 2).export(cb.getBanks(), directory);
+            assertEquals(2, csv.getBanks());
+            assertEquals(3, csv.getAccounts());
+            assertEquals(5, csv.getTransactions());
+
+            List<String> banks = Files.readAllLines(directory.resolve("banks.csv"));
+            assertEquals(3, banks.size());
+            assertTrue(banks.contains(sber.getId() + ",\"Sberbank \"\"Online\"\"\",1"));
+            assertTrue(banks.contains(tinkoff.getId() + ",\"Tinkoff\",2"));
+            List<String> accounts = Files.readAllLines(directory.resolve(sber.getId() + "-accounts.csv"));
+            assertEquals(List.of("bank_id,account_id,client_id,type,balance,transactions",
+                    sber.getId() + "," + a.getId() + "," + client.getId() + ",DEBIT,6266,3"), accounts);
+            List<String> transactions = Files.readAllLines(directory.resolve(tinkoff.getId() + "-transactions.csv"));
+            assertEquals(3, transactions.size());
+            assertTrue(transactions.contains(b.getId() + "," + transfer.getId() + ",Ended,TRANSFER,1234,"
+                    + a.getId() + "," + b.getId() + "," + transfer.getCommitTime()
+                    .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS"))));
+            assertTrue(transactions.contains(b.getId() + "," + canceled.getId() + ",Canceled,INCOME,99,,"
+                    + b.getId() + "," + canceled.getCommitTime()
+                    .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS"))));
+
+            ExportReport binary = new LedgerExporter(ExportFormat.BINARY, 2).export(cb.getBanks(), directory);
+            assertEquals(5, binary.getTransactions());
+            ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(sber.getId() + "-accounts.bin")));
+            assertEquals(LedgerExporter.MAGIC, records.getInt());
+            assertEquals(LedgerExporter.VERSION, records.getShort());
+            assertEquals(LedgerExporter.ACCOUNTS, records.get());
+            assertEquals(LedgerExporter.ACCOUNT_SIZE, records.remaining());
+            assertEquals(sber.getId(), new UUID(records.getLong(), records.getLong()));
+            assertEquals(a.getId(), new UUID(records.getLong(), records.getLong()));
+            assertEquals(client.getId(), new UUID(records.getLong(), records.getLong()));
+            assertEquals(TypeOfBankAccount.DEBIT.ordinal(), records.get());
+            assertEquals(6266, records.getLong());
+            assertEquals(3, records.getInt());
+            assertEquals(7 + 2L * LedgerExporter.TRANSACTION_SIZE,
+                    Files.size(directory.resolve(tinkoff.getId() + "-transactions.bin")));
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Checks the client directory.
+     *
+     * <p>Type-ahead search ignores case and extra spaces, returns clients in the order of surname and name, keeps
+     * clients with the same full name apart and stops at the limit. Setting the address and the passport of a
+     * dubious client takes it out of the dubious set and makes it findable by passport.
+     *
+     * @throws Exception if a client cannot be found or updated
+     */
+    @Test
+    public void clientDirectoryTest() throws Exception {
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        Client artyom = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Client anna = cb.registerClient("Anna", "Batmanova", "Nevsky", 12346L);
+        Client ivan = cb.registerClient("Ivan", "Ivanov", null, null);
+        Client namesake = cb.registerClient("Ivan", "Ivanov", "Liteyny", 12347L);
+        Client petr = cb.registerClient("Petr", "Petrov", "Sadovaya", null);
+
+        assertEquals(List.of(artyom, anna), cb.searchClients("bat", 10));
+        assertEquals(List.of(artyom), cb.searchClients("  BATMANOV   ar", 10));
+        assertEquals(List.of(artyom), cb.searchClients("batmanov ", 10));
+        assertEquals(List.of(ivan, namesake), cb.searchClients("Ivanov Ivan", 10));
+        assertEquals(List.of(ivan), cb.searchClients("Ivanov Ivan", 1));
+        assertEquals(List.of(artyom, anna, ivan), cb.searchClients("", 3));
+        assertTrue(cb.searchClients("Sidorov", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> cb.searchClients("bat", 0));
+        assertEquals(Set.of(ivan, petr), new HashSet<>(cb.getDubiousClients()));
+
+        ivan.setAddress("Moskovsky");
+        assertEquals(Set.of(ivan, petr), new HashSet<>(cb.getDubiousClients()));
+        ivan.setPassportNumber(Long.valueOf(777L));
+        petr.setPassportNumber(Long.valueOf(12345L));
+        assertEquals(Set.of(), new HashSet<>(cb.getDubiousClients()));
+        assertSame(ivan, cb.findClientByPassport(777L));
+        assertSame(artyom, cb.findClientByPassport(12345L));
+        assertSame(petr, cb.findClient(petr.getId()));
+    }
+
+    /**
+     * Checks the velocity limits of a bank.
+     *
+     * <p>Withdrawals and transfers of a client count against its limit over all its accounts in the bank, and an
+     * operation that would go over it is rejected without changing a balance. Incomes are not counted, failed
+     * operations are taken back out of the window, and the window slides with the clock of the bank. The limit
+     * over the whole bank counts the operations of all clients together.
+     *
+     * @throws Exception if an operation cannot be made
+     */
+    @Test
+    public void velocityLimitTest() throws Exception {
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 12));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Clients other = cb.registerClient("Anna", "Batmanova", "Nevsky", 12346L);
+        Bank sber = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        Bank tinkoff = cb.createBank("Tinkoff", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        BaseAccount a = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount a2 = sber.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount b = tinkoff.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        BaseAccount c = sber.createAccount(TypeOfBankAccount.DEBIT, other, Duration.ofDays(90));
+        for (BaseAccount account : List.of(a, a2, b)) {
+            account.setBalance(1_000_000);
+        }
+        c.setBalance(100);
+        VelocityLimit clientLimit = new VelocityLimit(Duration.ofHours(1), 10000, 3);
+        assertThrows(IllegalArgumentException.class, () -> new VelocityLimit(Duration.ZERO, 10000, 3));
+        sber.setVelocityLimits(clientLimit, null);
+
+        assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), a.getId(), 4000).getTransactionState());
+        assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), a2.getId(), 4000).getTransactionState());
+        BankTransaction rejected = cb.withdrawMoney(sber.getId(), a.getId(), 4000);
+        assertEquals(State.Rejected, rejected.getTransactionState());
+        assertEquals(VelocityLimitException.class, rejected.getFailureType());
+        assertTrue(rejected.getStatusMessage().contains(client.getId().toString()));
+        assertEquals(996000, a.getBalance());
+        assertEquals(State.Ended, cb.replenishAccount(sber.getId(), a.getId(), 50000).getTransactionState());
+        assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), a.getId(), 2000).getTransactionState());
+        BankTransaction transfer = cb.transferMoney(sber.getId(), a.getId(), tinkoff.getId(), b.getId(), 1);
+        assertEquals(State.Rejected, transfer.getTransactionState());
+        assertEquals(1_000_000, b.getBalance());
+        assertEquals(State.Ended,
+                cb.transferMoney(tinkoff.getId(), b.getId(), sber.getId(), a.getId(), 1).getTransactionState());
+        BatchResult batch = cb.submitBatch(List.of(BatchOperation.withdraw(sber.getId(), a2.getId(), 1)));
+        assertEquals(BatchStatus.REJECTED, batch.getStatus(0));
+
+        assertEquals(State.Failed, cb.withdrawMoney(sber.getId(), c.getId(), 500).getTransactionState());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), c.getId(), 10).getTransactionState());
+        }
+
+        cb.getRewindClock().advanceTime(ChronoUnit.MINUTES, 61);
+        assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), a.getId(), 9000).getTransactionState());
+
+        sber.setVelocityLimits(null, new VelocityLimit(Duration.ofMinutes(10), 1_000_000, 2));
+        assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), a.getId(), 9000).getTransactionState());
+        assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), c.getId(), 10).getTransactionState());
+        BankTransaction bankRejected = cb.withdrawMoney(sber.getId(), a2.getId(), 10);
+        assertEquals(State.Rejected, bankRejected.getTransactionState());
+        assertTrue(bankRejected.getStatusMessage().contains(sber.getId().toString()));
+        sber.setVelocityLimits(null, null);
+        assertEquals(State.Ended, cb.withdrawMoney(sber.getId(), a2.getId(), 10).getTransactionState());
+    }
+
+    /**
+     * Checks the versions of the bank configuration.
+     *
+     * <p>Every change publishes the next version and leaves the configuration read before it as it was, an
+     * invalid change publishes nothing, and accounts created before a change work with the new version.
+     * Transactions and accrual runs record the version they ran under.
+     *
+     * @throws Exception if the bank cannot be set up or changed
+     */
+    @Test
+    public void configurationVersionTest() throws Exception {
+        ServiceCentralBank cb = new ServiceCentralBank(new RewindClock(LocalDateTime.now()));
+        List<DepositPercent> list = new ArrayList<>();
+        list.add(new DepositPercent(new Percent(3), 0));
+        Clients client = cb.registerClient("Artyom", "Batmanov", "KushelevskaiaDoroga", 12345L);
+        Bank bank = cb.createBank("Sberbank", 3, list, 10, 200000, -1, Duration.ofDays(90));
+        BaseAccount debit = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        debit.setBalance(365_000_000);
+        BankConfiguration first = bank.getBankConfiguration();
+        assertEquals(1, first.getVersion());
+        assertEquals(1, cb.replenishAccount(bank.getId(), debit.getId(), 100).getConfigurationVersion());
+
+        bank.changeDebitPercent(10);
+        bank.changeCreditCommission(20);
+        BankConfiguration third = bank.getBankConfiguration();
+        assertEquals(3, third.getVersion());
+        assertEquals(0.03, first.getDebitAccountConfiguration().getDebitPercent().getValue(), 1e-9);
+        assertEquals(10, first.getCreditAccountConfiguration().getCreditCommission());
+        assertEquals(0.1, third.getDebitAccountConfiguration().getDebitPercent().getValue(), 1e-9);
+        assertEquals(20, third.getCreditAccountConfiguration().getCreditCommission());
+        assertSame(first.getDepositAccountConfiguration(), third.getDepositAccountConfiguration());
+
+        assertThrows(AccountException.class, () -> bank.changeDepositPercents(List.of(
+                new DepositPercent(new Percent(3), 0, 1000),
+                new DepositPercent(new Percent(4), 2000))));
+        assertThrows(AccountException.class, () -> bank.changeCreditCommission(-1));
+        AccountException zeroLimit = assertThrows(AccountException.class, () -> bank.changeCreditLimit(0));
+        assertEquals("CreditLimit <= 0", zeroLimit.getMessage());
+        assertSame(third, bank.getBankConfiguration());
+
+        assertEquals(3, cb.withdrawMoney(bank.getId(), debit.getId(), 100).getConfigurationVersion());
+        BaseAccount other = bank.createAccount(TypeOfBankAccount.DEBIT, client, Duration.ofDays(90));
+        assertEquals(3, cb.transferMoney(bank.getId(), debit.getId(), bank.getId(), other.getId(), 100)
+                .getConfigurationVersion());
+
+        AccrualReport report = new AccrualEngine().accrueDaily(bank);
+        assertEquals(3, report.getConfigurationVersion());
+        assertEquals(365_000_000 * 0.1 / LocalDateTime.now().toLocalDate().lengthOfYear(),
+                ((DebitAccount) debit).getPercentageAmount(), 1.0);
+    }
+
+    /**
+     * Checks the load generator on a small population.
+     *
+     * <p>Every operation scheduled in the measured part of the run is either completed or, for a cancellation
+     * without a transaction to cancel, skipped; every operation of the mix runs, replenishments never fail, and
+     * the percentiles are ordered. A mix without weights is rejected.
+     *
+     * @throws Exception if the population cannot be set up or the run is interrupted
+     */
+    @Test
+    public void loadGeneratorTest() throws Exception {
+        LoadTestReport report = new LoadGenerator(new LoadProfileBuilder()
+                .addBanks(2)
+                .addClientsPerBank(20)
+                .addRate(2000)
+                .addThreads(4)
+                .addWarmup(Duration.ofMillis(100))
+                .addDuration(Duration.ofMillis(500))
+                .build()).run();
+
+        assertEquals(1000, report.getScheduled());
+        assertEquals(report.getScheduled(), report.getCompleted() + report.getSkippedCancels());
+        assertEquals(120, report.getProfile().getAccounts());
+        assertEquals(4, report.getOperations().size());
+        long completed = 0;
+        for (BankOperation operation : report.getOperations().keySet()) {
+            HistogramSnapshot latency = report.getOperations().get(operation).getLatency();
+            completed += latency.getCount();
+            assertTrue(latency.getCount() > 0, operation.name());
+            assertTrue(latency.getP50Nanos() <= latency.getP99Nanos());
+            assertTrue(latency.getP99Nanos() <= latency.getMaxNanos());
+            assertTrue(report.getFailureRate(operation) >= 0 && report.getFailureRate(operation) <= 1);
+        }
+        assertEquals(report.getCompleted(), completed);
+        assertEquals(0, report.getFailureRate(BankOperation.REPLENISH));
+        assertTrue(report.getThroughput() > 0);
+        assertTrue(report.toString().contains("REPLENISH"));
+
+        assertThrows(IllegalArgumentException.class, () -> new LoadProfileBuilder()
+                .addWeight(BankOperation.REPLENISH, 0)
+                .addWeight(BankOperation.WITHDRAW, 0)
+                .addWeight(BankOperation.TRANSFER, 0)
+                .addWeight(BankOperation.CANCEL, 0)
+                .build());
+    }
 }